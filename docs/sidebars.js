@@ -45,6 +45,11 @@ module.exports = {
       id: 'use-cases',
       label: 'Use Cases',
     },
+    {
+      type: 'doc',
+      id: 'performance',
+      label: 'Performance Tuning',
+    },
     {
       type: 'doc',
       id: 'security',
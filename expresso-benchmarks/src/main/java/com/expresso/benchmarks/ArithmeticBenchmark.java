@@ -0,0 +1,52 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.LiteralExpression;
+import com.expresso.context.Context;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluation of literal arithmetic through {@link BinaryExpression}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArithmeticBenchmark {
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private Context context;
+    private Expression singleAddition;
+    private Expression mixedArithmetic;
+
+    @Setup
+    public void setUp() {
+        context = new Context();
+        singleAddition = new BinaryExpression(
+            new LiteralExpression(2L), new LiteralExpression(3L), BinaryExpression.Operator.ADD);
+        mixedArithmetic = evaluator.parse("(1 + 2) * 3 - 4 / 2 + 10 % 3");
+    }
+
+    @Benchmark
+    public Object singleAddition() {
+        return singleAddition.evaluate(context);
+    }
+
+    @Benchmark
+    public Object mixedArithmetic() {
+        return evaluator.evaluate(mixedArithmetic, context);
+    }
+}
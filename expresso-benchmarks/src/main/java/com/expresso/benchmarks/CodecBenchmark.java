@@ -0,0 +1,61 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ast.Expression;
+import com.expresso.benchmarks.load.CorpusShape;
+import com.expresso.benchmarks.load.RuleCorpusGenerator;
+import com.expresso.codec.ExpressionCodec;
+import com.expresso.parser.Parser;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Loading a corpus of 1000 generated rules from text with the parser versus from the binary
+ * encoding of {@link ExpressionCodec}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+    private final Parser parser = new Parser();
+    private List<String> rules;
+    private byte[][] encodedRules;
+
+    @Setup
+    public void setUp() {
+        rules = new RuleCorpusGenerator(CorpusShape.defaults()).generate();
+        encodedRules = new byte[rules.size()][];
+        for (int i = 0; i < rules.size(); i++) {
+            encodedRules[i] = ExpressionCodec.encode(parser.parse(rules.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void parseCorpus(Blackhole blackhole) {
+        for (String rule : rules) {
+            blackhole.consume(parser.parse(rule));
+        }
+    }
+
+    @Benchmark
+    public void decodeCorpus(Blackhole blackhole) throws IOException {
+        for (byte[] encoded : encodedRules) {
+            Expression expression = ExpressionCodec.decode(encoded);
+            blackhole.consume(expression);
+        }
+    }
+}
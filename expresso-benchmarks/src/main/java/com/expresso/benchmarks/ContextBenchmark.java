@@ -0,0 +1,42 @@
+package com.expresso.benchmarks;
+
+import com.expresso.context.Context;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creation of evaluation contexts, which happens once per evaluation in most applications.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContextBenchmark {
+    private final Map<String, Object> variables = Map.of("a", 1, "b", "two", "c", 3.0);
+
+    @Benchmark
+    public Context newContext() {
+        return new Context();
+    }
+
+    @Benchmark
+    public Context contextOfSingleVariable() {
+        return Context.of("a", 1);
+    }
+
+    @Benchmark
+    public Context contextOfMap() {
+        return Context.of(variables);
+    }
+}
@@ -0,0 +1,107 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import com.expresso.io.CsvFile;
+import com.expresso.validation.ContextSchema;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filtering of a CSV file of 100,000 rows of 80 columns on 3 of its columns: reading each line into
+ * strings and a context, and scanning the memory-mapped file with {@link CsvFile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvBenchmark {
+    private static final int ROWS = 100_000;
+    private static final int COLUMNS = 80;
+    private static final String RULE = "$c3 == 'FR' && $c40 > 500 && $c77 != 'blocked'";
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private Path file;
+    private CsvFile csv;
+    private Expression parsed;
+    private Expression compiled;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("expresso-benchmark", ".csv");
+        try (Writer out = Files.newBufferedWriter(file)) {
+            for (int column = 0; column < COLUMNS; column++) {
+                out.write((column > 0 ? ",c" : "c") + column);
+            }
+            out.write('\n');
+            for (int row = 0; row < ROWS; row++) {
+                for (int column = 0; column < COLUMNS; column++) {
+                    if (column > 0) {
+                        out.write(',');
+                    }
+                    if (column == 3) {
+                        out.write(row % 4 == 0 ? "FR" : "DE");
+                    } else if (column == 40) {
+                        out.write(Integer.toString(row % 1000));
+                    } else {
+                        out.write("value" + (row * column % 997));
+                    }
+                }
+                out.write('\n');
+            }
+        }
+        ContextSchema schema = new ContextSchema().with("c40", Long.class);
+        csv = CsvFile.open(file, schema);
+        parsed = evaluator.parse(RULE);
+        compiled = evaluator.compile(RULE, schema);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        csv.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long lines() throws IOException {
+        long matched = 0;
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String[] header = in.readLine().split(",");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] values = line.split(",");
+                Context context = new Context();
+                for (int i = 0; i < header.length; i++) {
+                    context.setVariable(header[i], i == 40 ? Long.valueOf(values[i]) : values[i]);
+                }
+                if (Boolean.TRUE.equals(evaluator.evaluate(parsed, context))) {
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public long mapped() {
+        return csv.count(evaluator, compiled);
+    }
+}
@@ -0,0 +1,53 @@
+package com.expresso.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generators for the expression strings shared by the benchmarks.
+ */
+final class Expressions {
+
+    private Expressions() {
+    }
+
+    /**
+     * Builds a flat rule of {@code terms} comparisons joined by {@code &&} and {@code ||}, e.g.
+     * {@code $user.age > 0 && upperCase($user.name) == 'A0' || ...}
+     */
+    static String longExpression(int terms) {
+        List<String> parts = new ArrayList<>(terms);
+        for (int i = 0; i < terms; i++) {
+            switch (i % 3) {
+                case 0:
+                    parts.add("$user.age > " + i);
+                    break;
+                case 1:
+                    parts.add("upperCase($user.name) == 'A" + i + "'");
+                    break;
+                default:
+                    parts.add("($amount * " + i + " + 1) % 7 != 3");
+                    break;
+            }
+        }
+        StringBuilder sb = new StringBuilder(parts.get(0));
+        for (int i = 1; i < parts.size(); i++) {
+            sb.append(i % 2 == 0 ? " || " : " && ").append(parts.get(i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds {@code depth} levels of nested parentheses around an addition, e.g.
+     * {@code (1 + (1 + (1 + $x)))}
+     */
+    static String nestedExpression(int depth) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append("(1 + ");
+        }
+        sb.append("$x");
+        sb.append(")".repeat(depth));
+        return sb.toString();
+    }
+}
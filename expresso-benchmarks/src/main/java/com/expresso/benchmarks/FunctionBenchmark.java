@@ -0,0 +1,68 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calls of built-in and custom functions, including the per-call cost of {@code formatDate}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FunctionBenchmark {
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private Context context;
+    private Expression builtIn;
+    private Expression nested;
+    private Expression custom;
+    private Expression formatDate;
+
+    @Setup
+    public void setUp() {
+        evaluator.registerFunction("double", args -> ((Number) args[0]).doubleValue() * 2);
+        context = new Context()
+            .with("name", "  alice  ")
+            .with("amount", 21)
+            .with("date", LocalDate.of(2024, 1, 31));
+        builtIn = evaluator.parse("upperCase($name)");
+        nested = evaluator.parse("upperCase(trim($name))");
+        custom = evaluator.parse("double($amount)");
+        formatDate = evaluator.parse("formatDate($date, 'yyyy-MM-dd')");
+    }
+
+    @Benchmark
+    public Object builtInFunction() {
+        return evaluator.evaluate(builtIn, context);
+    }
+
+    @Benchmark
+    public Object nestedBuiltInFunctions() {
+        return evaluator.evaluate(nested, context);
+    }
+
+    @Benchmark
+    public Object customFunction() {
+        return evaluator.evaluate(custom, context);
+    }
+
+    @Benchmark
+    public Object formatDate() {
+        return evaluator.evaluate(formatDate, context);
+    }
+}
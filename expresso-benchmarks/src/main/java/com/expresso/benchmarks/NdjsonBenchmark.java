@@ -0,0 +1,68 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.io.NdjsonEvaluator;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filtering of 10,000 newline-delimited JSON records of about 1 KB, with a rule reading two fields
+ * and with a rule that also reads the two large fields of the records completely. Run with {@code
+ * -prof gc} to compare the allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NdjsonBenchmark {
+    private static final int RECORDS = 10_000;
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private final Writer discard = Writer.nullWriter();
+    private String input;
+    private NdjsonEvaluator projected;
+    private NdjsonEvaluator complete;
+
+    @Setup
+    public void setUp() {
+        StringBuilder records = new StringBuilder();
+        for (int i = 0; i < RECORDS; i++) {
+            records.append("{\"id\": ").append(i)
+                .append(", \"payload\": {");
+            for (int field = 0; field < 30; field++) {
+                records.append("\"field").append(field).append("\": \"value ").append(i * field).append("\", ");
+            }
+            records.append("\"list\": [1, 2, 3, {\"nested\": true}]}")
+                .append(", \"country\": \"").append(i % 3 == 0 ? "FR" : "DE")
+                .append("\", \"order\": {\"total\": ").append(i % 500).append(".5, \"lines\": [\"a\", \"b\"]}}\n");
+        }
+        input = records.toString();
+        String rule = "$country == 'FR' && $order.total > 100";
+        projected = new NdjsonEvaluator(evaluator, rule);
+        complete = new NdjsonEvaluator(evaluator, rule + " && $payload != null && $order != null");
+    }
+
+    @Benchmark
+    public long projected() throws IOException {
+        return projected.filter(new StringReader(input), discard);
+    }
+
+    @Benchmark
+    public long complete() throws IOException {
+        return complete.filter(new StringReader(input), discard);
+    }
+}
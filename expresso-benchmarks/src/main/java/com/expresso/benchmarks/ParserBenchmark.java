@@ -0,0 +1,53 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ast.Expression;
+import com.expresso.parser.Parser;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of short, long and deeply nested expression strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+    private final Parser parser = new Parser();
+    private String shortExpression;
+    private String longExpression;
+    private String nestedExpression;
+
+    @Setup
+    public void setUp() {
+        shortExpression = "$a + 1";
+        longExpression = Expressions.longExpression(50);
+        nestedExpression = Expressions.nestedExpression(50);
+    }
+
+    @Benchmark
+    public Expression parseShort() {
+        return parser.parse(shortExpression);
+    }
+
+    @Benchmark
+    public Expression parseLong() {
+        return parser.parse(longExpression);
+    }
+
+    @Benchmark
+    public Expression parseDeeplyNested() {
+        return parser.parse(nestedExpression);
+    }
+}
@@ -0,0 +1,111 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolution of a four-segment property path on nested Maps and on nested POJOs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyPathBenchmark {
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private Expression path;
+    private Expression nullSafePath;
+    private Context mapContext;
+    private Context pojoContext;
+
+    @Setup
+    public void setUp() {
+        path = evaluator.parse("$root.order.customer.address.city");
+        nullSafePath = evaluator.parse("$root?.order?.customer?.address?.city");
+        mapContext = Context.of("root", Map.of(
+            "order", Map.of("customer", Map.of("address", Map.of("city", "Tunis")))));
+        pojoContext = Context.of("root", new Root(new Order(new Customer(new Address("Tunis")))));
+    }
+
+    @Benchmark
+    public Object mapPath() {
+        return evaluator.evaluate(path, mapContext);
+    }
+
+    @Benchmark
+    public Object pojoPath() {
+        return evaluator.evaluate(path, pojoContext);
+    }
+
+    @Benchmark
+    public Object nullSafeMapPath() {
+        return evaluator.evaluate(nullSafePath, mapContext);
+    }
+
+    @Benchmark
+    public Object nullSafePojoPath() {
+        return evaluator.evaluate(nullSafePath, pojoContext);
+    }
+
+    public static class Root {
+        private final Order order;
+
+        public Root(Order order) {
+            this.order = order;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+    }
+
+    public static class Order {
+        private final Customer customer;
+
+        public Order(Customer customer) {
+            this.customer = customer;
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+    }
+
+    public static class Customer {
+        private final Address address;
+
+        public Customer(Address address) {
+            this.address = address;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+    }
+
+    public static class Address {
+        private final String city;
+
+        public Address(String city) {
+            this.city = city;
+        }
+
+        public String getCity() {
+            return city;
+        }
+    }
+}
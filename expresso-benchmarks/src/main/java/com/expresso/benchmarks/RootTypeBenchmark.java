@@ -0,0 +1,90 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluation of a rule over domain objects, with a context filled from each object and with a
+ * predicate compiled against the class of the objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RootTypeBenchmark {
+    private static final String RULE = "$amount * $rate > 100 && $customer.country == 'FR'";
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private final Order order = new Order(120.5, 1.2, new Customer("FR"));
+    private Expression parsed;
+    private Predicate<Order> compiled;
+
+    @Setup
+    public void setUp() {
+        parsed = evaluator.parse(RULE);
+        compiled = evaluator.compilePredicate(RULE, Order.class);
+    }
+
+    @Benchmark
+    public Object context() {
+        Context context = new Context()
+            .with("amount", order.getAmount()).with("rate", order.getRate()).with("customer", order.getCustomer());
+        return parsed.evaluate(context);
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiled.test(order);
+    }
+
+    public static class Order {
+        private final double amount;
+        private final double rate;
+        private final Customer customer;
+
+        Order(double amount, double rate, Customer customer) {
+            this.amount = amount;
+            this.rate = rate;
+            this.customer = customer;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+    }
+
+    public static class Customer {
+        private final String country;
+
+        Customer(String country) {
+            this.country = country;
+        }
+
+        public String getCountry() {
+            return country;
+        }
+    }
+}
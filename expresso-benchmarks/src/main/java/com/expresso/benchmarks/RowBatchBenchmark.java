@@ -0,0 +1,89 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.batch.RowBatch;
+import com.expresso.batch.RowExpression;
+import com.expresso.batch.RowLayout;
+import com.expresso.context.Context;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filtering of a batch of 1,024 events: building a context for each event from its fields, and
+ * reading the fields of an off-heap {@link RowBatch} at their offsets. Run with {@code -prof gc}
+ * to compare allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowBatchBenchmark {
+    private static final int ROWS = 1024;
+    private static final String RULE = "$country in ('FR', 'BE') && $amount * $quantity > 500 || $priority";
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private final RowLayout layout = new RowLayout()
+        .with("id", RowLayout.FieldType.LONG)
+        .with("amount", RowLayout.FieldType.DOUBLE)
+        .with("quantity", RowLayout.FieldType.INT)
+        .with("priority", RowLayout.FieldType.BOOLEAN)
+        .withString("country", 4);
+    private RowBatch batch;
+    private RowExpression compiled;
+    private Expression parsed;
+    private int[] selection;
+
+    @Setup
+    public void setUp() {
+        batch = RowBatch.allocate(layout, ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            int row = batch.addRow();
+            batch.setLong(row, "id", i)
+                .setDouble(row, "amount", i % 100 * 1.5)
+                .setInt(row, "quantity", i % 7)
+                .setBoolean(row, "priority", i % 50 == 0)
+                .setString(row, "country", i % 3 == 0 ? "FR" : "DE");
+        }
+        compiled = evaluator.compile(RULE, layout);
+        parsed = evaluator.parse(RULE);
+        selection = new int[ROWS];
+    }
+
+    @Benchmark
+    public int context() {
+        int selected = 0;
+        for (int row = 0; row < batch.size(); row++) {
+            int start = row * layout.getRowSize();
+            int country = start + layout.getOffset("country");
+            byte[] bytes = new byte[batch.getBuffer().getShort(country)];
+            batch.getBuffer().get(country + Short.BYTES, bytes);
+            Context context = new Context()
+                .with("id", batch.getBuffer().getLong(start + layout.getOffset("id")))
+                .with("amount", batch.getBuffer().getDouble(start + layout.getOffset("amount")))
+                .with("quantity", (long) batch.getBuffer().getInt(start + layout.getOffset("quantity")))
+                .with("priority", batch.getBuffer().get(start + layout.getOffset("priority")) != 0)
+                .with("country", new String(bytes));
+            if (Boolean.TRUE.equals(evaluator.evaluate(parsed, context))) {
+                selection[selected++] = row;
+            }
+        }
+        return selected;
+    }
+
+    @Benchmark
+    public int offHeap() {
+        return compiled.filter(batch, selection);
+    }
+}
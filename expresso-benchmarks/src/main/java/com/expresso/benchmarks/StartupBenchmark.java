@@ -0,0 +1,35 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.context.Context;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to first evaluation in a fresh JVM, which dominates cold starts and serverless invocations.
+ * Each fork measures a single call, so class loading and linking are included.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+
+    @Benchmark
+    public Object firstEvaluation() {
+        return new ExpressionEvaluator().evaluate("$age >= 18 && $country == 'FR'",
+            new Context().with("age", 21).with("country", "FR"));
+    }
+
+    @Benchmark
+    public Object firstFunctionCall() {
+        return new ExpressionEvaluator().evaluate("upperCase(trim($name))", new Context().with("name", " ada "));
+    }
+}
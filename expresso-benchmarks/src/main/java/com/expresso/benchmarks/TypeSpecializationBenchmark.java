@@ -0,0 +1,67 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import com.expresso.validation.ContextSchema;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluation of the same rule with generic operators and with operators specialised for the
+ * declared variable types.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TypeSpecializationBenchmark {
+    @Param({
+        "$amount * $rate + $fee > $limit",
+        "$due < $cutoff",
+        "$name + '-' + $code",
+        "$amount * $rate + $fee > $limit && $due < $cutoff && $name + '-' + $code != 'blocked-0'"})
+    public String rule;
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private Context context;
+    private Expression generic;
+    private Expression specialised;
+
+    @Setup
+    public void setUp() {
+        context = new Context()
+            .with("amount", 120.5).with("rate", 1.2).with("fee", 3).with("limit", 100)
+            .with("due", LocalDate.of(2024, 3, 1)).with("cutoff", LocalDate.of(2024, 6, 1))
+            .with("name", "acme").with("code", "42");
+        ContextSchema schema = new ContextSchema()
+            .with("amount", Double.class).with("rate", Double.class).with("fee", Integer.class)
+            .with("limit", Integer.class).with("due", LocalDate.class).with("cutoff", LocalDate.class)
+            .with("name", String.class).with("code", String.class);
+        generic = evaluator.parse(rule);
+        specialised = evaluator.compile(rule, schema);
+    }
+
+    @Benchmark
+    public Object generic() {
+        return generic.evaluate(context);
+    }
+
+    @Benchmark
+    public Object specialised() {
+        return specialised.evaluate(context);
+    }
+}
@@ -0,0 +1,68 @@
+package com.expresso.benchmarks;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.context.Context;
+import com.expresso.validation.ContextSchema;
+import com.expresso.validation.ValidationResult;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validation of expressions against a context or a context schema, for valid and invalid input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private Context context;
+    private ContextSchema schema;
+
+    @Setup
+    public void setUp() {
+        context = new Context()
+            .with("user", Map.of("name", "alice", "age", 30))
+            .with("amount", 120.5);
+        schema = new ContextSchema()
+            .with("user", new ContextSchema().with("name", String.class).with("age", Integer.class))
+            .with("amount", Double.class);
+    }
+
+    @Benchmark
+    public ValidationResult validExpression() {
+        return evaluator.validateWithContext("$user.age >= 18 && upperCase($user.name) != 'BOB'", context);
+    }
+
+    @Benchmark
+    public ValidationResult missingVariable() {
+        return evaluator.validateWithContext("$amount > 100 && $missing == 1", context);
+    }
+
+    @Benchmark
+    public ValidationResult syntaxError() {
+        return evaluator.validateWithContext("$amount > (100", context);
+    }
+
+    @Benchmark
+    public ValidationResult schemaValidExpression() {
+        return evaluator.validateWithSchema("$user.age >= 18 && upperCase($user.name) != 'BOB'", schema);
+    }
+
+    @Benchmark
+    public ValidationResult schemaMissingVariable() {
+        return evaluator.validateWithSchema("$amount > 100 && $missing == 1", schema);
+    }
+}
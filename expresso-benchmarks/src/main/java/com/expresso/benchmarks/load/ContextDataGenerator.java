@@ -0,0 +1,127 @@
+package com.expresso.benchmarks.load;
+
+import com.expresso.context.Context;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates contexts holding the variables referenced by {@link RuleCorpusGenerator}. Each root
+ * variable is an entity with {@code name}, {@code status}, {@code amount}, {@code count} and
+ * {@code active} properties and a chain of {@code child} entities deep enough for the longest
+ * path of the corpus. The {@code missing} property is always null.
+ */
+public final class ContextDataGenerator {
+    private final int childDepth;
+    private final DataFormat format;
+    private final Random random;
+
+    public ContextDataGenerator(CorpusShape shape, DataFormat format, long seed) {
+        this.childDepth = shape.maxPathLength() - 1;
+        this.format = format;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates contexts with random values
+     *
+     * @param count The number of contexts
+     * @return The contexts
+     */
+    public List<Context> generate(int count) {
+        List<Context> contexts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Context context = new Context();
+            for (String root : RuleCorpusGenerator.ROOTS) {
+                context.setVariable(root, format == DataFormat.MAP ? mapEntity(childDepth) : pojoEntity(childDepth));
+            }
+            contexts.add(context);
+        }
+        return contexts;
+    }
+
+    private Map<String, Object> mapEntity(int depth) {
+        Map<String, Object> entity = new HashMap<>();
+        entity.put("name", name());
+        entity.put("status", status());
+        entity.put("amount", amount());
+        entity.put("count", count());
+        entity.put("active", random.nextBoolean());
+        if (depth > 0) {
+            entity.put("child", mapEntity(depth - 1));
+        }
+        return entity;
+    }
+
+    private Entity pojoEntity(int depth) {
+        return new Entity(name(), status(), amount(), count(), random.nextBoolean(),
+            depth > 0 ? pojoEntity(depth - 1) : null);
+    }
+
+    private String name() {
+        return RuleCorpusGenerator.NAMES.get(random.nextInt(RuleCorpusGenerator.NAMES.size()));
+    }
+
+    private String status() {
+        return RuleCorpusGenerator.STATUSES.get(random.nextInt(RuleCorpusGenerator.STATUSES.size()));
+    }
+
+    private double amount() {
+        return Math.round(random.nextDouble() * 20_000) / 100.0;
+    }
+
+    private int count() {
+        return random.nextInt(200);
+    }
+
+    /**
+     * POJO form of a generated entity.
+     */
+    public static final class Entity {
+        private final String name;
+        private final String status;
+        private final double amount;
+        private final int count;
+        private final boolean active;
+        private final Entity child;
+
+        public Entity(String name, String status, double amount, int count, boolean active, Entity child) {
+            this.name = name;
+            this.status = status;
+            this.amount = amount;
+            this.count = count;
+            this.active = active;
+            this.child = child;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public boolean getActive() {
+            return active;
+        }
+
+        public Entity getChild() {
+            return child;
+        }
+
+        public Object getMissing() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.expresso.benchmarks.load;
+
+/**
+ * Size and shape of a generated rule corpus.
+ *
+ * @param rules The number of rules to generate
+ * @param maxDepth The maximum nesting depth of logical operators in a rule
+ * @param functionShare The share of leaf terms that call a built-in function, between 0 and 1
+ * @param maxPathLength The maximum number of segments in a property path, at least 1
+ * @param nullSafeShare The share of property paths that use {@code ?.} and {@code ??}, between 0 and 1
+ * @param repeatShare The share of terms that reuse an earlier term, between 0 and 1
+ * @param seed The seed of the random generator, so that a corpus can be reproduced
+ */
+public record CorpusShape(
+        int rules,
+        int maxDepth,
+        double functionShare,
+        int maxPathLength,
+        double nullSafeShare,
+        double repeatShare,
+        long seed) {
+
+    public CorpusShape {
+        if (rules < 1) {
+            throw new IllegalArgumentException("Rule count must be positive: " + rules);
+        }
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Depth must not be negative: " + maxDepth);
+        }
+        if (maxPathLength < 1) {
+            throw new IllegalArgumentException("Path length must be positive: " + maxPathLength);
+        }
+        checkShare("functionShare", functionShare);
+        checkShare("nullSafeShare", nullSafeShare);
+        checkShare("repeatShare", repeatShare);
+    }
+
+    /**
+     * Gets a medium-sized corpus shape: 1000 rules, depth 3, paths of up to 3 segments, a
+     * quarter of the terms calling functions, a fifth null-safe and a fifth repeated
+     *
+     * @return The default corpus shape
+     */
+    public static CorpusShape defaults() {
+        return new CorpusShape(1000, 3, 0.25, 3, 0.2, 0.2, 42L);
+    }
+
+    private static void checkShare(String name, double value) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1: " + value);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.expresso.benchmarks.load;
+
+/**
+ * Representation of the generated context data.
+ */
+public enum DataFormat {
+    /** Nested {@link java.util.Map}s */
+    MAP,
+    /** Nested JavaBeans, resolved through their getters */
+    POJO
+}
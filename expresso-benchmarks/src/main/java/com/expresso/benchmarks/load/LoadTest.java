@@ -0,0 +1,122 @@
+package com.expresso.benchmarks.load;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Drives one {@link ExpressionEvaluator} from several threads. The rules are parsed once and shared
+ * by all threads; each thread evaluates them in turn against its own contexts and records the
+ * latency of every evaluation.
+ */
+public final class LoadTest {
+    private final ExpressionEvaluator evaluator;
+    private final Expression[] rules;
+    private final ContextDataGenerator data;
+    private final int contextsPerThread;
+
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    public LoadTest(ExpressionEvaluator evaluator, List<String> rules, ContextDataGenerator data, int contextsPerThread) {
+        this.evaluator = evaluator;
+        this.rules = rules.stream().map(evaluator::parse).toArray(Expression[]::new);
+        this.data = data;
+        this.contextsPerThread = contextsPerThread;
+    }
+
+    /**
+     * Runs the load test
+     *
+     * @param threads The number of worker threads
+     * @param warmup How long to run before measuring
+     * @param duration How long to measure
+     * @return The throughput and latency distribution of the measurement
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public LoadTestResult run(int threads, Duration warmup, Duration duration) throws InterruptedException {
+        measuring = false;
+        stopped = false;
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Worker> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(data.generate(contextsPerThread), i, ready, start);
+            workers.add(worker);
+            worker.start();
+        }
+        ready.await();
+        start.countDown();
+        Thread.sleep(warmup.toMillis());
+        measuring = true;
+        long begin = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        stopped = true;
+        long elapsed = System.nanoTime() - begin;
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        long errors = 0;
+        for (Worker worker : workers) {
+            worker.join();
+            histogram.add(worker.histogram);
+            errors += worker.errors;
+        }
+        return new LoadTestResult(threads, histogram.getTotalCount(), errors, elapsed,
+            histogram.percentile(0.5), histogram.percentile(0.99), histogram.percentile(0.999), histogram.getMax());
+    }
+
+    private final class Worker extends Thread {
+        private final Context[] contexts;
+        private final int offset;
+        private final CountDownLatch ready;
+        private final CountDownLatch start;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long errors;
+
+        Worker(List<Context> contexts, int offset, CountDownLatch ready, CountDownLatch start) {
+            super("expresso-load-" + offset);
+            this.contexts = contexts.toArray(new Context[0]);
+            this.offset = offset;
+            this.ready = ready;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            ready.countDown();
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            boolean recording = false;
+            // Start each thread at a different rule so that threads do not run in lockstep
+            long i = offset * 7919L;
+            while (!stopped) {
+                if (!recording && measuring) {
+                    recording = true;
+                    histogram.reset();
+                    errors = 0;
+                }
+                Expression rule = rules[(int) (i % rules.length)];
+                Context context = contexts[(int) (i % contexts.length)];
+                long begin = System.nanoTime();
+                try {
+                    evaluator.evaluate(rule, context);
+                } catch (RuntimeException e) {
+                    errors++;
+                }
+                histogram.record(System.nanoTime() - begin);
+                i++;
+            }
+            if (!recording) {
+                histogram.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.expresso.benchmarks.load;
+
+/**
+ * Outcome of one {@link LoadTest} run.
+ *
+ * @param threads The number of worker threads
+ * @param operations The number of evaluations completed during the measurement
+ * @param errors The number of evaluations that threw an exception
+ * @param elapsedNanos The duration of the measurement
+ * @param p50Nanos The median latency of an evaluation
+ * @param p99Nanos The 99th percentile latency
+ * @param p999Nanos The 99.9th percentile latency
+ * @param maxNanos The highest latency
+ */
+public record LoadTestResult(
+        int threads,
+        long operations,
+        long errors,
+        long elapsedNanos,
+        long p50Nanos,
+        long p99Nanos,
+        long p999Nanos,
+        long maxNanos) {
+
+    /**
+     * Gets the number of evaluations per second, over all threads
+     *
+     * @return The throughput
+     */
+    public double throughput() {
+        return elapsedNanos == 0 ? 0 : operations * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Formats the result as one row under {@link #header()}
+     *
+     * @return The formatted row
+     */
+    public String toRow() {
+        return String.format("%7d %14.0f %10.0f %10d %10d %10d %12d %8d",
+            threads, throughput(), throughput() / threads, p50Nanos, p99Nanos, p999Nanos, maxNanos, errors);
+    }
+
+    /**
+     * Gets the column headers matching {@link #toRow()}
+     *
+     * @return The header line
+     */
+    public static String header() {
+        return String.format("%7s %14s %10s %10s %10s %10s %12s %8s",
+            "threads", "ops/s", "ops/s/thr", "p50 ns", "p99 ns", "p999 ns", "max ns", "errors");
+    }
+}
@@ -0,0 +1,119 @@
+package com.expresso.benchmarks.load;
+
+import com.expresso.ExpressionEvaluator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line entry point of the load test, run from the benchmark jar:
+ *
+ * <pre>
+ * java -cp benchmarks.jar com.expresso.benchmarks.load.LoadTestRunner --threads 1,2,4,8 --rules 5000
+ * </pre>
+ *
+ * Runs the same corpus once per thread count so that scaling across cores can be read off the
+ * table. Options not given keep the values of {@link CorpusShape#defaults()}.
+ */
+public final class LoadTestRunner {
+    private static final String USAGE = String.join("\n",
+        "Options:",
+        "  --rules <n>          number of generated rules",
+        "  --depth <n>          maximum nesting depth of && and ||",
+        "  --functions <0..1>   share of terms calling a function",
+        "  --path <n>           maximum property path length",
+        "  --null-safe <0..1>   share of paths using ?. and ??",
+        "  --repeat <0..1>      share of terms reused from earlier rules",
+        "  --seed <n>           seed of the rule and data generators",
+        "  --data map|pojo      representation of the context data (default map)",
+        "  --contexts <n>       contexts per thread (default 256)",
+        "  --threads <n,n,...>  thread counts to run (default 1 and all processors)",
+        "  --warmup <seconds>   warmup per run (default 5)",
+        "  --duration <seconds> measurement per run (default 10)",
+        "  --print <n>          print the first n rules before running");
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parse(args);
+        if (options.containsKey("help")) {
+            System.out.println(USAGE);
+            return;
+        }
+        CorpusShape defaults = CorpusShape.defaults();
+        CorpusShape shape = new CorpusShape(
+            intOption(options, "rules", defaults.rules()),
+            intOption(options, "depth", defaults.maxDepth()),
+            doubleOption(options, "functions", defaults.functionShare()),
+            intOption(options, "path", defaults.maxPathLength()),
+            doubleOption(options, "null-safe", defaults.nullSafeShare()),
+            doubleOption(options, "repeat", defaults.repeatShare()),
+            Long.parseLong(options.getOrDefault("seed", String.valueOf(defaults.seed()))));
+        DataFormat format = DataFormat.valueOf(options.getOrDefault("data", "map").toUpperCase(Locale.ROOT));
+        Duration warmup = Duration.ofSeconds(intOption(options, "warmup", 5));
+        Duration duration = Duration.ofSeconds(intOption(options, "duration", 10));
+
+        List<String> rules = new RuleCorpusGenerator(shape).generate();
+        int print = Math.min(rules.size(), intOption(options, "print", 0));
+        for (int i = 0; i < print; i++) {
+            System.out.println(rules.get(i));
+        }
+        System.out.println(shape + ", data=" + format + ", average rule length="
+            + rules.stream().mapToInt(String::length).average().orElse(0));
+
+        LoadTest loadTest = new LoadTest(new ExpressionEvaluator(), rules,
+            new ContextDataGenerator(shape, format, shape.seed()), intOption(options, "contexts", 256));
+        System.out.println(LoadTestResult.header());
+        for (int threads : threadCounts(options.get("threads"))) {
+            System.out.println(loadTest.run(threads, warmup, duration).toRow());
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i] + "\n" + USAGE);
+            }
+            String name = args[i].substring(2);
+            if (name.equals("help")) {
+                options.put(name, "");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name + "\n" + USAGE);
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static double doubleOption(Map<String, String> options, String name, double defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static List<Integer> threadCounts(String value) {
+        List<Integer> counts = new ArrayList<>();
+        if (value == null) {
+            counts.add(1);
+            int processors = Runtime.getRuntime().availableProcessors();
+            if (processors > 1) {
+                counts.add(processors);
+            }
+            return counts;
+        }
+        for (String count : value.split(",")) {
+            counts.add(Integer.parseInt(count.trim()));
+        }
+        return counts;
+    }
+}
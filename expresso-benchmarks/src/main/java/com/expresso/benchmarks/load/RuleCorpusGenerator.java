@@ -0,0 +1,171 @@
+package com.expresso.benchmarks.load;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates boolean rules over the data produced by {@link ContextDataGenerator}, e.g.
+ * {@code $order.child.amount > 120 && (upperCase($customer.name) == 'ALICE' || !$account.active)}.
+ * The same shape and seed always produce the same corpus.
+ */
+public final class RuleCorpusGenerator {
+    static final List<String> ROOTS = List.of("order", "customer", "account", "product");
+    static final List<String> NAMES = List.of("Alice", "Bob", " Carol ", "dave", "Eve");
+    static final List<String> STATUSES = List.of("NEW", "OPEN", "CLOSED");
+
+    private static final String[] NUMERIC_OPERATORS = {">", ">=", "<", "<=", "==", "!="};
+    private static final int MAX_OPERANDS = 4;
+
+    private final CorpusShape shape;
+    private final Random random;
+    private final List<String> numericTerms = new ArrayList<>();
+    private final Map<String, List<String>> stringTerms = new HashMap<>();
+    private final List<String> conditions = new ArrayList<>();
+
+    public RuleCorpusGenerator(CorpusShape shape) {
+        this.shape = shape;
+        this.random = new Random(shape.seed());
+    }
+
+    /**
+     * Generates the rules of the corpus
+     *
+     * @return The rules, as expression strings
+     */
+    public List<String> generate() {
+        List<String> rules = new ArrayList<>(shape.rules());
+        for (int i = 0; i < shape.rules(); i++) {
+            rules.add(rule(shape.maxDepth()));
+        }
+        return rules;
+    }
+
+    private String rule(int depth) {
+        if (depth == 0 || random.nextDouble() < 0.25) {
+            return condition();
+        }
+        int choice = random.nextInt(10);
+        if (choice == 0) {
+            return "(" + condition() + " ? " + rule(depth - 1) + " : " + rule(depth - 1) + ")";
+        }
+        String operator = choice < 6 ? " && " : " || ";
+        int operands = 2 + random.nextInt(MAX_OPERANDS - 1);
+        StringBuilder sb = new StringBuilder(choice == 1 ? "!(" : "(");
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) {
+                sb.append(operator);
+            }
+            sb.append(rule(depth - 1));
+        }
+        return sb.append(')').toString();
+    }
+
+    private String condition() {
+        if (!conditions.isEmpty() && random.nextDouble() < shape.repeatShare()) {
+            return pick(conditions);
+        }
+        String condition;
+        int kind = random.nextInt(10);
+        if (kind < 5) {
+            condition = numericTerm() + " " + pick(NUMERIC_OPERATORS) + " " + random.nextInt(200);
+        } else if (kind < 8) {
+            condition = stringCondition();
+        } else {
+            String active = path("active", false);
+            condition = random.nextBoolean() ? active : "!" + active;
+        }
+        conditions.add(condition);
+        return condition;
+    }
+
+    private String stringCondition() {
+        boolean name = random.nextBoolean();
+        String term = stringTerm(name ? "name" : "status");
+        if (random.nextDouble() < shape.functionShare()) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    return "length(" + term + ") > " + random.nextInt(6);
+                case 1:
+                    return "contains(" + term + ", 'e')";
+                default:
+                    return "startsWith(" + term + ", 'A')";
+            }
+        }
+        String literal = name ? pick(NAMES).trim() : pick(STATUSES);
+        return term + (random.nextBoolean() ? " == '" : " != '") + literal + "'";
+    }
+
+    private String numericTerm() {
+        if (!numericTerms.isEmpty() && random.nextDouble() < shape.repeatShare()) {
+            return pick(numericTerms);
+        }
+        String term;
+        String field = random.nextBoolean() ? "amount" : "count";
+        if (random.nextDouble() < shape.functionShare()) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    term = "abs(" + numericPath(field) + " - " + random.nextInt(100) + ")";
+                    break;
+                case 1:
+                    term = "max(" + numericPath(field) + ", " + numericPath(field) + ")";
+                    break;
+                default:
+                    term = "round(" + numericPath(field) + " * 1.1)";
+                    break;
+            }
+        } else if (random.nextInt(4) == 0) {
+            term = "(" + numericPath(field) + " * " + (1 + random.nextInt(3)) + " + " + numericPath(field) + ")";
+        } else {
+            term = numericPath(field);
+        }
+        numericTerms.add(term);
+        return term;
+    }
+
+    private String stringTerm(String field) {
+        List<String> terms = stringTerms.computeIfAbsent(field, key -> new ArrayList<>());
+        if (!terms.isEmpty() && random.nextDouble() < shape.repeatShare()) {
+            return pick(terms);
+        }
+        boolean nullSafe = random.nextDouble() < shape.nullSafeShare();
+        String term = nullSafe ? "(" + path(field, true) + " ?? 'none')" : path(field, false);
+        if (random.nextDouble() < shape.functionShare()) {
+            String function = random.nextBoolean() ? "upperCase" : (random.nextBoolean() ? "lowerCase" : "trim");
+            term = function + "(" + term + ")";
+        }
+        terms.add(term);
+        return term;
+    }
+
+    private String numericPath(String field) {
+        if (random.nextDouble() < shape.nullSafeShare()) {
+            return "(" + path(field, true) + " ?? 0)";
+        }
+        return path(field, false);
+    }
+
+    /**
+     * Builds a property path of one to {@code maxPathLength} segments ending in {@code field}.
+     * Null-safe paths sometimes go through the always-null {@code missing} property.
+     */
+    private String path(String field, boolean nullSafe) {
+        String separator = nullSafe ? "?." : ".";
+        StringBuilder sb = new StringBuilder("$").append(pick(ROOTS));
+        int segments = 1 + random.nextInt(shape.maxPathLength());
+        for (int i = 1; i < segments; i++) {
+            sb.append(separator).append(nullSafe && i == segments - 1 && random.nextBoolean() ? "missing" : "child");
+        }
+        return sb.append(separator).append(field).toString();
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -1,18 +1,43 @@
 package com.expresso;
 
+import com.expresso.analysis.ComplexityReport;
+import com.expresso.analysis.CostModel;
+import com.expresso.analysis.ExpressionAnalyzer;
 import com.expresso.ast.Expression;
+import com.expresso.batch.RowExpression;
+import com.expresso.batch.RowLayout;
+import com.expresso.compiler.RootTypeCompiler;
 import com.expresso.context.Context;
+import com.expresso.context.functions.FunctionMetadata;
+import com.expresso.context.functions.FunctionRegistry;
 import com.expresso.exception.EvaluationException;
 import com.expresso.exception.PropertyNotFoundException;
 import com.expresso.exception.SyntaxException;
+import com.expresso.exception.TypeCheckException;
 import com.expresso.exception.VariableNotFoundException;
+import com.expresso.jfr.ExpressionEvaluateEvent;
+import com.expresso.jfr.ExpressionParseEvent;
+import com.expresso.metrics.EvaluationListener;
+import com.expresso.metrics.EvaluationScope;
+import com.expresso.optimizer.AdaptiveReorderingRewriter;
+import com.expresso.optimizer.ExpressionInterner;
+import com.expresso.optimizer.LogicalOperandReorderer;
+import com.expresso.optimizer.MembershipRewriter;
+import com.expresso.optimizer.TypeSpecializer;
 import com.expresso.parser.Parser;
+import com.expresso.profiling.ExpressionProfiler;
+import com.expresso.validation.ContextSchema;
 import com.expresso.validation.ExpressionError;
+import com.expresso.validation.SchemaValidator;
 import com.expresso.validation.ValidationResult;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Main entry point for the expression evaluator library. Provides methods to parse and evaluate
@@ -21,6 +46,14 @@ import java.util.function.Function;
 public class ExpressionEvaluator {
   private final Parser parser;
   private final Map<String, Function<Object[], Object>> customFunctions = new HashMap<>();
+  private final Map<String, FunctionMetadata> customFunctionMetadata = new HashMap<>();
+  private final CostModel costModel = new CostModel(this::getFunctionMetadata);
+  private boolean membershipRewritingEnabled = true;
+  private boolean logicalReorderingEnabled = false;
+  private boolean adaptiveReorderingEnabled = false;
+  private boolean profilingEnabled = false;
+  private ExpressionInterner interner;
+  private EvaluationListener evaluationListener;
 
   public ExpressionEvaluator() {
     this.parser = new Parser();
@@ -34,7 +67,279 @@ public class ExpressionEvaluator {
    * @throws SyntaxException if the expression is malformed
    */
   public Expression parse(String expression) {
-    return parser.parse(expression);
+    return parse(expression, null);
+  }
+
+  /**
+   * Parses an expression whose variables have the types declared by a schema. Binary operators
+   * whose operand types are known, such as the addition of two numbers or the comparison of two
+   * dates, are specialised for these types and skip the type tests of the generic operators during
+   * evaluation; the others keep their generic implementation. Values that do not match the declared
+   * types are still evaluated correctly, only more slowly.
+   *
+   * @param expression The expression string to parse
+   * @param schema The schema declaring the types of the variables
+   * @return The parsed and specialised Expression AST
+   * @throws SyntaxException if the expression is malformed
+   * @throws TypeCheckException if an operation cannot succeed for the declared types
+   */
+  public Expression compile(String expression, ContextSchema schema) {
+    return parse(expression, schema);
+  }
+
+  /**
+   * Compiles an expression evaluated against objects of a root type into a function. The variables
+   * of the expression are the properties of the root object, so {@code $customer.name} reads
+   * {@code root.getCustomer().getName()}. Getters and functions are bound when the expression is
+   * compiled, and calls create no {@link Context}: functions registered afterwards are not seen,
+   * and evaluation listeners are not notified. Compiled functions can be shared between threads,
+   * for example in parallel streams.
+   *
+   * @param expression The expression string to compile
+   * @param rootType The class of the root objects
+   * @param resultType The class of the results. Numbers are converted to the requested number class.
+   * @return The compiled function
+   * @throws SyntaxException if the expression is malformed
+   * @throws TypeCheckException if the expression uses properties or functions that do not exist,
+   *     or operations that cannot succeed for the property types
+   */
+  public <T, R> Function<T, R> compile(String expression, Class<T> rootType, Class<R> resultType) {
+    return compiler(rootType).function(compileTree(expression, rootType), resultType);
+  }
+
+  /**
+   * Compiles a condition evaluated against objects of a root type into a predicate, see {@link
+   * #compile(String, Class, Class)}. The predicate is true when the result is neither null nor false.
+   *
+   * @param expression The expression string to compile
+   * @param rootType The class of the root objects
+   * @return The compiled predicate
+   * @throws SyntaxException if the expression is malformed
+   * @throws TypeCheckException if the expression cannot be evaluated against the root type
+   */
+  public <T> Predicate<T> compilePredicate(String expression, Class<T> rootType) {
+    return compiler(rootType).predicate(compileTree(expression, rootType));
+  }
+
+  /**
+   * Compiles a numeric expression evaluated against objects of a root type, see {@link
+   * #compile(String, Class, Class)}
+   *
+   * @param expression The expression string to compile
+   * @param rootType The class of the root objects
+   * @return The compiled function
+   * @throws SyntaxException if the expression is malformed
+   * @throws TypeCheckException if the expression cannot be evaluated against the root type
+   */
+  public <T> ToDoubleFunction<T> compileToDouble(String expression, Class<T> rootType) {
+    return compiler(rootType).toDoubleFunction(compileTree(expression, rootType));
+  }
+
+  /**
+   * Compiles an expression evaluated against the rows of off-heap batches with a fixed layout.
+   * Variables are the fields of the layout and are read at their offsets in the batch buffer, so
+   * evaluating a row creates no {@link Context} and conditions on numbers, booleans and string
+   * literals box no values. Functions are bound when the expression is compiled and evaluation
+   * listeners are not notified.
+   *
+   * @param expression The expression string to compile
+   * @param layout The layout of the rows
+   * @return The compiled expression
+   * @throws SyntaxException if the expression is malformed
+   * @throws TypeCheckException if the expression uses fields or functions that do not exist, or
+   *     operations that cannot succeed for the field types
+   */
+  public RowExpression compile(String expression, RowLayout layout) {
+    return RowExpression.compile(compileTree(expression, layout.toSchema()), layout, this::findFunction);
+  }
+
+  /**
+   * Parses an expression evaluated against a root type, checks it and specialises its operators
+   * for the property types of the root type
+   */
+  private Expression compileTree(String expression, Class<?> rootType) {
+    return compileTree(expression, ContextSchema.of(rootType));
+  }
+
+  private Expression compileTree(String expression, ContextSchema schema) {
+    Expression parsed = parser.parse(expression);
+    List<String> errors = new ArrayList<>();
+    for (ExpressionError error : new SchemaValidator(schema, this::findFunctionMetadata).validate(parsed, expression)) {
+      errors.add(error.getMessage());
+    }
+    if (!errors.isEmpty()) {
+      throw new TypeCheckException(errors);
+    }
+    return rewrite(parsed, schema);
+  }
+
+  private <T> RootTypeCompiler<T> compiler(Class<T> rootType) {
+    return new RootTypeCompiler<>(rootType, this::findFunction);
+  }
+
+  private Function<Object[], Object> findFunction(String name) {
+    Function<Object[], Object> function = customFunctions.get(name);
+    return function != null ? function : FunctionRegistry.getFunction(name);
+  }
+
+  private Expression parse(String expression, ContextSchema schema) {
+    ExpressionParseEvent event = ExpressionParseEvent.start();
+    EvaluationListener listener = evaluationListener;
+    Expression parsed;
+    if (listener == null) {
+      parsed = optimize(parser.parse(expression), schema);
+    } else {
+      // Same span as the parse event, which includes the optimizations
+      long start = System.nanoTime();
+      try {
+        parsed = optimize(parser.parse(expression), schema);
+      } catch (RuntimeException e) {
+        listener.onException(e);
+        throw e;
+      }
+      listener.onParse(expression, System.nanoTime() - start);
+    }
+    if (event != null) {
+      event.finish(expression, parsed);
+    }
+    return parsed;
+  }
+
+  /**
+   * Applies the enabled optimizations to a parsed expression. Expressions returned by {@link
+   * #parse(String)} are already optimized.
+   *
+   * @param expression The parsed Expression AST
+   * @return The optimized Expression AST, which evaluates to the same result
+   */
+  public Expression optimize(Expression expression) {
+    return optimize(expression, null);
+  }
+
+  private Expression optimize(Expression expression, ContextSchema schema) {
+    expression = rewrite(expression, schema);
+    if (interner != null) {
+      expression = interner.intern(expression);
+    }
+    if (adaptiveReorderingEnabled) {
+      expression = new AdaptiveReorderingRewriter(costModel).rewrite(expression);
+    }
+    if (profilingEnabled) {
+      expression = ExpressionProfiler.instrument(expression);
+    }
+    return expression;
+  }
+
+  /**
+   * Applies the enabled optimizations that replace nodes by equivalent ones, which compiled
+   * expressions use as well, and specialises the operators for the variable types of a schema
+   *
+   * @throws TypeCheckException if an operation cannot succeed for the declared types
+   */
+  private Expression rewrite(Expression expression, ContextSchema schema) {
+    if (membershipRewritingEnabled) {
+      expression = new MembershipRewriter().rewrite(expression);
+    }
+    if (logicalReorderingEnabled) {
+      expression = new LogicalOperandReorderer(costModel).rewrite(expression);
+    }
+    if (schema != null) {
+      TypeSpecializer specializer = new TypeSpecializer(schema);
+      expression = specializer.specialize(expression);
+      if (!specializer.getErrors().isEmpty()) {
+        throw new TypeCheckException(specializer.getErrors());
+      }
+    }
+    return expression;
+  }
+
+  /**
+   * Enables or disables the rewriting of equality chains into membership tests. When enabled, runs
+   * of at least {@link MembershipRewriter#MIN_ELEMENTS} comparisons of the same variable against
+   * literals, such as {@code $c == 'FR' || $c == 'DE' || $c == 'IT'}, are evaluated as a single
+   * hash lookup like {@code $c in ('FR', 'DE', 'IT')}. Enabled by default.
+   *
+   * @param enabled Whether to rewrite equality chains into membership tests
+   */
+  public void setMembershipRewritingEnabled(boolean enabled) {
+    this.membershipRewritingEnabled = enabled;
+  }
+
+  /**
+   * Sets the interner that parsed expressions are canonicalised with. Expressions parsed with the
+   * same interner share identical variables, literals and subtrees, which reduces the heap used by
+   * large rule sets. Disabled by default.
+   *
+   * @param interner The interner, or null to disable interning
+   */
+  public void setInterner(ExpressionInterner interner) {
+    this.interner = interner;
+  }
+
+  /**
+   * Enables or disables cost-based reordering of AND/OR operands. When enabled, pure operands of
+   * logical chains that reference disjoint variables are reordered so that the cheapest ones run
+   * first. Disabled by default.
+   *
+   * @param enabled Whether to reorder logical operands
+   */
+  public void setLogicalReorderingEnabled(boolean enabled) {
+    this.logicalReorderingEnabled = enabled;
+  }
+
+  /**
+   * Enables or disables profile-guided reordering of AND/OR operands. When enabled, logical chains
+   * with reorderable operands sample the cost and truthiness of their operands during evaluation
+   * and periodically reorder them to minimise the expected cost. When static reordering is also
+   * enabled, the static order is used as the starting point. Disabled by default.
+   *
+   * @param enabled Whether to reorder logical operands based on observed evaluations
+   */
+  public void setAdaptiveReorderingEnabled(boolean enabled) {
+    this.adaptiveReorderingEnabled = enabled;
+  }
+
+  /**
+   * Enables or disables per-node profiling of parsed expressions. When enabled, every node of the
+   * expressions returned by {@link #parse(String)} records its invocation count, time and
+   * exceptions; use {@link ExpressionProfiler#snapshot(Expression)} to read them. Expressions parsed
+   * while profiling is disabled carry no profiling overhead. Disabled by default.
+   *
+   * @param enabled Whether to instrument parsed expressions
+   */
+  public void setProfilingEnabled(boolean enabled) {
+    this.profilingEnabled = enabled;
+  }
+
+  /**
+   * Statically analyzes an expression without evaluating it
+   *
+   * @param expression The expression string to analyze
+   * @return The depth, node count and estimated cost of the expression
+   * @throws SyntaxException if the expression is malformed
+   */
+  public ComplexityReport analyze(String expression) {
+    return analyze(parser.parse(expression));
+  }
+
+  /**
+   * Statically analyzes a previously parsed expression without evaluating it
+   *
+   * @param expression The parsed Expression AST
+   * @return The depth, node count and estimated cost of the expression
+   */
+  public ComplexityReport analyze(Expression expression) {
+    return new ExpressionAnalyzer(costModel).analyze(expression);
+  }
+
+  /**
+   * Gets the cost model used for analysis and optimization. It knows the metadata of the built-in
+   * functions and of the custom functions registered with this evaluator.
+   *
+   * @return The cost model
+   */
+  public CostModel getCostModel() {
+    return costModel;
   }
 
   /**
@@ -46,6 +351,22 @@ public class ExpressionEvaluator {
    */
   public void registerFunction(String name, Function<Object[], Object> function) {
     customFunctions.put(name, function);
+    customFunctionMetadata.remove(name);
+  }
+
+  /**
+   * Registers a custom function together with its cost and purity, which are used by {@link
+   * #analyze(String)} and by logical operand reordering.
+   *
+   * @param name The name of the function as it will be used in expressions
+   * @param function The function implementation that takes an array of arguments and returns a
+   *     result
+   * @param metadata The cost and purity of the function
+   */
+  public void registerFunction(
+      String name, Function<Object[], Object> function, FunctionMetadata metadata) {
+    customFunctions.put(name, function);
+    customFunctionMetadata.put(name, metadata);
   }
 
   /**
@@ -76,7 +397,45 @@ public class ExpressionEvaluator {
     // Register custom functions with the context
     customFunctions.forEach(context::registerFunction);
 
-    return expression.evaluate(context);
+    EvaluationListener listener = evaluationListener;
+    ExpressionEvaluateEvent event = ExpressionEvaluateEvent.start();
+    if (listener == null && event == null) {
+      return expression.evaluate(context);
+    }
+    EvaluationListener enclosing = listener != null ? EvaluationScope.enter(listener) : null;
+    long start = listener != null ? System.nanoTime() : 0;
+    Object outcome = null;
+    boolean failed = true;
+    try {
+      outcome = expression.evaluate(context);
+      failed = false;
+      return outcome;
+    } catch (RuntimeException e) {
+      outcome = e;
+      if (listener != null) {
+        listener.onException(e);
+      }
+      throw e;
+    } finally {
+      if (listener != null) {
+        listener.onEvaluate(System.nanoTime() - start, failed);
+        EvaluationScope.exit(enclosing);
+      }
+      if (event != null) {
+        event.finish(expression, outcome, failed);
+      }
+    }
+  }
+
+  /**
+   * Installs a listener that is notified of parse times, evaluation times, function calls, cache
+   * accesses and exceptions. Nothing is measured while no listener is installed.
+   *
+   * @param listener The listener, e.g. an {@link com.expresso.metrics.EvaluatorMetrics}, or null to
+   *     remove the current one
+   */
+  public void setEvaluationListener(EvaluationListener listener) {
+    this.evaluationListener = listener;
   }
   
   /**
@@ -118,18 +477,7 @@ public class ExpressionEvaluator {
       parse(expression);
       return ValidationResult.success();
     } catch (SyntaxException e) {
-      // Create a syntax error with position information if available
-      ExpressionError error;
-      if (e.getPosition() >= 0) {
-        ExpressionError.ErrorLocation location = new ExpressionError.ErrorLocation(
-            e.getPosition(), 
-            Math.min(e.getPosition() + 10, expression.length()), 
-            expression);
-        error = new ExpressionError("SyntaxError", e.getMessage(), location);
-      } else {
-        error = new ExpressionError("SyntaxError", e.getMessage());
-      }
-      return ValidationResult.failure(error);
+      return ValidationResult.failure(syntaxError(expression, e));
     } catch (Exception e) {
       // Other unexpected exceptions are treated as general validation errors
       ExpressionError error = new ExpressionError("ValidationError", e.getMessage());
@@ -146,44 +494,31 @@ public class ExpressionEvaluator {
    * @return A ValidationResult object containing the result of the validation
    */
   public ValidationResult validateWithContext(String expression, Context context) {
-    // First check syntax
-    ValidationResult syntaxResult = validateSyntax(expression);
-    if (!syntaxResult.isValid()) {
-      return syntaxResult;
+    Expression parsed;
+    try {
+      parsed = parse(expression);
+    } catch (SyntaxException e) {
+      return ValidationResult.failure(syntaxError(expression, e));
+    } catch (Exception e) {
+      return ValidationResult.failure(new ExpressionError("ValidationError", e.getMessage()));
     }
     
     try {
-      // Parse the expression
-      Expression parsed = parse(expression);
-      
       // Register custom functions with the context for validation
       customFunctions.forEach(context::registerFunction);
       
       try {
-        // Try to evaluate the expression
+        // Try to evaluate the expression. Null-safe references resolve missing values to null, so
+        // only strict references can fail here.
         parsed.evaluate(context);
         return ValidationResult.success();
       } catch (VariableNotFoundException e) {
-        // Special handling for null-safe access - check if the expression uses ?. or ?[ 
-        if (expression.contains("?.") || expression.contains("?[")) {
-          String varName = e.getVariableName();
-          // If the expression has null-safe operators followed by the variable, consider it valid
-          if (expression.contains("?." + varName) || expression.contains("?[" + varName + "]")) {
-            return ValidationResult.success();
-          }
-        }
-        
         ExpressionError error = new ExpressionError(
             "VariableNotFoundError", 
             "Variable '" + e.getVariableName() + "' not found", 
             createLocationFromVariableName(expression, e.getVariableName()));
         return ValidationResult.failure(error);
       } catch (PropertyNotFoundException e) {
-        // If using null-safe access, property not found exceptions should not be considered errors
-        if (expression.contains("?.") || expression.contains("?[")) {
-          return ValidationResult.success();
-        }
-        
         ExpressionError error = new ExpressionError(
             "PropertyNotFoundError", 
             e.getMessage());
@@ -197,6 +532,64 @@ public class ExpressionEvaluator {
     }
   }
   
+  /**
+   * Validates an expression against the schema of the contexts it will be evaluated with. Unlike
+   * {@link #validateWithContext(String, Context)}, the expression is not evaluated, so that no
+   * function is called; every undeclared variable, unknown property, unknown function, wrong
+   * number of arguments and operation that cannot succeed for the declared types is reported.
+   *
+   * @param expression The expression string to validate
+   * @param schema The schema declaring the variables and context functions expressions may use
+   * @return A ValidationResult object containing the result of the validation
+   */
+  public ValidationResult validateWithSchema(String expression, ContextSchema schema) {
+    Expression parsed;
+    try {
+      // The tree is only inspected, so it is neither optimized nor instrumented
+      parsed = parser.parse(expression);
+    } catch (SyntaxException e) {
+      return ValidationResult.failure(syntaxError(expression, e));
+    } catch (Exception e) {
+      return ValidationResult.failure(new ExpressionError("ValidationError", e.getMessage()));
+    }
+    List<ExpressionError> errors = new SchemaValidator(schema, this::findFunctionMetadata).validate(parsed, expression);
+    TypeSpecializer specializer = new TypeSpecializer(schema);
+    specializer.specialize(parsed);
+    specializer.getErrors().forEach(message -> errors.add(new ExpressionError("TypeError", message)));
+    return errors.isEmpty() ? ValidationResult.success() : ValidationResult.failure(errors);
+  }
+
+  private ExpressionError syntaxError(String expression, SyntaxException e) {
+    // Create a syntax error with position information if available
+    if (e.getPosition() >= 0) {
+      ExpressionError.ErrorLocation location = new ExpressionError.ErrorLocation(
+          e.getPosition(), 
+          Math.min(e.getPosition() + 10, expression.length()), 
+          expression);
+      return new ExpressionError("SyntaxError", e.getMessage(), location);
+    }
+    return new ExpressionError("SyntaxError", e.getMessage());
+  }
+
+  /**
+   * Gets the metadata of a custom or built-in function
+   *
+   * @return The metadata, or null if the function does not exist
+   */
+  private FunctionMetadata findFunctionMetadata(String name) {
+    if (customFunctions.containsKey(name) || FunctionRegistry.hasFunction(name)) {
+      return getFunctionMetadata(name);
+    }
+    return null;
+  }
+
+  private FunctionMetadata getFunctionMetadata(String name) {
+    if (customFunctions.containsKey(name)) {
+      return customFunctionMetadata.getOrDefault(name, FunctionMetadata.UNKNOWN);
+    }
+    return FunctionRegistry.getFunctionMetadata(name);
+  }
+
   /**
    * Creates an error location for a variable name in an expression
    * 
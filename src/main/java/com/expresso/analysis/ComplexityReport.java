@@ -0,0 +1,16 @@
+package com.expresso.analysis;
+
+/**
+ * Result of a static complexity analysis of an expression.
+ *
+ * @param depth The depth of the expression tree (a single literal has depth 1)
+ * @param nodeCount The total number of nodes in the expression tree
+ * @param estimatedCost The worst-case evaluation cost according to the {@link CostModel}
+ */
+public record ComplexityReport(int depth, int nodeCount, long estimatedCost) {
+
+    @Override
+    public String toString() {
+        return "depth=" + depth + ", nodes=" + nodeCount + ", cost=" + estimatedCost;
+    }
+}
@@ -0,0 +1,154 @@
+package com.expresso.analysis;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.ConditionalExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.FunctionCallExpression;
+import com.expresso.ast.FunctionExpression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LiteralExpression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.VariableExpression;
+import com.expresso.context.functions.FunctionMetadata;
+import com.expresso.context.functions.FunctionRegistry;
+import java.util.function.Function;
+
+/**
+ * Static cost model for expression trees. Every node has a fixed weight, and function calls add
+ * the cost declared in their {@link FunctionMetadata}. Costs are abstract units where one variable
+ * lookup costs 1; they are only meaningful relative to each other.
+ */
+public class CostModel {
+    /**
+     * Weight of an operator node (unary, binary, conditional, null coalescing). A logical chain of n
+     * operands weighs as much as the n - 1 binary nodes it replaces.
+     */
+    public static final int OPERATOR_COST = 1;
+    /** Weight of a variable lookup */
+    public static final int VARIABLE_COST = 1;
+    /** Weight of each property or index segment following a variable */
+    public static final int PROPERTY_SEGMENT_COST = 2;
+    /** Weight of dispatching a function call, on top of the function's own cost */
+    public static final int FUNCTION_CALL_COST = 1;
+
+    private final Function<String, FunctionMetadata> functionMetadata;
+
+    /**
+     * Creates a cost model that only knows the built-in functions
+     */
+    public CostModel() {
+        this(FunctionRegistry::getFunctionMetadata);
+    }
+
+    /**
+     * Creates a cost model with a custom function metadata lookup
+     *
+     * @param functionMetadata Resolves a function name to its metadata; must not return null
+     */
+    public CostModel(Function<String, FunctionMetadata> functionMetadata) {
+        this.functionMetadata = functionMetadata;
+    }
+
+    /**
+     * Estimates the worst-case cost of evaluating an expression. Short-circuiting operators are
+     * assumed to evaluate all of their operands and conditionals their more expensive branch.
+     *
+     * @param expression The expression to estimate
+     * @return The estimated cost
+     */
+    public long cost(Expression expression) {
+        long cost = nodeCost(expression);
+        if (expression instanceof ConditionalExpression conditional) {
+            return cost + cost(conditional.getCondition())
+                + Math.max(cost(conditional.getTrueExpression()), cost(conditional.getFalseExpression()));
+        }
+        for (Expression child : expression.getChildren()) {
+            cost += cost(child);
+        }
+        return cost;
+    }
+
+    /**
+     * Gets the weight of a single node, excluding its children
+     *
+     * @param expression The node
+     * @return The node's own cost
+     */
+    public long nodeCost(Expression expression) {
+        if (expression instanceof LiteralExpression) {
+            return 0;
+        }
+        if (expression instanceof VariableExpression variable) {
+            return VARIABLE_COST + (long) PROPERTY_SEGMENT_COST * countSegments(variable.getPropertyPath());
+        }
+        if (expression instanceof LogicalExpression logical) {
+            return (long) OPERATOR_COST * (logical.getOperands().size() - 1);
+        }
+        if (expression instanceof InExpression in) {
+            // One hash lookup plus one comparison per non-literal element
+            return (long) OPERATOR_COST * in.getChildren().size();
+        }
+        String functionName = getFunctionName(expression);
+        if (functionName != null) {
+            return FUNCTION_CALL_COST + getFunctionMetadata(functionName).cost();
+        }
+        return OPERATOR_COST;
+    }
+
+    /**
+     * Checks whether an expression is free of side effects, i.e. it calls no impure functions.
+     * Pure expressions may be evaluated in any order, or skipped, without changing the result.
+     *
+     * @param expression The expression to check
+     * @return true if the expression and all its children are pure
+     */
+    public boolean isPure(Expression expression) {
+        String functionName = getFunctionName(expression);
+        if (functionName != null && !getFunctionMetadata(functionName).pure()) {
+            return false;
+        }
+        for (Expression child : expression.getChildren()) {
+            if (!isPure(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the metadata used for a function name
+     *
+     * @param name The function name
+     * @return The function metadata
+     */
+    public FunctionMetadata getFunctionMetadata(String name) {
+        FunctionMetadata metadata = functionMetadata.apply(name);
+        return metadata != null ? metadata : FunctionMetadata.UNKNOWN;
+    }
+
+    private static String getFunctionName(Expression expression) {
+        if (expression instanceof FunctionCallExpression call) {
+            return call.getName();
+        }
+        if (expression instanceof FunctionExpression function) {
+            return function.getName();
+        }
+        return null;
+    }
+
+    private static int countSegments(String propertyPath) {
+        if (propertyPath == null || propertyPath.isEmpty()) {
+            return 0;
+        }
+        int segments = 1;
+        for (int i = 0; i < propertyPath.length(); i++) {
+            char c = propertyPath.charAt(i);
+            // An index at the very start of the path ("[0]" or "?[0]") is the first segment itself
+            int segmentStart = c == '[' && i > 0 && propertyPath.charAt(i - 1) == '?' ? i - 1 : i;
+            if (c == '.' || (c == '[' && segmentStart > 0)) {
+                segments++;
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,70 @@
+package com.expresso.analysis;
+
+import com.expresso.ast.Expression;
+import java.util.Collection;
+
+/**
+ * Walks an expression tree without evaluating it and reports its size and estimated cost. This can
+ * be used to reject overly expensive expressions before they are accepted.
+ */
+public class ExpressionAnalyzer {
+    private final CostModel costModel;
+
+    /**
+     * Creates an analyzer that only knows the built-in functions
+     */
+    public ExpressionAnalyzer() {
+        this(new CostModel());
+    }
+
+    /**
+     * Creates an analyzer using the given cost model
+     *
+     * @param costModel The cost model used to estimate evaluation cost
+     */
+    public ExpressionAnalyzer(CostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    /**
+     * Analyzes an expression tree
+     *
+     * @param expression The expression to analyze
+     * @return The complexity report
+     */
+    public ComplexityReport analyze(Expression expression) {
+        return new ComplexityReport(depth(expression), countNodes(expression), costModel.cost(expression));
+    }
+
+    /**
+     * Estimates the heap retained by a set of expressions, such as all rules of an application. Nodes
+     * and strings shared between expressions, e.g. by an {@link
+     * com.expresso.optimizer.ExpressionInterner}, are counted once.
+     *
+     * @param expressions The expressions to measure
+     * @return The heap report
+     */
+    public HeapReport analyzeHeap(Collection<? extends Expression> expressions) {
+        return HeapEstimator.estimate(expressions);
+    }
+
+    public CostModel getCostModel() {
+        return costModel;
+    }
+
+    private int depth(Expression expression) {
+        int maxChildDepth = 0;
+        for (Expression child : expression.getChildren()) {
+            maxChildDepth = Math.max(maxChildDepth, depth(child));
+        }
+        return maxChildDepth + 1;
+    }
+
+    private int countNodes(Expression expression) {
+        int count = 1;
+        for (Expression child : expression.getChildren()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,171 @@
+package com.expresso.analysis;
+
+import com.expresso.ast.Expression;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the heap retained by expression trees. Sizes follow the layout of a 64-bit JVM with
+ * compressed references: 12-byte object headers, 4-byte references and 8-byte alignment.
+ *
+ * <p>Nodes are measured from their fields. Strings, boxed values, arrays and collections reachable
+ * from them are estimated from their contents; any other object, such as a linked function or a
+ * compiled pattern, is treated as shared and not counted.
+ */
+final class HeapEstimator {
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+
+    private final Map<Class<?>, List<Field>> fields = new HashMap<>();
+    private final Map<Object, Boolean> visited = new IdentityHashMap<>();
+    private final Deque<Object> pending = new ArrayDeque<>();
+    private int distinctNodes;
+    private int distinctStrings;
+    private long bytes;
+
+    static HeapReport estimate(Collection<? extends Expression> expressions) {
+        HeapEstimator estimator = new HeapEstimator();
+        Map<Expression, Long> treeSizes = new IdentityHashMap<>();
+        long nodes = 0;
+        for (Expression expression : expressions) {
+            estimator.add(expression);
+            nodes += treeSize(expression, treeSizes);
+        }
+        estimator.drain();
+        return new HeapReport(expressions.size(), nodes, estimator.distinctNodes, estimator.distinctStrings,
+            estimator.bytes);
+    }
+
+    private static long treeSize(Expression expression, Map<Expression, Long> treeSizes) {
+        Long known = treeSizes.get(expression);
+        if (known != null) {
+            return known;
+        }
+        long size = 1;
+        for (Expression child : expression.getChildren()) {
+            size += treeSize(child, treeSizes);
+        }
+        treeSizes.put(expression, size);
+        return size;
+    }
+
+    private void add(Object object) {
+        if (object != null && visited.put(object, Boolean.TRUE) == null) {
+            pending.push(object);
+        }
+    }
+
+    private void drain() {
+        while (!pending.isEmpty()) {
+            measure(pending.pop());
+        }
+    }
+
+    private void measure(Object object) {
+        if (object instanceof String string) {
+            distinctStrings++;
+            boolean latin1 = string.chars().allMatch(c -> c < 256);
+            bytes += align(HEADER + 3 * 4) + align(ARRAY_HEADER + (long) string.length() * (latin1 ? 1 : 2));
+        } else if (object instanceof Number || object instanceof Boolean || object instanceof Character) {
+            bytes += 16;
+        } else if (object instanceof Object[] array) {
+            bytes += align(ARRAY_HEADER + (long) array.length * REFERENCE);
+            for (Object element : array) {
+                add(element);
+            }
+        } else if (object.getClass().isArray()) {
+            bytes += align(ARRAY_HEADER + (long) Array.getLength(object)
+                * primitiveSize(object.getClass().getComponentType()));
+        } else if (object instanceof Set<?> set) {
+            bytes += hashTable(set.size());
+            set.forEach(this::add);
+        } else if (object instanceof Collection<?> collection) {
+            bytes += align(HEADER + 2 * 4) + align(ARRAY_HEADER + (long) collection.size() * REFERENCE);
+            collection.forEach(this::add);
+        } else if (object instanceof Map<?, ?> map) {
+            bytes += hashTable(map.size());
+            map.forEach((key, value) -> {
+                add(key);
+                add(value);
+            });
+        } else if (object instanceof Expression) {
+            distinctNodes++;
+            long size = HEADER;
+            for (Field field : fields(object.getClass())) {
+                if (field.getType().isPrimitive()) {
+                    size += primitiveSize(field.getType());
+                } else {
+                    size += REFERENCE;
+                    add(read(field, object));
+                }
+            }
+            bytes += align(size);
+        }
+    }
+
+    private List<Field> fields(Class<?> type) {
+        List<Field> known = fields.get(type);
+        if (known == null) {
+            known = new ArrayList<>();
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        known.add(field);
+                    }
+                }
+            }
+            fields.put(type, known);
+        }
+        return known;
+    }
+
+    private static Object read(Field field, Object object) {
+        try {
+            Object value = field.get(object);
+            // Only values owned by the tree are measured; other objects are shared
+            if (value instanceof Expression || value instanceof String || value instanceof Number
+                || value instanceof Boolean || value instanceof Character || value instanceof Collection<?>
+                || value instanceof Map<?, ?> || (value != null && value.getClass().isArray())) {
+                return value;
+            }
+            return null;
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static long hashTable(int size) {
+        // The set or map, its table of buckets at the default load factor and one node per entry
+        int buckets = Integer.highestOneBit(Math.max(1, (int) (size / 0.75f)) * 2 - 1);
+        return align(HEADER + 6 * 4) + align(ARRAY_HEADER + (long) buckets * REFERENCE) + (long) size * 32;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
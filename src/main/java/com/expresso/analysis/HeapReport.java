@@ -0,0 +1,20 @@
+package com.expresso.analysis;
+
+/**
+ * Estimated heap retained by a set of parsed expressions, counting shared nodes and strings once.
+ *
+ * @param expressionCount The number of expressions in the set
+ * @param nodeCount The total number of nodes, counting a shared node once per tree position
+ * @param distinctNodeCount The number of distinct node instances
+ * @param distinctStringCount The number of distinct string instances held by the nodes
+ * @param retainedBytes The estimated number of bytes retained by the set
+ */
+public record HeapReport(
+        int expressionCount, long nodeCount, int distinctNodeCount, int distinctStringCount, long retainedBytes) {
+
+    @Override
+    public String toString() {
+        return "expressions=" + expressionCount + ", nodes=" + nodeCount + ", distinctNodes=" + distinctNodeCount
+            + ", distinctStrings=" + distinctStringCount + ", retainedBytes=" + retainedBytes;
+    }
+}
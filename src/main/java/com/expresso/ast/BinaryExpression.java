@@ -3,6 +3,7 @@ package com.expresso.ast;
 import com.expresso.context.Context;
 import com.expresso.exception.ArithmeticExpressionException;
 import com.expresso.exception.InvalidOperationException;
+import java.util.List;
 
 /**
  * AST node for binary expressions (e.g., a + b, a * b)
@@ -61,7 +62,18 @@ public class BinaryExpression implements Expression {
         
         // For non-short-circuit operators, evaluate both sides
         Object rightValue = right.evaluate(context);
-        
+        return apply(leftValue, rightValue);
+    }
+
+    /**
+     * Applies a non-short-circuit operator to evaluated operands. Used by evaluation and by
+     * compiled expressions, which evaluate the operands themselves.
+     *
+     * @param leftValue The value of the left operand
+     * @param rightValue The value of the right operand
+     * @return The result of the operation
+     */
+    public Object apply(Object leftValue, Object rightValue) {
         switch (operator) {
             case ADD:
                 if (leftValue instanceof String || rightValue instanceof String) {
@@ -101,29 +113,9 @@ public class BinaryExpression implements Expression {
                 }
                 throw new InvalidOperationException("%", leftValue, rightValue, "Cannot perform modulo with non-numeric values");
             case EQUALS:
-                if (leftValue == null && rightValue == null) {
-                    return true;
-                }
-                if (leftValue == null || rightValue == null) {
-                    return false;
-                }
-                // Special handling for numeric comparisons
-                if (leftValue instanceof Number && rightValue instanceof Number) {
-                    return Double.compare(((Number) leftValue).doubleValue(), ((Number) rightValue).doubleValue()) == 0;
-                }
-                return leftValue.equals(rightValue);
+                return areEqual(leftValue, rightValue);
             case NOT_EQUALS:
-                if (leftValue == null && rightValue == null) {
-                    return false;
-                }
-                if (leftValue == null || rightValue == null) {
-                    return true;
-                }
-                // Special handling for numeric comparisons
-                if (leftValue instanceof Number && rightValue instanceof Number) {
-                    return Double.compare(((Number) leftValue).doubleValue(), ((Number) rightValue).doubleValue()) != 0;
-                }
-                return !leftValue.equals(rightValue);
+                return !areEqual(leftValue, rightValue);
             case GREATER_THAN:
                 if (leftValue == null || rightValue == null) {
                     return false; // Null values cannot be compared
@@ -149,12 +141,40 @@ public class BinaryExpression implements Expression {
         }
     }
     
+    @Override
+    public List<Expression> getChildren() {
+        return List.of(left, right);
+    }
+
+    /**
+     * Creates a copy of this node with new operands, keeping its operator and its specialisation
+     *
+     * @param left The new left operand
+     * @param right The new right operand
+     * @return The new node
+     */
+    public BinaryExpression withOperands(Expression left, Expression right) {
+        return new BinaryExpression(left, right, operator);
+    }
+
+    public Expression getLeft() {
+        return left;
+    }
+
+    public Expression getRight() {
+        return right;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
     /**
      * Determines if a value is truthy (true if not null and not false)
      * @param value The value to check
      * @return true if the value is truthy, false otherwise
      */
-    private boolean isTruthy(Object value) {
+    public static boolean isTruthy(Object value) {
         if (value == null) {
             return false;
         }
@@ -164,6 +184,24 @@ public class BinaryExpression implements Expression {
         return true; // Non-null, non-boolean values are considered truthy
     }
     
+    /**
+     * Determines if two values are equal under {@link Operator#EQUALS}: null only equals null and
+     * numbers are compared by their double value
+     * @param left The left value
+     * @param right The right value
+     * @return true if the values are equal, false otherwise
+     */
+    public static boolean areEqual(Object left, Object right) {
+        if (left == null || right == null) {
+            return left == right;
+        }
+        // Special handling for numeric comparisons
+        if (left instanceof Number && right instanceof Number) {
+            return Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue()) == 0;
+        }
+        return left.equals(right);
+    }
+
     /**
      * Compares two values and returns an integer indicating their relationship
      * @param left The left value
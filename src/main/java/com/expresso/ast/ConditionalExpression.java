@@ -1,6 +1,7 @@
 package com.expresso.ast;
 
 import com.expresso.context.Context;
+import java.util.List;
 
 /**
  * Represents a conditional (ternary) expression: condition ? trueExpr : falseExpr
@@ -27,6 +28,23 @@ public class ConditionalExpression implements Expression {
         return conditionResult ? trueExpression.evaluate(context) : falseExpression.evaluate(context);
     }
     
+    @Override
+    public List<Expression> getChildren() {
+        return List.of(condition, trueExpression, falseExpression);
+    }
+
+    public Expression getCondition() {
+        return condition;
+    }
+
+    public Expression getTrueExpression() {
+        return trueExpression;
+    }
+
+    public Expression getFalseExpression() {
+        return falseExpression;
+    }
+
     /**
      * Determines if a value is truthy (true if not null and not false)
      * @param value The value to check
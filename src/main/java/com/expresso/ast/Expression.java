@@ -1,8 +1,12 @@
 package com.expresso.ast;
 
 import com.expresso.context.Context;
+import java.util.List;
 
-/** Base interface for all AST nodes in the expression evaluator. */
+/**
+ * Base interface for all AST nodes in the expression evaluator. Nodes are immutable once built, so
+ * parsed expressions can be cached and evaluated by many threads at the same time.
+ */
 public interface Expression {
   /**
    * Evaluates this expression in the given context
@@ -11,4 +15,13 @@ public interface Expression {
    * @return The evaluation result
    */
   Object evaluate(Context context);
+
+  /**
+   * Gets the direct sub-expressions of this node, in evaluation order
+   *
+   * @return The child expressions, empty for leaf nodes
+   */
+  default List<Expression> getChildren() {
+    return List.of();
+  }
 }
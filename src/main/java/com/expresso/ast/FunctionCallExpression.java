@@ -1,37 +1,60 @@
 package com.expresso.ast;
 
 import com.expresso.context.Context;
+import com.expresso.context.functions.PreparableFunction;
 import com.expresso.exception.FunctionExecutionException;
 import com.expresso.exception.UnknownFunctionException;
+import com.expresso.jfr.FunctionCallEvent;
+import com.expresso.metrics.EvaluationListener;
+import com.expresso.metrics.EvaluationScope;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
 /**
- * AST node for function calls
+ * AST node for function calls. A call with literal arguments to a {@link PreparableFunction} is
+ * linked on its first evaluation: the function prepared for those arguments is kept and reused as
+ * long as the name resolves to the same function. The link is published as a whole through a
+ * volatile field, so threads evaluating the same call concurrently at worst prepare it twice.
+ *
+ * <p>Variables passed directly to isNull and coalesce are marked as being in a safe context when the
+ * call is built, see {@link VariableExpression#isInSafeContext()}.
  */
 public class FunctionCallExpression implements Expression {
     private final String name;
     private final List<Expression> arguments;
+    // Literal argument values and their positions, or null if no argument is a literal
+    private final Object[] constantValues;
+    private final boolean[] constant;
+    private volatile Link link;
 
     public FunctionCallExpression(String name, List<Expression> arguments) {
         this.name = name;
-        this.arguments = arguments;
+        this.arguments = markSafeArguments(name, arguments);
+        boolean[] literal = new boolean[arguments.size()];
+        Object[] values = new Object[arguments.size()];
+        boolean anyLiteral = false;
+        for (int i = 0; i < literal.length; i++) {
+            if (arguments.get(i) instanceof LiteralExpression literalArgument) {
+                literal[i] = true;
+                values[i] = literalArgument.value();
+                anyLiteral = true;
+            }
+        }
+        this.constant = anyLiteral ? literal : null;
+        this.constantValues = anyLiteral ? values : null;
     }
 
     @Override
     public Object evaluate(Context context) {
         // Special handling for isNull to avoid throwing exceptions for non-existent variables
         if (name.equals("isNull") && arguments.size() == 1) {
-            // Mark the argument as being used in a safe context if it's a variable
-            if (arguments.get(0) instanceof VariableExpression) {
-                ((VariableExpression) arguments.get(0)).setInSafeContext(true);
-            }
-            
+            // Missing variables and properties evaluate to null; this only catches failures of
+            // nested calls and operators
             try {
                 Object value = arguments.get(0).evaluate(context);
                 return value == null;
             } catch (Exception e) {
-                // For isNull function, treat exceptions as null values
                 return true;
             }
         }
@@ -39,11 +62,6 @@ public class FunctionCallExpression implements Expression {
         // Special handling for coalesce to avoid throwing exceptions for null entries
         if (name.equals("coalesce")) {
             for (Expression arg : arguments) {
-                // Mark variables as safe
-                if (arg instanceof VariableExpression) {
-                    ((VariableExpression) arg).setInSafeContext(true);
-                }
-                
                 try {
                     Object value = arg.evaluate(context);
                     if (value != null) {
@@ -61,6 +79,9 @@ public class FunctionCallExpression implements Expression {
         if (function == null) {
             throw new UnknownFunctionException(name);
         }
+        if (constant != null && function instanceof PreparableFunction preparable) {
+            function = link(preparable);
+        }
 
         // Evaluate arguments
         Object[] args = new Object[arguments.size()];
@@ -68,6 +89,11 @@ public class FunctionCallExpression implements Expression {
             args[i] = arguments.get(i).evaluate(context);
         }
 
+        EvaluationListener listener = EvaluationScope.current();
+        FunctionCallEvent event = FunctionCallEvent.start();
+        if (listener != null || event != null) {
+            return applyMeasured(function, args, listener, event);
+        }
         try {
             return function.apply(args);
         } catch (Exception e) {
@@ -75,6 +101,72 @@ public class FunctionCallExpression implements Expression {
         }
     }
 
+    private Object applyMeasured(
+            Function<Object[], Object> function, Object[] args, EvaluationListener listener, FunctionCallEvent event) {
+        long start = listener != null ? System.nanoTime() : 0;
+        boolean failed = true;
+        try {
+            Object result = function.apply(args);
+            failed = false;
+            return result;
+        } catch (Exception e) {
+            throw new FunctionExecutionException(name, e.getMessage(), e);
+        } finally {
+            if (listener != null) {
+                listener.onFunctionCall(name, System.nanoTime() - start, failed);
+            }
+            if (event != null) {
+                event.finish(name, failed);
+            }
+        }
+    }
+
+    /**
+     * Copies the arguments of a call, marking the variables passed directly to isNull and coalesce
+     * as being in a safe context, so that missing values evaluate to null instead of throwing
+     */
+    private static List<Expression> markSafeArguments(String name, List<Expression> arguments) {
+        boolean safe = (name.equals("isNull") && arguments.size() == 1) || name.equals("coalesce");
+        if (!safe) {
+            return List.copyOf(arguments);
+        }
+        List<Expression> marked = new ArrayList<>(arguments.size());
+        for (Expression argument : arguments) {
+            if (argument instanceof VariableExpression variable) {
+                argument = variable.withSafeContext();
+            }
+            marked.add(argument);
+        }
+        return List.copyOf(marked);
+    }
+
+    /**
+     * Gets the function prepared for the literal arguments of this call, preparing it if this call
+     * has not been linked to the given function yet
+     *
+     * @param function The function the name resolved to
+     * @return The function to call
+     */
+    private Function<Object[], Object> link(PreparableFunction function) {
+        Link current = link;
+        if (current == null || current.function != function) {
+            Function<Object[], Object> prepared;
+            try {
+                prepared = function.prepare(constantValues.clone(), constant.clone());
+            } catch (Exception e) {
+                throw new FunctionExecutionException(name, e.getMessage(), e);
+            }
+            current = new Link(function, prepared != null ? prepared : function);
+            link = current;
+        }
+        return current.prepared;
+    }
+
+    @Override
+    public List<Expression> getChildren() {
+        return arguments;
+    }
+
     public String getName() {
         return name;
     }
@@ -82,4 +174,7 @@ public class FunctionCallExpression implements Expression {
     public List<Expression> getArguments() {
         return arguments;
     }
+
+    private record Link(PreparableFunction function, Function<Object[], Object> prepared) {
+    }
 } 
\ No newline at end of file
@@ -13,7 +13,7 @@ public class FunctionExpression implements Expression {
 
   public FunctionExpression(String name, List<Expression> arguments) {
     this.name = name;
-    this.arguments = arguments;
+    this.arguments = List.copyOf(arguments);
   }
 
   @Override
@@ -49,6 +49,11 @@ public class FunctionExpression implements Expression {
     }
   }
 
+  @Override
+  public List<Expression> getChildren() {
+    return arguments;
+  }
+
   public String getName() {
     return name;
   }
@@ -0,0 +1,130 @@
+package com.expresso.ast;
+
+import com.expresso.context.Context;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * AST node for a membership test (e.g., $country in ('FR', 'DE'), $x not in (1, 2)). Literal
+ * elements are collected into a hash set when the node is built, so the test takes constant time
+ * however long the list is; any other elements are evaluated and compared in order. Membership
+ * follows the rules of {@link BinaryExpression.Operator#EQUALS}, so 1 in (1.0) is true.
+ *
+ * <p>Literal elements are part of the node itself: its children are the tested value and the
+ * non-literal elements only.
+ */
+public class InExpression implements Expression {
+    private final Expression value;
+    private final List<Expression> elements;
+    private final boolean negated;
+    // Literal elements, with numbers normalized to Double
+    private final Set<Object> literals = new HashSet<>();
+    private final boolean containsNull;
+    // Elements that have to be evaluated for every test
+    private final List<Expression> dynamicElements = new ArrayList<>();
+
+    /**
+     * Creates a membership test
+     *
+     * @param value The value to look up
+     * @param elements The elements of the list
+     * @param negated true for not in
+     */
+    public InExpression(Expression value, List<Expression> elements, boolean negated) {
+        this.value = value;
+        this.elements = List.copyOf(elements);
+        this.negated = negated;
+        boolean hasNull = false;
+        for (Expression element : this.elements) {
+            if (element instanceof LiteralExpression literal) {
+                if (literal.value() == null) {
+                    hasNull = true;
+                } else {
+                    literals.add(key(literal.value()));
+                }
+            } else {
+                dynamicElements.add(element);
+            }
+        }
+        this.containsNull = hasNull;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        return contains(value.evaluate(context), context) != negated;
+    }
+
+    private boolean contains(Object candidate, Context context) {
+        if (containsLiteral(candidate)) {
+            return true;
+        }
+        for (Expression element : dynamicElements) {
+            if (BinaryExpression.areEqual(candidate, element.evaluate(context))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests whether a value equals one of the literal elements of the list
+     *
+     * @param candidate The evaluated value
+     * @return true if a literal element equals the value
+     */
+    public boolean containsLiteral(Object candidate) {
+        return candidate == null ? containsNull : literals.contains(key(candidate));
+    }
+
+    @Override
+    public List<Expression> getChildren() {
+        List<Expression> children = new ArrayList<>(dynamicElements.size() + 1);
+        children.add(value);
+        children.addAll(dynamicElements);
+        return children;
+    }
+
+    /**
+     * Creates a copy of this node with new children, keeping the literal elements
+     *
+     * @param children The tested value followed by the non-literal elements
+     * @return The new node
+     */
+    public InExpression withChildren(List<Expression> children) {
+        List<Expression> newElements = new ArrayList<>(elements.size());
+        for (Expression element : elements) {
+            if (element instanceof LiteralExpression) {
+                newElements.add(element);
+            }
+        }
+        newElements.addAll(children.subList(1, children.size()));
+        return new InExpression(children.get(0), newElements, negated);
+    }
+
+    public Expression getValue() {
+        return value;
+    }
+
+    public List<Expression> getElements() {
+        return elements;
+    }
+
+    public boolean isNegated() {
+        return negated;
+    }
+
+    /**
+     * Gets the hash key of a value: numbers compare by their double value, so they are all
+     * converted to Double
+     * @param value The value, not null
+     * @return The key
+     */
+    private static Object key(Object value) {
+        if (value instanceof Number && !(value instanceof Double)) {
+            return ((Number) value).doubleValue();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,56 @@
+package com.expresso.ast;
+
+import com.expresso.context.Context;
+import java.util.List;
+
+/**
+ * AST node for a chain of the same logical operator (e.g., a || b || c). The operands are evaluated
+ * left to right in a loop and evaluation stops at the first operand that decides the result, so
+ * long chains need neither deep trees nor deep recursion.
+ */
+public class LogicalExpression implements Expression {
+    private final List<Expression> operands;
+    private final BinaryExpression.Operator operator;
+
+    /**
+     * Creates a logical chain
+     *
+     * @param operands The operands in evaluation order, at least two
+     * @param operator {@link BinaryExpression.Operator#AND} or {@link BinaryExpression.Operator#OR}
+     */
+    public LogicalExpression(List<Expression> operands, BinaryExpression.Operator operator) {
+        if (operator != BinaryExpression.Operator.AND && operator != BinaryExpression.Operator.OR) {
+            throw new IllegalArgumentException("Not a logical operator: " + operator);
+        }
+        if (operands.size() < 2) {
+            throw new IllegalArgumentException("A logical chain needs at least two operands");
+        }
+        this.operands = List.copyOf(operands);
+        this.operator = operator;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        // AND stops at the first falsy operand, OR at the first truthy one
+        boolean shortCircuitValue = operator == BinaryExpression.Operator.OR;
+        for (Expression operand : operands) {
+            if (BinaryExpression.isTruthy(operand.evaluate(context)) == shortCircuitValue) {
+                return shortCircuitValue;
+            }
+        }
+        return !shortCircuitValue;
+    }
+
+    @Override
+    public List<Expression> getChildren() {
+        return operands;
+    }
+
+    public List<Expression> getOperands() {
+        return operands;
+    }
+
+    public BinaryExpression.Operator getOperator() {
+        return operator;
+    }
+}
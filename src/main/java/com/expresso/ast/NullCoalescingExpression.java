@@ -1,28 +1,48 @@
 package com.expresso.ast;
 
 import com.expresso.context.Context;
+import java.util.List;
 
 /** AST node for null coalescing expressions (?? operator) */
 public record NullCoalescingExpression(Expression left, Expression right) implements Expression {
 
+  public NullCoalescingExpression {
+    // A missing variable or property on the left evaluates to null, so the default applies
+    if (left instanceof VariableExpression variable) {
+      left = variable.withSafeContext();
+    }
+  }
+
   @Override
   public Object evaluate(Context context) {
     Object value = left.evaluate(context);
 
     if (value == null) {
-
-      Object defaultValue = right.evaluate(context);
-
-      if (defaultValue instanceof String strValue) {
-          if ((strValue.startsWith("'") && strValue.endsWith("'"))
-            || (strValue.startsWith("\"") && strValue.endsWith("\""))) {
-          return strValue.substring(1, strValue.length() - 1);
-        }
-        return strValue;
-      }
-      return defaultValue;
+      return defaultValue(right.evaluate(context));
     } else {
       return value;
     }
   }
+
+  /**
+   * Gets the result of the operator when the left operand is null
+   *
+   * @param defaultValue The value of the right operand
+   * @return The value, without the quotes of a quoted string
+   */
+  public static Object defaultValue(Object defaultValue) {
+    if (defaultValue instanceof String strValue) {
+        if ((strValue.startsWith("'") && strValue.endsWith("'"))
+          || (strValue.startsWith("\"") && strValue.endsWith("\""))) {
+        return strValue.substring(1, strValue.length() - 1);
+      }
+      return strValue;
+    }
+    return defaultValue;
+  }
+
+  @Override
+  public List<Expression> getChildren() {
+    return List.of(left, right);
+  }
 }
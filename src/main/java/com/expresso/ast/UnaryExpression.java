@@ -1,6 +1,7 @@
 package com.expresso.ast;
 
 import com.expresso.context.Context;
+import java.util.List;
 
 /**
  * Represents a unary expression (e.g., -$a, !$b).
@@ -21,8 +22,16 @@ public class UnaryExpression implements Expression {
 
     @Override
     public Object evaluate(Context context) {
-        Object value = operand.evaluate(context);
+        return apply(operand.evaluate(context));
+    }
 
+    /**
+     * Applies the operator to the evaluated operand
+     *
+     * @param value The value of the operand
+     * @return The result of the operation
+     */
+    public Object apply(Object value) {
         switch (operator) {
             case NEGATE:
                 if (value == null) {
@@ -39,6 +48,19 @@ public class UnaryExpression implements Expression {
         }
     }
 
+    @Override
+    public List<Expression> getChildren() {
+        return List.of(operand);
+    }
+
+    public Expression getOperand() {
+        return operand;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
     /**
      * Determines if a value is truthy (true if not null and not false)
      * @param value The value to check
@@ -1,7 +1,6 @@
 package com.expresso.ast;
 
 import com.expresso.context.Context;
-import com.expresso.exception.PropertyNotFoundException;
 import com.expresso.exception.VariableNotFoundException;
 
 /** AST node for variable references and property access */
@@ -9,8 +8,8 @@ public class VariableExpression implements Expression {
   private final String name;
   private final String propertyPath;
   private final boolean isNullSafe;
-  // A flag to indicate if this variable is being used in a safe context
-  private boolean inSafeContext = false;
+  // Whether a missing variable evaluates to null instead of throwing, as in isNull and coalesce
+  private final boolean inSafeContext;
 
   public VariableExpression(String name) {
     this(name, null, false);
@@ -21,46 +20,46 @@ public class VariableExpression implements Expression {
   }
 
   public VariableExpression(String name, String propertyPath, boolean isNullSafe) {
-    this.name = name;
-    this.propertyPath = propertyPath;
-    this.isNullSafe = isNullSafe;
+    this(name, propertyPath, isNullSafe, false);
   }
 
   /**
-   * Mark this variable as being used in a context where non-existence should return null rather than throwing.
-   * This is used for functions like isNull and coalesce.
+   * Creates a variable reference
+   *
+   * @param name The variable name
+   * @param propertyPath The property path, or null
+   * @param isNullSafe Whether the property path is accessed null-safely
+   * @param inSafeContext Whether a missing variable or property evaluates to null instead of
+   *     throwing. Set for the arguments of isNull and coalesce and the left operand of ??.
    */
-  public void setInSafeContext(boolean inSafeContext) {
+  public VariableExpression(String name, String propertyPath, boolean isNullSafe, boolean inSafeContext) {
+    this.name = name;
+    this.propertyPath = propertyPath;
+    this.isNullSafe = isNullSafe;
     this.inSafeContext = inSafeContext;
   }
 
   @Override
   public Object evaluate(Context context) {
-    // Check if the variable exists in the context
-    boolean exists = context.variableExists(name);
+    // Null-safe and safe-context references resolve missing values to null without throwing
+    boolean lenient = isNullSafe || inSafeContext;
     Object value = context.getVariable(name);
-
-    // If there's no property path, handle the variable value directly
+    if (value == null && !lenient && !context.variableExists(name)) {
+      throw new VariableNotFoundException(name);
+    }
     if (propertyPath == null) {
-      if (value == null && !exists && !isNullSafe && !inSafeContext) {
-        throw new VariableNotFoundException(name);
-      }
       return value;
     }
+    return context.resolveProperty(value, propertyPath, lenient);
+  }
 
-    // If there is a property path, resolve it with null-safe handling
-    try {
-      if (value == null && !exists && !isNullSafe && !inSafeContext) {
-        throw new VariableNotFoundException(name);
-      }
-
-      return context.resolveProperty(value, propertyPath, isNullSafe);
-    } catch (PropertyNotFoundException e) {
-      if (isNullSafe || inSafeContext) {
-        return null;
-      }
-      throw e;
-    }
+  /**
+   * Gets this variable marked as being in a safe context
+   *
+   * @return This variable if it is already in a safe context, a marked copy otherwise
+   */
+  public VariableExpression withSafeContext() {
+    return inSafeContext ? this : new VariableExpression(name, propertyPath, isNullSafe, true);
   }
 
   public String getName() {
@@ -74,4 +73,8 @@ public class VariableExpression implements Expression {
   public boolean isNullSafe() {
     return isNullSafe;
   }
+
+  public boolean isInSafeContext() {
+    return inSafeContext;
+  }
 }
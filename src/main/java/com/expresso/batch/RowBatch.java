@@ -0,0 +1,213 @@
+package com.expresso.batch;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A batch of rows stored in a byte buffer with a {@link RowLayout}, usually a direct buffer
+ * outside of the Java heap. Rows are numbered from 0 and row {@code i} starts at byte {@code i *
+ * rowSize} of the buffer. Producers may write rows with the setters of this class or directly into
+ * the buffer, following the layout.
+ *
+ * <p>Batches are not thread-safe while rows are written; once filled, they can be read by many
+ * threads.
+ */
+public final class RowBatch {
+    private final RowLayout layout;
+    private final int rowSize;
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private int size;
+
+    private RowBatch(RowLayout layout, ByteBuffer buffer, int size) {
+        layout.freeze();
+        this.layout = layout;
+        this.rowSize = layout.getRowSize();
+        this.buffer = buffer;
+        this.capacity = rowSize == 0 ? 0 : buffer.capacity() / rowSize;
+        this.size = size;
+    }
+
+    /**
+     * Creates an empty batch in a new direct buffer. The layout can no longer be changed.
+     *
+     * @param layout The layout of the rows
+     * @param capacity The maximum number of rows
+     * @return The batch
+     */
+    public static RowBatch allocate(RowLayout layout, int capacity) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.multiplyExact(layout.getRowSize(), capacity));
+        return new RowBatch(layout, buffer.order(ByteOrder.LITTLE_ENDIAN), 0);
+    }
+
+    /**
+     * Creates a batch of the rows held by the remaining bytes of a buffer, for example a buffer
+     * received from the network or mapped from a file. The batch shares the content of the buffer
+     * but not its position, limit and byte order. The layout can no longer be changed.
+     *
+     * @param layout The layout of the rows
+     * @param buffer The buffer, whose remaining bytes are whole rows
+     * @return The batch, holding all the rows of the buffer
+     * @throws IllegalArgumentException if the remaining bytes are not a whole number of rows
+     */
+    public static RowBatch wrap(RowLayout layout, ByteBuffer buffer) {
+        int rowSize = layout.getRowSize();
+        if (rowSize == 0 || buffer.remaining() % rowSize != 0) {
+            throw new IllegalArgumentException(
+                "Buffer of " + buffer.remaining() + " bytes does not hold rows of " + rowSize + " bytes");
+        }
+        return new RowBatch(layout, buffer.slice().order(ByteOrder.LITTLE_ENDIAN), buffer.remaining() / rowSize);
+    }
+
+    /**
+     * Gets the layout of the rows
+     *
+     * @return The layout
+     */
+    public RowLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Gets the buffer holding the rows
+     *
+     * @return The buffer, in little-endian byte order
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Gets the number of rows of the batch
+     *
+     * @return The number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of rows of the batch
+     *
+     * @return The capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds a row whose fields are zero, false and empty strings
+     *
+     * @return The index of the new row
+     * @throws IllegalStateException if the batch is full
+     */
+    public int addRow() {
+        if (size == capacity) {
+            throw new IllegalStateException("Batch is full (" + capacity + " rows)");
+        }
+        int start = size * rowSize;
+        for (int i = 0; i < rowSize; i++) {
+            buffer.put(start + i, (byte) 0);
+        }
+        return size++;
+    }
+
+    /**
+     * Removes all the rows, so that the batch can be filled again
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Sets an INT field
+     *
+     * @param row The row index
+     * @param field The field name
+     * @param value The value
+     * @return This batch
+     */
+    public RowBatch setInt(int row, String field, int value) {
+        buffer.putInt(position(row, field, RowLayout.FieldType.INT).offset, value);
+        return this;
+    }
+
+    /**
+     * Sets a LONG field
+     *
+     * @param row The row index
+     * @param field The field name
+     * @param value The value
+     * @return This batch
+     */
+    public RowBatch setLong(int row, String field, long value) {
+        buffer.putLong(position(row, field, RowLayout.FieldType.LONG).offset, value);
+        return this;
+    }
+
+    /**
+     * Sets a DOUBLE field
+     *
+     * @param row The row index
+     * @param field The field name
+     * @param value The value
+     * @return This batch
+     */
+    public RowBatch setDouble(int row, String field, double value) {
+        buffer.putDouble(position(row, field, RowLayout.FieldType.DOUBLE).offset, value);
+        return this;
+    }
+
+    /**
+     * Sets a BOOLEAN field
+     *
+     * @param row The row index
+     * @param field The field name
+     * @param value The value
+     * @return This batch
+     */
+    public RowBatch setBoolean(int row, String field, boolean value) {
+        buffer.put(position(row, field, RowLayout.FieldType.BOOLEAN).offset, (byte) (value ? 1 : 0));
+        return this;
+    }
+
+    /**
+     * Sets a STRING field
+     *
+     * @param row The row index
+     * @param field The field name
+     * @param value The value, or null
+     * @return This batch
+     * @throws IllegalArgumentException if the encoded value is longer than the capacity of the field
+     */
+    public RowBatch setString(int row, String field, String value) {
+        Position position = position(row, field, RowLayout.FieldType.STRING);
+        if (value == null) {
+            buffer.putShort(position.offset, (short) -1);
+            return this;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > position.field.capacity()) {
+            throw new IllegalArgumentException("Value of " + bytes.length + " bytes exceeds the capacity of field '"
+                + field + "' (" + position.field.capacity() + " bytes)");
+        }
+        buffer.putShort(position.offset, (short) bytes.length);
+        buffer.put(position.offset + Short.BYTES, bytes);
+        return this;
+    }
+
+    private record Position(RowLayout.Field field, int offset) {
+    }
+
+    private Position position(int row, String name, RowLayout.FieldType type) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of batch of " + size + " rows");
+        }
+        RowLayout.Field field = layout.field(name);
+        if (field.type() != type) {
+            throw new IllegalArgumentException("Field '" + name + "' is of type " + field.type() + ", not " + type);
+        }
+        return new Position(field, row * rowSize + field.offset());
+    }
+}
@@ -0,0 +1,622 @@
+package com.expresso.batch;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.ConditionalExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LiteralExpression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.UnaryExpression;
+import com.expresso.ast.VariableExpression;
+import com.expresso.compiler.RootTypeCompiler;
+import com.expresso.exception.ArithmeticExpressionException;
+import com.expresso.exception.EvaluationException;
+import com.expresso.exception.TypeCheckException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compiles expressions into {@link RowNode}s reading the fields of rows at their offsets. Literals,
+ * fields, logical operators, conditionals, arithmetic and comparisons of numbers, equality of string
+ * fields with string literals, and membership of fields in lists of literals are compiled into
+ * typed nodes that neither box values nor allocate. The other operators and function calls are
+ * compiled by {@link RootTypeCompiler}, with the same results as when the expression is evaluated
+ * with a context holding the values of the fields.
+ */
+final class RowCompiler extends RootTypeCompiler<Object> {
+    private final RowLayout layout;
+
+    /**
+     * Creates a compiler
+     *
+     * @param layout The layout of the rows
+     * @param functions Gets the implementation of a function by name, or null if it does not exist
+     */
+    RowCompiler(RowLayout layout, Function<String, Function<Object[], Object>> functions) {
+        super(Object.class, functions);
+        this.layout = layout;
+    }
+
+    /**
+     * Compiles an expression into the node evaluating it
+     *
+     * @param expression The parsed expression
+     * @return The root node
+     */
+    RowNode node(Expression expression) {
+        return RowNode.of(compile(expression));
+    }
+
+    @Override
+    protected Function<Object, Object> compile(Expression expression) {
+        if (expression instanceof LiteralExpression literal) {
+            return new Literal(literal.value());
+        }
+        if (expression instanceof VariableExpression variable) {
+            return variable(variable);
+        }
+        if (expression instanceof LogicalExpression logical) {
+            return new Logical(nodes(logical.getOperands()), logical.getOperator() == BinaryExpression.Operator.OR);
+        }
+        if (expression instanceof BinaryExpression binary) {
+            return binary(binary);
+        }
+        if (expression instanceof UnaryExpression unary) {
+            RowNode operand = node(unary.getOperand());
+            if (unary.getOperator() == UnaryExpression.Operator.NOT) {
+                return new Not(operand);
+            }
+            if (operand.isNumber()) {
+                return new Negate(operand);
+            }
+            return new Apply(values -> unary.apply(values[0]), operand);
+        }
+        if (expression instanceof ConditionalExpression conditional) {
+            return new Conditional(node(conditional.getCondition()),
+                node(conditional.getTrueExpression()), node(conditional.getFalseExpression()));
+        }
+        if (expression instanceof InExpression in) {
+            RowNode typed = membership(in);
+            if (typed != null) {
+                return typed;
+            }
+        }
+        return super.compile(expression);
+    }
+
+    @Override
+    protected Function<Object, Object> variable(VariableExpression variable) {
+        String name = variable.getName();
+        String path = variable.getPropertyPath();
+        while (path != null && layout.findStructure(name) != null) {
+            // The fields of nested structures are named with their path
+            int end = path.indexOf('.');
+            name = name + "." + (end < 0 ? path : path.substring(0, end));
+            path = end < 0 ? null : path.substring(end + 1);
+        }
+        if (layout.findStructure(name) != null) {
+            throw new TypeCheckException(List.of("Structure '$" + name + "' can only be used through its fields"));
+        }
+        RowLayout.Field field = layout.findField(name);
+        if (field == null) {
+            // Only reachable where missing variables are allowed, such as the arguments of isNull
+            return new Literal(null);
+        }
+        if (path != null) {
+            if (variable.isInSafeContext()) {
+                // Fields have no properties, which safe contexts resolve to null like a context does
+                return new Literal(null);
+            }
+            // Rejected by the validation of the expression against the schema of the layout
+            throw new TypeCheckException(List.of("Property '" + path + "' not found on '$" + field.name() + "'"));
+        }
+        return switch (field.type()) {
+            case INT -> new IntField(field.offset());
+            case LONG -> new LongField(field.offset());
+            case DOUBLE -> new DoubleField(field.offset());
+            case BOOLEAN -> new BooleanField(field.offset());
+            case STRING -> new StringField(field);
+        };
+    }
+
+    private RowNode binary(BinaryExpression binary) {
+        BinaryExpression.Operator operator = binary.getOperator();
+        if (operator == BinaryExpression.Operator.AND || operator == BinaryExpression.Operator.OR) {
+            return new Logical(nodes(binary.getChildren()), operator == BinaryExpression.Operator.OR);
+        }
+        RowNode left = node(binary.getLeft());
+        RowNode right = node(binary.getRight());
+        if (left.isNumber() && right.isNumber()) {
+            switch (operator) {
+                case ADD, SUBTRACT, MULTIPLY, DIVIDE, MODULO:
+                    return new Arithmetic(operator, left, right);
+                case EQUALS, NOT_EQUALS, GREATER_THAN, LESS_THAN, GREATER_THAN_OR_EQUAL, LESS_THAN_OR_EQUAL:
+                    return new Comparison(operator, left, right);
+                default:
+                    break;
+            }
+        }
+        if (operator == BinaryExpression.Operator.EQUALS || operator == BinaryExpression.Operator.NOT_EQUALS) {
+            boolean negated = operator == BinaryExpression.Operator.NOT_EQUALS;
+            if (left instanceof StringField field && isStringOrNull(right)) {
+                return new StringIn(field, new byte[][] {encode(((Literal) right).value)}, negated);
+            }
+            if (right instanceof StringField field && isStringOrNull(left)) {
+                return new StringIn(field, new byte[][] {encode(((Literal) left).value)}, negated);
+            }
+        }
+        return new Apply(values -> binary.apply(values[0], values[1]), left, right);
+    }
+
+    /**
+     * Compiles the membership of a field in a list of literals of the field type
+     *
+     * @return The node, or null if the expression has no typed form
+     */
+    private RowNode membership(InExpression in) {
+        List<Expression> elements = in.getElements();
+        for (Expression element : elements) {
+            if (!(element instanceof LiteralExpression)) {
+                return null;
+            }
+        }
+        RowNode value = node(in.getValue());
+        if (value instanceof StringField field) {
+            byte[][] encoded = new byte[elements.size()][];
+            for (int i = 0; i < encoded.length; i++) {
+                Object element = ((LiteralExpression) elements.get(i)).value();
+                if (element != null && !(element instanceof String)) {
+                    return null;
+                }
+                encoded[i] = encode(element);
+            }
+            return new StringIn(field, encoded, in.isNegated());
+        }
+        if (value.isNumber()) {
+            double[] numbers = new double[elements.size()];
+            for (int i = 0; i < numbers.length; i++) {
+                if (!(((LiteralExpression) elements.get(i)).value() instanceof Number number)) {
+                    return null;
+                }
+                numbers[i] = number.doubleValue();
+            }
+            return new NumberIn(value, numbers, in.isNegated());
+        }
+        return null;
+    }
+
+    private RowNode[] nodes(List<Expression> expressions) {
+        RowNode[] nodes = new RowNode[expressions.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = node(expressions.get(i));
+        }
+        return nodes;
+    }
+
+    private static boolean isStringOrNull(RowNode node) {
+        return node instanceof Literal literal && (literal.value == null || literal.value instanceof String);
+    }
+
+    private static byte[] encode(Object value) {
+        return value == null ? null : ((String) value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Literal extends RowNode {
+        private final Object value;
+        private final boolean truthy;
+        private final double number;
+
+        Literal(Object value) {
+            this.value = value;
+            this.truthy = BinaryExpression.isTruthy(value);
+            this.number = value instanceof Number n ? n.doubleValue() : 0;
+        }
+
+        @Override
+        Object evaluate(ByteBuffer buffer, int row) {
+            return value;
+        }
+
+        @Override
+        boolean test(ByteBuffer buffer, int row) {
+            return truthy;
+        }
+
+        @Override
+        double evaluateDouble(ByteBuffer buffer, int row) {
+            return isNumber() ? number : super.evaluateDouble(buffer, row);
+        }
+
+        @Override
+        boolean isNumber() {
+            return value instanceof Number;
+        }
+    }
+
+    /**
+     * A node whose value is a never-null number, and therefore truthy
+     */
+    private abstract static class NumberNode extends RowNode {
+
+        @Override
+        boolean test(ByteBuffer buffer, int row) {
+            return true;
+        }
+
+        @Override
+        boolean isNumber() {
+            return true;
+        }
+    }
+
+    /**
+     * A node whose value is a never-null boolean
+     */
+    private abstract static class ConditionNode extends RowNode {
+
+        @Override
+        Object evaluate(ByteBuffer buffer, int row) {
+            return test(buffer, row);
+        }
+
+        @Override
+        abstract boolean test(ByteBuffer buffer, int row);
+    }
+
+    private static final class IntField extends NumberNode {
+        private final int offset;
+
+        IntField(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        Object evaluate(ByteBuffer buffer, int row) {
+            return (long) buffer.getInt(row + offset);
+        }
+
+        @Override
+        double evaluateDouble(ByteBuffer buffer, int row) {
+            return buffer.getInt(row + offset);
+        }
+    }
+
+    private static final class LongField extends NumberNode {
+        private final int offset;
+
+        LongField(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        Object evaluate(ByteBuffer buffer, int row) {
+            return buffer.getLong(row + offset);
+        }
+
+        @Override
+        double evaluateDouble(ByteBuffer buffer, int row) {
+            return buffer.getLong(row + offset);
+        }
+    }
+
+    private static final class DoubleField extends NumberNode {
+        private final int offset;
+
+        DoubleField(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        Object evaluate(ByteBuffer buffer, int row) {
+            return buffer.getDouble(row + offset);
+        }
+
+        @Override
+        double evaluateDouble(ByteBuffer buffer, int row) {
+            return buffer.getDouble(row + offset);
+        }
+    }
+
+    private static final class BooleanField extends ConditionNode {
+        private final int offset;
+
+        BooleanField(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        boolean test(ByteBuffer buffer, int row) {
+            return buffer.get(row + offset) != 0;
+        }
+    }
+
+    private static final class StringField extends RowNode {
+        private final String name;
+        private final int offset;
+        private final int capacity;
+
+        StringField(RowLayout.Field field) {
+            this.name = field.name();
+            this.offset = field.offset();
+            this.capacity = field.capacity();
+        }
+
+        @Override
+        Object evaluate(ByteBuffer buffer, int row) {
+            int length = length(buffer, row);
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(row + offset + Short.BYTES, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        boolean test(ByteBuffer buffer, int row) {
+            return length(buffer, row) >= 0;
+        }
+
+        /**
+         * Compares the field with an encoded value without decoding it
+         *
+         * @param value The UTF-8 bytes of the value, or null
+         */
+        boolean matches(ByteBuffer buffer, int row, byte[] value) {
+            int length = length(buffer, row);
+            if (value == null || length < 0) {
+                return value == null && length < 0;
+            }
+            if (length != value.length) {
+                return false;
+            }
+            int start = row + offset + Short.BYTES;
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(start + i) != value[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Reads the stored length, which comes from the producer of the buffer and must not reach
+         * into the next field
+         *
+         * @return The length in bytes, negative for null
+         */
+        private int length(ByteBuffer buffer, int row) {
+            int length = buffer.getShort(row + offset);
+            if (length > capacity) {
+                throw new EvaluationException("String field '" + name + "' has a length of " + length
+                    + " bytes, more than its capacity of " + capacity + " bytes");
+            }
+            return length;
+        }
+    }
+
+    private static final class Arithmetic extends NumberNode {
+        private final BinaryExpression.Operator operator;
+        private final RowNode left;
+        private final RowNode right;
+
+        Arithmetic(BinaryExpression.Operator operator, RowNode left, RowNode right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(ByteBuffer buffer, int row) {
+            return evaluateDouble(buffer, row);
+        }
+
+        @Override
+        double evaluateDouble(ByteBuffer buffer, int row) {
+            double leftValue = left.evaluateDouble(buffer, row);
+            double rightValue = right.evaluateDouble(buffer, row);
+            switch (operator) {
+                case ADD:
+                    return leftValue + rightValue;
+                case SUBTRACT:
+                    return leftValue - rightValue;
+                case MULTIPLY:
+                    return leftValue * rightValue;
+                case DIVIDE:
+                    if (rightValue == 0) {
+                        throw ArithmeticExpressionException.divisionByZero(left.evaluate(buffer, row), right.evaluate(buffer, row));
+                    }
+                    return leftValue / rightValue;
+                default:
+                    if (rightValue == 0) {
+                        throw ArithmeticExpressionException.moduloByZero(left.evaluate(buffer, row), right.evaluate(buffer, row));
+                    }
+                    return leftValue % rightValue;
+            }
+        }
+    }
+
+    private static final class Negate extends NumberNode {
+        private final RowNode operand;
+
+        Negate(RowNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object evaluate(ByteBuffer buffer, int row) {
+            return evaluateDouble(buffer, row);
+        }
+
+        @Override
+        double evaluateDouble(ByteBuffer buffer, int row) {
+            return -operand.evaluateDouble(buffer, row);
+        }
+    }
+
+    private static final class Comparison extends ConditionNode {
+        private final BinaryExpression.Operator operator;
+        private final RowNode left;
+        private final RowNode right;
+
+        Comparison(BinaryExpression.Operator operator, RowNode left, RowNode right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(ByteBuffer buffer, int row) {
+            int comparison = Double.compare(left.evaluateDouble(buffer, row), right.evaluateDouble(buffer, row));
+            switch (operator) {
+                case EQUALS:
+                    return comparison == 0;
+                case NOT_EQUALS:
+                    return comparison != 0;
+                case GREATER_THAN:
+                    return comparison > 0;
+                case LESS_THAN:
+                    return comparison < 0;
+                case GREATER_THAN_OR_EQUAL:
+                    return comparison >= 0;
+                default:
+                    return comparison <= 0;
+            }
+        }
+    }
+
+    private static final class StringIn extends ConditionNode {
+        private final StringField field;
+        private final byte[][] values;
+        private final boolean negated;
+
+        StringIn(StringField field, byte[][] values, boolean negated) {
+            this.field = field;
+            this.values = values;
+            this.negated = negated;
+        }
+
+        @Override
+        boolean test(ByteBuffer buffer, int row) {
+            for (byte[] value : values) {
+                if (field.matches(buffer, row, value)) {
+                    return !negated;
+                }
+            }
+            return negated;
+        }
+    }
+
+    private static final class NumberIn extends ConditionNode {
+        private final RowNode operand;
+        private final double[] values;
+        private final boolean negated;
+
+        NumberIn(RowNode operand, double[] values, boolean negated) {
+            this.operand = operand;
+            this.values = values;
+            this.negated = negated;
+        }
+
+        @Override
+        boolean test(ByteBuffer buffer, int row) {
+            double candidate = operand.evaluateDouble(buffer, row);
+            for (double value : values) {
+                if (Double.compare(candidate, value) == 0) {
+                    return !negated;
+                }
+            }
+            return negated;
+        }
+    }
+
+    private static final class Logical extends ConditionNode {
+        private final RowNode[] operands;
+        // AND stops at the first falsy operand, OR at the first truthy one
+        private final boolean shortCircuitValue;
+
+        Logical(RowNode[] operands, boolean or) {
+            this.operands = operands;
+            this.shortCircuitValue = or;
+        }
+
+        @Override
+        boolean test(ByteBuffer buffer, int row) {
+            for (RowNode operand : operands) {
+                if (operand.test(buffer, row) == shortCircuitValue) {
+                    return shortCircuitValue;
+                }
+            }
+            return !shortCircuitValue;
+        }
+    }
+
+    private static final class Not extends ConditionNode {
+        private final RowNode operand;
+
+        Not(RowNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean test(ByteBuffer buffer, int row) {
+            return !operand.test(buffer, row);
+        }
+    }
+
+    private static final class Conditional extends RowNode {
+        private final RowNode condition;
+        private final RowNode whenTrue;
+        private final RowNode whenFalse;
+
+        Conditional(RowNode condition, RowNode whenTrue, RowNode whenFalse) {
+            this.condition = condition;
+            this.whenTrue = whenTrue;
+            this.whenFalse = whenFalse;
+        }
+
+        @Override
+        Object evaluate(ByteBuffer buffer, int row) {
+            return (condition.test(buffer, row) ? whenTrue : whenFalse).evaluate(buffer, row);
+        }
+
+        @Override
+        boolean test(ByteBuffer buffer, int row) {
+            return (condition.test(buffer, row) ? whenTrue : whenFalse).test(buffer, row);
+        }
+
+        @Override
+        double evaluateDouble(ByteBuffer buffer, int row) {
+            return (condition.test(buffer, row) ? whenTrue : whenFalse).evaluateDouble(buffer, row);
+        }
+
+        @Override
+        boolean isNumber() {
+            return whenTrue.isNumber() && whenFalse.isNumber();
+        }
+    }
+
+    /**
+     * Applies a generic operator to the boxed values of its operands
+     */
+    private static final class Apply extends RowNode {
+        private final Function<Object[], Object> operator;
+        private final RowNode[] operands;
+
+        Apply(Function<Object[], Object> operator, RowNode... operands) {
+            this.operator = operator;
+            this.operands = operands;
+        }
+
+        @Override
+        Object evaluate(ByteBuffer buffer, int row) {
+            Object[] values = new Object[operands.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = operands[i].evaluate(buffer, row);
+            }
+            return operator.apply(values);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.expresso.batch;
+
+import com.expresso.ast.Expression;
+import com.expresso.exception.TypeConversionException;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An expression compiled for the rows of a {@link RowLayout}, created with {@link
+ * com.expresso.ExpressionEvaluator#compile(String, RowLayout)}. Variables are read from the fields
+ * of a row at their offsets in the batch buffer: evaluating a row creates no context, and
+ * conditions and numbers made of fields, literals, logical operators, comparisons, arithmetic and
+ * {@code in} lists allocate nothing at all.
+ *
+ * <p>Compiled expressions hold no mutable state and can evaluate rows from many threads at the
+ * same time.
+ */
+public final class RowExpression {
+    private final RowLayout layout;
+    private final int rowSize;
+    private final RowNode root;
+
+    private RowExpression(RowLayout layout, RowNode root) {
+        this.layout = layout;
+        this.rowSize = layout.getRowSize();
+        this.root = root;
+    }
+
+    /**
+     * Compiles a parsed expression. The expression should have been validated against the schema
+     * of the layout, see {@link RowLayout#toSchema()}. The layout can no longer be changed.
+     *
+     * @param expression The parsed expression
+     * @param layout The layout of the rows
+     * @param functions Gets the implementation of a function by name, or null if it does not exist
+     * @return The compiled expression
+     */
+    public static RowExpression compile(
+            Expression expression, RowLayout layout, Function<String, Function<Object[], Object>> functions) {
+        layout.freeze();
+        return new RowExpression(layout, new RowCompiler(layout, functions).node(expression));
+    }
+
+    /**
+     * Gets the layout of the rows
+     *
+     * @return The layout
+     */
+    public RowLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Evaluates the expression for a row
+     *
+     * @param batch The batch
+     * @param row The row index
+     * @return The result. Integer fields are Long values.
+     */
+    public Object evaluate(RowBatch batch, int row) {
+        return root.evaluate(batch.getBuffer(), offset(batch, row));
+    }
+
+    /**
+     * Evaluates the expression as a condition for a row
+     *
+     * @param batch The batch
+     * @param row The row index
+     * @return true if the result is neither null nor false
+     */
+    public boolean test(RowBatch batch, int row) {
+        return root.test(batch.getBuffer(), offset(batch, row));
+    }
+
+    /**
+     * Evaluates a numeric expression for a row
+     *
+     * @param batch The batch
+     * @param row The row index
+     * @return The result
+     * @throws TypeConversionException if the result is not a number
+     */
+    public double evaluateDouble(RowBatch batch, int row) {
+        return root.evaluateDouble(batch.getBuffer(), offset(batch, row));
+    }
+
+    /**
+     * Evaluates the expression as a condition for every row of a batch
+     *
+     * @param batch The batch
+     * @param selection Receives the indexes of the rows for which the condition is true, in
+     *     ascending order. Must hold at least {@code batch.size()} elements.
+     * @return The number of rows selected
+     */
+    public int filter(RowBatch batch, int[] selection) {
+        checkLayout(batch);
+        if (selection.length < batch.size()) {
+            throw new IllegalArgumentException(
+                "Selection of " + selection.length + " elements for a batch of " + batch.size() + " rows");
+        }
+        int selected = 0;
+        for (int row = 0; row < batch.size(); row++) {
+            if (root.test(batch.getBuffer(), row * rowSize)) {
+                selection[selected++] = row;
+            }
+        }
+        return selected;
+    }
+
+    private int offset(RowBatch batch, int row) {
+        checkLayout(batch);
+        return Objects.checkIndex(row, batch.size()) * rowSize;
+    }
+
+    private void checkLayout(RowBatch batch) {
+        if (batch.getLayout() != layout) {
+            throw new IllegalArgumentException("Batch has a different layout than the expression");
+        }
+    }
+}
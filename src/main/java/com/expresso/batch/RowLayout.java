@@ -0,0 +1,255 @@
+package com.expresso.batch;
+
+import com.expresso.validation.ContextSchema;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fixed layout of the rows of a {@link RowBatch}. Fields are stored one after the other in
+ * the order they are declared, without padding, in little-endian byte order:
+ *
+ * <ul>
+ *   <li>{@link FieldType#INT}: 4 bytes
+ *   <li>{@link FieldType#LONG} and {@link FieldType#DOUBLE}: 8 bytes
+ *   <li>{@link FieldType#BOOLEAN}: 1 byte, 0 for false
+ *   <li>{@link FieldType#STRING}: a 2-byte length, -1 for null, followed by a fixed number of bytes
+ *       holding the value encoded in UTF-8
+ * </ul>
+ *
+ * <p>A nested layout added with {@link #with(String, RowLayout)} is a structure whose fields are
+ * stored at that point of the row and read as properties, as in {@code $customer.name}.
+ *
+ * <p>Every field is a variable of the expressions compiled for the layout. Layouts are built once
+ * and can then be shared between threads: a layout can no longer be changed once a batch or an
+ * expression uses it.
+ */
+public final class RowLayout {
+
+    /**
+     * The types of the fields of a row
+     */
+    public enum FieldType {
+        INT(Long.class),
+        LONG(Long.class),
+        DOUBLE(Double.class),
+        BOOLEAN(Boolean.class),
+        STRING(String.class);
+
+        private final Class<?> valueType;
+
+        FieldType(Class<?> valueType) {
+            this.valueType = valueType;
+        }
+
+        /**
+         * Gets the class of the values of fields of this type in expressions
+         *
+         * @return The value class
+         */
+        public Class<?> getValueType() {
+            return valueType;
+        }
+    }
+
+    /**
+     * A field of the layout
+     *
+     * @param name The field name
+     * @param type The field type
+     * @param offset The offset of the field from the start of the row
+     * @param capacity The maximum length in bytes of string values, 0 for other types
+     */
+    record Field(String name, FieldType type, int offset, int capacity) {
+    }
+
+    private final List<Field> fields = new ArrayList<>();
+    private final Map<String, Field> fieldsByName = new HashMap<>();
+    private final Map<String, RowLayout> structures = new LinkedHashMap<>();
+    private int rowSize;
+    private volatile boolean frozen;
+
+    /**
+     * Adds a field of a fixed-size type
+     *
+     * @param name The field name
+     * @param type The field type, other than {@link FieldType#STRING}
+     * @return This layout
+     * @throws IllegalArgumentException if the name is already used or the type is STRING
+     * @throws IllegalStateException if the layout is in use
+     */
+    public RowLayout with(String name, FieldType type) {
+        if (type == FieldType.STRING) {
+            throw new IllegalArgumentException("String field '" + name + "' needs a capacity");
+        }
+        int size = switch (type) {
+            case INT -> Integer.BYTES;
+            case LONG -> Long.BYTES;
+            case DOUBLE -> Double.BYTES;
+            default -> 1;
+        };
+        return add(new Field(name, type, rowSize, 0), size);
+    }
+
+    /**
+     * Adds a string field
+     *
+     * @param name The field name
+     * @param capacity The maximum length in bytes of the UTF-8 encoded values
+     * @return This layout
+     * @throws IllegalArgumentException if the name is already used or the capacity is not between 0
+     *     and 32767
+     * @throws IllegalStateException if the layout is in use
+     */
+    public RowLayout withString(String name, int capacity) {
+        if (capacity < 0 || capacity > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity + " of string field '" + name + "'");
+        }
+        return add(new Field(name, FieldType.STRING, rowSize, capacity), Short.BYTES + capacity);
+    }
+
+    /**
+     * Adds a nested structure. Its fields are stored one after the other at this point of the row,
+     * in the order of the nested layout, and are read as properties of the structure, as in {@code
+     * $customer.name}. In the other methods of this layout and of {@link RowBatch}, they are named
+     * with their path, as in {@code customer.name}. The nested layout can no longer be changed.
+     *
+     * @param name The structure name
+     * @param nested The layout of the structure
+     * @return This layout
+     * @throws IllegalArgumentException if the name is already used or the nested layout is this one
+     * @throws IllegalStateException if the layout is in use
+     */
+    public RowLayout with(String name, RowLayout nested) {
+        checkName(name);
+        if (nested == this) {
+            throw new IllegalArgumentException("Structure '" + name + "' cannot nest its own layout");
+        }
+        nested.freeze();
+        structures.put(name, nested);
+        for (Field field : nested.fields) {
+            Field copy = new Field(name + "." + field.name(), field.type(), rowSize + field.offset(), field.capacity());
+            fields.add(copy);
+            fieldsByName.put(copy.name(), copy);
+        }
+        rowSize += nested.rowSize;
+        return this;
+    }
+
+    private RowLayout add(Field field, int size) {
+        checkName(field.name());
+        fields.add(field);
+        fieldsByName.put(field.name(), field);
+        rowSize += size;
+        return this;
+    }
+
+    private void checkName(String name) {
+        if (frozen) {
+            throw new IllegalStateException("Cannot add field '" + name + "' to a layout in use");
+        }
+        // Dots separate the names of structures from the names of their fields
+        if (name.indexOf('.') >= 0) {
+            throw new IllegalArgumentException("Invalid field name '" + name + "'");
+        }
+        if (fieldsByName.containsKey(name) || structures.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate field '" + name + "'");
+        }
+    }
+
+    /**
+     * Gets the size of a row
+     *
+     * @return The size in bytes
+     */
+    public int getRowSize() {
+        return rowSize;
+    }
+
+    /**
+     * Gets the names of the fields, in the order of the layout. The fields of nested structures are
+     * named with their path, as in {@code customer.name}.
+     *
+     * @return The field names
+     */
+    public List<String> getFieldNames() {
+        List<String> names = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            names.add(field.name());
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Gets the offset of a field from the start of a row
+     *
+     * @param name The field name
+     * @return The offset in bytes
+     * @throws IllegalArgumentException if the layout has no such field
+     */
+    public int getOffset(String name) {
+        return field(name).offset();
+    }
+
+    /**
+     * Gets the type of a field
+     *
+     * @param name The field name
+     * @return The field type
+     * @throws IllegalArgumentException if the layout has no such field
+     */
+    public FieldType getType(String name) {
+        return field(name).type();
+    }
+
+    /**
+     * Gets the schema of the variables of expressions evaluated against rows of this layout
+     *
+     * @return A new schema declaring every field as a variable, and every nested structure as a
+     *     variable with the schema of its layout
+     */
+    public ContextSchema toSchema() {
+        ContextSchema schema = new ContextSchema();
+        for (Field field : fields) {
+            if (field.name().indexOf('.') < 0) {
+                schema.with(field.name(), field.type().getValueType());
+            }
+        }
+        structures.forEach((name, nested) -> schema.with(name, nested.toSchema()));
+        return schema;
+    }
+
+    /**
+     * Prevents further changes, once a batch or an expression depends on the offsets of the fields
+     */
+    void freeze() {
+        frozen = true;
+    }
+
+    Field field(String name) {
+        Field field = fieldsByName.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown field '" + name + "'");
+        }
+        return field;
+    }
+
+    Field findField(String name) {
+        return fieldsByName.get(name);
+    }
+
+    /**
+     * Finds a nested structure
+     *
+     * @param path The name of the structure, or the path of a structure nested in a structure
+     * @return Its layout, or null if there is no such structure
+     */
+    RowLayout findStructure(String path) {
+        int dot = path.indexOf('.');
+        RowLayout nested = structures.get(dot < 0 ? path : path.substring(0, dot));
+        return nested == null || dot < 0 ? nested : nested.findStructure(path.substring(dot + 1));
+    }
+}
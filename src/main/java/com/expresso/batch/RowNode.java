@@ -0,0 +1,88 @@
+package com.expresso.batch;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.exception.TypeConversionException;
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+/**
+ * A node of an expression compiled for a {@link RowLayout}, evaluated against the row starting at
+ * an offset of a buffer. Nodes whose values are numbers or conditions override {@link
+ * #evaluateDouble} and {@link #test} to compute them without boxing.
+ *
+ * <p>Nodes are also functions of a {@link Cursor}, so that the nodes compiled by {@link
+ * com.expresso.compiler.RootTypeCompiler} for the operators with no typed form can use them as
+ * operands.
+ */
+abstract class RowNode implements Function<Object, Object> {
+
+    /**
+     * A row passed as the root object to the generic nodes
+     *
+     * @param buffer The buffer holding the row
+     * @param row The offset of the row in the buffer
+     */
+    record Cursor(ByteBuffer buffer, int row) {
+    }
+
+    /**
+     * Evaluates the node
+     *
+     * @param buffer The buffer holding the row
+     * @param row The offset of the row in the buffer
+     * @return The value
+     */
+    abstract Object evaluate(ByteBuffer buffer, int row);
+
+    /**
+     * Evaluates the node as a condition, true for values other than null and false
+     */
+    boolean test(ByteBuffer buffer, int row) {
+        return BinaryExpression.isTruthy(evaluate(buffer, row));
+    }
+
+    /**
+     * Evaluates the node as a number
+     *
+     * @throws TypeConversionException if the value is not a number
+     */
+    double evaluateDouble(ByteBuffer buffer, int row) {
+        Object value = evaluate(buffer, row);
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        throw new TypeConversionException(value, double.class, "Result is not a number");
+    }
+
+    /**
+     * Checks whether the values of this node are never-null numbers, so that {@link
+     * #evaluateDouble} cannot fail
+     */
+    boolean isNumber() {
+        return false;
+    }
+
+    @Override
+    public final Object apply(Object root) {
+        Cursor cursor = (Cursor) root;
+        return evaluate(cursor.buffer(), cursor.row());
+    }
+
+    /**
+     * Adapts a function compiled by {@link com.expresso.compiler.RootTypeCompiler} to a node
+     *
+     * @param function The function of a {@link Cursor}
+     * @return The node
+     */
+    static RowNode of(Function<Object, Object> function) {
+        if (function instanceof RowNode node) {
+            return node;
+        }
+        return new RowNode() {
+            @Override
+            Object evaluate(ByteBuffer buffer, int row) {
+                return function.apply(new Cursor(buffer, row));
+            }
+        };
+    }
+}
@@ -0,0 +1,553 @@
+package com.expresso.codec;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.ConditionalExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.FunctionCallExpression;
+import com.expresso.ast.FunctionExpression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LiteralExpression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.NullCoalescingExpression;
+import com.expresso.ast.UnaryExpression;
+import com.expresso.ast.VariableExpression;
+import com.expresso.optimizer.AdaptiveLogicalExpression;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of parsed expressions, so that stored rules can be loaded without
+ * parsing them again.
+ *
+ * <p>An encoded expression starts with the magic number {@code EXPR}, a format version and the
+ * length of the body. The body holds a table of the distinct strings used by the tree (variable
+ * names, property paths, function names and string literals) and the nodes in post-order: every
+ * node follows its children, so the tree is rebuilt with an operand stack and neither encoding nor
+ * decoding recurses. Counts, string indices and numbers are variable-length integers.
+ *
+ * <p>Nodes created by the optimizer are written as their plain equivalent: an adaptive chain is
+ * written as a {@link LogicalExpression} in its original order.
+ */
+public final class ExpressionCodec {
+    /** The first four bytes of every encoded expression: "EXPR" */
+    public static final int MAGIC = 0x45585052;
+    /** The current format version */
+    public static final int VERSION = 1;
+
+    // Node tags. Operators are written by ordinal, so changing the order of an operator enum
+    // requires a new format version.
+    static final int NULL = 0;
+    static final int TRUE = 1;
+    static final int FALSE = 2;
+    static final int LONG = 3;
+    static final int INTEGER = 4;
+    static final int DOUBLE = 5;
+    static final int STRING = 6;
+    static final int VARIABLE = 7;
+    static final int BINARY = 8;
+    static final int LOGICAL = 9;
+    static final int UNARY = 10;
+    static final int CONDITIONAL = 11;
+    static final int COALESCE = 12;
+    static final int CALL = 13;
+    static final int IN = 14;
+    static final int FUNCTION = 15;
+
+    private static final BinaryExpression.Operator[] BINARY_OPERATORS = BinaryExpression.Operator.values();
+    private static final UnaryExpression.Operator[] UNARY_OPERATORS = UnaryExpression.Operator.values();
+
+    private ExpressionCodec() {
+    }
+
+    /**
+     * Writes an expression
+     *
+     * @param expression The expression to encode
+     * @param out The stream to write to; it is neither flushed nor closed
+     * @throws IOException if the stream cannot be written
+     * @throws IllegalArgumentException if the tree contains a node or literal type that cannot be
+     *     encoded
+     */
+    public static void write(Expression expression, OutputStream out) throws IOException {
+        out.write(encode(expression));
+    }
+
+    /**
+     * Reads an expression written by {@link #write(Expression, OutputStream)}. Exactly the bytes of
+     * one expression are consumed.
+     *
+     * @param in The stream to read from
+     * @return The decoded expression
+     * @throws IOException if the stream cannot be read, ends early or does not hold a valid
+     *     encoding of this format version
+     */
+    public static Expression read(InputStream in) throws IOException {
+        checkHeader(readStreamInt(in), readStreamByte(in));
+        long length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = readStreamByte(in);
+            length |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            if (shift >= 28) {
+                throw new StreamCorruptedException("Body length out of range");
+            }
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("Body length out of range: " + length);
+        }
+        byte[] body = in.readNBytes((int) length);
+        if (body.length != length) {
+            throw new EOFException("Unexpected end of encoded expression");
+        }
+        return new Decoder(ByteBuffer.wrap(body)).decodeBody();
+    }
+
+    /**
+     * Encodes an expression into a byte array
+     *
+     * @param expression The expression to encode
+     * @return The encoded expression
+     * @throws IllegalArgumentException if the tree contains a node or literal type that cannot be
+     *     encoded
+     */
+    public static byte[] encode(Expression expression) {
+        List<Expression> nodes = postOrder(expression);
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Output body = new Output();
+        for (Expression node : nodes) {
+            writeNode(node, body, strings);
+        }
+
+        Output table = new Output();
+        table.writeVarint(strings.size());
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            table.writeVarint(bytes.length);
+            table.write(bytes, 0, bytes.length);
+        }
+        table.writeVarint(nodes.size());
+
+        Output output = new Output();
+        output.writeInt(MAGIC);
+        output.write(VERSION);
+        output.writeVarint(table.size() + body.size());
+        table.writeTo(output);
+        body.writeTo(output);
+        return output.toByteArray();
+    }
+
+    /**
+     * Decodes an expression from a byte array
+     *
+     * @param bytes The encoded expression
+     * @return The decoded expression
+     * @throws IOException if the bytes are not a valid encoding of this format version
+     */
+    public static Expression decode(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Expression expression = decode(buffer);
+        if (buffer.hasRemaining()) {
+            throw new StreamCorruptedException("Unexpected bytes after the expression");
+        }
+        return expression;
+    }
+
+    /**
+     * Decodes the expression at the position of a buffer and advances the position past it. The
+     * buffer may be a direct or memory-mapped buffer.
+     *
+     * @param buffer The buffer holding the encoded expression
+     * @return The decoded expression
+     * @throws IOException if the buffer does not hold a valid encoding of this format version at its
+     *     position
+     */
+    public static Expression decode(ByteBuffer buffer) throws IOException {
+        Decoder header = new Decoder(buffer);
+        checkHeader(header.readInt(), header.readByte());
+        int length = header.readCount();
+        if (length > buffer.remaining()) {
+            throw new EOFException("Unexpected end of encoded expression");
+        }
+        ByteBuffer body = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return new Decoder(body).decodeBody();
+    }
+
+    private static void checkHeader(int magic, int version) throws IOException {
+        if (magic != MAGIC) {
+            throw new StreamCorruptedException("Not an encoded expression");
+        }
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported format version " + version + ", expected " + VERSION);
+        }
+    }
+
+    private static int readStreamByte(InputStream in) throws IOException {
+        int value = in.read();
+        if (value < 0) {
+            throw new EOFException("Unexpected end of encoded expression");
+        }
+        return value;
+    }
+
+    private static int readStreamInt(InputStream in) throws IOException {
+        return (readStreamByte(in) << 24) | (readStreamByte(in) << 16) | (readStreamByte(in) << 8) | readStreamByte(in);
+    }
+
+    /**
+     * Lists the nodes of a tree in post-order, children left to right before their parent
+     */
+    private static List<Expression> postOrder(Expression root) {
+        List<Expression> reversed = new ArrayList<>();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Expression node = pending.pop();
+            reversed.add(node);
+            for (Expression child : operands(node)) {
+                pending.push(child);
+            }
+        }
+        List<Expression> nodes = new ArrayList<>(reversed.size());
+        for (int i = reversed.size() - 1; i >= 0; i--) {
+            nodes.add(reversed.get(i));
+        }
+        return nodes;
+    }
+
+    /**
+     * Gets the children that are encoded before a node. Unlike {@link Expression#getChildren()},
+     * these include the literal elements of a membership test.
+     */
+    private static List<Expression> operands(Expression node) {
+        if (node instanceof InExpression in) {
+            List<Expression> operands = new ArrayList<>(in.getElements().size() + 1);
+            operands.add(in.getValue());
+            operands.addAll(in.getElements());
+            return operands;
+        }
+        return node.getChildren();
+    }
+
+    private static void writeNode(Expression node, Output out, Map<String, Integer> strings) {
+        if (node instanceof LiteralExpression literal) {
+            writeLiteral(literal.value(), out, strings);
+        } else if (node instanceof VariableExpression variable) {
+            out.write(VARIABLE);
+            out.writeVarint(index(variable.getName(), strings));
+            String path = variable.getPropertyPath();
+            out.writeVarint(path == null ? 0 : index(path, strings) + 1);
+            out.write(variable.isNullSafe() ? 1 : 0);
+        } else if (node instanceof BinaryExpression binary) {
+            out.write(BINARY);
+            out.write(binary.getOperator().ordinal());
+        } else if (node instanceof LogicalExpression logical) {
+            writeLogical(logical.getOperator(), logical.getOperands().size(), out);
+        } else if (node instanceof AdaptiveLogicalExpression adaptive) {
+            writeLogical(adaptive.getOperator(), adaptive.getChildren().size(), out);
+        } else if (node instanceof UnaryExpression unary) {
+            out.write(UNARY);
+            out.write(unary.getOperator().ordinal());
+        } else if (node instanceof ConditionalExpression) {
+            out.write(CONDITIONAL);
+        } else if (node instanceof NullCoalescingExpression) {
+            out.write(COALESCE);
+        } else if (node instanceof FunctionCallExpression call) {
+            out.write(CALL);
+            out.writeVarint(index(call.getName(), strings));
+            out.writeVarint(call.getArguments().size());
+        } else if (node instanceof FunctionExpression function) {
+            out.write(FUNCTION);
+            out.writeVarint(index(function.getName(), strings));
+            out.writeVarint(function.getChildren().size());
+        } else if (node instanceof InExpression in) {
+            out.write(IN);
+            out.write(in.isNegated() ? 1 : 0);
+            out.writeVarint(in.getElements().size());
+        } else {
+            throw new IllegalArgumentException("Cannot encode expression of type " + node.getClass().getName());
+        }
+    }
+
+    private static void writeLogical(BinaryExpression.Operator operator, int operandCount, Output out) {
+        out.write(LOGICAL);
+        out.write(operator.ordinal());
+        out.writeVarint(operandCount);
+    }
+
+    private static void writeLiteral(Object value, Output out, Map<String, Integer> strings) {
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Long) {
+            out.write(LONG);
+            out.writeVarlong(zigZag((Long) value));
+        } else if (value instanceof Integer) {
+            out.write(INTEGER);
+            out.writeVarlong(zigZag((Integer) value));
+        } else if (value instanceof Double) {
+            out.write(DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof String) {
+            out.write(STRING);
+            out.writeVarint(index((String) value, strings));
+        } else {
+            throw new IllegalArgumentException("Cannot encode literal of type " + value.getClass().getName());
+        }
+    }
+
+    private static int index(String string, Map<String, Integer> strings) {
+        return strings.computeIfAbsent(string, key -> strings.size());
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Growable byte buffer with the encoding primitives of the format
+     */
+    private static final class Output extends ByteArrayOutputStream {
+        Output() {
+            super(256);
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeVarint(int value) {
+            writeVarlong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeTo(Output out) {
+            out.write(buf, 0, count);
+        }
+    }
+
+    /**
+     * Reads encoded data from a buffer, validating it as it goes
+     */
+    private static final class Decoder {
+        private final ByteBuffer buffer;
+        private String[] strings;
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Decodes a body, which must fill the whole buffer
+         */
+        Expression decodeBody() throws IOException {
+            int stringCount = readCount();
+            if (stringCount > buffer.remaining()) {
+                throw new EOFException("Unexpected end of encoded expression");
+            }
+            strings = new String[stringCount];
+            for (int i = 0; i < strings.length; i++) {
+                int length = readCount();
+                if (length > buffer.remaining()) {
+                    throw new EOFException("Unexpected end of encoded expression");
+                }
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int nodeCount = readCount();
+            List<Expression> stack = new ArrayList<>();
+            for (int i = 0; i < nodeCount; i++) {
+                stack.add(readNode(stack));
+            }
+            if (stack.size() != 1) {
+                throw new StreamCorruptedException("Encoded nodes do not form a single tree");
+            }
+            if (buffer.hasRemaining()) {
+                throw new StreamCorruptedException("Unexpected bytes after the expression");
+            }
+            return stack.get(0);
+        }
+
+        private Expression readNode(List<Expression> stack) throws IOException {
+            int tag = readByte();
+            switch (tag) {
+                case NULL:
+                    return new LiteralExpression(null);
+                case TRUE:
+                    return new LiteralExpression(true);
+                case FALSE:
+                    return new LiteralExpression(false);
+                case LONG:
+                    return new LiteralExpression(unZigZag(readVarlong()));
+                case INTEGER:
+                    return new LiteralExpression((int) unZigZag(readVarlong()));
+                case DOUBLE:
+                    return new LiteralExpression(Double.longBitsToDouble(((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL)));
+                case STRING:
+                    return new LiteralExpression(readString());
+                case VARIABLE: {
+                    String name = readString();
+                    int path = readCount();
+                    String propertyPath = path == 0 ? null : string(path - 1);
+                    return new VariableExpression(name, propertyPath, readFlag());
+                }
+                case BINARY: {
+                    BinaryExpression.Operator operator = binaryOperator();
+                    List<Expression> operands = pop(stack, 2);
+                    return new BinaryExpression(operands.get(0), operands.get(1), operator);
+                }
+                case LOGICAL: {
+                    BinaryExpression.Operator operator = binaryOperator();
+                    if (operator != BinaryExpression.Operator.AND && operator != BinaryExpression.Operator.OR) {
+                        throw new StreamCorruptedException("Not a logical operator: " + operator);
+                    }
+                    int count = readCount();
+                    if (count < 2) {
+                        throw new StreamCorruptedException("Logical chain with " + count + " operands");
+                    }
+                    return new LogicalExpression(pop(stack, count), operator);
+                }
+                case UNARY: {
+                    int ordinal = readByte();
+                    if (ordinal >= UNARY_OPERATORS.length) {
+                        throw new StreamCorruptedException("Unknown unary operator " + ordinal);
+                    }
+                    return new UnaryExpression(pop(stack, 1).get(0), UNARY_OPERATORS[ordinal]);
+                }
+                case CONDITIONAL: {
+                    List<Expression> operands = pop(stack, 3);
+                    return new ConditionalExpression(operands.get(0), operands.get(1), operands.get(2));
+                }
+                case COALESCE: {
+                    List<Expression> operands = pop(stack, 2);
+                    return new NullCoalescingExpression(operands.get(0), operands.get(1));
+                }
+                case CALL: {
+                    String name = readString();
+                    return new FunctionCallExpression(name, pop(stack, readCount()));
+                }
+                case FUNCTION: {
+                    String name = readString();
+                    return new FunctionExpression(name, pop(stack, readCount()));
+                }
+                case IN: {
+                    boolean negated = readFlag();
+                    List<Expression> elements = pop(stack, readCount());
+                    return new InExpression(pop(stack, 1).get(0), elements, negated);
+                }
+                default:
+                    throw new StreamCorruptedException("Unknown node tag " + tag);
+            }
+        }
+
+        /**
+         * Removes the last nodes from the stack
+         */
+        private static List<Expression> pop(List<Expression> stack, int count) throws IOException {
+            if (count > stack.size()) {
+                throw new StreamCorruptedException("Node expects " + count + " children, found " + stack.size());
+            }
+            List<Expression> range = stack.subList(stack.size() - count, stack.size());
+            List<Expression> nodes = new ArrayList<>(range);
+            range.clear();
+            return nodes;
+        }
+
+        private BinaryExpression.Operator binaryOperator() throws IOException {
+            int ordinal = readByte();
+            if (ordinal >= BINARY_OPERATORS.length) {
+                throw new StreamCorruptedException("Unknown binary operator " + ordinal);
+            }
+            return BINARY_OPERATORS[ordinal];
+        }
+
+        private String readString() throws IOException {
+            return string(readCount());
+        }
+
+        private String string(int index) throws IOException {
+            if (index >= strings.length) {
+                throw new StreamCorruptedException("String index " + index + " out of range");
+            }
+            return strings[index];
+        }
+
+        private boolean readFlag() throws IOException {
+            int flag = readByte();
+            if (flag > 1) {
+                throw new StreamCorruptedException("Invalid flag " + flag);
+            }
+            return flag == 1;
+        }
+
+        private int readByte() throws IOException {
+            if (!buffer.hasRemaining()) {
+                throw new EOFException("Unexpected end of encoded expression");
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        private int readInt() throws IOException {
+            return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        }
+
+        /**
+         * Reads a non-negative variable-length int, such as a count or an index
+         */
+        private int readCount() throws IOException {
+            long value = readVarlong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("Count out of range: " + value);
+            }
+            return (int) value;
+        }
+
+        private long readVarlong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Variable-length number too long");
+        }
+    }
+}
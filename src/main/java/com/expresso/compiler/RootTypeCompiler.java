@@ -0,0 +1,460 @@
+package com.expresso.compiler;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.ConditionalExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.FunctionCallExpression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LiteralExpression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.NullCoalescingExpression;
+import com.expresso.ast.UnaryExpression;
+import com.expresso.ast.VariableExpression;
+import com.expresso.context.Context;
+import com.expresso.context.functions.PreparableFunction;
+import com.expresso.exception.FunctionExecutionException;
+import com.expresso.exception.PropertyAccessException;
+import com.expresso.exception.PropertyNotFoundException;
+import com.expresso.exception.TypeConversionException;
+import com.expresso.exception.UnknownFunctionException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compiles expressions evaluated against objects of a single root type into functions. The
+ * variables of an expression are the properties of the root object: {@code $total} reads {@code
+ * getTotal()} of the root, and {@code $customer.name} then reads {@code getName()} of the customer.
+ * Getters and functions are looked up once, when the expression is compiled, so calling a compiled
+ * function creates no {@link Context} and looks up nothing by name.
+ *
+ * <p>Properties of maps, of {@code Object} and of other types that do not declare a getter for
+ * them, as well as list and array indexes, are resolved during evaluation, like {@link
+ * Context#resolveProperty(Object, String, boolean)} does. Compiled functions give the same results
+ * and throw the same exceptions as the parsed expression evaluated with a context holding the
+ * properties of the root, except that function calls are not reported to evaluation listeners.
+ *
+ * <p>Compiled functions hold no mutable state and can be called by many threads at the same time,
+ * for example from parallel streams.
+ *
+ * @param <T> The root type
+ */
+public class RootTypeCompiler<T> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    // Resolves the property paths that are not bound to getters, which uses no state of the context
+    private static final Context PROPERTIES = new Context();
+    // Functions bound to getters by declaring class, so that compiling again defines no new classes
+    private static final ClassValue<Map<Method, Function<Object, Object>>> BOUND_GETTERS = new ClassValue<>() {
+        @Override
+        protected Map<Method, Function<Object, Object>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<T> rootType;
+    private final Function<String, Function<Object[], Object>> functions;
+
+    /**
+     * Creates a compiler
+     *
+     * @param rootType The class of the root objects
+     * @param functions Gets the implementation of a function by name, or null if it does not exist
+     */
+    public RootTypeCompiler(Class<T> rootType, Function<String, Function<Object[], Object>> functions) {
+        this.rootType = rootType;
+        this.functions = functions;
+    }
+
+    /**
+     * Compiles an expression into a function returning its result
+     *
+     * @param expression The parsed expression
+     * @param resultType The class of the results. Numbers are converted to the requested number class.
+     * @return The compiled function
+     * @throws TypeConversionException when called, if a result is not of the result type
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Function<T, R> function(Expression expression, Class<R> resultType) {
+        Function<Object, Object> compiled = compile(expression);
+        Class<?> type = MethodType.methodType(resultType).wrap().returnType();
+        if (type == Object.class) {
+            return (Function<T, R>) compiled;
+        }
+        return root -> (R) convert(compiled.apply(root), type);
+    }
+
+    /**
+     * Compiles an expression into a predicate. The predicate is true when the result is true or a
+     * value other than null and false, like the operands of {@code &&}.
+     *
+     * @param expression The parsed expression
+     * @return The compiled predicate
+     */
+    public Predicate<T> predicate(Expression expression) {
+        Function<Object, Object> compiled = compile(expression);
+        return root -> BinaryExpression.isTruthy(compiled.apply(root));
+    }
+
+    /**
+     * Compiles an expression into a function returning its numeric result as a double
+     *
+     * @param expression The parsed expression
+     * @return The compiled function
+     * @throws TypeConversionException when called, if a result is not a number
+     */
+    public ToDoubleFunction<T> toDoubleFunction(Expression expression) {
+        Function<Object, Object> compiled = compile(expression);
+        return root -> {
+            Object result = compiled.apply(root);
+            if (result instanceof Number number) {
+                return number.doubleValue();
+            }
+            throw new TypeConversionException(result, double.class, "Result is not a number");
+        };
+    }
+
+    /**
+     * Compiles an expression tree into a tree of functions of the root object. Subclasses may
+     * compile some nodes differently and leave the others to this method, which compiles the
+     * children of a node with the overriding method.
+     *
+     * @param expression The parsed expression
+     * @return The root of the compiled tree
+     */
+    protected Function<Object, Object> compile(Expression expression) {
+        if (expression instanceof LiteralExpression literal) {
+            Object value = literal.value();
+            return root -> value;
+        }
+        if (expression instanceof VariableExpression variable) {
+            return variable(variable);
+        }
+        if (expression instanceof LogicalExpression logical) {
+            return logical(logical.getOperands(), logical.getOperator());
+        }
+        if (expression instanceof BinaryExpression binary) {
+            if (binary.getOperator() == BinaryExpression.Operator.AND
+                || binary.getOperator() == BinaryExpression.Operator.OR) {
+                return logical(binary.getChildren(), binary.getOperator());
+            }
+            Function<Object, Object> left = compile(binary.getLeft());
+            Function<Object, Object> right = compile(binary.getRight());
+            return root -> binary.apply(left.apply(root), right.apply(root));
+        }
+        if (expression instanceof UnaryExpression unary) {
+            Function<Object, Object> operand = compile(unary.getOperand());
+            return root -> unary.apply(operand.apply(root));
+        }
+        if (expression instanceof ConditionalExpression conditional) {
+            Function<Object, Object> condition = compile(conditional.getCondition());
+            Function<Object, Object> whenTrue = compile(conditional.getTrueExpression());
+            Function<Object, Object> whenFalse = compile(conditional.getFalseExpression());
+            return root -> BinaryExpression.isTruthy(condition.apply(root)) ? whenTrue.apply(root) : whenFalse.apply(root);
+        }
+        if (expression instanceof InExpression in) {
+            return membership(in);
+        }
+        if (expression instanceof NullCoalescingExpression coalescing) {
+            Function<Object, Object> left = compile(coalescing.left());
+            Function<Object, Object> right = compile(coalescing.right());
+            return root -> {
+                Object value = left.apply(root);
+                return value != null ? value : NullCoalescingExpression.defaultValue(right.apply(root));
+            };
+        }
+        if (expression instanceof FunctionCallExpression call) {
+            return call(call);
+        }
+        throw new IllegalArgumentException("Cannot compile " + expression.getClass().getSimpleName());
+    }
+
+    private Function<Object, Object> logical(List<Expression> operands, BinaryExpression.Operator operator) {
+        Function<Object, Object>[] compiled = compileAll(operands);
+        // AND stops at the first falsy operand, OR at the first truthy one
+        boolean shortCircuitValue = operator == BinaryExpression.Operator.OR;
+        return root -> {
+            for (Function<Object, Object> operand : compiled) {
+                if (BinaryExpression.isTruthy(operand.apply(root)) == shortCircuitValue) {
+                    return shortCircuitValue;
+                }
+            }
+            return !shortCircuitValue;
+        };
+    }
+
+    private Function<Object, Object> membership(InExpression in) {
+        List<Expression> children = in.getChildren();
+        Function<Object, Object> value = compile(children.get(0));
+        Function<Object, Object>[] elements = compileAll(children.subList(1, children.size()));
+        boolean negated = in.isNegated();
+        return root -> {
+            Object candidate = value.apply(root);
+            boolean found = in.containsLiteral(candidate);
+            for (int i = 0; i < elements.length && !found; i++) {
+                found = BinaryExpression.areEqual(candidate, elements[i].apply(root));
+            }
+            return found != negated;
+        };
+    }
+
+    private Function<Object, Object> call(FunctionCallExpression call) {
+        String name = call.getName();
+        List<Expression> arguments = call.getArguments();
+        Function<Object, Object>[] compiled = compileAll(arguments);
+
+        // isNull and coalesce treat failing arguments as null, see FunctionCallExpression
+        if (name.equals("isNull") && compiled.length == 1) {
+            Function<Object, Object> argument = compiled[0];
+            return root -> {
+                try {
+                    return argument.apply(root) == null;
+                } catch (Exception e) {
+                    return true;
+                }
+            };
+        }
+        if (name.equals("coalesce")) {
+            return root -> {
+                for (Function<Object, Object> argument : compiled) {
+                    try {
+                        Object value = argument.apply(root);
+                        if (value != null) {
+                            return value;
+                        }
+                    } catch (Exception e) {
+                        // Continue to the next argument on exception
+                    }
+                }
+                return null;
+            };
+        }
+
+        Function<Object[], Object> function = functions.apply(name);
+        if (function == null) {
+            throw new UnknownFunctionException(name);
+        }
+        if (function instanceof PreparableFunction preparable) {
+            function = prepare(name, preparable, arguments);
+        }
+        Function<Object[], Object> target = function;
+        return root -> {
+            Object[] values = new Object[compiled.length];
+            for (int i = 0; i < compiled.length; i++) {
+                values[i] = compiled[i].apply(root);
+            }
+            try {
+                return target.apply(values);
+            } catch (Exception e) {
+                throw new FunctionExecutionException(name, e.getMessage(), e);
+            }
+        };
+    }
+
+    /**
+     * Prepares a function for the literal arguments of a call
+     *
+     * @return The prepared function, or the function itself if no argument is a literal
+     */
+    private static Function<Object[], Object> prepare(
+            String name, PreparableFunction function, List<Expression> arguments) {
+        Object[] values = new Object[arguments.size()];
+        boolean[] constant = new boolean[arguments.size()];
+        boolean anyLiteral = false;
+        for (int i = 0; i < constant.length; i++) {
+            if (arguments.get(i) instanceof LiteralExpression literal) {
+                values[i] = literal.value();
+                constant[i] = true;
+                anyLiteral = true;
+            }
+        }
+        if (!anyLiteral) {
+            return function;
+        }
+        Function<Object[], Object> prepared;
+        try {
+            prepared = function.prepare(values, constant);
+        } catch (Exception e) {
+            throw new FunctionExecutionException(name, e.getMessage(), e);
+        }
+        return prepared != null ? prepared : function;
+    }
+
+    /**
+     * Binds a variable to the getters of the root type and of the declared types of its properties.
+     * The binding stops at the first index or at the first property whose getter is not known, and
+     * the rest of the path is resolved during evaluation.
+     */
+    protected Function<Object, Object> variable(VariableExpression variable) {
+        String path = variable.getName();
+        String propertyPath = variable.getPropertyPath();
+        if (propertyPath != null) {
+            path += propertyPath.startsWith("[") || propertyPath.startsWith("?") ? propertyPath : "." + propertyPath;
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Function<Object, Object>> getters = new ArrayList<>();
+        Class<?> type = rootType;
+        int position = 0;
+        while (position < path.length() && path.charAt(position) != '[' && path.charAt(position) != '?') {
+            int end = position;
+            while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[' && path.charAt(end) != '?') {
+                end++;
+            }
+            String name = path.substring(position, end);
+            Method getter = getter(type, name);
+            if (getter == null) {
+                break;
+            }
+            names.add(name);
+            getters.add(boundGetter(getter));
+            type = getter.getReturnType();
+            position = end < path.length() && path.charAt(end) == '.' ? end + 1 : end;
+        }
+        String remainingPath = position < path.length() ? path.substring(position) : null;
+        return new PropertyPath(names.toArray(new String[0]), getters, remainingPath,
+            variable.isNullSafe() || variable.isInSafeContext());
+    }
+
+    private Function<Object, Object>[] compileAll(List<Expression> expressions) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Function<Object, Object>[] compiled = new Function[expressions.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = compile(expressions.get(i));
+        }
+        return compiled;
+    }
+
+    /**
+     * Gets the public getter of a property declared by a type
+     *
+     * @return The getter, or null if the property has to be resolved during evaluation
+     */
+    private static Method getter(Class<?> type, String property) {
+        if (property.isEmpty() || type.isPrimitive() || Map.class.isAssignableFrom(type)) {
+            return null;
+        }
+        try {
+            return type.getMethod("get" + Character.toUpperCase(property.charAt(0)) + property.substring(1));
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the function calling a getter, binding it on first use only
+     *
+     * @param getter The getter
+     * @return The function, shared by all the expressions compiled with this getter
+     */
+    static Function<Object, Object> boundGetter(Method getter) {
+        return BOUND_GETTERS.get(getter.getDeclaringClass()).computeIfAbsent(getter, RootTypeCompiler::bind);
+    }
+
+    /**
+     * Creates a function calling a getter directly, or reflectively if the getter cannot be linked
+     * from this class, for example because its class is not public
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> bind(Method getter) {
+        try {
+            MethodHandle handle = LOOKUP.unreflect(getter);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class), handle, handle.type().wrap());
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return target -> {
+                try {
+                    return getter.invoke(target);
+                } catch (InvocationTargetException invocationFailure) {
+                    throw new PropertyAccessException(target, getter.getName(), "Property not found",
+                        invocationFailure.getCause());
+                } catch (IllegalAccessException accessFailure) {
+                    throw new PropertyAccessException(target, getter.getName(), "Property not found", accessFailure);
+                }
+            };
+        }
+    }
+
+    /**
+     * Converts a result to the requested result type
+     *
+     * @param value The result
+     * @param type The result type, not primitive
+     * @return The converted result
+     */
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (value instanceof Number number) {
+            if (type == Double.class) {
+                return number.doubleValue();
+            } else if (type == Long.class) {
+                return number.longValue();
+            } else if (type == Integer.class) {
+                return number.intValue();
+            } else if (type == Float.class) {
+                return number.floatValue();
+            } else if (type == Short.class) {
+                return number.shortValue();
+            } else if (type == Byte.class) {
+                return number.byteValue();
+            }
+        }
+        throw new TypeConversionException(value, type, "Result is a " + value.getClass().getSimpleName());
+    }
+
+    /**
+     * Reads a variable: calls the bound getters in turn, starting from the root object, then resolves
+     * the rest of the path, if any
+     */
+    private static final class PropertyPath implements Function<Object, Object> {
+        private final String[] names;
+        private final Function<Object, Object>[] getters;
+        private final String remainingPath;
+        private final boolean lenient;
+
+        PropertyPath(String[] names, List<Function<Object, Object>> getters, String remainingPath, boolean lenient) {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Function<Object, Object>[] bound = getters.toArray(new Function[0]);
+            this.names = names;
+            this.getters = bound;
+            this.remainingPath = remainingPath;
+            this.lenient = lenient;
+        }
+
+        @Override
+        public Object apply(Object root) {
+            Object current = root;
+            for (int i = 0; i < getters.length; i++) {
+                if (current == null) {
+                    if (lenient) {
+                        return null;
+                    }
+                    throw new PropertyNotFoundException("Cannot access property on null value");
+                }
+                try {
+                    current = getters[i].apply(current);
+                } catch (RuntimeException e) {
+                    if (lenient) {
+                        return null;
+                    }
+                    throw e instanceof PropertyAccessException ? e
+                        : new PropertyAccessException(current, names[i], "Property not found", e);
+                }
+            }
+            return remainingPath == null ? current : PROPERTIES.resolveProperty(current, remainingPath, lenient);
+        }
+    }
+}
@@ -4,20 +4,30 @@ import com.expresso.context.functions.FunctionRegistry;
 import com.expresso.exception.ArrayIndexOutOfBoundsException;
 import com.expresso.exception.PropertyAccessException;
 import com.expresso.exception.PropertyNotFoundException;
+import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /** Context class that holds variables and functions for expression evaluation. */
 public class Context {
+  // Getters by class and property name, so that missing properties are found without reflection errors
+  private static final ClassValue<Map<String, Optional<Method>>> GETTERS = new ClassValue<>() {
+    @Override
+    protected Map<String, Optional<Method>> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
   private final Map<String, Object> variables;
   private final Map<String, Function<Object[], Object>> functions;
 
   public Context() {
     this.variables = new HashMap<>();
     this.functions = new HashMap<>();
-    registerBuiltInFunctions();
   }
   
   /**
@@ -109,13 +119,15 @@ public class Context {
   }
 
   /**
-   * Gets a function from the context
+   * Gets a function from the context. Functions registered in the context take precedence over
+   * the built-in functions, which are shared by all contexts and loaded on first use.
    *
    * @param name The function name
-   * @return The function implementation
+   * @return The function implementation, or null if there is no function with this name
    */
   public Function<Object[], Object> getFunction(String name) {
-    return functions.get(name);
+    Function<Object[], Object> function = functions.get(name);
+    return function != null ? function : FunctionRegistry.getFunction(name);
   }
 
   /**
@@ -256,12 +268,15 @@ public class Context {
       if (current instanceof Map) {
         current = ((Map<?, ?>) current).get(part);
       } else {
+        Method getter = getter(current.getClass(), part);
+        if (getter == null) {
+          if (isNullSafe) {
+            return null;
+          }
+          throw new PropertyAccessException(current, part, "Property not found");
+        }
         try {
-          current =
-              current
-                  .getClass()
-                  .getMethod("get" + Character.toUpperCase(part.charAt(0)) + part.substring(1))
-                  .invoke(current);
+          current = getter.invoke(current);
         } catch (Exception e) {
           if (isNullSafe) {
             return null;
@@ -285,8 +300,21 @@ public class Context {
     return resolveProperty(target, property, false);
   }
 
-  private void registerBuiltInFunctions() {
-    // Register all built-in functions from the function registry
-    FunctionRegistry.registerAllFunctions(this);
+  /**
+   * Gets the public getter of a property, looking it up only once per class and property
+   *
+   * @return The getter, or null if the class has none
+   */
+  private static Method getter(Class<?> type, String property) {
+    return GETTERS.get(type).computeIfAbsent(property, name -> {
+      if (name.isEmpty()) {
+        return Optional.empty();
+      }
+      try {
+        return Optional.of(type.getMethod("get" + Character.toUpperCase(name.charAt(0)) + name.substring(1)));
+      } catch (NoSuchMethodException e) {
+        return Optional.empty();
+      }
+    }).orElse(null);
   }
 }
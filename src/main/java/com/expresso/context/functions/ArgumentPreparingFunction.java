@@ -0,0 +1,48 @@
+package com.expresso.context.functions;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Function created by {@link PreparableFunction#preparingArgument}: one argument is turned into a
+ * derived value once per call site if it is a literal, or through a bounded cache if it is not.
+ *
+ * @param <T> The type of the derived value
+ */
+final class ArgumentPreparingFunction<T> implements PreparableFunction {
+    /** Maximum number of derived values cached for dynamic arguments */
+    static final int CACHE_SIZE = 64;
+
+    private final int index;
+    private final Object defaultValue;
+    private final Function<Object, T> preparer;
+    private final BiFunction<Object[], T, Object> body;
+    private final BoundedCache<Object, T> cache = new BoundedCache<>("preparedArgument", CACHE_SIZE);
+
+    ArgumentPreparingFunction(
+            int index, Object defaultValue, Function<Object, T> preparer, BiFunction<Object[], T, Object> body) {
+        this.index = index;
+        this.defaultValue = defaultValue;
+        this.preparer = preparer;
+        this.body = body;
+    }
+
+    @Override
+    public Object apply(Object[] args) {
+        return body.apply(args, cache.get(argument(args), preparer));
+    }
+
+    @Override
+    public Function<Object[], Object> prepare(Object[] arguments, boolean[] constant) {
+        // A missing argument is as constant as a literal one
+        if (index < arguments.length && !constant[index]) {
+            return null;
+        }
+        T prepared = preparer.apply(argument(arguments));
+        return args -> body.apply(args, prepared);
+    }
+
+    private Object argument(Object[] args) {
+        return index < args.length ? args[index] : defaultValue;
+    }
+}
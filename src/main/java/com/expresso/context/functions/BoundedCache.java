@@ -0,0 +1,72 @@
+package com.expresso.context.functions;
+
+import com.expresso.metrics.EvaluationListener;
+import com.expresso.metrics.EvaluationScope;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache that keeps the most recently used entries up to a fixed size. Used for values
+ * that functions derive from arguments only known at evaluation time, such as compiled patterns.
+ * Hits and misses are reported to the listener of the running evaluation.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+final class BoundedCache<K, V> {
+    private final String name;
+    private final Map<K, V> entries;
+
+    /**
+     * Creates a cache
+     *
+     * @param name The name reported to evaluation listeners
+     * @param maxSize The maximum number of entries
+     */
+    BoundedCache(String name, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.name = name;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached value for a key, computing and caching it if absent
+     *
+     * @param key The key
+     * @param compute Computes the value of a missing key
+     * @return The value
+     */
+    V get(K key, Function<? super K, ? extends V> compute) {
+        V value;
+        boolean hit;
+        synchronized (entries) {
+            value = entries.get(key);
+            hit = value != null;
+            if (!hit) {
+                value = compute.apply(key);
+                if (value != null) {
+                    entries.put(key, value);
+                }
+            }
+        }
+        EvaluationListener listener = EvaluationScope.current();
+        if (listener != null) {
+            listener.onCacheAccess(name, hit);
+        }
+        return value;
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.expresso.context.Context;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Provider for collection manipulation functions.
@@ -68,4 +69,19 @@ public class CollectionFunctions implements FunctionProvider {
             return new ArrayList<>(list.subList(start, end));
         });
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Set<String> getFunctionNames() {
+        return Set.of("size", "first", "last", "subList");
+    }
+
+    @Override
+    public Map<String, FunctionMetadata> getFunctionMetadata() {
+        return Map.ofEntries(
+            Map.entry("size", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("first", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("last", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("subList", FunctionMetadata.pure(5).withArity(2, 3))
+        );
+    }
+}
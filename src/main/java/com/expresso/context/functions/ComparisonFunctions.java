@@ -2,6 +2,8 @@ package com.expresso.context.functions;
 
 import com.expresso.context.Context;
 import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Provider for comparison functions.
@@ -78,4 +80,23 @@ public class ComparisonFunctions implements FunctionProvider {
             return !args[0].equals(args[1]);
         });
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Set<String> getFunctionNames() {
+        return Set.of(
+            "greaterThan", "lessThan", "greaterThanOrEqual", "lessThanOrEqual", "strictEquals",
+            "notEquals");
+    }
+
+    @Override
+    public Map<String, FunctionMetadata> getFunctionMetadata() {
+        return Map.ofEntries(
+            Map.entry("greaterThan", FunctionMetadata.pure(2).withArity(2)),
+            Map.entry("lessThan", FunctionMetadata.pure(2).withArity(2)),
+            Map.entry("greaterThanOrEqual", FunctionMetadata.pure(2).withArity(2)),
+            Map.entry("lessThanOrEqual", FunctionMetadata.pure(2).withArity(2)),
+            Map.entry("strictEquals", FunctionMetadata.DEFAULT.withArity(2)),
+            Map.entry("notEquals", FunctionMetadata.DEFAULT.withArity(2))
+        );
+    }
+}
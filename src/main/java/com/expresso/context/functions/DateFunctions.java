@@ -6,6 +6,10 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Provider for date manipulation functions.
@@ -19,35 +23,17 @@ public class DateFunctions implements FunctionProvider {
         context.registerFunction("currentTime", args -> LocalTime.now());
         context.registerFunction("currentDateTime", args -> LocalDateTime.now());
         
-        // Format functions
-        context.registerFunction("formatDate", args -> {
-            LocalDate date = (LocalDate) args[0];
-            String pattern = (String) args[1];
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
-            return date.format(formatter);
-        });
-        
-        context.registerFunction("format", args -> {
-            LocalDate date = (LocalDate) args[0];
-            String pattern = (String) args[1];
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
-            return date.format(formatter);
-        });
-        
-        // Parse functions
-        context.registerFunction("parseDate", args -> {
-            String dateString = (String) args[0];
-            String pattern = args.length > 1 ? (String) args[1] : "yyyy-MM-dd";
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
-            return LocalDate.parse(dateString, formatter);
-        });
-        
-        context.registerFunction("parseDateTime", args -> {
-            String dateTimeString = (String) args[0];
-            String pattern = args.length > 1 ? (String) args[1] : "yyyy-MM-dd'T'HH:mm:ss";
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
-            return LocalDateTime.parse(dateTimeString, formatter);
-        });
+        // Format and parse functions build the formatter once per call site for literal patterns
+        // and cache it otherwise
+        PreparableFunction formatDate = PreparableFunction.preparingArgument(
+            1, null, DateFunctions::formatter, (args, formatter) -> ((LocalDate) args[0]).format(formatter));
+        context.registerFunction("formatDate", formatDate);
+        context.registerFunction("format", formatDate);
+        context.registerFunction("parseDate", PreparableFunction.preparingArgument(
+            1, "yyyy-MM-dd", DateFunctions::formatter, (args, formatter) -> LocalDate.parse((String) args[0], formatter)));
+        context.registerFunction("parseDateTime", PreparableFunction.preparingArgument(
+            1, "yyyy-MM-dd'T'HH:mm:ss", DateFunctions::formatter,
+            (args, formatter) -> LocalDateTime.parse((String) args[0], formatter)));
         
         // Date comparison functions
         context.registerFunction("isDateBefore", args -> {
@@ -105,4 +91,43 @@ public class DateFunctions implements FunctionProvider {
         context.registerFunction("getMonth", args -> ((LocalDate) args[0]).getMonthValue());
         context.registerFunction("getDayOfMonth", args -> ((LocalDate) args[0]).getDayOfMonth());
     }
-} 
\ No newline at end of file
+
+    private static DateTimeFormatter formatter(Object pattern) {
+        return DateTimeFormatter.ofPattern((String) pattern);
+    }
+
+    @Override
+    public Set<String> getFunctionNames() {
+        return Set.of(
+            "currentDate", "currentTime", "currentDateTime", "formatDate", "format", "parseDate",
+            "parseDateTime", "isDateBefore", "isDateAfter", "daysBetween", "now", "addDays",
+            "dateDiff", "addMonths", "addYears", "year", "month", "dayOfMonth", "getYear",
+            "getMonth", "getDayOfMonth");
+    }
+
+    @Override
+    public Map<String, FunctionMetadata> getFunctionMetadata() {
+        Map<String, FunctionMetadata> metadata = new HashMap<>();
+        // The clock functions return a different value on every call
+        metadata.put("currentDate", FunctionMetadata.impure(2).withArity(0));
+        metadata.put("currentTime", FunctionMetadata.impure(2).withArity(0));
+        metadata.put("currentDateTime", FunctionMetadata.impure(2).withArity(0));
+        metadata.put("now", FunctionMetadata.impure(2).withArity(0));
+        // Formatters are prepared or cached, leaving the formatting and parsing itself
+        metadata.put("formatDate", FunctionMetadata.pure(5).withArity(2));
+        metadata.put("format", FunctionMetadata.pure(5).withArity(2));
+        metadata.put("parseDate", FunctionMetadata.pure(8).withArity(1, 2));
+        metadata.put("parseDateTime", FunctionMetadata.pure(8).withArity(1, 2));
+        metadata.put("isDateBefore", FunctionMetadata.DEFAULT.withArity(2));
+        metadata.put("isDateAfter", FunctionMetadata.DEFAULT.withArity(2));
+        metadata.put("daysBetween", FunctionMetadata.pure(2).withArity(2));
+        metadata.put("dateDiff", FunctionMetadata.pure(2).withArity(2));
+        metadata.put("addDays", FunctionMetadata.pure(2).withArity(2));
+        metadata.put("addMonths", FunctionMetadata.pure(2).withArity(2));
+        metadata.put("addYears", FunctionMetadata.pure(2).withArity(2));
+        for (String name : List.of("year", "month", "dayOfMonth", "getYear", "getMonth", "getDayOfMonth")) {
+            metadata.put(name, FunctionMetadata.DEFAULT.withArity(1));
+        }
+        return metadata;
+    }
+}
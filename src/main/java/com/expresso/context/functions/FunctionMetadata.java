@@ -0,0 +1,91 @@
+package com.expresso.context.functions;
+
+/**
+ * Static description of a function used by the cost model, the optimizer and schema validation.
+ *
+ * @param cost The relative cost of one invocation, in abstract units (a variable lookup costs 1)
+ * @param pure Whether the function always returns the same result for the same arguments and has
+ *     no side effects
+ * @param minArguments The smallest number of arguments the function accepts
+ * @param maxArguments The largest number of arguments the function accepts, or {@link
+ *     Integer#MAX_VALUE} if it is not limited
+ */
+public record FunctionMetadata(int cost, boolean pure, int minArguments, int maxArguments) {
+
+    /** Metadata assumed for built-in functions that do not declare their own. */
+    public static final FunctionMetadata DEFAULT = new FunctionMetadata(1, true);
+
+    /** Metadata assumed for custom functions that do not declare their own. */
+    public static final FunctionMetadata UNKNOWN = new FunctionMetadata(10, false);
+
+    public FunctionMetadata {
+        if (cost < 0) {
+            throw new IllegalArgumentException("Function cost must not be negative: " + cost);
+        }
+        if (minArguments < 0 || maxArguments < minArguments) {
+            throw new IllegalArgumentException(
+                "Invalid argument count range: " + minArguments + ".." + maxArguments);
+        }
+    }
+
+    /**
+     * Creates metadata for a function accepting any number of arguments
+     *
+     * @param cost The relative cost of one invocation
+     * @param pure Whether the function is pure
+     */
+    public FunctionMetadata(int cost, boolean pure) {
+        this(cost, pure, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates metadata for a pure function with the given cost
+     *
+     * @param cost The relative cost of one invocation
+     * @return The function metadata
+     */
+    public static FunctionMetadata pure(int cost) {
+        return new FunctionMetadata(cost, true);
+    }
+
+    /**
+     * Creates metadata for an impure function with the given cost
+     *
+     * @param cost The relative cost of one invocation
+     * @return The function metadata
+     */
+    public static FunctionMetadata impure(int cost) {
+        return new FunctionMetadata(cost, false);
+    }
+
+    /**
+     * Gets a copy of this metadata for a function taking a fixed number of arguments
+     *
+     * @param count The number of arguments
+     * @return The function metadata
+     */
+    public FunctionMetadata withArity(int count) {
+        return withArity(count, count);
+    }
+
+    /**
+     * Gets a copy of this metadata for a function taking a range of argument counts
+     *
+     * @param min The smallest number of arguments
+     * @param max The largest number of arguments, or {@link Integer#MAX_VALUE} if it is not limited
+     * @return The function metadata
+     */
+    public FunctionMetadata withArity(int min, int max) {
+        return new FunctionMetadata(cost, pure, min, max);
+    }
+
+    /**
+     * Checks whether the function accepts the given number of arguments
+     *
+     * @param count The number of arguments
+     * @return true if the count is within the declared range
+     */
+    public boolean acceptsArguments(int count) {
+        return count >= minArguments && count <= maxArguments;
+    }
+}
@@ -1,6 +1,8 @@
 package com.expresso.context.functions;
 
 import com.expresso.context.Context;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Interface for classes that provide function implementations to the Context.
@@ -13,4 +15,25 @@ public interface FunctionProvider {
      * @param context The context to register functions in
      */
     void registerFunctions(Context context);
-} 
\ No newline at end of file
+
+    /**
+     * Lists the names of the functions registered by this provider, so that the registry can load
+     * the provider only when one of them is first used. Providers that return an empty set are
+     * loaded as soon as the registry is initialised.
+     *
+     * @return The function names
+     */
+    default Set<String> getFunctionNames() {
+        return Set.of();
+    }
+
+    /**
+     * Describes the cost and purity of the functions registered by this provider.
+     * Functions that are not listed are assumed to be cheap and pure.
+     *
+     * @return Map of function names to their metadata
+     */
+    default Map<String, FunctionMetadata> getFunctionMetadata() {
+        return Map.of();
+    }
+}
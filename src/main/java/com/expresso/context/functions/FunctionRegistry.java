@@ -1,32 +1,115 @@
 package com.expresso.context.functions;
 
 import com.expresso.context.Context;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Registry for all function providers.
  * Acts as a central place to register all function providers.
+ *
+ * <p>Besides the built-in providers, providers listed in {@code
+ * META-INF/services/com.expresso.context.functions.FunctionProvider} are discovered with {@link
+ * ServiceLoader}; they are consulted after the built-in ones and may replace built-in functions.
+ * Providers that declare their function names are loaded the first time one of their functions is
+ * requested, the others when the registry is initialised.
  */
 public class FunctionRegistry {
-    
-    // List of all function providers
-    private static final List<FunctionProvider> PROVIDERS = Arrays.asList(
-        new StringFunctions(),
-        new MathFunctions(),
-        new LogicFunctions(),
-        new ComparisonFunctions(),
-        new DateFunctions(),
-        new CollectionFunctions(),
-        new UtilityFunctions()
-    );
-    
+
+    // List of all function providers, in registration order
+    private static final List<LazyFunctionProvider> PROVIDERS = discoverProviders();
+
+    // Provider of each function, keyed by function name
+    private static final Map<String, LazyFunctionProvider> PROVIDERS_BY_NAME = indexProviders();
+
+    // Metadata declared by the providers, keyed by function name
+    private static final Map<String, FunctionMetadata> METADATA = collectMetadata();
+
     /**
-     * Registers all built-in functions in the given context.
-     * 
+     * Registers all built-in functions in the given context. This loads every provider; contexts
+     * resolve built-in functions through {@link #getFunction(String)} without registering them.
+     *
      * @param context The context to register functions in
      */
     public static void registerAllFunctions(Context context) {
-        PROVIDERS.forEach(provider -> provider.registerFunctions(context));
+        PROVIDERS.forEach(provider -> provider.load().forEach(context::registerFunction));
+    }
+
+    /**
+     * Gets a built-in function, loading its provider on first use.
+     *
+     * @param name The function name
+     * @return The function implementation, or null if no provider registers it
+     */
+    public static Function<Object[], Object> getFunction(String name) {
+        LazyFunctionProvider provider = PROVIDERS_BY_NAME.get(name);
+        return provider == null ? null : provider.getFunction(name);
+    }
+
+    /**
+     * Checks whether a built-in function exists, without loading its provider.
+     *
+     * @param name The function name
+     * @return true if a provider registers the function
+     */
+    public static boolean hasFunction(String name) {
+        return PROVIDERS_BY_NAME.containsKey(name);
+    }
+
+    /**
+     * Gets the metadata of a built-in function.
+     *
+     * @param name The function name
+     * @return The declared metadata, or {@link FunctionMetadata#DEFAULT} if none was declared
+     */
+    public static FunctionMetadata getFunctionMetadata(String name) {
+        return METADATA.getOrDefault(name, FunctionMetadata.DEFAULT);
+    }
+
+    /**
+     * Gets the number of providers whose functions have been created so far.
+     *
+     * @return The number of loaded providers
+     */
+    public static int getLoadedProviderCount() {
+        return (int) PROVIDERS.stream().filter(LazyFunctionProvider::isLoaded).count();
+    }
+
+    private static List<LazyFunctionProvider> discoverProviders() {
+        List<LazyFunctionProvider> providers = new ArrayList<>();
+        providers.add(new LazyFunctionProvider(new StringFunctions()));
+        providers.add(new LazyFunctionProvider(new MathFunctions()));
+        providers.add(new LazyFunctionProvider(new LogicFunctions()));
+        providers.add(new LazyFunctionProvider(new ComparisonFunctions()));
+        providers.add(new LazyFunctionProvider(new DateFunctions()));
+        providers.add(new LazyFunctionProvider(new CollectionFunctions()));
+        providers.add(new LazyFunctionProvider(new UtilityFunctions()));
+        for (FunctionProvider provider : ServiceLoader.load(FunctionProvider.class, FunctionRegistry.class.getClassLoader())) {
+            providers.add(new LazyFunctionProvider(provider));
+        }
+        return providers;
+    }
+
+    private static Map<String, LazyFunctionProvider> indexProviders() {
+        Map<String, LazyFunctionProvider> index = new HashMap<>();
+        for (LazyFunctionProvider provider : PROVIDERS) {
+            Set<String> names = provider.getProvider().getFunctionNames();
+            if (names.isEmpty()) {
+                names = provider.load().keySet();
+            }
+            names.forEach(name -> index.put(name, provider));
+        }
+        return index;
+    }
+
+    private static Map<String, FunctionMetadata> collectMetadata() {
+        Map<String, FunctionMetadata> metadata = new HashMap<>();
+        PROVIDERS.forEach(provider -> metadata.putAll(provider.getProvider().getFunctionMetadata()));
+        return metadata;
     }
-} 
\ No newline at end of file
+}
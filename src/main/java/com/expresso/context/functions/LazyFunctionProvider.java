@@ -0,0 +1,74 @@
+package com.expresso.context.functions;
+
+import com.expresso.context.Context;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Holds a provider whose functions are created the first time one of them is requested.
+ */
+final class LazyFunctionProvider {
+    private final FunctionProvider provider;
+    private volatile Map<String, Function<Object[], Object>> functions;
+
+    LazyFunctionProvider(FunctionProvider provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Gets a function of the provider, loading the provider if needed
+     *
+     * @param name The function name
+     * @return The function, or null if the provider does not register it
+     */
+    Function<Object[], Object> getFunction(String name) {
+        return load().get(name);
+    }
+
+    /**
+     * Gets all functions of the provider, loading the provider if needed
+     *
+     * @return Map of function names to their implementations
+     */
+    Map<String, Function<Object[], Object>> load() {
+        Map<String, Function<Object[], Object>> loaded = functions;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = functions;
+                if (loaded == null) {
+                    Collector collector = new Collector();
+                    provider.registerFunctions(collector);
+                    loaded = Map.copyOf(collector.functions);
+                    functions = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Checks whether the functions of the provider have been created
+     *
+     * @return true if the provider has been loaded
+     */
+    boolean isLoaded() {
+        return functions != null;
+    }
+
+    FunctionProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Context that records the functions registered in it
+     */
+    private static final class Collector extends Context {
+        private final Map<String, Function<Object[], Object>> functions = new HashMap<>();
+
+        @Override
+        public void registerFunction(String name, Function<Object[], Object> function) {
+            functions.put(name, function);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.expresso.context.functions;
 import com.expresso.context.Context;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Provider for logical functions and operations.
@@ -50,4 +51,27 @@ public class LogicFunctions implements FunctionProvider {
             return condition ? args[1] : args[2];
         });
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Set<String> getFunctionNames() {
+        return Set.of(
+            "isNull", "coalesce", "isEmpty", "isNumber", "isString", "isBoolean", "isList", "isMap",
+            "equals", "ifThen");
+    }
+
+    @Override
+    public Map<String, FunctionMetadata> getFunctionMetadata() {
+        return Map.ofEntries(
+            Map.entry("isNull", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("coalesce", FunctionMetadata.DEFAULT.withArity(1, Integer.MAX_VALUE)),
+            Map.entry("isEmpty", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("isNumber", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("isString", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("isBoolean", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("isList", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("isMap", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("equals", FunctionMetadata.DEFAULT.withArity(2)),
+            Map.entry("ifThen", FunctionMetadata.DEFAULT.withArity(3))
+        );
+    }
+}
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.expresso.context.functions;
 
 import com.expresso.context.Context;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Provider for mathematical functions.
@@ -48,4 +50,32 @@ public class MathFunctions implements FunctionProvider {
         context.registerFunction("log10", args -> Math.log10(((Number) args[0]).doubleValue()));
         context.registerFunction("exp", args -> Math.exp(((Number) args[0]).doubleValue()));
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Set<String> getFunctionNames() {
+        return Set.of(
+            "abs", "ceil", "floor", "round", "max", "min", "pow", "sqrt", "random", "sin", "cos",
+            "tan", "log", "log10", "exp");
+    }
+
+    @Override
+    public Map<String, FunctionMetadata> getFunctionMetadata() {
+        return Map.ofEntries(
+            Map.entry("abs", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("ceil", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("floor", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("round", FunctionMetadata.pure(2).withArity(1, 2)),
+            Map.entry("max", FunctionMetadata.DEFAULT.withArity(2)),
+            Map.entry("min", FunctionMetadata.DEFAULT.withArity(2)),
+            Map.entry("pow", FunctionMetadata.pure(2).withArity(2)),
+            Map.entry("sqrt", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("random", FunctionMetadata.impure(2).withArity(0)),
+            Map.entry("sin", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("cos", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("tan", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("log", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("log10", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("exp", FunctionMetadata.pure(2).withArity(1))
+        );
+    }
+}
@@ -0,0 +1,67 @@
+package com.expresso.context.functions;
+
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of compiled patterns shared by the pattern functions. It serves patterns that are
+ * only known at evaluation time; literal patterns are compiled once when the call is prepared.
+ */
+final class PatternCache {
+    /** Maximum number of cached patterns of each kind */
+    static final int MAX_SIZE = 256;
+
+    private static final BoundedCache<String, Pattern> REGEX = new BoundedCache<>("regex", MAX_SIZE);
+    private static final BoundedCache<String, Pattern> GLOB = new BoundedCache<>("glob", MAX_SIZE);
+
+    private PatternCache() {
+    }
+
+    /**
+     * Gets the compiled form of a regular expression
+     *
+     * @param regex The regular expression
+     * @return The compiled pattern
+     */
+    static Pattern regex(String regex) {
+        return REGEX.get(regex, Pattern::compile);
+    }
+
+    /**
+     * Gets the compiled form of a glob, in which {@code *} matches any sequence of characters,
+     * {@code ?} matches a single character and {@code \} escapes the next character
+     *
+     * @param glob The glob
+     * @return The compiled pattern
+     */
+    static Pattern glob(String glob) {
+        return GLOB.get(glob, PatternCache::compileGlob);
+    }
+
+    static Pattern compileGlob(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 8);
+        int literalStart = -1;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?' || c == '\\') {
+                if (literalStart >= 0) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                    literalStart = -1;
+                }
+                if (c == '*') {
+                    regex.append(".*");
+                } else if (c == '?') {
+                    regex.append('.');
+                } else {
+                    // The escaped character starts a literal run; a trailing backslash is literal
+                    literalStart = i + 1 < glob.length() ? ++i : i;
+                }
+            } else if (literalStart < 0) {
+                literalStart = i;
+            }
+        }
+        if (literalStart >= 0) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
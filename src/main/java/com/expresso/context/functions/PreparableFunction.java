@@ -0,0 +1,43 @@
+package com.expresso.context.functions;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A function that can specialise itself for calls whose arguments are partly constant, e.g. by
+ * compiling a literal pattern once instead of on every call.
+ *
+ * <p>A function call expression is linked to its function the first time it is evaluated: if the
+ * resolved function is preparable and some arguments are literals, {@link #prepare(Object[],
+ * boolean[])} is called once and the returned function is used for all later evaluations that
+ * resolve to the same function.
+ */
+public interface PreparableFunction extends Function<Object[], Object> {
+
+    /**
+     * Prepares the function for a call site
+     *
+     * @param arguments The argument values, known only where {@code constant} is true
+     * @param constant Whether each argument is a literal
+     * @return The function to call instead, receiving all arguments as usual, or null to keep calling
+     *     this function
+     */
+    Function<Object[], Object> prepare(Object[] arguments, boolean[] constant);
+
+    /**
+     * Creates a function that derives a value from one of its arguments, e.g. a formatter from a
+     * pattern. The value is derived once per call site when the argument is a literal, and taken
+     * from a bounded cache of this function otherwise.
+     *
+     * @param <T> The type of the derived value
+     * @param index The position of the argument
+     * @param defaultValue The argument value used when the call has fewer arguments
+     * @param preparer Derives the value from the argument
+     * @param body Computes the result from all arguments and the derived value
+     * @return The function
+     */
+    static <T> PreparableFunction preparingArgument(
+            int index, Object defaultValue, Function<Object, T> preparer, BiFunction<Object[], T, Object> body) {
+        return new ArgumentPreparingFunction<>(index, defaultValue, preparer, body);
+    }
+}
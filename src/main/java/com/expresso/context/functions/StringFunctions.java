@@ -1,12 +1,19 @@
 package com.expresso.context.functions;
 
 import com.expresso.context.Context;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 /**
  * Provider for string manipulation functions.
  */
 public class StringFunctions implements FunctionProvider {
+    // Characters with a special meaning in regular expressions
+    private static final String REGEX_METACHARACTERS = ".$|()[]{}^?*+\\";
     
     @Override
     public void registerFunctions(Context context) {
@@ -119,11 +126,9 @@ public class StringFunctions implements FunctionProvider {
             String suffix = (String) args[1];
             return str.endsWith(suffix);
         });
-        context.registerFunction("split", args -> {
-            String str = (String) args[0];
-            String delimiter = (String) args[1];
-            return List.of(str.split(delimiter));
-        });
+        context.registerFunction("split", new SplitFunction());
+        context.registerFunction("matches", new PatternFunction(PatternCache::regex));
+        context.registerFunction("like", new PatternFunction(PatternCache::glob));
         context.registerFunction("join", args -> {
             String delimiter = (String) args[0];
             List<?> elements = (List<?>) args[1];
@@ -140,4 +145,135 @@ public class StringFunctions implements FunctionProvider {
             return str.indexOf(search);
         });
     }
-} 
\ No newline at end of file
+
+    /**
+     * Splits a string around a delimiter that contains no regular expression metacharacters,
+     * with the same result as {@link String#split(String)}
+     * @param str The string to split
+     * @param delimiter The non-empty literal delimiter
+     * @return The parts, without trailing empty strings
+     */
+    static List<String> splitLiteral(String str, String delimiter) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = str.indexOf(delimiter, start)) >= 0) {
+            parts.add(str.substring(start, end));
+            start = end + delimiter.length();
+        }
+        if (start == 0) {
+            return List.of(str);
+        }
+        parts.add(str.substring(start));
+        int size = parts.size();
+        while (size > 0 && parts.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return List.copyOf(parts.subList(0, size));
+    }
+
+    /**
+     * Checks whether a delimiter is matched literally when used as a regular expression
+     * @param delimiter The delimiter
+     * @return true if the delimiter is not empty and contains no metacharacters
+     */
+    static boolean isLiteralDelimiter(String delimiter) {
+        if (delimiter.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < delimiter.length(); i++) {
+            if (REGEX_METACHARACTERS.indexOf(delimiter.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * split(str, delimiter), where the delimiter is a regular expression. Literal delimiters
+     * without metacharacters are split with {@link String#indexOf(String, int)} instead.
+     */
+    private static final class SplitFunction implements PreparableFunction {
+        @Override
+        public Object apply(Object[] args) {
+            String str = (String) args[0];
+            String delimiter = (String) args[1];
+            if (isLiteralDelimiter(delimiter)) {
+                return splitLiteral(str, delimiter);
+            }
+            return List.of(PatternCache.regex(delimiter).split(str));
+        }
+
+        @Override
+        public Function<Object[], Object> prepare(Object[] arguments, boolean[] constant) {
+            if (arguments.length < 2 || !constant[1] || !(arguments[1] instanceof String)) {
+                return null;
+            }
+            String delimiter = (String) arguments[1];
+            if (isLiteralDelimiter(delimiter)) {
+                return args -> splitLiteral((String) args[0], delimiter);
+            }
+            Pattern pattern = Pattern.compile(delimiter);
+            return args -> List.of(pattern.split((String) args[0]));
+        }
+    }
+
+    /**
+     * matches(str, regex) and like(str, glob): whether the whole string matches a pattern. A null
+     * string matches no pattern.
+     */
+    private static final class PatternFunction implements PreparableFunction {
+        private final Function<String, Pattern> compiler;
+
+        PatternFunction(Function<String, Pattern> compiler) {
+            this.compiler = compiler;
+        }
+
+        @Override
+        public Object apply(Object[] args) {
+            return matches(compiler.apply((String) args[1]), args[0]);
+        }
+
+        @Override
+        public Function<Object[], Object> prepare(Object[] arguments, boolean[] constant) {
+            if (arguments.length < 2 || !constant[1] || !(arguments[1] instanceof String)) {
+                return null;
+            }
+            Pattern pattern = compiler.apply((String) arguments[1]);
+            return args -> matches(pattern, args[0]);
+        }
+
+        private static boolean matches(Pattern pattern, Object str) {
+            return str != null && pattern.matcher((String) str).matches();
+        }
+    }
+
+    @Override
+    public Set<String> getFunctionNames() {
+        return Set.of(
+            "upperCase", "lowerCase", "length", "trim", "substring", "replace", "contains",
+            "startsWith", "endsWith", "split", "matches", "like", "join", "charAt", "indexOf");
+    }
+
+    @Override
+    public Map<String, FunctionMetadata> getFunctionMetadata() {
+        return Map.ofEntries(
+            Map.entry("upperCase", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("lowerCase", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("length", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("trim", FunctionMetadata.DEFAULT.withArity(1)),
+            Map.entry("substring", FunctionMetadata.pure(2).withArity(2, 3)),
+            Map.entry("replace", FunctionMetadata.pure(3).withArity(3)),
+            Map.entry("contains", FunctionMetadata.pure(3).withArity(2)),
+            Map.entry("startsWith", FunctionMetadata.DEFAULT.withArity(2)),
+            Map.entry("endsWith", FunctionMetadata.DEFAULT.withArity(2)),
+            Map.entry("indexOf", FunctionMetadata.pure(2).withArity(2)),
+            Map.entry("charAt", FunctionMetadata.DEFAULT.withArity(2)),
+            // Delimiters and patterns are compiled once per call site or taken from a cache
+            Map.entry("split", FunctionMetadata.pure(4).withArity(2)),
+            Map.entry("matches", FunctionMetadata.pure(5).withArity(2)),
+            Map.entry("like", FunctionMetadata.pure(5).withArity(2)),
+            Map.entry("join", FunctionMetadata.pure(5).withArity(2))
+        );
+    }
+}
@@ -4,6 +4,7 @@ import com.expresso.context.Context;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Provider for utility functions.
@@ -57,4 +58,19 @@ public class UtilityFunctions implements FunctionProvider {
             return true; // Non-null object is considered true
         });
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Set<String> getFunctionNames() {
+        return Set.of("typeof", "toString", "toNumber", "toBoolean");
+    }
+
+    @Override
+    public Map<String, FunctionMetadata> getFunctionMetadata() {
+        return Map.ofEntries(
+            Map.entry("typeof", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("toString", FunctionMetadata.pure(2).withArity(1)),
+            Map.entry("toNumber", FunctionMetadata.pure(3).withArity(1)),
+            Map.entry("toBoolean", FunctionMetadata.pure(2).withArity(1))
+        );
+    }
+}
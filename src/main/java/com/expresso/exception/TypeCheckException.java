@@ -0,0 +1,32 @@
+package com.expresso.exception;
+
+import java.util.List;
+
+/**
+ * Exception thrown when an expression is compiled against declared variable types and one of its
+ * operations cannot succeed for any value of those types, such as subtracting a string from a number.
+ * Expressions compiled against a root type also report the properties and functions they use that do
+ * not exist.
+ */
+public class TypeCheckException extends ExpressionException {
+    private final List<String> errors;
+
+    /**
+     * Creates a new TypeCheckException with the specified type errors.
+     * 
+     * @param errors the description of each type error, in the order of the expression
+     */
+    public TypeCheckException(List<String> errors) {
+        super("Type errors: " + String.join("; ", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+     * Gets the type errors found in the expression.
+     * 
+     * @return the description of each type error
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
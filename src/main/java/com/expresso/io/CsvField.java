@@ -0,0 +1,83 @@
+package com.expresso.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Character view of a field of a memory-mapped CSV file. Fields of ASCII characters are read from
+ * the buffer directly, without copying; fields holding other UTF-8 characters or escaped quotes are
+ * decoded when the view is positioned on them.
+ *
+ * <p>A view is only valid while its buffer is mapped, and views reused for each row only until they
+ * are moved to the next one.
+ */
+final class CsvField implements CharSequence {
+    private ByteBuffer buffer;
+    private int start;
+    private int end;
+    private String decoded;
+
+    /**
+     * Positions this view on a field
+     *
+     * @param buffer The buffer holding the field
+     * @param start The position of the first byte of the value, after the opening quote if any
+     * @param end The position following the last byte of the value, before the closing quote if any
+     * @param escaped Whether the value contains doubled quotes
+     * @return This view
+     */
+    CsvField set(ByteBuffer buffer, int start, int end, boolean escaped) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        this.decoded = escaped || !isAscii() ? decode(escaped) : null;
+        return this;
+    }
+
+    private boolean isAscii() {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(boolean escaped) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        return escaped ? value.replace("\"\"", "\"") : value;
+    }
+
+    @Override
+    public int length() {
+        return decoded != null ? decoded.length() : end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (decoded != null) {
+            return decoded.charAt(index);
+        }
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (char) buffer.get(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (decoded != null) {
+            return decoded;
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,487 @@
+package com.expresso.io;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import com.expresso.exception.TypeConversionException;
+import com.expresso.validation.ContextSchema;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only CSV file, memory-mapped for evaluating expressions over its rows. The first line holds
+ * the column names, which are the variables of the expressions; each following line is a row.
+ *
+ * <p>The file is mapped in chunks of whole rows, so that files larger than 2 GB can be scanned, and
+ * the chunks are scanned in parallel. Row and field boundaries are found in the mapped bytes, and only
+ * the columns that an expression uses are decoded, through character views of the mapped bytes. The
+ * values of a column are strings unless the schema given when opening the file declares another
+ * type: integer types are read as {@code Long}, other numbers as {@code Double}, and booleans and
+ * {@code LocalDate}s are parsed as well. Empty values of such columns, and the missing values of short
+ * rows, are null. Compiling expressions with the same schema, see {@link
+ * ExpressionEvaluator#compile(String, ContextSchema)}, specialises their operators for these types.
+ *
+ * <p>Fields may be quoted with {@code "}, and quotes in quoted fields are doubled. Quoted fields may
+ * contain commas but not line breaks. The file is read as UTF-8.
+ */
+public final class CsvFile implements AutoCloseable {
+    /** The default maximum size of a chunk */
+    public static final long DEFAULT_CHUNK_SIZE = 256L * 1024 * 1024;
+
+    private static final int STRING = 0;
+    private static final int INTEGER = 1;
+    private static final int DECIMAL = 2;
+    private static final int BOOLEAN = 3;
+    private static final int DATE = 4;
+
+    private final FileChannel channel;
+    private final List<String> columns;
+    private final int[] columnTypes;
+    private final List<ByteBuffer> chunks;
+
+    private CsvFile(FileChannel channel, List<String> columns, int[] columnTypes, List<ByteBuffer> chunks) {
+        this.channel = channel;
+        this.columns = columns;
+        this.columnTypes = columnTypes;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Opens a file whose values are all strings
+     *
+     * @param file The file
+     * @return The opened file, to be closed after use
+     * @throws IOException if the file cannot be read or has no header
+     */
+    public static CsvFile open(Path file) throws IOException {
+        return open(file, new ContextSchema());
+    }
+
+    /**
+     * Opens a file whose columns have the types declared by a schema
+     *
+     * @param file The file
+     * @param schema Declares the types of the columns; the other columns are strings
+     * @return The opened file, to be closed after use
+     * @throws IOException if the file cannot be read or has no header
+     */
+    public static CsvFile open(Path file, ContextSchema schema) throws IOException {
+        return open(file, schema, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens a file, mapping it in chunks of about a given size
+     *
+     * @param chunkSize The size after which a chunk ends at the next line break
+     */
+    static CsvFile open(Path file, ContextSchema schema, long chunkSize) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            long headerEnd = lineEnd(channel, 0, size);
+            if (headerEnd == 0) {
+                throw new StreamCorruptedException("Missing CSV header");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+            List<String> columns = new Scanner(header).readRow();
+            // Skip the byte order mark of files saved as UTF-8 with BOM
+            if (!columns.isEmpty() && columns.get(0).startsWith("\uFEFF")) {
+                columns.set(0, columns.get(0).substring(1));
+            }
+            int[] columnTypes = new int[columns.size()];
+            for (int i = 0; i < columnTypes.length; i++) {
+                columnTypes[i] = columnType(schema.typeOf(columns.get(i), null));
+            }
+
+            List<ByteBuffer> chunks = new ArrayList<>();
+            long start = headerEnd;
+            while (start < size) {
+                long end = start + chunkSize >= size ? size : lineEnd(channel, start + chunkSize, size);
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException("CSV row larger than 2 GB at byte " + start);
+                }
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+            return new CsvFile(channel, Collections.unmodifiableList(columns), columnTypes, chunks);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the end of the line containing a position
+     *
+     * @return The position following the next line break, or the size of the file
+     */
+    private static long lineEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static int columnType(Class<?> type) {
+        if (type == null) {
+            return STRING;
+        }
+        if (type == Long.class || type == long.class || type == Integer.class || type == int.class
+            || type == Short.class || type == short.class || type == Byte.class || type == byte.class) {
+            return INTEGER;
+        }
+        if (Number.class.isAssignableFrom(type) || type == double.class || type == float.class) {
+            return DECIMAL;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return BOOLEAN;
+        }
+        return type == LocalDate.class ? DATE : STRING;
+    }
+
+    /**
+     * Gets the column names, in the order of the file
+     *
+     * @return The column names
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets the number of chunks the file is mapped in, which bounds the number of chunks scanned in
+     * parallel
+     *
+     * @return The number of chunks
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Counts the rows for which an expression is true, or another value than null and false
+     *
+     * @param evaluator The evaluator evaluating the expression
+     * @param filter The expression
+     * @return The number of matching rows
+     * @throws UncheckedIOException if a quoted field is not terminated
+     */
+    public long count(ExpressionEvaluator evaluator, Expression filter) {
+        Projection projection = project(filter);
+        return IntStream.range(0, chunks.size()).parallel()
+            .mapToLong(chunk -> scan(chunk, projection, evaluator, filter, null))
+            .sum();
+    }
+
+    /**
+     * Passes the rows for which an expression is true, or another value than null and false, to an
+     * action. Chunks are scanned in parallel, so the action is called by several threads and not in
+     * the order of the file; rows of the same chunk are passed in order by the same thread.
+     *
+     * @param evaluator The evaluator evaluating the expression
+     * @param filter The expression
+     * @param action Receives the matching rows, which are only valid during the call
+     * @throws UncheckedIOException if a quoted field is not terminated
+     */
+    public void forEach(ExpressionEvaluator evaluator, Expression filter, Consumer<CsvRow> action) {
+        Projection projection = project(filter);
+        IntStream.range(0, chunks.size()).parallel()
+            .forEach(chunk -> scan(chunk, projection, evaluator, filter, action));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * The columns used by an expression
+     *
+     * @param slots The slot of each column in the context, or -1 for columns that are not used
+     * @param names The names of the used columns, by slot
+     */
+    private record Projection(int[] slots, String[] names) {
+    }
+
+    private Projection project(Expression filter) {
+        FieldTree fields = FieldTree.of(filter);
+        int[] slots = new int[columns.size()];
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = fields.indexOf(columns.get(i)) >= 0 ? names.size() : -1;
+            if (slots[i] >= 0) {
+                names.add(columns.get(i));
+            }
+        }
+        return new Projection(slots, names.toArray(new String[0]));
+    }
+
+    /**
+     * Evaluates an expression for each row of a chunk
+     *
+     * @return The number of matching rows
+     */
+    private long scan(int chunk, Projection projection, ExpressionEvaluator evaluator, Expression filter,
+            Consumer<CsvRow> action) {
+        ByteBuffer buffer = chunks.get(chunk);
+        int[] slots = projection.slots();
+        RecordContext context = new RecordContext(projection.names());
+        CsvField[] views = new CsvField[projection.names().length];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = new CsvField();
+        }
+        CsvRow row = action != null ? new CsvRow(buffer, columns) : null;
+
+        Scanner scanner = new Scanner(buffer);
+        long matched = 0;
+        while (scanner.hasNext()) {
+            int rowStart = scanner.position;
+            int count = scanner.readRow(views, slots);
+            if (scanner.rowEnd == rowStart) {
+                // Blank line
+                continue;
+            }
+            context.clear();
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] >= 0) {
+                    context.set(slots[i], i < count ? decode(views[slots[i]], columnTypes[i], columns.get(i)) : null);
+                }
+            }
+            if (BinaryExpression.isTruthy(evaluator.evaluate(filter, context))) {
+                matched++;
+                if (action != null) {
+                    action.accept(row.at(rowStart, scanner.rowEnd));
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static Object decode(CsvField field, int type, String column) {
+        if (type == STRING) {
+            return field.toString();
+        }
+        if (field.length() == 0) {
+            return null;
+        }
+        try {
+            switch (type) {
+                case INTEGER:
+                    return parseLong(field);
+                case DECIMAL:
+                    return Double.parseDouble(field.toString());
+                case BOOLEAN:
+                    if (equalsIgnoreCase(field, "true")) {
+                        return Boolean.TRUE;
+                    }
+                    if (equalsIgnoreCase(field, "false")) {
+                        return Boolean.FALSE;
+                    }
+                    throw new TypeConversionException(field.toString(), Boolean.class, "Invalid value of column " + column);
+                default:
+                    return LocalDate.parse(field);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            Class<?> target = type == INTEGER ? Long.class : type == DECIMAL ? Double.class : LocalDate.class;
+            throw new TypeConversionException(field.toString(), target, "Invalid value of column " + column);
+        }
+    }
+
+    /**
+     * Parses an integer from the characters of a field, without creating a string
+     */
+    private static Long parseLong(CharSequence value) {
+        int i = 0;
+        boolean negative = value.charAt(0) == '-';
+        if (negative || value.charAt(0) == '+') {
+            i++;
+        }
+        if (i == value.length() || value.length() - i > 18) {
+            // Signs alone are invalid, longer numbers may overflow
+            return Long.parseLong(value.toString());
+        }
+        long result = 0;
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException(value.toString());
+            }
+            result = result * 10 + (c - '0');
+        }
+        return negative ? -result : result;
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence value, String expected) {
+        if (value.length() != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(value.charAt(i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the rows and fields of a buffer of whole lines
+     */
+    static final class Scanner {
+        private final ByteBuffer buffer;
+        private final int limit;
+        int position;
+        // The bounds of the value of the last field read, without its quotes
+        private int valueStart;
+        private int valueEnd;
+        private boolean escaped;
+        // The position following the last row read, without its line break
+        int rowEnd;
+
+        Scanner(ByteBuffer buffer) {
+            this(buffer, 0, buffer.limit());
+        }
+
+        Scanner(ByteBuffer buffer, int position, int limit) {
+            this.buffer = buffer;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        boolean hasNext() {
+            return position < limit;
+        }
+
+        /**
+         * Reads the next row, positioning a view on each field that is used
+         *
+         * @param views The views of the used fields, by slot
+         * @param slots The slot of each column, or -1 for columns that are not used
+         * @return The number of fields of the row
+         */
+        int readRow(CsvField[] views, int[] slots) {
+            int column = 0;
+            boolean more;
+            do {
+                more = readField();
+                if (column < slots.length && slots[column] >= 0) {
+                    views[slots[column]].set(buffer, valueStart, valueEnd, escaped);
+                }
+                column++;
+            } while (more);
+            return column;
+        }
+
+        /**
+         * Reads the fields of the next row as strings
+         *
+         * @return The values of the fields
+         */
+        List<String> readRow() {
+            List<String> values = new ArrayList<>();
+            CsvField view = new CsvField();
+            boolean more;
+            do {
+                more = readField();
+                values.add(view.set(buffer, valueStart, valueEnd, escaped).toString());
+            } while (more);
+            return values;
+        }
+
+        /**
+         * Reads the fields of the next row up to a column
+         *
+         * @param index The index of the column
+         * @param view The view to position on the field
+         * @return The view, or null if the row has fewer fields
+         */
+        CsvField readField(int index, CsvField view) {
+            for (int column = 0; ; column++) {
+                boolean more = readField();
+                if (column == index) {
+                    return view.set(buffer, valueStart, valueEnd, escaped);
+                }
+                if (!more) {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Reads the next field
+         *
+         * @return true if the row has another field, false if this was its last field
+         */
+        private boolean readField() {
+            int start = position;
+            escaped = false;
+            if (position < limit && buffer.get(position) == '"') {
+                valueStart = ++position;
+                while (true) {
+                    // Quoted fields may not span lines, see the class documentation
+                    if (position >= limit || buffer.get(position) == '\n') {
+                        throw new UncheckedIOException(
+                            new StreamCorruptedException("Unterminated quoted field at byte " + start));
+                    }
+                    if (buffer.get(position++) == '"') {
+                        if (position < limit && buffer.get(position) == '"') {
+                            escaped = true;
+                            position++;
+                        } else {
+                            break;
+                        }
+                    }
+                }
+                valueEnd = position - 1;
+                skipToDelimiter();
+            } else {
+                valueStart = start;
+                skipToDelimiter();
+                valueEnd = position;
+            }
+            if (position < limit && buffer.get(position) == ',') {
+                position++;
+                return true;
+            }
+            // End of the row, which may end with \r\n
+            rowEnd = position > start && buffer.get(position - 1) == '\r' ? position - 1 : position;
+            if (valueEnd > rowEnd) {
+                valueEnd = rowEnd;
+            }
+            position++;
+            return false;
+        }
+
+        private void skipToDelimiter() {
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b == ',' || b == '\n') {
+                    return;
+                }
+                position++;
+            }
+        }
+    }
+}
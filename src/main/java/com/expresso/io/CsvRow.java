@@ -0,0 +1,64 @@
+package com.expresso.io;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A row of a {@link CsvFile} passed to the action of {@link CsvFile#forEach}. Values are views of
+ * the mapped file: fields are only located when they are requested, and a row and its values are
+ * only valid during the call of the action. Copy values with {@code toString()} to keep them.
+ */
+public final class CsvRow {
+    private final ByteBuffer buffer;
+    private final List<String> columns;
+    private int start;
+    private int end;
+
+    CsvRow(ByteBuffer buffer, List<String> columns) {
+        this.buffer = buffer;
+        this.columns = columns;
+    }
+
+    /**
+     * Positions this row on a line of the buffer
+     *
+     * @param start The position of the first byte of the line
+     * @param end The position following the line, without its line break
+     * @return This row
+     */
+    CsvRow at(int start, int end) {
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    /**
+     * Gets the value of a column
+     *
+     * @param column The column name
+     * @return The value, without quotes, or null if the file or the row has no such column
+     */
+    public CharSequence get(String column) {
+        int index = columns.indexOf(column);
+        return index >= 0 ? get(index) : null;
+    }
+
+    /**
+     * Gets the value of a column
+     *
+     * @param index The index of the column
+     * @return The value, without quotes, or null if the row has fewer fields
+     */
+    public CharSequence get(int index) {
+        return new CsvFile.Scanner(buffer, start, end).readField(index, new CsvField());
+    }
+
+    /**
+     * Gets the line of the row as it is in the file
+     *
+     * @return The line, without its line break
+     */
+    public CharSequence getLine() {
+        return new CsvField().set(buffer, start, end, false);
+    }
+}
@@ -0,0 +1,135 @@
+package com.expresso.io;
+
+import com.expresso.ast.Expression;
+import com.expresso.ast.VariableExpression;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The fields of a record that an expression reads. The children of the root are the variables of
+ * the expression, and the children of a field are the properties read from it. A field that is used
+ * as a whole, such as {@code $items} in {@code size($items)}, or that is indexed, is read completely.
+ */
+final class FieldTree {
+    private final List<String> names = new ArrayList<>();
+    private final List<FieldTree> children = new ArrayList<>();
+    private boolean whole;
+
+    /**
+     * Collects the fields read by an expression
+     *
+     * @param expression The expression
+     * @return The root of the tree, whose children are the variables
+     */
+    static FieldTree of(Expression expression) {
+        FieldTree root = new FieldTree();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+        while (!pending.isEmpty()) {
+            Expression node = pending.pop();
+            if (node instanceof VariableExpression variable) {
+                root.add(variable.getName(), variable.getPropertyPath());
+            }
+            node.getChildren().forEach(pending::push);
+        }
+        return root;
+    }
+
+    /**
+     * Adds a variable reference
+     *
+     * @param name The variable name
+     * @param path The property path, as held by a {@code VariableExpression}, or null
+     */
+    private void add(String name, String path) {
+        FieldTree field = child(name);
+        int position = 0;
+        while (path != null && position < path.length()) {
+            char c = path.charAt(position);
+            if (c == '.') {
+                position++;
+            } else if (c == '[' || c == '?') {
+                // Indexed values are read completely
+                break;
+            } else {
+                int end = position;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[' && path.charAt(end) != '?') {
+                    end++;
+                }
+                field = field.child(path.substring(position, end));
+                position = end;
+            }
+        }
+        field.whole = true;
+    }
+
+    private FieldTree child(String name) {
+        int index = names.indexOf(name);
+        if (index >= 0) {
+            return children.get(index);
+        }
+        FieldTree child = new FieldTree();
+        names.add(name);
+        children.add(child);
+        return child;
+    }
+
+    /**
+     * Finds the child field with a name
+     *
+     * @param chars The characters holding the name
+     * @param start The position of the first character of the name
+     * @param end The position following the name
+     * @return The index of the child, or -1 if it is not read
+     */
+    int indexOf(char[] chars, int start, int end) {
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (name.length() == end - start && matches(name, chars, start)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the child field with a name
+     *
+     * @param name The name
+     * @return The index of the child, or -1 if it is not read
+     */
+    int indexOf(String name) {
+        return names.indexOf(name);
+    }
+
+    private static boolean matches(String name, char[] chars, int start) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    String name(int index) {
+        return names.get(index);
+    }
+
+    FieldTree child(int index) {
+        return children.get(index);
+    }
+
+    /**
+     * Checks whether the value of this field is read completely, rather than only some of its
+     * properties
+     */
+    boolean isWhole() {
+        return whole;
+    }
+}
@@ -0,0 +1,105 @@
+package com.expresso.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.util.Map;
+
+/**
+ * Writes evaluation results as JSON values. Maps become objects, lists and arrays become arrays, and
+ * values other than numbers and booleans, such as dates, are written as strings. Numbers that JSON
+ * cannot represent, NaN and infinities, are written as null.
+ */
+final class JsonWriter {
+
+    private JsonWriter() {
+    }
+
+    /**
+     * Writes a value
+     *
+     * @param value The value
+     * @param out The writer
+     * @throws IOException if the value cannot be written
+     */
+    static void write(Object value, Writer out) throws IOException {
+        if (value == null) {
+            out.write("null");
+        } else if (value instanceof Boolean) {
+            out.write(value.toString());
+        } else if (value instanceof Number number) {
+            double asDouble = number.doubleValue();
+            out.write(Double.isNaN(asDouble) || Double.isInfinite(asDouble) ? "null" : number.toString());
+        } else if (value instanceof Map<?, ?> map) {
+            out.write('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    out.write(',');
+                }
+                first = false;
+                writeString(String.valueOf(entry.getKey()), out);
+                out.write(':');
+                write(entry.getValue(), out);
+            }
+            out.write('}');
+        } else if (value instanceof Iterable<?> iterable) {
+            out.write('[');
+            boolean first = true;
+            for (Object element : iterable) {
+                if (!first) {
+                    out.write(',');
+                }
+                first = false;
+                write(element, out);
+            }
+            out.write(']');
+        } else if (value.getClass().isArray()) {
+            out.write('[');
+            for (int i = 0; i < Array.getLength(value); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                write(Array.get(value, i), out);
+            }
+            out.write(']');
+        } else {
+            writeString(value.toString(), out);
+        }
+    }
+
+    private static void writeString(String value, Writer out) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            out.write(value, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    out.write(String.format("\\u%04x", (int) c));
+                    break;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,116 @@
+package com.expresso.io;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Evaluates an expression for each record of a newline-delimited JSON input, such as a log or an
+ * export with one JSON object per line. The top-level fields of a record are the variables of the
+ * expression.
+ *
+ * <p>Only the fields that the expression reads are extracted from a record: for {@code
+ * $order.total > 100 && $country == 'FR'}, these are {@code country} and the {@code total} of {@code
+ * order}, which becomes a map holding only that property. All other fields are skipped without
+ * being parsed into objects, and the same context is reused for all records. Fields that the
+ * expression uses as a whole or indexes, such as {@code $items} in {@code size($items) > 2}, are
+ * read completely. The expression therefore gives the same results as with records parsed into
+ * maps.
+ *
+ * <p>Records are read and written one at a time, so inputs of any size are processed in constant
+ * memory. Blank lines are ignored. Evaluation errors are thrown as they are, and malformed records
+ * are reported with a {@link java.io.StreamCorruptedException} giving the line and column.
+ *
+ * <p>An NdjsonEvaluator can process several inputs at the same time.
+ */
+public final class NdjsonEvaluator {
+    private final ExpressionEvaluator evaluator;
+    private final Expression expression;
+    private final FieldTree fields;
+
+    /**
+     * Creates an evaluator for an expression
+     *
+     * @param evaluator The evaluator parsing and evaluating the expression
+     * @param expression The expression string
+     * @throws com.expresso.exception.SyntaxException if the expression is malformed
+     */
+    public NdjsonEvaluator(ExpressionEvaluator evaluator, String expression) {
+        this(evaluator, evaluator.parse(expression));
+    }
+
+    /**
+     * Creates an evaluator for a parsed expression
+     *
+     * @param evaluator The evaluator evaluating the expression
+     * @param expression The parsed expression
+     */
+    public NdjsonEvaluator(ExpressionEvaluator evaluator, Expression expression) {
+        this.evaluator = evaluator;
+        this.expression = expression;
+        this.fields = FieldTree.of(expression);
+    }
+
+    /**
+     * Copies the records for which the expression is true, or another value than null and false,
+     * unchanged and in order
+     *
+     * @param in The records
+     * @param out Receives the matching records, one per line
+     * @return The number of matching records
+     * @throws IOException if the input cannot be read, holds a malformed record, or the output cannot
+     *     be written
+     */
+    public long filter(Reader in, Writer out) throws IOException {
+        NdjsonReader reader = new NdjsonReader(in);
+        RecordContext context = newContext();
+        long matched = 0;
+        while (reader.nextLine()) {
+            if (BinaryExpression.isTruthy(evaluate(reader, context))) {
+                reader.writeLine(out);
+                matched++;
+            }
+        }
+        out.flush();
+        return matched;
+    }
+
+    /**
+     * Writes the result of the expression for each record as a JSON value on its own line
+     *
+     * @param in The records
+     * @param out Receives the results, one per line
+     * @return The number of records
+     * @throws IOException if the input cannot be read, holds a malformed record, or the output cannot
+     *     be written
+     */
+    public long evaluate(Reader in, Writer out) throws IOException {
+        NdjsonReader reader = new NdjsonReader(in);
+        RecordContext context = newContext();
+        long count = 0;
+        while (reader.nextLine()) {
+            JsonWriter.write(evaluate(reader, context), out);
+            out.write('\n');
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+
+    private RecordContext newContext() {
+        String[] names = new String[fields.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = fields.name(i);
+        }
+        return new RecordContext(names);
+    }
+
+    private Object evaluate(NdjsonReader reader, RecordContext context) throws IOException {
+        context.clear();
+        reader.extract(fields, context);
+        return evaluator.evaluate(expression, context);
+    }
+}
@@ -0,0 +1,438 @@
+package com.expresso.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StreamCorruptedException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads newline-delimited JSON records one line at a time and extracts the fields of a {@link
+ * FieldTree} from each of them. The other fields are skipped by scanning their characters, without
+ * creating any object; skipped values are only checked for balanced brackets and quotes.
+ *
+ * <p>The reader keeps a buffer for its input and one for the current line, which grows to the
+ * longest line read, so memory use does not depend on the number of records.
+ */
+final class NdjsonReader {
+    private final Reader in;
+    private final char[] input = new char[8192];
+    private int inputPosition;
+    private int inputLimit;
+    private char[] line = new char[256];
+    private int length;
+    private int position;
+    private long lineNumber;
+
+    NdjsonReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next line that is not blank
+     *
+     * @return false at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    boolean nextLine() throws IOException {
+        while (true) {
+            length = 0;
+            position = 0;
+            boolean ended = false;
+            while (!ended) {
+                if (inputPosition == inputLimit) {
+                    inputLimit = in.read(input);
+                    inputPosition = 0;
+                    if (inputLimit <= 0) {
+                        inputLimit = 0;
+                        if (length == 0) {
+                            return false;
+                        }
+                        break;
+                    }
+                }
+                int start = inputPosition;
+                while (inputPosition < inputLimit && input[inputPosition] != '\n') {
+                    inputPosition++;
+                }
+                append(start, inputPosition);
+                if (inputPosition < inputLimit) {
+                    inputPosition++;
+                    ended = true;
+                }
+            }
+            lineNumber++;
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            skipWhitespace();
+            if (position < length) {
+                return true;
+            }
+        }
+    }
+
+    private void append(int start, int end) {
+        int count = end - start;
+        if (length + count > line.length) {
+            char[] grown = new char[Math.max(line.length * 2, length + count)];
+            System.arraycopy(line, 0, grown, 0, length);
+            line = grown;
+        }
+        System.arraycopy(input, start, line, length, count);
+        length += count;
+    }
+
+    /**
+     * Writes the current line, unchanged, followed by a newline
+     *
+     * @param out The writer
+     * @throws IOException if the line cannot be written
+     */
+    void writeLine(Writer out) throws IOException {
+        out.write(line, 0, length);
+        out.write('\n');
+    }
+
+    /**
+     * Extracts the fields of the current line that are variables of a record context
+     *
+     * @param fields The fields to extract, whose children are the slots of the context
+     * @param context The context, already cleared
+     * @throws IOException if the line is not a valid JSON object
+     */
+    void extract(FieldTree fields, RecordContext context) throws IOException {
+        position = 0;
+        skipWhitespace();
+        if (peek() != '{') {
+            throw error("Expected a JSON object");
+        }
+        readObject(fields, context, null);
+        skipWhitespace();
+        if (position < length) {
+            throw error("Unexpected characters after the record");
+        }
+    }
+
+    /**
+     * Reads an object, keeping only the fields of a tree, either as variables of a context or as
+     * entries of a map
+     */
+    private void readObject(FieldTree fields, RecordContext context, Map<String, Object> target) throws IOException {
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a field name");
+            }
+            int index = readFieldName(fields);
+            skipWhitespace();
+            if (next() != ':') {
+                throw error("Expected ':'");
+            }
+            skipWhitespace();
+            if (index < 0) {
+                skipValue();
+            } else if (context != null) {
+                context.set(index, readField(fields.child(index)));
+            } else {
+                target.put(fields.name(index), readField(fields.child(index)));
+            }
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Reads the value of an extracted field: only the properties that are read for objects, the
+     * complete value otherwise
+     */
+    private Object readField(FieldTree field) throws IOException {
+        if (field.isWhole() || peek() != '{') {
+            return readValue();
+        }
+        Map<String, Object> object = new HashMap<>();
+        readObject(field, null, object);
+        return object;
+    }
+
+    /**
+     * Reads a field name
+     *
+     * @return The index of the field in the tree, or -1 if it is not extracted
+     */
+    private int readFieldName(FieldTree fields) throws IOException {
+        int start = position + 1;
+        int end = start;
+        while (end < length && line[end] != '"') {
+            if (line[end] == '\\') {
+                // Names with escapes are rare and are decoded
+                return fields.indexOf(readString());
+            }
+            end++;
+        }
+        if (end == length) {
+            throw error("Unterminated string");
+        }
+        position = end + 1;
+        return fields.indexOf(line, start, end);
+    }
+
+    private Object readValue() throws IOException {
+        char c = peek();
+        switch (c) {
+            case '{': {
+                Map<String, Object> object = new LinkedHashMap<>();
+                position++;
+                skipWhitespace();
+                if (peek() == '}') {
+                    position++;
+                    return object;
+                }
+                while (true) {
+                    skipWhitespace();
+                    if (peek() != '"') {
+                        throw error("Expected a field name");
+                    }
+                    String name = readString();
+                    skipWhitespace();
+                    if (next() != ':') {
+                        throw error("Expected ':'");
+                    }
+                    skipWhitespace();
+                    object.put(name, readValue());
+                    skipWhitespace();
+                    c = next();
+                    if (c == '}') {
+                        return object;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or '}'");
+                    }
+                }
+            }
+            case '[': {
+                List<Object> array = new ArrayList<>();
+                position++;
+                skipWhitespace();
+                if (peek() == ']') {
+                    position++;
+                    return array;
+                }
+                while (true) {
+                    skipWhitespace();
+                    array.add(readValue());
+                    skipWhitespace();
+                    c = next();
+                    if (c == ']') {
+                        return array;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or ']'");
+                    }
+                }
+            }
+            case '"':
+                return readString();
+            case 't':
+                return readKeyword("true", Boolean.TRUE);
+            case 'f':
+                return readKeyword("false", Boolean.FALSE);
+            case 'n':
+                return readKeyword("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private String readString() throws IOException {
+        int start = ++position;
+        while (position < length && line[position] != '"' && line[position] != '\\') {
+            position++;
+        }
+        if (position < length && line[position] == '"') {
+            return new String(line, start, position++ - start);
+        }
+        StringBuilder builder = new StringBuilder().append(line, start, position - start);
+        while (position < length) {
+            char c = line[position++];
+            if (c == '"') {
+                return builder.toString();
+            }
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (position == length) {
+                break;
+            }
+            c = line[position++];
+            switch (c) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > length) {
+                        throw error("Invalid unicode escape");
+                    }
+                    try {
+                        builder.append((char) Integer.parseInt(new String(line, position, 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    builder.append(c);
+                    break;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private Object readKeyword(String keyword, Object value) throws IOException {
+        if (position + keyword.length() > length) {
+            throw error("Unexpected end of the record");
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (line[position + i] != keyword.charAt(i)) {
+                throw error("Unexpected value");
+            }
+        }
+        position += keyword.length();
+        return value;
+    }
+
+    /**
+     * Reads a number: a Long for integers, like integer literals of expressions, a Double otherwise
+     */
+    private Object readNumber() throws IOException {
+        int start = position;
+        boolean integer = true;
+        while (position < length) {
+            char c = line[position];
+            if (c == '.' || c == 'e' || c == 'E') {
+                integer = false;
+            } else if (!(c >= '0' && c <= '9') && c != '-' && c != '+') {
+                break;
+            }
+            position++;
+        }
+        String text = new String(line, start, position - start);
+        try {
+            if (integer) {
+                try {
+                    return Long.parseLong(text);
+                } catch (NumberFormatException e) {
+                    // Integers that do not fit in a long are read as doubles
+                }
+            }
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number " + text);
+        }
+    }
+
+    /**
+     * Skips a value without creating any object
+     */
+    private void skipValue() throws IOException {
+        char c = peek();
+        if (c == '"') {
+            skipString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                if (position == length) {
+                    throw error("Unexpected end of the record");
+                }
+                c = line[position];
+                if (c == '"') {
+                    skipString();
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+                position++;
+            } while (depth > 0);
+        } else {
+            int start = position;
+            while (position < length && ",}] \t\r".indexOf(line[position]) < 0) {
+                position++;
+            }
+            if (position == start) {
+                throw error("Expected a value");
+            }
+        }
+    }
+
+    private void skipString() throws IOException {
+        position++;
+        while (position < length) {
+            char c = line[position++];
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                position++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void skipWhitespace() {
+        while (position < length && (line[position] == ' ' || line[position] == '\t' || line[position] == '\r')) {
+            position++;
+        }
+    }
+
+    private char peek() throws IOException {
+        if (position >= length) {
+            throw error("Unexpected end of the record");
+        }
+        return line[position];
+    }
+
+    private char next() throws IOException {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private StreamCorruptedException error(String message) {
+        return new StreamCorruptedException(message + " on line " + lineNumber + " at column " + (position + 1));
+    }
+}
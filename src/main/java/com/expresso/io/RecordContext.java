@@ -0,0 +1,66 @@
+package com.expresso.io;
+
+import com.expresso.context.Context;
+import java.util.Arrays;
+
+/**
+ * Context holding the variables of the current record in fixed slots, so that a single context is
+ * reused for all records without any map update. Other variables and functions are held by the
+ * context as usual.
+ */
+final class RecordContext extends Context {
+    private final String[] names;
+    private final Object[] values;
+    private final boolean[] present;
+
+    /**
+     * Creates a context for records
+     *
+     * @param names The names of the variables read from records, by slot
+     */
+    RecordContext(String[] names) {
+        this.names = names;
+        this.values = new Object[names.length];
+        this.present = new boolean[names.length];
+    }
+
+    /**
+     * Removes the variables of the previous record
+     */
+    void clear() {
+        Arrays.fill(values, null);
+        Arrays.fill(present, false);
+    }
+
+    /**
+     * Sets the variable of a slot
+     *
+     * @param slot The slot
+     * @param value The value read from the record
+     */
+    void set(int slot, Object value) {
+        values[slot] = value;
+        present[slot] = true;
+    }
+
+    @Override
+    public Object getVariable(String name) {
+        int slot = slot(name);
+        return slot >= 0 ? values[slot] : super.getVariable(name);
+    }
+
+    @Override
+    public boolean variableExists(String name) {
+        int slot = slot(name);
+        return slot >= 0 ? present[slot] : super.variableExists(name);
+    }
+
+    private int slot(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == name || names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
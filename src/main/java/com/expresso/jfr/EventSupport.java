@@ -0,0 +1,26 @@
+package com.expresso.jfr;
+
+/**
+ * Helpers shared by the Flight Recorder events.
+ */
+final class EventSupport {
+    /** Longest prefix of an expression string recorded in an event */
+    static final int MAX_EXPRESSION_LENGTH = 256;
+
+    private EventSupport() {
+    }
+
+    /**
+     * Identifies a parsed expression for the lifetime of the object
+     *
+     * @param expression The parsed expression
+     * @return The identity hash code of the expression in hexadecimal
+     */
+    static String expressionId(Object expression) {
+        return Integer.toHexString(System.identityHashCode(expression));
+    }
+
+    static String truncate(String expression) {
+        return expression.length() > MAX_EXPRESSION_LENGTH ? expression.substring(0, MAX_EXPRESSION_LENGTH) : expression;
+    }
+}
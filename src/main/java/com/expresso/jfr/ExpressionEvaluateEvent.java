@@ -0,0 +1,65 @@
+package com.expresso.jfr;
+
+import com.expresso.ast.Expression;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder event emitted when an expression is evaluated.
+ */
+@Name("com.expresso.ExpressionEvaluate")
+@Label("Expression Evaluate")
+@Category("Expresso")
+@Description("Evaluation of a parsed expression")
+@Threshold("10 ms")
+@StackTrace(false)
+public class ExpressionEvaluateEvent extends Event {
+
+    @Label("Expression Id")
+    @Description("Identity of the evaluated expression, as reported by the parse event")
+    String expressionId;
+
+    @Label("Result Type")
+    @Description("Class of the result, or the exception class if the evaluation failed")
+    String resultType;
+
+    @Label("Failed")
+    @Description("Whether the evaluation ended with an exception")
+    boolean failed;
+
+    /**
+     * Starts timing an evaluation if the event is enabled in a running recording
+     *
+     * @return The started event, or null if the event is disabled
+     */
+    public static ExpressionEvaluateEvent start() {
+        ExpressionEvaluateEvent event = new ExpressionEvaluateEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing and commits the event if the evaluation took longer than the threshold
+     *
+     * @param expression The evaluated expression
+     * @param result The result, or the exception if the evaluation failed
+     * @param failed Whether the evaluation failed
+     */
+    public void finish(Expression expression, Object result, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.expressionId = EventSupport.expressionId(expression);
+            this.resultType = result == null ? "null" : result.getClass().getName();
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.expresso.jfr;
+
+import com.expresso.ast.Expression;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder event emitted when an expression string is parsed. The expression id can be
+ * used to find the {@link ExpressionEvaluateEvent}s of the parsed expression.
+ */
+@Name("com.expresso.ExpressionParse")
+@Label("Expression Parse")
+@Category("Expresso")
+@Description("Parsing of an expression string")
+@Threshold("1 ms")
+@StackTrace(false)
+public class ExpressionParseEvent extends Event {
+
+    @Label("Expression Id")
+    @Description("Identity of the parsed expression, as reported by evaluation events")
+    String expressionId;
+
+    @Label("Expression")
+    @Description("The expression string, truncated to 256 characters")
+    String expression;
+
+    @Label("Length")
+    @Description("Length of the expression string in characters")
+    int length;
+
+    /**
+     * Starts timing a parse if the event is enabled in a running recording
+     *
+     * @return The started event, or null if the event is disabled
+     */
+    public static ExpressionParseEvent start() {
+        ExpressionParseEvent event = new ExpressionParseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing and commits the event if the parse took longer than the threshold
+     *
+     * @param source The parsed expression string
+     * @param parsed The resulting expression
+     */
+    public void finish(String source, Expression parsed) {
+        end();
+        if (shouldCommit()) {
+            expressionId = EventSupport.expressionId(parsed);
+            expression = EventSupport.truncate(source);
+            length = source.length();
+            commit();
+        }
+    }
+}
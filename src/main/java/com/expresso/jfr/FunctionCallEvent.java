@@ -0,0 +1,58 @@
+package com.expresso.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder event emitted when a function is invoked during evaluation. The duration
+ * excludes the evaluation of the arguments.
+ */
+@Name("com.expresso.FunctionCall")
+@Label("Function Call")
+@Category("Expresso")
+@Description("Invocation of a built-in or custom function")
+@Threshold("1 ms")
+@StackTrace(false)
+public class FunctionCallEvent extends Event {
+
+    @Label("Function Name")
+    String functionName;
+
+    @Label("Failed")
+    @Description("Whether the function threw an exception")
+    boolean failed;
+
+    /**
+     * Starts timing a function call if the event is enabled in a running recording
+     *
+     * @return The started event, or null if the event is disabled
+     */
+    public static FunctionCallEvent start() {
+        FunctionCallEvent event = new FunctionCallEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing and commits the event if the call took longer than the threshold
+     *
+     * @param name The function name
+     * @param failed Whether the function threw an exception
+     */
+    public void finish(String name, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.functionName = name;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.expresso.metrics;
+
+/**
+ * Receives notifications about the work done by an {@link com.expresso.ExpressionEvaluator}.
+ * Install one with {@link com.expresso.ExpressionEvaluator#setEvaluationListener(EvaluationListener)};
+ * during an evaluation it is available from {@link EvaluationScope#current()}.
+ *
+ * <p>Methods are called synchronously on the evaluating thread, possibly from many threads at once,
+ * so implementations must be thread-safe and fast. All methods do nothing by default. When no
+ * listener is installed the evaluator does not measure anything.
+ */
+public interface EvaluationListener {
+
+    /**
+     * Called after an expression string was parsed
+     *
+     * @param expression The expression string
+     * @param nanos The time spent parsing and optimizing, in nanoseconds
+     */
+    default void onParse(String expression, long nanos) {
+    }
+
+    /**
+     * Called after an expression was evaluated, successfully or not
+     *
+     * @param nanos The time spent evaluating, in nanoseconds
+     * @param failed Whether the evaluation ended with an exception
+     */
+    default void onEvaluate(long nanos, boolean failed) {
+    }
+
+    /**
+     * Called after a function was invoked during evaluation
+     *
+     * @param name The function name
+     * @param nanos The time spent in the function, excluding the evaluation of its arguments
+     * @param failed Whether the function threw an exception
+     */
+    default void onFunctionCall(String name, long nanos, boolean failed) {
+    }
+
+    /**
+     * Called when a function looks up a value derived from an argument in a cache, such as a
+     * compiled pattern
+     *
+     * @param cache The cache name
+     * @param hit Whether the value was cached
+     */
+    default void onCacheAccess(String cache, boolean hit) {
+    }
+
+    /**
+     * Called when parsing or evaluation fails and the exception is about to be thrown to the caller
+     *
+     * @param exception The exception
+     */
+    default void onException(RuntimeException exception) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.expresso.metrics;
+
+/**
+ * Holds the listener of the evaluation running on the current thread. {@link
+ * com.expresso.ExpressionEvaluator} installs its listener for the duration of each evaluation, so
+ * that function calls and caches can report to it without the listener being stored in the
+ * caller's {@link com.expresso.context.Context}.
+ */
+public final class EvaluationScope {
+    private static final ThreadLocal<EvaluationListener> CURRENT = new ThreadLocal<>();
+
+    private EvaluationScope() {
+    }
+
+    /**
+     * Gets the listener of the evaluation running on the current thread
+     *
+     * @return The listener, or null if no evaluation with a listener is running
+     */
+    public static EvaluationListener current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Installs the listener of an evaluation starting on the current thread
+     *
+     * @param listener The listener
+     * @return The listener of the enclosing evaluation, to pass to {@link #exit(EvaluationListener)}
+     */
+    public static EvaluationListener enter(EvaluationListener listener) {
+        EvaluationListener previous = CURRENT.get();
+        CURRENT.set(listener);
+        return previous;
+    }
+
+    /**
+     * Restores the listener of the enclosing evaluation once an evaluation has finished
+     *
+     * @param previous The listener returned by {@link #enter(EvaluationListener)}
+     */
+    public static void exit(EvaluationListener previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
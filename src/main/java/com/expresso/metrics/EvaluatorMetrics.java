@@ -0,0 +1,208 @@
+package com.expresso.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * {@link EvaluationListener} that aggregates parse, evaluation, function, cache and exception
+ * counters.
+ * All counters are {@link LongAdder}s, so recording does not contend between threads.
+ *
+ * <pre>{@code
+ * EvaluatorMetrics metrics = new EvaluatorMetrics();
+ * evaluator.setEvaluationListener(metrics);
+ * metrics.registerMBean("pricing");
+ * }</pre>
+ */
+public class EvaluatorMetrics implements EvaluationListener, EvaluatorMetricsMXBean {
+    /** JMX domain under which metrics are registered */
+    public static final String JMX_DOMAIN = "com.expresso";
+
+    private final LongAdder parseCount = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder evaluationCount = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+    private final LongAdder failedEvaluationCount = new LongAdder();
+    private final Map<String, FunctionCounters> functions = new ConcurrentHashMap<>();
+    private final Map<String, CacheCounters> caches = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> exceptions = new ConcurrentHashMap<>();
+
+    @Override
+    public void onParse(String expression, long nanos) {
+        parseCount.increment();
+        parseNanos.add(nanos);
+    }
+
+    @Override
+    public void onEvaluate(long nanos, boolean failed) {
+        evaluationCount.increment();
+        evaluationNanos.add(nanos);
+        if (failed) {
+            failedEvaluationCount.increment();
+        }
+    }
+
+    @Override
+    public void onFunctionCall(String name, long nanos, boolean failed) {
+        FunctionCounters counters = functions.computeIfAbsent(name, key -> new FunctionCounters());
+        counters.calls.increment();
+        counters.nanos.add(nanos);
+        if (failed) {
+            counters.failures.increment();
+        }
+    }
+
+    @Override
+    public void onCacheAccess(String cache, boolean hit) {
+        CacheCounters counters = caches.computeIfAbsent(cache, key -> new CacheCounters());
+        (hit ? counters.hits : counters.misses).increment();
+    }
+
+    @Override
+    public void onException(RuntimeException exception) {
+        exceptions.computeIfAbsent(exception.getClass().getSimpleName(), key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under
+     * {@code com.expresso:type=ExpressionEvaluator,name=<name>}
+     *
+     * @param name A name identifying the evaluator, unique within the JVM
+     * @return The name under which the MBean was registered
+     * @throws IllegalStateException if the registration fails, e.g. because the name is taken
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName(
+                JMX_DOMAIN + ":type=ExpressionEvaluator,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register evaluator metrics '" + name + "'", e);
+        }
+    }
+
+    /**
+     * Removes an MBean registered with {@link #registerMBean(String)}
+     *
+     * @param objectName The name returned by {@link #registerMBean(String)}
+     */
+    public static void unregisterMBean(ObjectName objectName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister evaluator metrics " + objectName, e);
+        }
+    }
+
+    @Override
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    @Override
+    public long getParseTimeNanos() {
+        return parseNanos.sum();
+    }
+
+    @Override
+    public long getEvaluationCount() {
+        return evaluationCount.sum();
+    }
+
+    @Override
+    public long getEvaluationTimeNanos() {
+        return evaluationNanos.sum();
+    }
+
+    @Override
+    public long getFailedEvaluationCount() {
+        return failedEvaluationCount.sum();
+    }
+
+    @Override
+    public long getFunctionCallCount() {
+        long total = 0;
+        for (FunctionCounters counters : functions.values()) {
+            total += counters.calls.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getFunctionCallCounts() {
+        return sumByFunction(counters -> counters.calls);
+    }
+
+    @Override
+    public Map<String, Long> getFunctionCallTimeNanos() {
+        return sumByFunction(counters -> counters.nanos);
+    }
+
+    @Override
+    public Map<String, Long> getFunctionFailureCounts() {
+        return sumByFunction(counters -> counters.failures);
+    }
+
+    @Override
+    public Map<String, Long> getCacheHitCounts() {
+        return sumByCache(counters -> counters.hits);
+    }
+
+    @Override
+    public Map<String, Long> getCacheMissCounts() {
+        return sumByCache(counters -> counters.misses);
+    }
+
+    @Override
+    public Map<String, Long> getExceptionCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        exceptions.forEach((type, count) -> result.put(type, count.sum()));
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        parseCount.reset();
+        parseNanos.reset();
+        evaluationCount.reset();
+        evaluationNanos.reset();
+        failedEvaluationCount.reset();
+        functions.clear();
+        caches.clear();
+        exceptions.clear();
+    }
+
+    private Map<String, Long> sumByFunction(Function<FunctionCounters, LongAdder> counter) {
+        Map<String, Long> result = new TreeMap<>();
+        functions.forEach((name, counters) -> result.put(name, counter.apply(counters).sum()));
+        return result;
+    }
+
+    private Map<String, Long> sumByCache(Function<CacheCounters, LongAdder> counter) {
+        Map<String, Long> result = new TreeMap<>();
+        caches.forEach((name, counters) -> result.put(name, counter.apply(counters).sum()));
+        return result;
+    }
+
+    private static final class FunctionCounters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+    }
+
+    private static final class CacheCounters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
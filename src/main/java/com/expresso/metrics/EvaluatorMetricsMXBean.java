@@ -0,0 +1,38 @@
+package com.expresso.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link EvaluatorMetrics}, exposed over JMX.
+ */
+public interface EvaluatorMetricsMXBean {
+
+    long getParseCount();
+
+    long getParseTimeNanos();
+
+    long getEvaluationCount();
+
+    long getEvaluationTimeNanos();
+
+    long getFailedEvaluationCount();
+
+    long getFunctionCallCount();
+
+    Map<String, Long> getFunctionCallCounts();
+
+    Map<String, Long> getFunctionCallTimeNanos();
+
+    Map<String, Long> getFunctionFailureCounts();
+
+    Map<String, Long> getCacheHitCounts();
+
+    Map<String, Long> getCacheMissCounts();
+
+    Map<String, Long> getExceptionCounts();
+
+    /**
+     * Resets all counters to zero
+     */
+    void reset();
+}
@@ -0,0 +1,180 @@
+package com.expresso.optimizer;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AND/OR chain that learns the cost and selectivity of its operands from real evaluations and
+ * reorders them to minimise the expected evaluation cost.
+ *
+ * <p>One evaluation in {@code sampleRate} is sampled. A sampled evaluation times every operand it
+ * evaluates and then also evaluates the remaining reorderable operands purely to collect their
+ * statistics; errors from those extra evaluations are ignored and never change the result. After
+ * {@code windowSize} samples the order is recomputed and the statistics start over, so the order
+ * follows changes in the traffic.
+ *
+ * <p>For AND an operand that is cheap and often false should run first, for OR one that is cheap and
+ * often true, so operands are ranked by {@code cost / P(short-circuit)}. The constraints of {@link
+ * OperandOrdering} are always respected. Instances are safe to share between threads, and reordering
+ * takes no lock: the thread that completes a window computes the new order while the other threads
+ * keep evaluating the previous one.
+ */
+public class AdaptiveLogicalExpression implements Expression {
+    private final List<Expression> operands;
+    private final BinaryExpression.Operator operator;
+    private final OperandOrdering ordering;
+    private final boolean[] pure;
+    private final int sampleRate;
+    private final int windowSize;
+
+    private final LongAdder[] nanos;
+    private final LongAdder[] evaluations;
+    private final LongAdder[] truthy;
+    private final LongAdder samples = new LongAdder();
+    private final AtomicBoolean reordering = new AtomicBoolean();
+    private volatile int[] order;
+
+    AdaptiveLogicalExpression(
+            List<Expression> operands,
+            BinaryExpression.Operator operator,
+            OperandOrdering ordering,
+            boolean[] pure,
+            int[] initialOrder,
+            int sampleRate,
+            int windowSize) {
+        this.operands = List.copyOf(operands);
+        this.operator = operator;
+        this.ordering = ordering;
+        this.pure = pure.clone();
+        this.order = initialOrder.clone();
+        this.sampleRate = sampleRate;
+        this.windowSize = windowSize;
+        this.nanos = newAdders(operands.size());
+        this.evaluations = newAdders(operands.size());
+        this.truthy = newAdders(operands.size());
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        int[] currentOrder = order;
+        if (ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            return evaluateSampled(context, currentOrder);
+        }
+        boolean shortCircuitValue = operator == BinaryExpression.Operator.OR;
+        for (int index : currentOrder) {
+            if (BinaryExpression.isTruthy(operands.get(index).evaluate(context)) == shortCircuitValue) {
+                return shortCircuitValue;
+            }
+        }
+        return !shortCircuitValue;
+    }
+
+    private Object evaluateSampled(Context context, int[] currentOrder) {
+        boolean shortCircuitValue = operator == BinaryExpression.Operator.OR;
+        Boolean result = null;
+        for (int index : currentOrder) {
+            if (result == null) {
+                boolean value = measure(index, context);
+                if (value == shortCircuitValue) {
+                    result = shortCircuitValue;
+                }
+            } else if (pure[index]) {
+                // Evaluated only for its statistics; the result is already decided
+                try {
+                    measure(index, context);
+                } catch (RuntimeException ignored) {
+                    // An operand that fails here would have been skipped
+                }
+            }
+        }
+        samples.increment();
+        if (samples.sum() >= windowSize && reordering.compareAndSet(false, true)) {
+            try {
+                reorder();
+            } finally {
+                reordering.set(false);
+            }
+        }
+        return result != null ? result : !shortCircuitValue;
+    }
+
+    private boolean measure(int index, Context context) {
+        long start = System.nanoTime();
+        boolean value = BinaryExpression.isTruthy(operands.get(index).evaluate(context));
+        nanos[index].add(System.nanoTime() - start);
+        evaluations[index].increment();
+        if (value) {
+            truthy[index].increment();
+        }
+        return value;
+    }
+
+    private void reorder() {
+        // Another thread may have reordered since this one checked the samples
+        if (samples.sum() < windowSize) {
+            return;
+        }
+        double[] scores = new double[operands.size()];
+        for (int i = 0; i < scores.length; i++) {
+            long count = evaluations[i].sumThenReset();
+            long totalNanos = nanos[i].sumThenReset();
+            long truthyCount = truthy[i].sumThenReset();
+            if (count == 0) {
+                // Never reached in this window: keep it behind the measured operands
+                scores[i] = Double.MAX_VALUE;
+                continue;
+            }
+            double averageCost = (double) totalNanos / count;
+            double truthyRatio = (double) truthyCount / count;
+            double shortCircuitProbability =
+                operator == BinaryExpression.Operator.AND ? 1 - truthyRatio : truthyRatio;
+            scores[i] = shortCircuitProbability > 0 ? averageCost / shortCircuitProbability : Double.MAX_VALUE;
+        }
+        samples.reset();
+        order = ordering.schedule(scores);
+    }
+
+    @Override
+    public List<Expression> getChildren() {
+        return operands;
+    }
+
+    public BinaryExpression.Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * Gets the operands in the order in which they are currently evaluated
+     *
+     * @return The operands in evaluation order
+     */
+    public List<Expression> getOrderedOperands() {
+        int[] currentOrder = order;
+        Expression[] ordered = new Expression[currentOrder.length];
+        for (int i = 0; i < currentOrder.length; i++) {
+            ordered[i] = operands.get(currentOrder[i]);
+        }
+        return List.of(ordered);
+    }
+
+    /**
+     * Creates a copy with equivalent operands, e.g. after another rewrite of the operands. The
+     * current order is kept, the statistics start over.
+     */
+    AdaptiveLogicalExpression withOperands(List<Expression> newOperands) {
+        return new AdaptiveLogicalExpression(newOperands, operator, ordering, pure, order, sampleRate, windowSize);
+    }
+
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,67 @@
+package com.expresso.optimizer;
+
+import com.expresso.analysis.CostModel;
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces AND/OR chains that have reorderable operands with {@link AdaptiveLogicalExpression}
+ * nodes, which learn the best operand order from the traffic they see.
+ */
+public class AdaptiveReorderingRewriter extends ExpressionRewriter {
+    /** Default number of evaluations per sampled evaluation */
+    public static final int DEFAULT_SAMPLE_RATE = 64;
+    /** Default number of samples collected before the order is recomputed */
+    public static final int DEFAULT_WINDOW_SIZE = 256;
+
+    private final CostModel costModel;
+    private final int sampleRate;
+    private final int windowSize;
+
+    public AdaptiveReorderingRewriter(CostModel costModel) {
+        this(costModel, DEFAULT_SAMPLE_RATE, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a rewriter with custom sampling settings
+     *
+     * @param costModel The cost model used to decide which operands are pure
+     * @param sampleRate One evaluation in this many is sampled; 1 samples every evaluation
+     * @param windowSize Number of samples collected before the order is recomputed
+     */
+    public AdaptiveReorderingRewriter(CostModel costModel, int sampleRate, int windowSize) {
+        if (sampleRate < 1 || windowSize < 1) {
+            throw new IllegalArgumentException("Sample rate and window size must be positive");
+        }
+        this.costModel = costModel;
+        this.sampleRate = sampleRate;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public Expression rewrite(Expression expression) {
+        BinaryExpression.Operator operator = LogicalChains.logicalOperator(expression);
+        if (operator == null) {
+            return super.rewrite(expression);
+        }
+        List<Expression> operands = new ArrayList<>();
+        for (Expression operand : LogicalChains.flatten(expression)) {
+            operands.add(rewrite(operand));
+        }
+
+        OperandOrdering ordering = new OperandOrdering(operands, costModel);
+        if (!ordering.hasFreedom()) {
+            return LogicalChains.build(operands, operator);
+        }
+        boolean[] pure = new boolean[operands.size()];
+        int[] initialOrder = new int[operands.size()];
+        for (int i = 0; i < operands.size(); i++) {
+            pure[i] = costModel.isPure(operands.get(i));
+            initialOrder[i] = i;
+        }
+        return new AdaptiveLogicalExpression(
+            operands, operator, ordering, pure, initialOrder, sampleRate, windowSize);
+    }
+}
@@ -0,0 +1,170 @@
+package com.expresso.optimizer;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.ConditionalExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.FunctionCallExpression;
+import com.expresso.ast.FunctionExpression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LiteralExpression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.NullCoalescingExpression;
+import com.expresso.ast.UnaryExpression;
+import com.expresso.ast.VariableExpression;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares identical parts of expression trees, so that large rule sets keep a single copy of each
+ * distinct variable name, property path, literal and subtree. Trees are canonicalised bottom-up:
+ * two nodes of the same type with the same operator, name or flags and the same canonical children
+ * are replaced by the first such node seen by this interner.
+ *
+ * <p>Only immutable node types from {@code com.expresso.ast} are shared; nodes of other types, such
+ * as adaptive or profiled nodes, keep their identity, although their children are still interned.
+ *
+ * <p>Interners are thread-safe and hold on to every node they have returned; use one interner per
+ * rule set and drop it, or call {@link #clear()}, when the rule set is replaced.
+ */
+public class ExpressionInterner extends ExpressionRewriter {
+    // Attribute of node types that are fully identified by their children
+    private static final Object NO_ATTRIBUTE = new Object();
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<LiteralExpression, LiteralExpression> literals = new ConcurrentHashMap<>();
+    private final Map<NodeKey, Expression> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Interns an expression tree
+     *
+     * @param expression The root of the tree
+     * @return The canonical tree, which evaluates to the same result
+     */
+    public Expression intern(Expression expression) {
+        return rewrite(expression);
+    }
+
+    /**
+     * Gets the number of distinct strings, literals and nodes held by this interner
+     *
+     * @return The number of pooled objects
+     */
+    public int size() {
+        return strings.size() + literals.size() + nodes.size();
+    }
+
+    /**
+     * Forgets all pooled objects. Trees interned before keep sharing what they already share.
+     */
+    public void clear() {
+        strings.clear();
+        literals.clear();
+        nodes.clear();
+    }
+
+    @Override
+    protected Expression rewriteNode(Expression expression) {
+        if (expression instanceof LiteralExpression literal) {
+            return literal(literal);
+        }
+        if (expression instanceof VariableExpression variable) {
+            return share(new NodeKey(VariableExpression.class, variableKey(variable), List.of()),
+                () -> copy(variable));
+        }
+        if (expression instanceof InExpression in) {
+            List<Expression> elements = new ArrayList<>(in.getElements().size());
+            boolean changed = false;
+            for (Expression element : in.getElements()) {
+                Expression interned = element instanceof LiteralExpression literal ? literal(literal) : element;
+                changed |= interned != element;
+                elements.add(interned);
+            }
+            NodeKey key = new NodeKey(InExpression.class, List.of(in.isNegated(), elements), List.of(in.getValue()));
+            return share(key, changed ? () -> new InExpression(in.getValue(), elements, in.isNegated()) : () -> in);
+        }
+        if (expression instanceof FunctionCallExpression call) {
+            return share(new NodeKey(FunctionCallExpression.class, call.getName(), call.getChildren()),
+                () -> new FunctionCallExpression(string(call.getName()), call.getArguments()));
+        }
+        if (expression instanceof FunctionExpression function) {
+            return share(new NodeKey(FunctionExpression.class, function.getName(), function.getChildren()),
+                () -> new FunctionExpression(string(function.getName()), function.getChildren()));
+        }
+        Object attribute = attribute(expression);
+        if (attribute == null) {
+            return expression;
+        }
+        return share(new NodeKey(expression.getClass(), attribute, expression.getChildren()), () -> expression);
+    }
+
+    /**
+     * Gets what distinguishes a node from other nodes of the same type with the same children
+     *
+     * @return The attribute, or null if nodes of this type are not shared
+     */
+    private static Object attribute(Expression expression) {
+        if (expression instanceof BinaryExpression binary) {
+            return binary.getOperator();
+        }
+        if (expression instanceof LogicalExpression logical) {
+            return logical.getOperator();
+        }
+        if (expression instanceof UnaryExpression unary) {
+            return unary.getOperator();
+        }
+        if (expression instanceof ConditionalExpression || expression instanceof NullCoalescingExpression) {
+            return NO_ATTRIBUTE;
+        }
+        return null;
+    }
+
+    private Expression share(NodeKey key, Supplier<Expression> factory) {
+        Expression shared = nodes.get(key);
+        if (shared == null) {
+            Expression created = factory.get();
+            shared = nodes.putIfAbsent(key, created);
+            if (shared == null) {
+                shared = created;
+            }
+        }
+        return shared;
+    }
+
+    private LiteralExpression literal(LiteralExpression literal) {
+        LiteralExpression shared = literals.get(literal);
+        if (shared == null) {
+            LiteralExpression created = literal.value() instanceof String string
+                ? new LiteralExpression(string(string))
+                : literal;
+            shared = literals.putIfAbsent(created, created);
+            if (shared == null) {
+                shared = created;
+            }
+        }
+        return shared;
+    }
+
+    private List<Object> variableKey(VariableExpression variable) {
+        return Arrays.asList(
+            variable.getName(), variable.getPropertyPath(), variable.isNullSafe(), variable.isInSafeContext());
+    }
+
+    private VariableExpression copy(VariableExpression variable) {
+        return new VariableExpression(string(variable.getName()), string(variable.getPropertyPath()),
+            variable.isNullSafe(), variable.isInSafeContext());
+    }
+
+    private String string(String string) {
+        return string == null ? null : strings.computeIfAbsent(string, s -> s);
+    }
+
+    /**
+     * Identifies a node by its type, its attribute and the identity of its canonical children
+     */
+    private record NodeKey(Class<?> type, Object attribute, List<Expression> children) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.expresso.optimizer;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.ConditionalExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.FunctionCallExpression;
+import com.expresso.ast.FunctionExpression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.NullCoalescingExpression;
+import com.expresso.ast.UnaryExpression;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class for bottom-up rewrites of expression trees. Children are rewritten first, the node is
+ * rebuilt only if one of its children changed, and then {@link #rewriteNode(Expression)} is applied
+ * to the result. Nodes of unknown types are passed to {@link #rewriteNode(Expression)} unchanged.
+ */
+public abstract class ExpressionRewriter {
+
+    /**
+     * Rewrites an expression tree
+     *
+     * @param expression The root of the tree to rewrite
+     * @return The rewritten tree, or the same instance if nothing changed
+     */
+    public Expression rewrite(Expression expression) {
+        return rewriteNode(rewriteChildren(expression));
+    }
+
+    /**
+     * Rewrites a single node whose children have already been rewritten
+     *
+     * @param expression The node to rewrite
+     * @return The replacement node, or the same instance to keep it
+     */
+    protected Expression rewriteNode(Expression expression) {
+        return expression;
+    }
+
+    /**
+     * Rewrites the children of a node and rebuilds it if any of them changed
+     *
+     * @param expression The node whose children to rewrite
+     * @return The rebuilt node, or the same instance if no child changed
+     */
+    protected Expression rewriteChildren(Expression expression) {
+        List<Expression> children = expression.getChildren();
+        if (children.isEmpty()) {
+            return expression;
+        }
+        List<Expression> rewritten = new ArrayList<>(children.size());
+        boolean changed = false;
+        for (Expression child : children) {
+            Expression newChild = rewrite(child);
+            changed |= newChild != child;
+            rewritten.add(newChild);
+        }
+        return changed ? rebuild(expression, rewritten) : expression;
+    }
+
+    /**
+     * Creates a copy of a node with new children
+     *
+     * @param expression The node to copy
+     * @param children The new children, in the order returned by {@link Expression#getChildren()}
+     * @return The new node, or the original node if its type is unknown
+     */
+    protected Expression rebuild(Expression expression, List<Expression> children) {
+        if (expression instanceof BinaryExpression binary) {
+            return binary.withOperands(children.get(0), children.get(1));
+        }
+        if (expression instanceof LogicalExpression logical) {
+            return new LogicalExpression(children, logical.getOperator());
+        }
+        if (expression instanceof InExpression in) {
+            return in.withChildren(children);
+        }
+        if (expression instanceof UnaryExpression unary) {
+            return new UnaryExpression(children.get(0), unary.getOperator());
+        }
+        if (expression instanceof ConditionalExpression) {
+            return new ConditionalExpression(children.get(0), children.get(1), children.get(2));
+        }
+        if (expression instanceof NullCoalescingExpression) {
+            return new NullCoalescingExpression(children.get(0), children.get(1));
+        }
+        if (expression instanceof FunctionCallExpression call) {
+            return new FunctionCallExpression(call.getName(), children);
+        }
+        if (expression instanceof FunctionExpression function) {
+            return new FunctionExpression(function.getName(), children);
+        }
+        if (expression instanceof AdaptiveLogicalExpression adaptive) {
+            return adaptive.withOperands(children);
+        }
+        return expression;
+    }
+}
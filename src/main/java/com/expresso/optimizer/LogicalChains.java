@@ -0,0 +1,99 @@
+package com.expresso.optimizer;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.VariableExpression;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Helpers for treating chains of the same logical operator ({@code a && b && c}) as a flat list of
+ * operands, regardless of how the parser nested the binary nodes.
+ */
+final class LogicalChains {
+
+    private LogicalChains() {
+    }
+
+    /**
+     * Gets the operator of an AND or OR node
+     *
+     * @param expression The expression to check
+     * @return The logical operator, or null if the expression is not a logical node
+     */
+    static BinaryExpression.Operator logicalOperator(Expression expression) {
+        if (expression instanceof LogicalExpression logical) {
+            return logical.getOperator();
+        }
+        if (expression instanceof BinaryExpression binary
+            && (binary.getOperator() == BinaryExpression.Operator.AND
+                || binary.getOperator() == BinaryExpression.Operator.OR)) {
+            return binary.getOperator();
+        }
+        return null;
+    }
+
+    /**
+     * Collects the operands of a chain of the same logical operator, left to right, whether it is
+     * made of n-ary or nested binary nodes. Collection is iterative so that very long chains do not
+     * overflow the stack.
+     *
+     * @param root The root of the chain, which must be a logical node
+     * @return The operands in evaluation order
+     */
+    static List<Expression> flatten(Expression root) {
+        BinaryExpression.Operator operator = logicalOperator(root);
+        List<Expression> operands = new ArrayList<>();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Expression current = pending.pop();
+            if (logicalOperator(current) == operator) {
+                // Push in reverse so that the leftmost operand is visited first
+                List<Expression> children = current.getChildren();
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    pending.push(children.get(i));
+                }
+            } else {
+                operands.add(current);
+            }
+        }
+        return operands;
+    }
+
+    /**
+     * Builds a chain from a list of operands
+     *
+     * @param operands The operands in evaluation order, at least one
+     * @param operator The logical operator joining them
+     * @return The chain, or the single operand itself
+     */
+    static Expression build(List<Expression> operands, BinaryExpression.Operator operator) {
+        return operands.size() == 1 ? operands.get(0) : new LogicalExpression(operands, operator);
+    }
+
+    /**
+     * Collects the names of the root variables referenced anywhere in an expression
+     *
+     * @param expression The expression to scan
+     * @return The referenced variable names
+     */
+    static Set<String> referencedVariables(Expression expression) {
+        Set<String> names = new HashSet<>();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+        while (!pending.isEmpty()) {
+            Expression current = pending.pop();
+            if (current instanceof VariableExpression variable) {
+                names.add(variable.getName());
+            }
+            current.getChildren().forEach(pending::push);
+        }
+        return names;
+    }
+}
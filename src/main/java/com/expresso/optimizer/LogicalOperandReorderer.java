@@ -0,0 +1,50 @@
+package com.expresso.optimizer;
+
+import com.expresso.analysis.CostModel;
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reorders the operands of AND/OR chains so that the cheapest operands, according to the static
+ * {@link CostModel}, are evaluated first and short-circuit the expensive ones.
+ *
+ * <p>Only pure operands that do not share variables are moved (see {@link OperandOrdering}). The
+ * result of an expression never changes, but an operand that would have been skipped may now be
+ * evaluated first, so an expression that relies on a cheap operand guarding against an error in a
+ * costly one may report that error instead of short-circuiting.
+ */
+public class LogicalOperandReorderer extends ExpressionRewriter {
+    private final CostModel costModel;
+
+    public LogicalOperandReorderer(CostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    @Override
+    public Expression rewrite(Expression expression) {
+        BinaryExpression.Operator operator = LogicalChains.logicalOperator(expression);
+        if (operator == null) {
+            return super.rewrite(expression);
+        }
+        List<Expression> operands = new ArrayList<>();
+        for (Expression operand : LogicalChains.flatten(expression)) {
+            operands.add(rewrite(operand));
+        }
+
+        OperandOrdering ordering = new OperandOrdering(operands, costModel);
+        if (!ordering.hasFreedom()) {
+            return LogicalChains.build(operands, operator);
+        }
+        double[] costs = new double[operands.size()];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = costModel.cost(operands.get(i));
+        }
+        List<Expression> reordered = new ArrayList<>(operands.size());
+        for (int index : ordering.schedule(costs)) {
+            reordered.add(operands.get(index));
+        }
+        return LogicalChains.build(reordered, operator);
+    }
+}
@@ -0,0 +1,93 @@
+package com.expresso.optimizer;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LiteralExpression;
+import com.expresso.ast.VariableExpression;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Rewrites runs of equality tests against literals into {@link InExpression} nodes:
+ * {@code $c == 'FR' || $c == 'DE' || $c == 'IT'} becomes {@code $c in ('FR', 'DE', 'IT')} and
+ * {@code $c != 'FR' && $c != 'DE' && $c != 'IT'} becomes {@code $c not in ('FR', 'DE', 'IT')}.
+ *
+ * <p>Only adjacent operands of a chain that compare the same variable are merged, so the order in
+ * which the remaining operands are evaluated does not change. Runs shorter than {@link
+ * #MIN_ELEMENTS} are left alone.
+ */
+public class MembershipRewriter extends ExpressionRewriter {
+    /** Minimum number of comparisons merged into a membership test */
+    public static final int MIN_ELEMENTS = 3;
+
+    @Override
+    public Expression rewrite(Expression expression) {
+        BinaryExpression.Operator operator = LogicalChains.logicalOperator(expression);
+        if (operator == null) {
+            return super.rewrite(expression);
+        }
+        List<Expression> operands = new ArrayList<>();
+        for (Expression operand : LogicalChains.flatten(expression)) {
+            operands.add(rewrite(operand));
+        }
+
+        // OR chains test for equality, AND chains for inequality
+        BinaryExpression.Operator comparison = operator == BinaryExpression.Operator.OR
+            ? BinaryExpression.Operator.EQUALS
+            : BinaryExpression.Operator.NOT_EQUALS;
+        List<Expression> merged = new ArrayList<>(operands.size());
+        int start = 0;
+        while (start < operands.size()) {
+            VariableExpression subject = subject(operands.get(start), comparison);
+            int end = start + 1;
+            while (subject != null && end < operands.size()
+                && sameVariable(subject, subject(operands.get(end), comparison))) {
+                end++;
+            }
+            if (end - start >= MIN_ELEMENTS) {
+                List<Expression> elements = new ArrayList<>(end - start);
+                for (Expression operand : operands.subList(start, end)) {
+                    elements.add(literal((BinaryExpression) operand));
+                }
+                merged.add(new InExpression(subject, elements, comparison == BinaryExpression.Operator.NOT_EQUALS));
+            } else {
+                merged.addAll(operands.subList(start, end));
+            }
+            start = end;
+        }
+        return LogicalChains.build(merged, operator);
+    }
+
+    /**
+     * Gets the variable of a comparison between a variable and a literal
+     *
+     * @param expression The expression to check
+     * @param comparison The expected comparison operator
+     * @return The variable, or null if the expression is not such a comparison
+     */
+    private static VariableExpression subject(Expression expression, BinaryExpression.Operator comparison) {
+        if (!(expression instanceof BinaryExpression binary) || binary.getOperator() != comparison) {
+            return null;
+        }
+        if (binary.getLeft() instanceof VariableExpression variable && binary.getRight() instanceof LiteralExpression) {
+            return variable;
+        }
+        if (binary.getRight() instanceof VariableExpression variable && binary.getLeft() instanceof LiteralExpression) {
+            return variable;
+        }
+        return null;
+    }
+
+    private static Expression literal(BinaryExpression comparison) {
+        return comparison.getLeft() instanceof LiteralExpression ? comparison.getLeft() : comparison.getRight();
+    }
+
+    private static boolean sameVariable(VariableExpression first, VariableExpression second) {
+        return second != null
+            && first.getName().equals(second.getName())
+            && Objects.equals(first.getPropertyPath(), second.getPropertyPath())
+            && first.isNullSafe() == second.isNullSafe();
+    }
+}
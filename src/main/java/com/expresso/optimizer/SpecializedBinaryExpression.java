@@ -0,0 +1,140 @@
+package com.expresso.optimizer;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+
+/**
+ * Binary operator specialised for the declared types of its operands. Values of the expected types
+ * are combined directly, without the type tests of {@link BinaryExpression}; any other value, such as
+ * null or a value that does not match the declared type, is handed to the generic operator, so that
+ * results and errors are the same as without specialisation.
+ *
+ * <p>All specialisations share this class, so that the nodes calling it see at most two node classes
+ * for binary operators and can still inline their evaluation.
+ */
+final class SpecializedBinaryExpression extends BinaryExpression {
+    /** Operands declared as numbers */
+    static final int NUMBERS = 0;
+    /** String concatenation, or operands declared as strings */
+    static final int STRINGS = 1;
+    /** Operands declared as the same final comparable class, such as {@code LocalDate} */
+    static final int COMPARABLES = 2;
+
+    private final int kind;
+    private final Class<?> type;
+
+    SpecializedBinaryExpression(Expression left, Expression right, Operator operator, int kind, Class<?> type) {
+        super(left, right, operator);
+        this.kind = kind;
+        this.type = type;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        return apply(getLeft().evaluate(context), getRight().evaluate(context));
+    }
+
+    @Override
+    public Object apply(Object leftValue, Object rightValue) {
+        Object result;
+        switch (kind) {
+            case NUMBERS:
+                result = applyNumbers(leftValue, rightValue);
+                break;
+            case STRINGS:
+                result = applyStrings(leftValue, rightValue);
+                break;
+            default:
+                result = applyComparables(leftValue, rightValue);
+                break;
+        }
+        return result != null ? result : super.apply(leftValue, rightValue);
+    }
+
+    @Override
+    public BinaryExpression withOperands(Expression left, Expression right) {
+        return new SpecializedBinaryExpression(left, right, getOperator(), kind, type);
+    }
+
+    /**
+     * Gets the kind of specialisation
+     *
+     * @return {@link #NUMBERS}, {@link #STRINGS} or {@link #COMPARABLES}
+     */
+    int getKind() {
+        return kind;
+    }
+
+    private Object applyNumbers(Object leftValue, Object rightValue) {
+        if (!(leftValue instanceof Number leftNumber) || !(rightValue instanceof Number rightNumber)) {
+            return null;
+        }
+        double left = leftNumber.doubleValue();
+        double right = rightNumber.doubleValue();
+        switch (getOperator()) {
+            case ADD:
+                return left + right;
+            case SUBTRACT:
+                return left - right;
+            case MULTIPLY:
+                return left * right;
+            case DIVIDE:
+                // Division by zero is reported by the generic operator
+                return right == 0 ? null : left / right;
+            case MODULO:
+                return right == 0 ? null : left % right;
+            default:
+                return compared(Double.compare(left, right));
+        }
+    }
+
+    private Object applyStrings(Object leftValue, Object rightValue) {
+        if (getOperator() == Operator.ADD) {
+            if (leftValue instanceof String || rightValue instanceof String) {
+                return String.valueOf(leftValue) + String.valueOf(rightValue);
+            }
+            return null;
+        }
+        if (leftValue instanceof String left && rightValue instanceof String right) {
+            return compared(left.compareTo(right));
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object applyComparables(Object leftValue, Object rightValue) {
+        if (leftValue == null || rightValue == null || leftValue.getClass() != type || rightValue.getClass() != type) {
+            return null;
+        }
+        if (getOperator() == Operator.EQUALS || getOperator() == Operator.NOT_EQUALS) {
+            return leftValue.equals(rightValue) == (getOperator() == Operator.EQUALS);
+        }
+        return compared(((Comparable<Object>) leftValue).compareTo(rightValue));
+    }
+
+    /**
+     * Gets the result of a comparison operator
+     *
+     * @param comparison The sign of the comparison of both operands
+     * @return The result, or null if the operator is not a comparison
+     */
+    private Boolean compared(int comparison) {
+        switch (getOperator()) {
+            case EQUALS:
+                return comparison == 0;
+            case NOT_EQUALS:
+                return comparison != 0;
+            case GREATER_THAN:
+                return comparison > 0;
+            case LESS_THAN:
+                return comparison < 0;
+            case GREATER_THAN_OR_EQUAL:
+                return comparison >= 0;
+            case LESS_THAN_OR_EQUAL:
+                return comparison <= 0;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.expresso.optimizer;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.ConditionalExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LiteralExpression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.NullCoalescingExpression;
+import com.expresso.ast.UnaryExpression;
+import com.expresso.ast.VariableExpression;
+import com.expresso.validation.ContextSchema;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Infers the static type of every node of an expression from the variable types declared in a
+ * {@link ContextSchema}, and replaces binary operators whose operand types are known by
+ * implementations specialised for them: numeric arithmetic and comparison, string concatenation
+ * and comparison, and comparison of other comparable classes such as {@code LocalDate}. Operators
+ * with operands of unknown type keep the generic implementation.
+ *
+ * <p>Types are {@code Number}, {@code String}, {@code Boolean}, another final comparable class, or
+ * {@code Object} when they are not known, for example for function results. Operations that fail
+ * for any non-null values of the inferred types, such as {@code $name - 1} with a string
+ * {@code $name}, are reported by {@link #getErrors()}.
+ */
+public class TypeSpecializer extends ExpressionRewriter {
+    private final ContextSchema schema;
+    private final Map<Expression, Class<?>> types = new IdentityHashMap<>();
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * Creates a specializer
+     *
+     * @param schema The schema declaring the types of the variables
+     */
+    public TypeSpecializer(ContextSchema schema) {
+        this.schema = schema;
+    }
+
+    /**
+     * Specialises an expression tree
+     *
+     * @param expression The root of the tree
+     * @return The specialised tree, which evaluates to the same result
+     */
+    public Expression specialize(Expression expression) {
+        return rewrite(expression);
+    }
+
+    /**
+     * Gets the inferred type of a node of a specialised tree
+     *
+     * @param expression The node
+     * @return The type, or {@code Object.class} if it is not known
+     */
+    public Class<?> getType(Expression expression) {
+        return types.getOrDefault(expression, Object.class);
+    }
+
+    /**
+     * Gets the type errors found in the trees specialised so far
+     *
+     * @return The description of each type error, in the order of the expression
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    @Override
+    protected Expression rewriteNode(Expression expression) {
+        Expression result = expression;
+        Class<?> type = Object.class;
+        if (expression instanceof LiteralExpression literal) {
+            type = literal.value() == null ? Object.class : normalize(literal.value().getClass());
+        } else if (expression instanceof VariableExpression variable) {
+            Class<?> declared = schema.typeOf(variable.getName(), variable.getPropertyPath());
+            type = declared == null ? Object.class : normalize(declared);
+        } else if (expression instanceof BinaryExpression binary) {
+            result = specialize(binary);
+            type = resultType(binary.getOperator(), getType(binary.getLeft()), getType(binary.getRight()));
+        } else if (expression instanceof UnaryExpression unary) {
+            Class<?> operand = getType(unary.getOperand());
+            if (unary.getOperator() == UnaryExpression.Operator.NEGATE) {
+                if (operand != Object.class && operand != Number.class) {
+                    errors.add("Cannot negate " + operand.getSimpleName());
+                }
+                type = Number.class;
+            } else {
+                type = Boolean.class;
+            }
+        } else if (expression instanceof LogicalExpression || expression instanceof InExpression) {
+            type = Boolean.class;
+        } else if (expression instanceof ConditionalExpression conditional) {
+            type = common(getType(conditional.getTrueExpression()), getType(conditional.getFalseExpression()));
+        } else if (expression instanceof NullCoalescingExpression coalescing) {
+            type = common(getType(coalescing.left()), getType(coalescing.right()));
+        }
+        types.put(result, type);
+        return result;
+    }
+
+    private Expression specialize(BinaryExpression binary) {
+        BinaryExpression.Operator operator = binary.getOperator();
+        Class<?> left = getType(binary.getLeft());
+        Class<?> right = getType(binary.getRight());
+        if (left == Object.class || right == Object.class) {
+            return operator == BinaryExpression.Operator.ADD && (left == String.class || right == String.class)
+                ? strings(binary)
+                : binary;
+        }
+
+        String symbol = symbol(operator);
+        switch (operator) {
+            case ADD:
+                if (left == String.class || right == String.class) {
+                    return strings(binary);
+                }
+                return arithmetic(binary, symbol, left, right);
+            case SUBTRACT:
+            case MULTIPLY:
+            case DIVIDE:
+            case MODULO:
+                return arithmetic(binary, symbol, left, right);
+            case GREATER_THAN:
+            case LESS_THAN:
+            case GREATER_THAN_OR_EQUAL:
+            case LESS_THAN_OR_EQUAL:
+                if (left != right || (left != Number.class && !Comparable.class.isAssignableFrom(left))) {
+                    errors.add("Cannot compare " + left.getSimpleName() + " and " + right.getSimpleName()
+                        + " with '" + symbol + "'");
+                    return binary;
+                }
+                return comparison(binary, left);
+            case EQUALS:
+            case NOT_EQUALS:
+                // Values of different types are never equal, which is not an error
+                return left == right ? comparison(binary, left) : binary;
+            default:
+                return binary;
+        }
+    }
+
+    private Expression arithmetic(BinaryExpression binary, String symbol, Class<?> left, Class<?> right) {
+        if (left == Number.class && right == Number.class) {
+            return specialized(binary, SpecializedBinaryExpression.NUMBERS, Number.class);
+        }
+        errors.add("Operator '" + symbol + "' cannot be applied to " + left.getSimpleName() + " and "
+            + right.getSimpleName());
+        return binary;
+    }
+
+    private static Expression comparison(BinaryExpression binary, Class<?> type) {
+        if (type == Number.class) {
+            return specialized(binary, SpecializedBinaryExpression.NUMBERS, type);
+        }
+        if (type == String.class) {
+            return strings(binary);
+        }
+        if (Comparable.class.isAssignableFrom(type)) {
+            return specialized(binary, SpecializedBinaryExpression.COMPARABLES, type);
+        }
+        return binary;
+    }
+
+    private static Expression strings(BinaryExpression binary) {
+        return specialized(binary, SpecializedBinaryExpression.STRINGS, String.class);
+    }
+
+    private static Expression specialized(BinaryExpression binary, int kind, Class<?> type) {
+        return new SpecializedBinaryExpression(binary.getLeft(), binary.getRight(), binary.getOperator(), kind, type);
+    }
+
+    private static Class<?> resultType(BinaryExpression.Operator operator, Class<?> left, Class<?> right) {
+        switch (operator) {
+            case ADD:
+                if (left == String.class || right == String.class) {
+                    return String.class;
+                }
+                return left == Number.class && right == Number.class ? Number.class : Object.class;
+            case SUBTRACT:
+            case MULTIPLY:
+            case DIVIDE:
+            case MODULO:
+                return Number.class;
+            default:
+                return Boolean.class;
+        }
+    }
+
+    private static Class<?> common(Class<?> first, Class<?> second) {
+        return first == second ? first : Object.class;
+    }
+
+    /**
+     * Maps a declared class to the type used by inference
+     */
+    private static Class<?> normalize(Class<?> type) {
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean.class;
+        }
+        if (type == String.class) {
+            return String.class;
+        }
+        if (Number.class.isAssignableFrom(type) || (type.isPrimitive() && type != char.class && type != void.class)) {
+            return Number.class;
+        }
+        // Comparable values are only compared directly if they are all of the same class
+        if (Comparable.class.isAssignableFrom(type) && Modifier.isFinal(type.getModifiers())) {
+            return type;
+        }
+        return Object.class;
+    }
+
+    private static String symbol(BinaryExpression.Operator operator) {
+        switch (operator) {
+            case ADD:
+                return "+";
+            case SUBTRACT:
+                return "-";
+            case MULTIPLY:
+                return "*";
+            case DIVIDE:
+                return "/";
+            case MODULO:
+                return "%";
+            case GREATER_THAN:
+                return ">";
+            case LESS_THAN:
+                return "<";
+            case GREATER_THAN_OR_EQUAL:
+                return ">=";
+            case LESS_THAN_OR_EQUAL:
+                return "<=";
+            default:
+                return operator.toString();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.expresso.parser;
+
+import com.expresso.exception.SyntaxException;
+
+/**
+ * Splits an expression into tokens in a single pass. Tokens only record offsets into the input,
+ * so no text is copied until the parser builds a node from it.
+ */
+final class Lexer {
+    static final int EOF = 0;
+    static final int NUMBER = 1;
+    static final int DECIMAL = 2;
+    static final int STRING = 3;
+    /** A string literal containing backslash escapes */
+    static final int ESCAPED_STRING = 4;
+    static final int IDENTIFIER = 5;
+    /** A variable reference including its {@code $} */
+    static final int VARIABLE = 6;
+    /** A property name directly after {@code .} or {@code ?.}; may start with a digit */
+    static final int PROPERTY = 7;
+    static final int PLUS = 8;
+    static final int MINUS = 9;
+    static final int STAR = 10;
+    static final int SLASH = 11;
+    static final int PERCENT = 12;
+    static final int EQUALS = 13;
+    static final int NOT_EQUALS = 14;
+    static final int GREATER = 15;
+    static final int GREATER_EQUAL = 16;
+    static final int LESS = 17;
+    static final int LESS_EQUAL = 18;
+    static final int AND = 19;
+    static final int OR = 20;
+    static final int NOT = 21;
+    static final int QUESTION = 22;
+    static final int COLON = 23;
+    static final int COALESCE = 24;
+    static final int DOT = 25;
+    static final int SAFE_DOT = 26;
+    static final int SAFE_BRACKET = 27;
+    static final int LEFT_BRACKET = 28;
+    static final int RIGHT_BRACKET = 29;
+    static final int LEFT_PAREN = 30;
+    static final int RIGHT_PAREN = 31;
+    static final int COMMA = 32;
+    /** Any other character; reported by the parser only if it is reached */
+    static final int UNKNOWN = 33;
+
+    private Lexer() {
+    }
+
+    /**
+     * Tokenizes an expression
+     *
+     * @param input The expression
+     * @return The tokens, terminated by an {@link #EOF} token
+     * @throws SyntaxException if a string literal is unterminated or a number has two decimal points
+     */
+    static Tokens tokenize(String input) {
+        int length = input.length();
+        Tokens tokens = new Tokens(length / 3 + 1);
+        int position = 0;
+        while (position < length) {
+            char c = input.charAt(position);
+            if (Character.isWhitespace(c)) {
+                position++;
+                continue;
+            }
+            int start = position;
+            char next = position + 1 < length ? input.charAt(position + 1) : '\0';
+            switch (c) {
+                case '"':
+                case '\'':
+                    position = scanString(input, position, tokens);
+                    continue;
+                case '$':
+                    position = scanName(input, position + 1);
+                    tokens.add(VARIABLE, start, position);
+                    continue;
+                case '.':
+                    tokens.add(DOT, start, ++position);
+                    position = scanProperty(input, position, tokens);
+                    continue;
+                case '?':
+                    if (next == '.') {
+                        position += 2;
+                        tokens.add(SAFE_DOT, start, position);
+                        position = scanProperty(input, position, tokens);
+                        continue;
+                    }
+                    if (next == '[') {
+                        tokens.add(SAFE_BRACKET, start, position += 2);
+                    } else if (next == '?') {
+                        tokens.add(COALESCE, start, position += 2);
+                    } else {
+                        tokens.add(QUESTION, start, ++position);
+                    }
+                    continue;
+                case '+':
+                    tokens.add(PLUS, start, ++position);
+                    continue;
+                case '-':
+                    tokens.add(MINUS, start, ++position);
+                    continue;
+                case '*':
+                    tokens.add(STAR, start, ++position);
+                    continue;
+                case '/':
+                    tokens.add(SLASH, start, ++position);
+                    continue;
+                case '%':
+                    tokens.add(PERCENT, start, ++position);
+                    continue;
+                case ':':
+                    tokens.add(COLON, start, ++position);
+                    continue;
+                case ',':
+                    tokens.add(COMMA, start, ++position);
+                    continue;
+                case '(':
+                    tokens.add(LEFT_PAREN, start, ++position);
+                    continue;
+                case ')':
+                    tokens.add(RIGHT_PAREN, start, ++position);
+                    continue;
+                case '[':
+                    tokens.add(LEFT_BRACKET, start, ++position);
+                    continue;
+                case ']':
+                    tokens.add(RIGHT_BRACKET, start, ++position);
+                    continue;
+                case '=':
+                    addPair(tokens, next == '=', EQUALS, UNKNOWN, start);
+                    position += next == '=' ? 2 : 1;
+                    continue;
+                case '!':
+                    addPair(tokens, next == '=', NOT_EQUALS, NOT, start);
+                    position += next == '=' ? 2 : 1;
+                    continue;
+                case '>':
+                    addPair(tokens, next == '=', GREATER_EQUAL, GREATER, start);
+                    position += next == '=' ? 2 : 1;
+                    continue;
+                case '<':
+                    addPair(tokens, next == '=', LESS_EQUAL, LESS, start);
+                    position += next == '=' ? 2 : 1;
+                    continue;
+                case '&':
+                    addPair(tokens, next == '&', AND, UNKNOWN, start);
+                    position += next == '&' ? 2 : 1;
+                    continue;
+                case '|':
+                    addPair(tokens, next == '|', OR, UNKNOWN, start);
+                    position += next == '|' ? 2 : 1;
+                    continue;
+                default:
+                    break;
+            }
+            if (Character.isDigit(c)) {
+                position = scanNumber(input, position, tokens);
+            } else if (Character.isLetter(c)) {
+                position = scanName(input, position + 1);
+                tokens.add(IDENTIFIER, start, position);
+            } else {
+                tokens.add(UNKNOWN, start, ++position);
+            }
+        }
+        tokens.add(EOF, length, length);
+        return tokens;
+    }
+
+    private static void addPair(Tokens tokens, boolean pair, int pairType, int singleType, int start) {
+        if (pair) {
+            tokens.add(pairType, start, start + 2);
+        } else {
+            tokens.add(singleType, start, start + 1);
+        }
+    }
+
+    private static int scanName(String input, int position) {
+        while (position < input.length() && isNameChar(input.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int scanProperty(String input, int position, Tokens tokens) {
+        int end = scanName(input, position);
+        if (end > position) {
+            tokens.add(PROPERTY, position, end);
+        }
+        return end;
+    }
+
+    private static int scanNumber(String input, int position, Tokens tokens) {
+        int start = position;
+        boolean decimal = false;
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c == '.') {
+                if (decimal) {
+                    throw new SyntaxException("Invalid number format", position);
+                }
+                decimal = true;
+            } else if (!Character.isDigit(c)) {
+                break;
+            }
+            position++;
+        }
+        tokens.add(decimal ? DECIMAL : NUMBER, start, position);
+        return position;
+    }
+
+    private static int scanString(String input, int position, Tokens tokens) {
+        int start = position;
+        char quote = input.charAt(position++);
+        boolean escaped = false;
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c == quote) {
+                tokens.add(escaped ? ESCAPED_STRING : STRING, start, ++position);
+                return position;
+            }
+            if (c == '\\') {
+                escaped = true;
+                position++;
+            }
+            position++;
+        }
+        throw new SyntaxException("Unterminated string literal", Math.min(position, input.length()));
+    }
+
+    static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
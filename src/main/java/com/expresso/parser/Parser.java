@@ -6,754 +6,545 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Parser for converting expression strings into AST nodes
+ * Parser for converting expression strings into AST nodes. The input is tokenized by {@link Lexer}
+ * first; the tokens are then parsed by operator precedence with an explicit operator stack, so
+ * neither long operator chains nor deeply nested parentheses recurse on the Java stack.
+ *
+ * <p>Chains of the same logical operator, including parenthesized ones, become a single {@link
+ * LogicalExpression}.
  */
 public class Parser {
+    // Kinds of operator stack frames
+    private static final int BINARY = 0;
+    private static final int UNARY = 1;
+    private static final int GROUP = 2;
+    private static final int CALL = 3;
+    // The default value of ??, which extends to the end of the enclosing group
+    private static final int COALESCE = 4;
+    // The branches of ?: expecting ':' and ending with the enclosing group
+    private static final int THEN = 5;
+    private static final int ELSE = 6;
+    // The element list of in and not in
+    private static final int LIST = 7;
+    // in and not in bind like the relational operators
+    private static final int MEMBERSHIP_PRECEDENCE = 4;
+
     private String input;
-    private int position;
+    private Tokens tokens;
+    private int index;
+    private final List<Expression> operands = new ArrayList<>();
+    private final List<Frame> frames = new ArrayList<>();
+    // Reused for property paths and escaped string literals
+    private final StringBuilder buffer = new StringBuilder();
 
     public Expression parse(String expression) {
         this.input = expression.trim();
-        this.position = 0;
+        this.tokens = Lexer.tokenize(input);
+        this.index = 0;
+        operands.clear();
+        frames.clear();
         return parseExpression();
     }
 
     private Expression parseExpression() {
-        return parseConditional();
-    }
-
-    private Expression parseConditional() {
-        Expression condition = parseLogicalOr();
-        skipWhitespace();
-        
-        if (position < input.length() && input.charAt(position) == '?') {
-            position++; // Skip ?
-            skipWhitespace();
-            
-            Expression trueExpr = parseLogicalOr(); // Parse the 'then' part
-            skipWhitespace();
-            
-            if (position >= input.length() || input.charAt(position) != ':') {
-                throw new SyntaxException("Expected ':' in conditional expression", position);
+        boolean expectOperand = true;
+        while (true) {
+            int type = tokens.type(index);
+            if (expectOperand) {
+                expectOperand = parseOperand(type);
+                continue;
             }
-            
-            position++; // Skip :
-            skipWhitespace();
-            
-            Expression falseExpr = parseLogicalOr(); // Parse the 'else' part
-            return new ConditionalExpression(condition, trueExpr, falseExpr);
-        }
-        
-        return condition;
-    }
 
-    private Expression parseLogicalOr() {
-        Expression left = parseLogicalAnd();
-        skipWhitespace();
-
-        while (position < input.length() - 1) {
-            // Check for OR operator ||
-            if (input.charAt(position) == '|' && input.charAt(position + 1) == '|') {
-                position += 2; // Skip ||
-                skipWhitespace();
-                Expression right = parseLogicalAnd();
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.OR);
-                skipWhitespace();
-            } else {
-                break;
+            BinaryExpression.Operator operator = binaryOperator(type);
+            if (operator != null) {
+                index++;
+                pushBinary(operator);
+                expectOperand = true;
+                continue;
             }
-        }
-
-        return left;
-    }
-
-    private Expression parseLogicalAnd() {
-        Expression left = parseEquality();
-        skipWhitespace();
-
-        while (position < input.length() - 1) {
-            // Check for AND operator &&
-            if (input.charAt(position) == '&' && input.charAt(position + 1) == '&') {
-                position += 2; // Skip &&
-                skipWhitespace();
-                Expression right = parseEquality();
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.AND);
-                skipWhitespace();
-            } else {
-                break;
+            if (type == Lexer.IDENTIFIER && isMembershipOperator()) {
+                boolean negated = !matches(tokens.start(index), tokens.end(index), "in");
+                index += negated ? 2 : 1;
+                reduceAbove(MEMBERSHIP_PRECEDENCE);
+                if (!accept(Lexer.LEFT_PAREN)) {
+                    throw new SyntaxException("Expected '(' after in", tokens.start(index));
+                }
+                frames.add(Frame.list(negated, operands.size()));
+                expectOperand = true;
+                continue;
             }
-        }
-
-        return left;
-    }
-
-    private Expression parseEquality() {
-        Expression left = parseRelational();
-        skipWhitespace();
-
-        while (position < input.length() - 1) {
-            // Check for equality operators == and !=
-            if (input.charAt(position) == '=' && input.charAt(position + 1) == '=') {
-                position += 2; // Skip ==
-                skipWhitespace();
-                Expression right = parseRelational();
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.EQUALS);
-                skipWhitespace();
-            } else if (input.charAt(position) == '!' && input.charAt(position + 1) == '=') {
-                position += 2; // Skip !=
-                skipWhitespace();
-                Expression right = parseRelational();
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.NOT_EQUALS);
-                skipWhitespace();
-            } else {
-                break;
+            if (type == Lexer.QUESTION) {
+                // The condition stays on the operand stack until the conditional is complete
+                index++;
+                reduce();
+                frames.add(Frame.of(THEN));
+                expectOperand = true;
+                continue;
             }
-        }
-
-        return left;
-    }
 
-    private Expression parseRelational() {
-        Expression left = parseAdditive();
-        skipWhitespace();
-
-        while (position < input.length()) {
-            // Check for relational operators: >, <, >=, <=
-            if (position < input.length() - 1 && input.charAt(position) == '>' && input.charAt(position + 1) == '=') {
-                position += 2; // Skip >=
-                skipWhitespace();
-                Expression right = parseAdditive();
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.GREATER_THAN_OR_EQUAL);
-                skipWhitespace();
-            } else if (position < input.length() - 1 && input.charAt(position) == '<' && input.charAt(position + 1) == '=') {
-                position += 2; // Skip <=
-                skipWhitespace();
-                Expression right = parseAdditive();
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.LESS_THAN_OR_EQUAL);
-                skipWhitespace();
-            } else if (input.charAt(position) == '>') {
-                position++; // Skip >
-                skipWhitespace();
-                Expression right = parseAdditive();
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.GREATER_THAN);
-                skipWhitespace();
-            } else if (input.charAt(position) == '<') {
-                position++; // Skip <
-                skipWhitespace();
-                Expression right = parseAdditive();
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.LESS_THAN);
-                skipWhitespace();
+            closeImplicitFrames();
+            Frame top = top();
+            int kind = top == null ? -1 : top.kind;
+            if (type == Lexer.COLON && kind == THEN) {
+                index++;
+                frames.set(frames.size() - 1, Frame.of(ELSE));
+                expectOperand = true;
+            } else if (type == Lexer.RIGHT_PAREN && kind == GROUP) {
+                index++;
+                frames.remove(frames.size() - 1);
+            } else if (type == Lexer.RIGHT_PAREN && kind == CALL) {
+                index++;
+                finishCall();
+            } else if (type == Lexer.RIGHT_PAREN && kind == LIST) {
+                index++;
+                finishList();
+            } else if (kind == LIST && type == Lexer.COMMA) {
+                index++;
+                expectOperand = true;
+            } else if (kind == LIST && type == Lexer.EOF) {
+                throw new SyntaxException("Unterminated list", input.length());
+            } else if (kind == LIST) {
+                throw new SyntaxException("Expected ',' or ')' in list", tokens.start(index));
+            } else if (kind == CALL && type != Lexer.EOF) {
+                // Arguments may also be separated by whitespace only
+                accept(Lexer.COMMA);
+                expectOperand = true;
+            } else if (kind == CALL) {
+                throw new SyntaxException("Unterminated function call", input.length());
+            } else if (kind == GROUP) {
+                throw new SyntaxException("Expected ')' after expression", tokens.start(index));
+            } else if (kind == THEN) {
+                throw new SyntaxException("Expected ':' in conditional expression", tokens.start(index));
+            } else if (type == Lexer.COALESCE) {
+                // ?? is only supported after a variable
+                throw new SyntaxException("Unexpected character: ?", tokens.start(index) + 1);
             } else {
-                break;
+                // Anything after a complete expression is ignored
+                return operands.get(0);
             }
         }
-
-        return left;
     }
 
-    private Expression parseAdditive() {
-        Expression left = parseMultiplicative();
-        skipWhitespace();
-
-        while (position < input.length()) {
-            char operator = input.charAt(position);
-            if (operator != '+' && operator != '-') {
+    /**
+     * Handles a token where an operand is expected
+     *
+     * @param type The token type
+     * @return true if an operand is still expected afterwards, i.e. after a prefix operator
+     */
+    private boolean parseOperand(int type) {
+        int start = tokens.start(index);
+        int end = tokens.end(index);
+
+        switch (type) {
+            case Lexer.EOF:
+                if (top() != null && top().kind == CALL) {
+                    throw new SyntaxException("Unterminated function call", start);
+                }
+                if (top() != null && top().kind == LIST) {
+                    throw new SyntaxException("Unterminated list", start);
+                }
+                throw new SyntaxException("Unexpected end of expression", start);
+            case Lexer.MINUS:
+                index++;
+                frames.add(Frame.unary(UnaryExpression.Operator.NEGATE));
+                return true;
+            case Lexer.NOT:
+                index++;
+                frames.add(Frame.unary(UnaryExpression.Operator.NOT));
+                return true;
+            case Lexer.LEFT_PAREN:
+                // Handle parenthesized expressions
+                index++;
+                frames.add(Frame.of(GROUP));
+                return true;
+            case Lexer.RIGHT_PAREN:
+                // Closes an argument or element list that is empty or ends with a comma
+                if (top() != null && top().kind == CALL) {
+                    index++;
+                    finishCall();
+                    return false;
+                }
+                if (top() != null && top().kind == LIST) {
+                    index++;
+                    finishList();
+                    return false;
+                }
+                break;
+            case Lexer.STRING:
+                index++;
+                operands.add(new LiteralExpression(input.substring(start + 1, end - 1)));
+                return false;
+            case Lexer.ESCAPED_STRING:
+                index++;
+                operands.add(new LiteralExpression(unescape(start + 1, end - 1)));
+                return false;
+            case Lexer.NUMBER:
+                index++;
+                try {
+                    operands.add(new LiteralExpression(Long.parseLong(input, start, end, 10)));
+                } catch (NumberFormatException e) {
+                    throw new SyntaxException("Invalid number format: " + input.substring(start, end), end);
+                }
+                return false;
+            case Lexer.DECIMAL:
+                index++;
+                operands.add(new LiteralExpression(Double.parseDouble(input.substring(start, end))));
+                return false;
+            case Lexer.VARIABLE:
+                operands.add(parseVariable());
+                if (accept(Lexer.COALESCE)) {
+                    frames.add(Frame.of(COALESCE));
+                    return true;
+                }
+                return false;
+            case Lexer.IDENTIFIER:
+                // Handle function calls and various literals (null, true, false)
+                if (tokens.type(index + 1) == Lexer.LEFT_PAREN) {
+                    index += 2;
+                    frames.add(Frame.call(input.substring(start, end), operands.size()));
+                    return true;
+                }
+                index++;
+                if (matches(start, end, "true")) {
+                    operands.add(new LiteralExpression(true));
+                } else if (matches(start, end, "false")) {
+                    operands.add(new LiteralExpression(false));
+                } else if (matches(start, end, "null")) {
+                    operands.add(new LiteralExpression(null));
+                } else {
+                    throw new SyntaxException("Invalid identifier: " + input.substring(start, end), start);
+                }
+                return false;
+            default:
                 break;
-            }
-            position++; // Skip the operator
-            skipWhitespace();
-
-            Expression right = parseMultiplicative();
-            left = new BinaryExpression(left, right, operator == '+' ? BinaryExpression.Operator.ADD : BinaryExpression.Operator.SUBTRACT);
-            skipWhitespace();
         }
-
-        return left;
+        throw new SyntaxException("Unexpected character: " + input.charAt(start), start);
     }
 
-    private Expression parseMultiplicative() {
-        Expression left = parseUnary();
-        skipWhitespace();
-
-        while (position < input.length()) {
-            char operator = input.charAt(position);
-            if (operator != '*' && operator != '/' && operator != '%') {
-                break;
+    private void pushBinary(BinaryExpression.Operator operator) {
+        int precedence = precedence(operator);
+        while (!frames.isEmpty()) {
+            Frame top = top();
+            if (top.kind == BINARY && top.precedence == precedence && top.operator == operator && isLogical(operator)) {
+                // Extend the chain instead of nesting it
+                top.operandCount++;
+                return;
             }
-            position++; // Skip the operator
-            skipWhitespace();
-
-            Expression right = parseUnary();
-            if (operator == '*') {
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.MULTIPLY);
-            } else if (operator == '/') {
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.DIVIDE);
+            if (top.kind == UNARY || (top.kind == BINARY && top.precedence >= precedence)) {
+                reduceTop();
             } else {
-                left = new BinaryExpression(left, right, BinaryExpression.Operator.MODULO);
+                break;
             }
-            skipWhitespace();
         }
-
-        return left;
+        frames.add(Frame.binary(operator, precedence));
     }
 
-    private Expression parseUnary() {
-        skipWhitespace();
-        if (position < input.length()) {
-            char c = input.charAt(position);
-            if (c == '-') {
-                position++; // Skip -
-                skipWhitespace();
-                return new UnaryExpression(parseUnary(), UnaryExpression.Operator.NEGATE);
-            }
-            if (c == '!') {
-                position++; // Skip !
-                skipWhitespace();
-                return new UnaryExpression(parseUnary(), UnaryExpression.Operator.NOT);
-            }
+    /**
+     * Applies the pending unary operators and the binary operators binding at least as tightly as
+     * the given precedence
+     */
+    private void reduceAbove(int precedence) {
+        while (!frames.isEmpty() && (top().kind == UNARY || (top().kind == BINARY && top().precedence >= precedence))) {
+            reduceTop();
         }
-        return parsePrimary();
     }
 
-    private Expression parsePrimary() {
-        skipWhitespace();
-
-        if (position >= input.length()) {
-            throw new SyntaxException("Unexpected end of expression", position);
-        }
-
-        char c = input.charAt(position);
-
-        // Handle literals
-        if (c == '"' || c == '\'') {
-            return parseStringLiteral();
-        }
-
-        if (Character.isDigit(c) || c == '-') {
-            return parseNumberLiteral();
+    /**
+     * Applies all pending unary and binary operators of the innermost group
+     */
+    private void reduce() {
+        while (!frames.isEmpty() && (top().kind == BINARY || top().kind == UNARY)) {
+            reduceTop();
         }
+    }
 
-        // Handle variables
-        if (c == '$') {
-            return parseVariable();
+    /**
+     * Completes the frames that end with the group they are in: pending operators, ?? defaults
+     * and the else branches of conditionals
+     */
+    private void closeImplicitFrames() {
+        reduce();
+        while (!frames.isEmpty() && (top().kind == COALESCE || top().kind == ELSE)) {
+            reduceTop();
+            reduce();
         }
+    }
 
-        // Handle function calls and various literals (null, true, false)
-        if (Character.isLetter(c)) {
-            int start = position;
-            while (position < input.length()) {
-                c = input.charAt(position);
-                if (Character.isLetterOrDigit(c) || c == '_') {
-                    position++;
+    private void reduceTop() {
+        Frame frame = frames.remove(frames.size() - 1);
+        switch (frame.kind) {
+            case UNARY:
+                operands.add(new UnaryExpression(pop(), (UnaryExpression.Operator) frame.operator));
+                break;
+            case BINARY: {
+                BinaryExpression.Operator operator = (BinaryExpression.Operator) frame.operator;
+                if (isLogical(operator)) {
+                    operands.add(buildLogical(operator, frame.operandCount));
                 } else {
-                    break;
+                    Expression right = pop();
+                    operands.add(new BinaryExpression(pop(), right, operator));
                 }
+                break;
             }
-
-            String value = input.substring(start, position);
-            skipWhitespace();
-
-            // Check if it's a function call
-            if (position < input.length() && input.charAt(position) == '(') {
-                position = start; // Reset position to start of function name
-                return parseFunctionCall();
+            case COALESCE: {
+                Expression defaultValue = pop();
+                operands.add(new NullCoalescingExpression(pop(), defaultValue));
+                break;
             }
-
-            // Check if it's a boolean literal
-            if (value.equals("true")) {
-                return new LiteralExpression(true);
-            } else if (value.equals("false")) {
-                return new LiteralExpression(false);
-            } else if (value.equals("null")) {
-                return new LiteralExpression(null);
+            case ELSE: {
+                Expression falseExpr = pop();
+                Expression trueExpr = pop();
+                operands.add(new ConditionalExpression(pop(), trueExpr, falseExpr));
+                break;
             }
-
-            throw new SyntaxException("Invalid identifier: " + value, start);
+            default:
+                throw new IllegalStateException("Unexpected parser frame: " + frame.kind);
         }
+    }
 
-        // Handle parenthesized expressions
-        if (c == '(') {
-            position++; // Skip (
-            skipWhitespace();
-            Expression expr = parseExpression();
-            skipWhitespace();
-            
-            if (position >= input.length() || input.charAt(position) != ')') {
-                throw new SyntaxException("Expected ')' after expression", position);
+    private Expression buildLogical(BinaryExpression.Operator operator, int count) {
+        List<Expression> chain = operands.subList(operands.size() - count, operands.size());
+        List<Expression> flattened = new ArrayList<>(count);
+        for (Expression operand : chain) {
+            // Merge parenthesized chains of the same operator
+            if (operand instanceof LogicalExpression logical && logical.getOperator() == operator) {
+                flattened.addAll(logical.getOperands());
+            } else {
+                flattened.add(operand);
             }
-            position++; // Skip )
-            
-            return expr;
         }
+        chain.clear();
+        return new LogicalExpression(flattened, operator);
+    }
 
-        throw new SyntaxException("Unexpected character: " + c, position);
+    private void finishCall() {
+        Frame frame = frames.remove(frames.size() - 1);
+        List<Expression> argumentRange = operands.subList(frame.base, operands.size());
+        List<Expression> arguments = new ArrayList<>(argumentRange);
+        argumentRange.clear();
+        operands.add(new FunctionCallExpression(frame.name, arguments));
     }
 
-    private Expression parseStringLiteral() {
-        char quote = input.charAt(position++);
-        StringBuilder sb = new StringBuilder();
+    private void finishList() {
+        Frame frame = frames.remove(frames.size() - 1);
+        List<Expression> elementRange = operands.subList(frame.base, operands.size());
+        List<Expression> elements = new ArrayList<>(elementRange);
+        elementRange.clear();
+        operands.add(new InExpression(pop(), elements, (Boolean) frame.operator));
+    }
 
-        while (position < input.length()) {
-            char c = input.charAt(position);
-            if (c == quote) {
-                position++;
-                return new LiteralExpression(sb.toString());
-            }
-            if (c == '\\') {
-                position++;
-                if (position < input.length()) {
-                    c = input.charAt(position++);
-                    switch (c) {
-                        case 'n':
-                            sb.append('\n');
-                            break;
-                        case 't':
-                            sb.append('\t');
-                            break;
-                        case 'r':
-                            sb.append('\r');
-                            break;
-                        default:
-                            sb.append(c);
-                    }
+    private String unescape(int start, int end) {
+        buffer.setLength(0);
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c == '\\' && ++i < end) {
+                c = input.charAt(i);
+                switch (c) {
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    default:
+                        break;
                 }
-            } else {
-                sb.append(c);
-                position++;
             }
+            buffer.append(c);
         }
-
-        throw new SyntaxException("Unterminated string literal", position);
+        return buffer.toString();
     }
 
-    private Expression parseNumberLiteral() {
-        int start = position;
-        boolean isDecimal = false;
-
-        if (input.charAt(position) == '-') {
-            position++;
-        }
-
-        while (position < input.length()) {
-            char c = input.charAt(position);
-            if (c == '.') {
-                if (isDecimal) {
-                    throw new SyntaxException("Invalid number format", position);
+    /**
+     * Parses a variable with its property path, e.g. {@code $a.b?.c[0]}. The path is stored
+     * without the {@code ?} of null-safe dots, which instead mark the whole variable as null-safe.
+     */
+    private VariableExpression parseVariable() {
+        String name = input.substring(tokens.start(index) + 1, tokens.end(index));
+        index++;
+        boolean isNullSafe = false;
+        boolean hasPath = false;
+        buffer.setLength(0);
+
+        while (true) {
+            int type = tokens.type(index);
+            if (type == Lexer.DOT || type == Lexer.SAFE_DOT) {
+                isNullSafe |= type == Lexer.SAFE_DOT;
+                index++;
+                if (hasPath) {
+                    buffer.append('.');
                 }
-                isDecimal = true;
-                position++;
-            } else if (Character.isDigit(c)) {
-                position++;
+                if (tokens.type(index) == Lexer.PROPERTY) {
+                    buffer.append(input, tokens.start(index), tokens.end(index));
+                    index++;
+                }
+            } else if (type == Lexer.LEFT_BRACKET || type == Lexer.SAFE_BRACKET) {
+                isNullSafe |= type == Lexer.SAFE_BRACKET;
+                index++;
+                buffer.append(type == Lexer.SAFE_BRACKET ? "?[" : "[");
+                appendArrayIndex();
+                buffer.append(']');
             } else {
                 break;
             }
+            hasPath = true;
         }
 
-        String numberStr = input.substring(start, position);
-        try {
-            if (isDecimal) {
-                return new LiteralExpression(Double.parseDouble(numberStr));
-            } else {
-                return new LiteralExpression(Long.parseLong(numberStr));
-            }
-        } catch (NumberFormatException e) {
-            throw new SyntaxException("Invalid number format: " + numberStr, position);
-        }
+        String propertyPath = buffer.length() > 0 ? buffer.toString() : null;
+        return new VariableExpression(name, propertyPath, isNullSafe);
     }
 
-    private Expression parseVariable() {
-        position++; // Skip $
-        StringBuilder nameBuilder = new StringBuilder();
-        boolean isNullSafe = false;
+    private void appendArrayIndex() {
+        int type = tokens.type(index);
+        int start = tokens.start(index);
+        if (type == Lexer.NUMBER) {
+            buffer.append(input, start, tokens.end(index));
+            index++;
+        } else if (type == Lexer.DECIMAL) {
+            throw new SyntaxException("Expected ']' after array index", input.indexOf('.', start));
+        } else if (type == Lexer.MINUS) {
+            throw new SyntaxException("Expected ']' after array index", start);
+        } else {
+            throw new SyntaxException("Array index must be a number", start);
+        }
+        if (!accept(Lexer.RIGHT_BRACKET)) {
+            throw new SyntaxException("Expected ']' after array index", tokens.start(index));
+        }
+    }
 
-        // Parse the variable name
-        while (position < input.length()) {
-            char c = input.charAt(position);
-            if (Character.isLetterOrDigit(c) || c == '_') {
-                nameBuilder.append(c);
-                position++;
-            } else {
-                break;
-            }
+    private static BinaryExpression.Operator binaryOperator(int type) {
+        switch (type) {
+            case Lexer.OR:
+                return BinaryExpression.Operator.OR;
+            case Lexer.AND:
+                return BinaryExpression.Operator.AND;
+            case Lexer.EQUALS:
+                return BinaryExpression.Operator.EQUALS;
+            case Lexer.NOT_EQUALS:
+                return BinaryExpression.Operator.NOT_EQUALS;
+            case Lexer.GREATER:
+                return BinaryExpression.Operator.GREATER_THAN;
+            case Lexer.GREATER_EQUAL:
+                return BinaryExpression.Operator.GREATER_THAN_OR_EQUAL;
+            case Lexer.LESS:
+                return BinaryExpression.Operator.LESS_THAN;
+            case Lexer.LESS_EQUAL:
+                return BinaryExpression.Operator.LESS_THAN_OR_EQUAL;
+            case Lexer.PLUS:
+                return BinaryExpression.Operator.ADD;
+            case Lexer.MINUS:
+                return BinaryExpression.Operator.SUBTRACT;
+            case Lexer.STAR:
+                return BinaryExpression.Operator.MULTIPLY;
+            case Lexer.SLASH:
+                return BinaryExpression.Operator.DIVIDE;
+            case Lexer.PERCENT:
+                return BinaryExpression.Operator.MODULO;
+            default:
+                return null;
         }
+    }
 
-        String name = nameBuilder.toString();
-        StringBuilder propertyPathBuilder = new StringBuilder();
-
-        // Check for property path or direct array access
-        skipWhitespace();
-        if (position < input.length()) {
-            char c = input.charAt(position);
-
-            // Handle null-safe operator directly after variable name
-            if (c == '?' && position + 1 < input.length() && input.charAt(position + 1) == '.') {
-                isNullSafe = true;
-                position += 2; // Skip ?.
-
-                // Get the next property name
-                skipWhitespace();
-                int start = position;
-                while (position < input.length()) {
-                    c = input.charAt(position);
-                    if (Character.isLetterOrDigit(c) || c == '_') {
-                        position++;
-                    } else {
-                        break;
-                    }
-                }
-                if (position > start) {
-                    propertyPathBuilder.append(input, start, position);
-                }
+    private static int precedence(BinaryExpression.Operator operator) {
+        switch (operator) {
+            case OR:
+                return 1;
+            case AND:
+                return 2;
+            case EQUALS:
+            case NOT_EQUALS:
+                return 3;
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+                return 4;
+            case ADD:
+            case SUBTRACT:
+                return 5;
+            default:
+                return 6;
+        }
+    }
 
-                // Continue parsing the rest of the property path
-                while (position < input.length()) {
-                    skipWhitespace();
-                    c = input.charAt(position);
-
-                    // Null-safe operator in the middle of property path
-                    if (c == '?' && position + 1 < input.length() && input.charAt(position + 1) == '.') {
-                        isNullSafe = true; // This is redundant but makes the code clearer
-                        position += 2; // Skip ?.
-                        propertyPathBuilder.append('.');
-
-                        // Parse the next property name
-                        start = position;
-                        while (position < input.length()) {
-                            c = input.charAt(position);
-                            if (Character.isLetterOrDigit(c) || c == '_') {
-                                position++;
-                            } else {
-                                break;
-                            }
-                        }
-                        if (position > start) {
-                            propertyPathBuilder.append(input, start, position);
-                        }
-                    }
-                    // Regular dot access
-                    else if (c == '.') {
-                        position++; // Skip dot
-                        propertyPathBuilder.append('.');
-
-                        // Parse the next property name
-                        start = position;
-                        while (position < input.length()) {
-                            c = input.charAt(position);
-                            if (Character.isLetterOrDigit(c) || c == '_') {
-                                position++;
-                            } else {
-                                break;
-                            }
-                        }
-                        if (position > start) {
-                            propertyPathBuilder.append(input, start, position);
-                        }
-                    }
-                    // Null-safe array access ?[
-                    else if (c == '?' && position + 1 < input.length() && input.charAt(position + 1) == '[') {
-                        isNullSafe = true; // Ensure null-safe flag is set
-                        position++; // Skip ?
-                        propertyPathBuilder.append('?'); // Add the ? to the property path
-
-                        // Now handle the array access
-                        propertyPathBuilder.append('[');
-                        position++; // Skip [
-                        skipWhitespace();
-
-                        // Parse the array index
-                        if (!Character.isDigit(input.charAt(position)) && input.charAt(position) != '-') {
-                            throw new SyntaxException("Array index must be a number", position);
-                        }
-                        start = position;
-                        while (position < input.length() && Character.isDigit(input.charAt(position))) {
-                            position++;
-                        }
-                        propertyPathBuilder.append(input, start, position);
-                        skipWhitespace();
-
-                        if (position >= input.length() || input.charAt(position) != ']') {
-                            throw new SyntaxException("Expected ']' after array index", position);
-                        }
-                        propertyPathBuilder.append(']');
-                        position++; // Skip ]
-                    }
-                    // Regular array access
-                    else if (c == '[') {
-                        propertyPathBuilder.append('[');
-                        position++; // Skip [
-                        skipWhitespace();
-
-                        // Parse the array index
-                        if (!Character.isDigit(input.charAt(position)) && input.charAt(position) != '-') {
-                            throw new SyntaxException("Array index must be a number", position);
-                        }
-                        start = position;
-                        while (position < input.length() && Character.isDigit(input.charAt(position))) {
-                            position++;
-                        }
-                        propertyPathBuilder.append(input, start, position);
-                        skipWhitespace();
-
-                        if (position >= input.length() || input.charAt(position) != ']') {
-                            throw new SyntaxException("Expected ']' after array index", position);
-                        }
-                        propertyPathBuilder.append(']');
-                        position++; // Skip ]
-                    }
-                    // Null coalescing operator
-                    else if (c == '?' && position + 1 < input.length() && input.charAt(position + 1) == '?') {
-                        position += 2; // Skip ??
-                        skipWhitespace();
-                        Expression defaultValue = parseExpression();
-                        return new NullCoalescingExpression(
-                                new VariableExpression(name, propertyPathBuilder.toString(), isNullSafe),
-                                defaultValue
-                        );
-                    } else {
-                        break;
-                    }
-                }
-            }
-            // Null-safe array access directly after variable
-            else if (c == '?' && position + 1 < input.length() && input.charAt(position + 1) == '[') {
-                isNullSafe = true;
-                position++; // Skip ?
-                propertyPathBuilder.append('?');
-
-                // Now handle the array access
-                propertyPathBuilder.append('[');
-                position++; // Skip [
-                skipWhitespace();
-
-                // Parse the array index
-                if (!Character.isDigit(input.charAt(position)) && input.charAt(position) != '-') {
-                    throw new SyntaxException("Array index must be a number", position);
-                }
-                int start = position;
-                while (position < input.length() && Character.isDigit(input.charAt(position))) {
-                    position++;
-                }
-                propertyPathBuilder.append(input, start, position);
-                skipWhitespace();
+    /**
+     * Checks whether the current identifier starts {@code in} or {@code not in}
+     */
+    private boolean isMembershipOperator() {
+        int start = tokens.start(index);
+        int end = tokens.end(index);
+        if (matches(start, end, "in")) {
+            return true;
+        }
+        return matches(start, end, "not") && tokens.type(index + 1) == Lexer.IDENTIFIER
+            && matches(tokens.start(index + 1), tokens.end(index + 1), "in");
+    }
 
-                if (position >= input.length() || input.charAt(position) != ']') {
-                    throw new SyntaxException("Expected ']' after array index", position);
-                }
-                propertyPathBuilder.append(']');
-                position++; // Skip ]
-            }
-            // Direct array access
-            else if (c == '[') {
-                propertyPathBuilder.append('[');
-                position++; // Skip [
-                skipWhitespace();
-
-                // Parse the array index
-                if (!Character.isDigit(input.charAt(position)) && input.charAt(position) != '-') {
-                    throw new SyntaxException("Array index must be a number", position);
-                }
-                int start = position;
-                while (position < input.length() && Character.isDigit(input.charAt(position))) {
-                    position++;
-                }
-                propertyPathBuilder.append(input, start, position);
-                skipWhitespace();
+    private static boolean isLogical(BinaryExpression.Operator operator) {
+        return operator == BinaryExpression.Operator.AND || operator == BinaryExpression.Operator.OR;
+    }
 
-                if (position >= input.length() || input.charAt(position) != ']') {
-                    throw new SyntaxException("Expected ']' after array index", position);
-                }
-                propertyPathBuilder.append(']');
-                position++; // Skip ]
-            }
-            // Regular property access
-            else if (c == '.') {
-                position++; // Skip .
-
-                // Parse the next property name
-                int start = position;
-                while (position < input.length()) {
-                    c = input.charAt(position);
-                    if (Character.isLetterOrDigit(c) || c == '_') {
-                        position++;
-                    } else {
-                        break;
-                    }
-                }
-                if (position > start) {
-                    propertyPathBuilder.append(input, start, position);
-                }
+    private Frame top() {
+        return frames.isEmpty() ? null : frames.get(frames.size() - 1);
+    }
 
-                // Continue parsing the rest of the property path
-                while (position < input.length()) {
-                    skipWhitespace();
-                    c = input.charAt(position);
-
-                    // Null-safe operator in the middle of property path
-                    if (c == '?' && position + 1 < input.length() && input.charAt(position + 1) == '.') {
-                        isNullSafe = true;
-                        position += 2; // Skip ?.
-                        propertyPathBuilder.append('.');
-
-                        // Parse the next property name
-                        start = position;
-                        while (position < input.length()) {
-                            c = input.charAt(position);
-                            if (Character.isLetterOrDigit(c) || c == '_') {
-                                position++;
-                            } else {
-                                break;
-                            }
-                        }
-                        if (position > start) {
-                            propertyPathBuilder.append(input, start, position);
-                        }
-                    }
-                    // Regular dot access
-                    else if (c == '.') {
-                        position++; // Skip dot
-                        propertyPathBuilder.append('.');
-
-                        // Parse the next property name
-                        start = position;
-                        while (position < input.length()) {
-                            c = input.charAt(position);
-                            if (Character.isLetterOrDigit(c) || c == '_') {
-                                position++;
-                            } else {
-                                break;
-                            }
-                        }
-                        if (position > start) {
-                            propertyPathBuilder.append(input, start, position);
-                        }
-                    }
-                    // Null-safe array access ?[
-                    else if (c == '?' && position + 1 < input.length() && input.charAt(position + 1) == '[') {
-                        isNullSafe = true;
-                        position++; // Skip ?
-                        propertyPathBuilder.append('?');
-
-                        // Now handle the array access
-                        propertyPathBuilder.append('[');
-                        position++; // Skip [
-                        skipWhitespace();
-
-                        // Parse the array index
-                        if (!Character.isDigit(input.charAt(position)) && input.charAt(position) != '-') {
-                            throw new SyntaxException("Array index must be a number", position);
-                        }
-                        start = position;
-                        while (position < input.length() && Character.isDigit(input.charAt(position))) {
-                            position++;
-                        }
-                        propertyPathBuilder.append(input, start, position);
-                        skipWhitespace();
-
-                        if (position >= input.length() || input.charAt(position) != ']') {
-                            throw new SyntaxException("Expected ']' after array index", position);
-                        }
-                        propertyPathBuilder.append(']');
-                        position++; // Skip ]
-                    }
-                    // Regular array access
-                    else if (c == '[') {
-                        propertyPathBuilder.append('[');
-                        position++; // Skip [
-                        skipWhitespace();
-
-                        // Parse the array index
-                        if (!Character.isDigit(input.charAt(position)) && input.charAt(position) != '-') {
-                            throw new SyntaxException("Array index must be a number", position);
-                        }
-                        start = position;
-                        while (position < input.length() && Character.isDigit(input.charAt(position))) {
-                            position++;
-                        }
-                        propertyPathBuilder.append(input, start, position);
-                        skipWhitespace();
-
-                        if (position >= input.length() || input.charAt(position) != ']') {
-                            throw new SyntaxException("Expected ']' after array index", position);
-                        }
-                        propertyPathBuilder.append(']');
-                        position++; // Skip ]
-                    }
-                    // Null coalescing operator
-                    else if (c == '?' && position + 1 < input.length() && input.charAt(position + 1) == '?') {
-                        position += 2; // Skip ??
-                        skipWhitespace();
-                        Expression defaultValue = parseExpression();
-                        return new NullCoalescingExpression(
-                                new VariableExpression(name, propertyPathBuilder.toString(), isNullSafe),
-                                defaultValue
-                        );
-                    } else {
-                        break;
-                    }
-                }
-            }
-        }
+    private Expression pop() {
+        return operands.remove(operands.size() - 1);
+    }
 
-        // Check for null coalescing operator at the end
-        skipWhitespace();
-        if (position + 1 < input.length() &&
-                input.charAt(position) == '?' &&
-                input.charAt(position + 1) == '?') {
-            position += 2; // Skip ??
-            skipWhitespace();
-            Expression defaultValue = parseExpression();
-            return new NullCoalescingExpression(
-                    new VariableExpression(name, !propertyPathBuilder.isEmpty() ? propertyPathBuilder.toString() : null, isNullSafe),
-                    defaultValue
-            );
+    private boolean accept(int type) {
+        if (tokens.type(index) == type) {
+            index++;
+            return true;
         }
+        return false;
+    }
 
-        return new VariableExpression(name, !propertyPathBuilder.isEmpty() ? propertyPathBuilder.toString() : null, isNullSafe);
+    private boolean matches(int start, int end, String word) {
+        return end - start == word.length() && input.startsWith(word, start);
     }
 
-    private Expression parseFunctionCall() {
-        int start = position;
-        while (position < input.length()) {
-            char c = input.charAt(position);
-            if (Character.isLetterOrDigit(c) || c == '_') {
-                position++;
-            } else {
-                break;
-            }
+    /**
+     * Entry of the operator stack
+     */
+    private static final class Frame {
+        final int kind;
+        final Object operator;
+        final int precedence;
+        final String name;
+        final int base;
+        // Number of operands of a binary frame; grows for chains of AND and OR
+        int operandCount = 2;
+
+        private Frame(int kind, Object operator, int precedence, String name, int base) {
+            this.kind = kind;
+            this.operator = operator;
+            this.precedence = precedence;
+            this.name = name;
+            this.base = base;
         }
 
-        String functionName = input.substring(start, position);
-        skipWhitespace();
-
-        if (position >= input.length() || input.charAt(position) != '(') {
-            throw new SyntaxException("Expected '(' after function name", position);
+        static Frame of(int kind) {
+            return new Frame(kind, null, 0, null, 0);
         }
-        position++; // Skip (
-
-        List<Expression> arguments = new ArrayList<>();
-        skipWhitespace();
-
-        while (position < input.length()) {
-            if (input.charAt(position) == ')') {
-                position++; // Skip )
-                return new FunctionCallExpression(functionName, arguments);
-            }
 
-            arguments.add(parseExpression());
-            skipWhitespace();
+        static Frame unary(UnaryExpression.Operator operator) {
+            return new Frame(UNARY, operator, 0, null, 0);
+        }
 
-            if (position < input.length() && input.charAt(position) == ',') {
-                position++; // Skip ,
-                skipWhitespace();
-            }
+        static Frame binary(BinaryExpression.Operator operator, int precedence) {
+            return new Frame(BINARY, operator, precedence, null, 0);
         }
 
-        throw new SyntaxException("Unterminated function call", position);
-    }
+        static Frame call(String name, int base) {
+            return new Frame(CALL, null, 0, name, base);
+        }
 
-    private void skipWhitespace() {
-        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
-            position++;
+        static Frame list(boolean negated, int base) {
+            return new Frame(LIST, negated, MEMBERSHIP_PRECEDENCE, null, base);
         }
     }
-} 
\ No newline at end of file
+}
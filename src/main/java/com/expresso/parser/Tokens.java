@@ -0,0 +1,43 @@
+package com.expresso.parser;
+
+import java.util.Arrays;
+
+/**
+ * Compact token array produced by {@link Lexer}. Each token takes three ints: its type and the
+ * start and end offsets of its text in the input. The last token is always {@link Lexer#EOF}.
+ */
+final class Tokens {
+    private int[] data;
+    private int size;
+
+    Tokens(int expectedTokens) {
+        this.data = new int[Math.max(4, expectedTokens) * 3];
+    }
+
+    void add(int type, int start, int end) {
+        int offset = size * 3;
+        if (offset + 3 > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[offset] = type;
+        data[offset + 1] = start;
+        data[offset + 2] = end;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int type(int index) {
+        return data[index * 3];
+    }
+
+    int start(int index) {
+        return data[index * 3 + 1];
+    }
+
+    int end(int index) {
+        return data[index * 3 + 2];
+    }
+}
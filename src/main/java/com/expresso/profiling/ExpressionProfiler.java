@@ -0,0 +1,149 @@
+package com.expresso.profiling;
+
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.ConditionalExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.FunctionCallExpression;
+import com.expresso.ast.FunctionExpression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LiteralExpression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.NullCoalescingExpression;
+import com.expresso.ast.UnaryExpression;
+import com.expresso.ast.VariableExpression;
+import com.expresso.optimizer.AdaptiveLogicalExpression;
+import com.expresso.optimizer.ExpressionRewriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-node evaluation profiler. {@link #instrument(Expression)} returns a copy of an expression in
+ * which every node records its invocation count, time and exceptions; {@link #snapshot(Expression)}
+ * turns those recordings into a {@link ProfileNode} tree that can be printed as a tree report or as
+ * flame graph input.
+ *
+ * <p>Profiling is opt-in per expression: expressions that were not instrumented carry no profiling
+ * code at all.
+ */
+public final class ExpressionProfiler {
+
+    private ExpressionProfiler() {
+    }
+
+    /**
+     * Creates a profiled copy of an expression. The original expression is not modified.
+     *
+     * @param expression The expression to profile
+     * @return An equivalent expression that records statistics for every node
+     */
+    public static Expression instrument(Expression expression) {
+        return new Instrumenter().rewrite(expression);
+    }
+
+    /**
+     * Takes a snapshot of the statistics recorded by an instrumented expression
+     *
+     * @param instrumented An expression returned by {@link #instrument(Expression)}
+     * @return The statistics of the root node and its descendants
+     * @throws IllegalArgumentException if the expression was not instrumented
+     */
+    public static ProfileNode snapshot(Expression instrumented) {
+        if (!(instrumented instanceof ProfiledExpression profiled)) {
+            throw new IllegalArgumentException("Expression was not instrumented for profiling");
+        }
+        return snapshot(profiled);
+    }
+
+    /**
+     * Clears the statistics recorded by an instrumented expression
+     *
+     * @param instrumented An expression returned by {@link #instrument(Expression)}
+     */
+    public static void reset(Expression instrumented) {
+        if (instrumented instanceof ProfiledExpression profiled) {
+            profiled.reset();
+        }
+        instrumented.getChildren().forEach(ExpressionProfiler::reset);
+    }
+
+    /**
+     * Describes a single node in a few characters, for use in reports
+     *
+     * @param expression The node to describe
+     * @return The node label
+     */
+    public static String label(Expression expression) {
+        if (expression instanceof ProfiledExpression profiled) {
+            return label(profiled.getDelegate());
+        }
+        if (expression instanceof LiteralExpression literal) {
+            Object value = literal.value();
+            return value instanceof String ? "'" + value + "'" : String.valueOf(value);
+        }
+        if (expression instanceof VariableExpression variable) {
+            String path = variable.getPropertyPath();
+            if (path == null) {
+                return "$" + variable.getName();
+            }
+            return "$" + variable.getName() + (path.startsWith("[") || path.startsWith("?") ? "" : ".") + path;
+        }
+        if (expression instanceof FunctionCallExpression call) {
+            return call.getName() + "()";
+        }
+        if (expression instanceof FunctionExpression function) {
+            return function.getName() + "()";
+        }
+        if (expression instanceof BinaryExpression binary) {
+            return binary.getOperator().name();
+        }
+        if (expression instanceof LogicalExpression logical) {
+            return logical.getOperator().name();
+        }
+        if (expression instanceof InExpression in) {
+            return in.isNegated() ? "NOT_IN" : "IN";
+        }
+        if (expression instanceof UnaryExpression unary) {
+            return unary.getOperator().name();
+        }
+        if (expression instanceof AdaptiveLogicalExpression adaptive) {
+            return adaptive.getOperator().name();
+        }
+        if (expression instanceof ConditionalExpression) {
+            return "CONDITIONAL";
+        }
+        if (expression instanceof NullCoalescingExpression) {
+            return "NULL_COALESCING";
+        }
+        return expression.getClass().getSimpleName();
+    }
+
+    private static ProfileNode snapshot(ProfiledExpression node) {
+        List<ProfileNode> children = new ArrayList<>();
+        long childNanos = 0;
+        for (Expression child : node.getChildren()) {
+            if (child instanceof ProfiledExpression profiledChild) {
+                ProfileNode childSnapshot = snapshot(profiledChild);
+                children.add(childSnapshot);
+                childNanos += childSnapshot.totalNanos();
+            }
+        }
+        long total = node.getTotalNanos();
+        return new ProfileNode(
+            label(node), node.getInvocations(), total, Math.max(0, total - childNanos), node.getExceptions(), children);
+    }
+
+    private static final class Instrumenter extends ExpressionRewriter {
+        @Override
+        public Expression rewrite(Expression expression) {
+            if (expression instanceof ProfiledExpression) {
+                return expression;
+            }
+            return super.rewrite(expression);
+        }
+
+        @Override
+        protected Expression rewriteNode(Expression expression) {
+            return new ProfiledExpression(expression);
+        }
+    }
+}
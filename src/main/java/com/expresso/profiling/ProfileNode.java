@@ -0,0 +1,79 @@
+package com.expresso.profiling;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Snapshot of the statistics recorded for one node of a profiled expression.
+ *
+ * @param label A short description of the node, e.g. {@code $user.name} or {@code upperCase()}
+ * @param invocations Number of times the node was evaluated
+ * @param totalNanos Time spent in the node including its children
+ * @param selfNanos Time spent in the node excluding its profiled children
+ * @param exceptions Number of evaluations that ended with an exception
+ * @param children Snapshots of the node's children
+ */
+public record ProfileNode(
+        String label,
+        long invocations,
+        long totalNanos,
+        long selfNanos,
+        long exceptions,
+        List<ProfileNode> children) {
+
+    /**
+     * Formats this node and its descendants as an indented tree, one node per line
+     *
+     * @return The tree report
+     */
+    public String toTreeString() {
+        StringBuilder sb = new StringBuilder();
+        appendTree(sb, 0);
+        return sb.toString();
+    }
+
+    /**
+     * Formats this node and its descendants in the collapsed-stack format read by flame graph
+     * tools: one line per node with the semicolon-separated path from the root and the self time
+     * in nanoseconds.
+     *
+     * @return The collapsed stacks
+     */
+    public String toCollapsedStacks() {
+        StringBuilder sb = new StringBuilder();
+        appendStacks(sb, "");
+        return sb.toString();
+    }
+
+    private void appendTree(StringBuilder sb, int depth) {
+        sb.append("  ".repeat(depth))
+            .append(label)
+            .append(" [calls=").append(invocations)
+            .append(", total=").append(formatMicros(totalNanos))
+            .append(", self=").append(formatMicros(selfNanos));
+        if (exceptions > 0) {
+            sb.append(", exceptions=").append(exceptions);
+        }
+        sb.append("]\n");
+        for (ProfileNode child : children) {
+            child.appendTree(sb, depth + 1);
+        }
+    }
+
+    private void appendStacks(StringBuilder sb, String parentStack) {
+        // Semicolons separate frames in the collapsed format
+        String stack = parentStack.isEmpty()
+            ? label.replace(';', ',')
+            : parentStack + ";" + label.replace(';', ',');
+        if (invocations > 0) {
+            sb.append(stack).append(' ').append(selfNanos).append('\n');
+        }
+        for (ProfileNode child : children) {
+            child.appendStacks(sb, stack);
+        }
+    }
+
+    private static String formatMicros(long nanos) {
+        return String.format(Locale.ROOT, "%.1fus", nanos / 1000.0);
+    }
+}
@@ -0,0 +1,68 @@
+package com.expresso.profiling;
+
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wrapper created by {@link ExpressionProfiler} that records invocation count, wall-clock time and
+ * exceptions of the node it wraps. The children of the wrapped node are wrapped as well, so their
+ * time can be subtracted to obtain the node's self time.
+ */
+public final class ProfiledExpression implements Expression {
+    private final Expression delegate;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder exceptions = new LongAdder();
+
+    ProfiledExpression(Expression delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        long start = System.nanoTime();
+        try {
+            return delegate.evaluate(context);
+        } catch (RuntimeException e) {
+            exceptions.increment();
+            throw e;
+        } finally {
+            totalNanos.add(System.nanoTime() - start);
+            invocations.increment();
+        }
+    }
+
+    @Override
+    public List<Expression> getChildren() {
+        return delegate.getChildren();
+    }
+
+    /**
+     * Gets the node being profiled
+     *
+     * @return The wrapped expression
+     */
+    public Expression getDelegate() {
+        return delegate;
+    }
+
+    long getInvocations() {
+        return invocations.sum();
+    }
+
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    long getExceptions() {
+        return exceptions.sum();
+    }
+
+    void reset() {
+        invocations.reset();
+        totalNanos.reset();
+        exceptions.reset();
+    }
+}
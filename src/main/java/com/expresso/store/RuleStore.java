@@ -0,0 +1,274 @@
+package com.expresso.store;
+
+import com.expresso.ast.Expression;
+import com.expresso.codec.ExpressionCodec;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read-only store of parsed rules backed by a memory-mapped file. Opening a store only maps the
+ * file: a rule is decoded into an {@link Expression} the first time it is requested, and rules
+ * that are never requested never take heap space.
+ *
+ * <p>The file holds a 16-byte header (the magic number {@code EXRS}, the format version, the
+ * number of rules and the offset of the index), the rule ids and the rules encoded with {@link
+ * ExpressionCodec}, and an index of 16-byte entries sorted by id, which is searched in place. Files
+ * are limited to 2 GB.
+ *
+ * <p>Stores are thread-safe. A rule decoded concurrently by two threads may be decoded twice, but
+ * all callers then get the same instance.
+ */
+public final class RuleStore implements AutoCloseable {
+    /** The first four bytes of a rule store file: "EXRS" */
+    public static final int MAGIC = 0x45585253;
+    /** The current file format version */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+    // Each index entry holds the offset and length of the id and of the encoded rule
+    private static final int ENTRY_SIZE = 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int indexOffset;
+    private final AtomicReferenceArray<Expression> rules;
+    private final AtomicInteger loaded = new AtomicInteger();
+
+    private RuleStore(FileChannel channel, ByteBuffer buffer, int size, int indexOffset) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.size = size;
+        this.indexOffset = indexOffset;
+        this.rules = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Opens a store written by {@link #write(Path, Map)}
+     *
+     * @param file The store file
+     * @return The store, which must be closed after use
+     * @throws IOException if the file cannot be read or is not a rule store of this version
+     */
+    public static RuleStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Rule store too large: " + length + " bytes");
+            }
+            if (length < HEADER_SIZE) {
+                throw new StreamCorruptedException("Not a rule store");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new StreamCorruptedException("Not a rule store");
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Unsupported rule store version " + version + ", expected " + VERSION);
+            }
+            int size = buffer.getInt(8);
+            int indexOffset = buffer.getInt(12);
+            if (size < 0 || indexOffset < HEADER_SIZE || (long) indexOffset + (long) size * ENTRY_SIZE != length) {
+                throw new StreamCorruptedException("Invalid rule store index");
+            }
+            return new RuleStore(channel, buffer, size, indexOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a store file, replacing any existing file. The rules are written to a temporary file
+     * in the same directory, which then atomically replaces the store file: stores that have the
+     * previous file open keep reading its content, and readers never see a partial file.
+     *
+     * @param file The store file
+     * @param rules The parsed rules by id
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if a rule cannot be encoded, see {@link ExpressionCodec}
+     */
+    public static void write(Path file, Map<String, Expression> rules) throws IOException {
+        List<Map.Entry<byte[], Expression>> entries = new ArrayList<>(rules.size());
+        for (Map.Entry<String, Expression> rule : rules.entrySet()) {
+            entries.add(Map.entry(rule.getKey().getBytes(StandardCharsets.UTF_8), rule.getValue()));
+        }
+        entries.sort((first, second) -> Arrays.compareUnsigned(first.getKey(), second.getKey()));
+
+        ByteBuffer index = ByteBuffer.allocate(entries.size() * ENTRY_SIZE);
+        // Truncating the file in place would fault the stores that still map it
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            writeRules(temporary, entries, index);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    private static void writeRules(Path file, List<Map.Entry<byte[], Expression>> entries, ByteBuffer index)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            // The header is written last, once the offset of the index is known
+            out.write(new byte[HEADER_SIZE]);
+            long offset = HEADER_SIZE;
+            for (Map.Entry<byte[], Expression> entry : entries) {
+                byte[] id = entry.getKey();
+                byte[] rule = ExpressionCodec.encode(entry.getValue());
+                if (offset + id.length + rule.length > Integer.MAX_VALUE - index.capacity()) {
+                    throw new IOException("Rule store too large");
+                }
+                index.putInt((int) offset).putInt(id.length).putInt((int) offset + id.length).putInt(rule.length);
+                out.write(id);
+                out.write(rule);
+                offset += id.length + rule.length;
+            }
+            out.write(index.array());
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(entries.size()).putInt((int) offset);
+            channel.write(header.flip(), 0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Gets a rule, decoding it on first use
+     *
+     * @param id The rule id
+     * @return The parsed rule, or null if the store has no rule with this id
+     * @throws UncheckedIOException if the stored rule is corrupt
+     */
+    public Expression get(String id) {
+        int entry = find(id.getBytes(StandardCharsets.UTF_8));
+        if (entry < 0) {
+            return null;
+        }
+        Expression rule = rules.get(entry);
+        if (rule == null) {
+            rule = decode(entry);
+            if (rules.compareAndSet(entry, null, rule)) {
+                loaded.incrementAndGet();
+            } else {
+                rule = rules.get(entry);
+            }
+        }
+        return rule;
+    }
+
+    /**
+     * Checks whether the store has a rule, without decoding it
+     *
+     * @param id The rule id
+     * @return true if the store has a rule with this id
+     */
+    public boolean contains(String id) {
+        return find(id.getBytes(StandardCharsets.UTF_8)) >= 0;
+    }
+
+    /**
+     * Gets the number of rules in the store
+     *
+     * @return The number of rules
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of rules decoded so far
+     *
+     * @return The number of rules held on the heap
+     */
+    public int loadedCount() {
+        return loaded.get();
+    }
+
+    /**
+     * Closes the file. Rules that were already decoded stay usable; the mapping itself is released
+     * when it is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private Expression decode(int entry) {
+        int position = indexOffset + entry * ENTRY_SIZE;
+        int offset = buffer.getInt(position + 8);
+        int length = buffer.getInt(position + 12);
+        try {
+            if (offset < HEADER_SIZE || length < 0 || offset > indexOffset - length) {
+                throw new StreamCorruptedException("Invalid index entry " + entry);
+            }
+            return ExpressionCodec.decode(buffer.slice(offset, length));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt rule " + entry + " in rule store", e);
+        }
+    }
+
+    /**
+     * Searches the sorted index for an id
+     *
+     * @return The index entry, or -1 if the id is not in the store
+     */
+    private int find(byte[] id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareId(middle, id);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the id of an index entry with the given id, byte by byte as unsigned values
+     */
+    private int compareId(int entry, byte[] id) {
+        int position = indexOffset + entry * ENTRY_SIZE;
+        int offset = buffer.getInt(position);
+        int length = buffer.getInt(position + 4);
+        if (offset < HEADER_SIZE || length < 0 || offset > indexOffset - length) {
+            throw new UncheckedIOException(new StreamCorruptedException("Invalid index entry " + entry));
+        }
+        int common = Math.min(length, id.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (buffer.get(offset + i) & 0xFF) - (id[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - id.length;
+    }
+}
@@ -0,0 +1,243 @@
+package com.expresso.validation;
+
+import com.expresso.context.functions.FunctionMetadata;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Declares the variables, property types and functions that expressions may use, so that
+ * expressions can be validated without a context and without being evaluated.
+ *
+ * <p>A schema describes a value. The schema of a context declares its variables with {@link
+ * #with(String, Class)} and {@link #with(String, ContextSchema)}; nested schemas declare the
+ * properties of maps and objects the same way. Schemas created from a class resolve properties from
+ * the public getters of the class, accept any property on maps and {@code Object}, accept indexes on
+ * lists and arrays, and accept no property on strings, numbers, booleans and dates.
+ *
+ * <p>Schemas are built once and can then be shared between threads.
+ */
+public class ContextSchema {
+    // Schema of values whose properties are not known, such as maps and Object
+    private static final ContextSchema ANY = new ContextSchema(Object.class, null);
+
+    private final Class<?> type;
+    private final ContextSchema elements;
+    private final Map<String, ContextSchema> properties = new HashMap<>();
+    private final Map<String, FunctionMetadata> functions = new HashMap<>();
+    private final Map<String, Optional<ContextSchema>> resolvedProperties = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty schema, to which variables or properties are added with {@code with}
+     */
+    public ContextSchema() {
+        this(null, null);
+    }
+
+    private ContextSchema(Class<?> type, ContextSchema elements) {
+        this.type = type;
+        this.elements = elements;
+    }
+
+    /**
+     * Creates the schema of values of a class
+     *
+     * @param type The class of the values
+     * @return The schema
+     */
+    public static ContextSchema of(Class<?> type) {
+        return of((Type) type);
+    }
+
+    /**
+     * Creates the schema of lists whose elements follow a schema
+     *
+     * @param elements The schema of the elements
+     * @return The schema
+     */
+    public static ContextSchema listOf(ContextSchema elements) {
+        return new ContextSchema(Collection.class, elements);
+    }
+
+    /**
+     * Creates the schema of lists whose elements are of a class
+     *
+     * @param elementType The class of the elements
+     * @return The schema
+     */
+    public static ContextSchema listOf(Class<?> elementType) {
+        return listOf(of(elementType));
+    }
+
+    /**
+     * Declares a variable or property of a class
+     *
+     * @param name The variable or property name
+     * @param type The class of its values
+     * @return This schema for method chaining
+     */
+    public ContextSchema with(String name, Class<?> type) {
+        return with(name, of(type));
+    }
+
+    /**
+     * Declares a variable or property following a nested schema
+     *
+     * @param name The variable or property name
+     * @param schema The schema of its values
+     * @return This schema for method chaining
+     */
+    public ContextSchema with(String name, ContextSchema schema) {
+        properties.put(name, schema);
+        return this;
+    }
+
+    /**
+     * Declares a function registered on the contexts that expressions are evaluated with
+     *
+     * @param name The function name
+     * @param metadata The function metadata, including the number of arguments it accepts
+     * @return This schema for method chaining
+     */
+    public ContextSchema withFunction(String name, FunctionMetadata metadata) {
+        functions.put(name, metadata);
+        return this;
+    }
+
+    /**
+     * Gets the declared class of the values of a variable reference
+     *
+     * @param variable The variable name
+     * @param propertyPath The property path, as held by a {@code VariableExpression}, or null
+     * @return The class, {@code Object.class} if it is not known, or null if the reference is not
+     *     declared
+     */
+    public Class<?> typeOf(String variable, String propertyPath) {
+        ContextSchema current = property(variable);
+        int position = 0;
+        while (current != null && propertyPath != null && position < propertyPath.length()) {
+            char c = propertyPath.charAt(position);
+            if (c == '.') {
+                position++;
+            } else if (c == '[' || c == '?') {
+                current = current.elements();
+                position = propertyPath.indexOf(']', position) + 1;
+            } else {
+                int end = propertyEnd(propertyPath, position);
+                current = current.property(propertyPath.substring(position, end));
+                position = end;
+            }
+        }
+        if (current == null) {
+            return null;
+        }
+        return current.type == null ? Object.class : current.type;
+    }
+
+    /**
+     * Gets the schema of a variable or property
+     *
+     * @param name The variable or property name
+     * @return Its schema, or null if values of this schema do not have it
+     */
+    ContextSchema property(String name) {
+        ContextSchema declared = properties.get(name);
+        if (declared != null || type == null) {
+            return declared;
+        }
+        return resolvedProperties.computeIfAbsent(name, this::resolveProperty).orElse(null);
+    }
+
+    /**
+     * Gets the schema of the elements of indexed values
+     *
+     * @return The element schema, or null if values of this schema cannot be indexed
+     */
+    ContextSchema elements() {
+        if (elements == null && type == Object.class) {
+            return ANY;
+        }
+        return elements;
+    }
+
+    /**
+     * Gets the metadata of a function declared in this schema
+     *
+     * @param name The function name
+     * @return The metadata, or null if the function is not declared
+     */
+    FunctionMetadata function(String name) {
+        return functions.get(name);
+    }
+
+    /**
+     * Finds the end of a property name in a property path
+     *
+     * @param path The property path
+     * @param start The position of the first character of the name
+     * @return The position following the name
+     */
+    static int propertyEnd(String path, int start) {
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[' && path.charAt(end) != '?') {
+            end++;
+        }
+        return end;
+    }
+
+    private Optional<ContextSchema> resolveProperty(String name) {
+        if (type == Object.class || Map.class.isAssignableFrom(type)) {
+            return Optional.of(ANY);
+        }
+        if (isLeaf(type) || name.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            Method getter = type.getMethod("get" + Character.toUpperCase(name.charAt(0)) + name.substring(1));
+            return Optional.of(of(getter.getGenericReturnType()));
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static ContextSchema of(Type type) {
+        if (type instanceof ParameterizedType parameterized) {
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            if (Collection.class.isAssignableFrom(raw)) {
+                return listOf(of(parameterized.getActualTypeArguments()[0]));
+            }
+            return of(raw);
+        }
+        if (type instanceof GenericArrayType array) {
+            return listOf(of(array.getGenericComponentType()));
+        }
+        if (type instanceof WildcardType wildcard) {
+            return of(wildcard.getUpperBounds()[0]);
+        }
+        if (!(type instanceof Class<?> raw)) {
+            // Type variables may be bound to anything
+            return ANY;
+        }
+        if (raw.isArray()) {
+            return listOf(of(raw.getComponentType()));
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            return listOf(ANY);
+        }
+        return new ContextSchema(raw, null);
+    }
+
+    private static boolean isLeaf(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || type == String.class || type == Character.class
+            || type == Boolean.class || Number.class.isAssignableFrom(type)
+            || Temporal.class.isAssignableFrom(type);
+    }
+}
@@ -0,0 +1,203 @@
+package com.expresso.validation;
+
+import com.expresso.ast.Expression;
+import com.expresso.ast.FunctionCallExpression;
+import com.expresso.ast.FunctionExpression;
+import com.expresso.ast.VariableExpression;
+import com.expresso.context.functions.FunctionMetadata;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Checks a parsed expression against a {@link ContextSchema} without evaluating it. Variables and
+ * property paths must be declared by the schema, and functions must exist and be called with a
+ * number of arguments they accept.
+ *
+ * <p>References that are allowed to be missing, such as the arguments of {@code isNull} and
+ * {@code coalesce} or the left operand of {@code ??}, are not checked. Null-safe access does not
+ * exempt a reference: {@code $user?.nmae} still names a property that can never exist.
+ */
+public class SchemaValidator {
+    private final ContextSchema schema;
+    private final Function<String, FunctionMetadata> functions;
+
+    /**
+     * Creates a validator
+     *
+     * @param schema The schema of the contexts expressions are evaluated with
+     * @param functions Gets the metadata of the functions available besides those declared in the
+     *     schema, or null for functions that do not exist
+     */
+    public SchemaValidator(ContextSchema schema, Function<String, FunctionMetadata> functions) {
+        this.schema = schema;
+        this.functions = functions;
+    }
+
+    /**
+     * Validates a parsed expression
+     *
+     * @param expression The parsed expression
+     * @param source The expression string, used to locate errors
+     * @return The errors found, in the order of the expression, or an empty list
+     */
+    public List<ExpressionError> validate(Expression expression, String source) {
+        // Errors are keyed by message, so that a reference repeated in the expression is reported once
+        Map<String, ExpressionError> errors = new LinkedHashMap<>();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+        while (!pending.isEmpty()) {
+            Expression node = pending.pop();
+            if (node instanceof VariableExpression variable) {
+                checkVariable(variable, source, errors);
+            } else if (node instanceof FunctionCallExpression call) {
+                checkFunction(call.getName(), call.getArguments().size(), source, errors);
+            } else if (node instanceof FunctionExpression function) {
+                checkFunction(function.getName(), function.getArguments().size(), source, errors);
+            }
+            List<Expression> children = node.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                pending.push(children.get(i));
+            }
+        }
+        return new ArrayList<>(errors.values());
+    }
+
+    private void checkVariable(VariableExpression variable, String source, Map<String, ExpressionError> errors) {
+        if (variable.isInSafeContext()) {
+            return;
+        }
+        String name = variable.getName();
+        ContextSchema current = schema.property(name);
+        if (current == null) {
+            addError(errors, "VariableNotFoundError", "Variable '" + name + "' not found",
+                locate(source, "$" + name, true));
+            return;
+        }
+
+        String path = variable.getPropertyPath();
+        if (path == null) {
+            return;
+        }
+        int position = 0;
+        while (position < path.length()) {
+            char c = path.charAt(position);
+            if (c == '.') {
+                position++;
+                continue;
+            }
+            String reference = reference(name, path.substring(0, position));
+            if (c == '[' || c == '?') {
+                current = current.elements();
+                if (current == null) {
+                    addError(errors, "PropertyNotFoundError", "Cannot access index on '" + reference + "'",
+                        locate(source, "$" + name, false));
+                    return;
+                }
+                position = path.indexOf(']', position) + 1;
+            } else {
+                int end = ContextSchema.propertyEnd(path, position);
+                String property = path.substring(position, end);
+                current = current.property(property);
+                if (current == null) {
+                    addError(errors, "PropertyNotFoundError",
+                        "Property '" + property + "' not found on '" + reference + "'",
+                        locate(source, "$" + name, false));
+                    return;
+                }
+                position = end;
+            }
+        }
+    }
+
+    /**
+     * Formats the reference to a variable followed by the first segments of its property path
+     *
+     * @param name The variable name
+     * @param path The segments already resolved, possibly followed by a '.'
+     * @return The reference as written in an expression, such as {@code $customer.address}
+     */
+    private static String reference(String name, String path) {
+        if (path.endsWith(".")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        if (path.isEmpty() || path.startsWith("[") || path.startsWith("?")) {
+            return "$" + name + path;
+        }
+        return "$" + name + "." + path;
+    }
+
+    private void checkFunction(String name, int argumentCount, String source, Map<String, ExpressionError> errors) {
+        FunctionMetadata metadata = schema.function(name);
+        if (metadata == null) {
+            metadata = functions.apply(name);
+        }
+        if (metadata == null) {
+            addError(errors, "UnknownFunctionError", "Function '" + name + "' not found",
+                locate(source, name + "(", true));
+        } else if (!metadata.acceptsArguments(argumentCount)) {
+            addError(errors, "ArgumentCountError",
+                "Function '" + name + "' expects " + describeArity(metadata) + " but got " + argumentCount,
+                locate(source, name + "(", true));
+        }
+    }
+
+    private static String describeArity(FunctionMetadata metadata) {
+        int min = metadata.minArguments();
+        int max = metadata.maxArguments();
+        if (min == max) {
+            return min + (min == 1 ? " argument" : " arguments");
+        }
+        if (max == Integer.MAX_VALUE) {
+            return "at least " + min + (min == 1 ? " argument" : " arguments");
+        }
+        return min + " to " + max + " arguments";
+    }
+
+    private static void addError(
+            Map<String, ExpressionError> errors, String type, String message, ExpressionError.ErrorLocation location) {
+        errors.putIfAbsent(message, new ExpressionError(type, message, location));
+    }
+
+    /**
+     * Locates a variable reference or a function name in the expression string
+     *
+     * @param source The expression string
+     * @param token The text to find, such as {@code $user} or {@code upperCase(}
+     * @param tokenOnly Whether the location covers only the token, or the property path following it
+     * @return The location, or null if the token could not be found
+     */
+    private static ExpressionError.ErrorLocation locate(String source, String token, boolean tokenOnly) {
+        if (source == null) {
+            return null;
+        }
+        boolean endsWithWord = Character.isJavaIdentifierPart(token.charAt(token.length() - 1));
+        for (int start = source.indexOf(token); start >= 0; start = source.indexOf(token, start + 1)) {
+            int end = start + token.length();
+            if (start > 0 && Character.isJavaIdentifierPart(source.charAt(start - 1))
+                || endsWithWord && end < source.length() && Character.isJavaIdentifierPart(source.charAt(end))) {
+                continue;
+            }
+            if (!tokenOnly) {
+                while (end < source.length() && isPathCharacter(source, end)) {
+                    end++;
+                }
+            }
+            return new ExpressionError.ErrorLocation(start, end, source);
+        }
+        return null;
+    }
+
+    private static boolean isPathCharacter(String source, int index) {
+        char c = source.charAt(index);
+        if (c == '?') {
+            // Only the ? of ?. and ?[, not the one of a conditional
+            return index + 1 < source.length() && (source.charAt(index + 1) == '.' || source.charAt(index + 1) == '[');
+        }
+        return Character.isJavaIdentifierPart(c) || c == '.' || c == '[' || c == ']';
+    }
+}
@@ -0,0 +1,107 @@
+package com.expresso.analysis;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.FunctionCallExpression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.VariableExpression;
+import com.expresso.context.Context;
+import com.expresso.context.functions.FunctionMetadata;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Complexity Analysis and Logical Reordering")
+class ComplexityAnalysisTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    @Test
+    @DisplayName("Reports depth, node count and cost")
+    void testComplexityReport() {
+        ComplexityReport literal = evaluator.analyze("42");
+        assertEquals(1, literal.depth());
+        assertEquals(1, literal.nodeCount());
+        assertEquals(0, literal.estimatedCost());
+
+        ComplexityReport report = evaluator.analyze("$a + $b.c * 2");
+        assertEquals(3, report.depth());
+        assertEquals(5, report.nodeCount());
+        // two operators, two variables and one property segment
+        assertEquals(2 + 2 + 2, report.estimatedCost());
+    }
+
+    @Test
+    @DisplayName("Declared function costs are used")
+    void testFunctionCosts() {
+        long cheap = evaluator.analyze("trim($s)").estimatedCost();
+        long expensive = evaluator.analyze("formatDate($d, 'yyyy')").estimatedCost();
+        assertTrue(expensive > cheap);
+
+        evaluator.registerFunction("lookup", args -> args[0], FunctionMetadata.pure(100));
+        assertTrue(evaluator.analyze("lookup($x)").estimatedCost() >= 100);
+
+        evaluator.registerFunction("undeclared", args -> args[0]);
+        assertEquals(FunctionMetadata.UNKNOWN, evaluator.getCostModel().getFunctionMetadata("undeclared"));
+        assertFalse(evaluator.getCostModel().isPure(evaluator.parse("undeclared(1)")));
+        assertFalse(evaluator.getCostModel().isPure(evaluator.parse("random() > 0.5")));
+    }
+
+    @Test
+    @DisplayName("Cheap pure operands are moved first")
+    void testReordering() {
+        evaluator.registerFunction("slowCheck", args -> true, FunctionMetadata.pure(50));
+        evaluator.setLogicalReorderingEnabled(true);
+
+        Expression parsed = evaluator.parse("slowCheck($a) && $b == 1");
+        LogicalExpression and = assertInstanceOf(LogicalExpression.class, parsed);
+        assertInstanceOf(BinaryExpression.class, and.getOperands().get(0));
+        assertInstanceOf(FunctionCallExpression.class, and.getOperands().get(1));
+
+        Context context = new Context().with("a", 1).with("b", 2);
+        assertEquals(false, evaluator.evaluate(parsed, context));
+        assertEquals(true, evaluator.evaluate("slowCheck($a) || $b == 1", context));
+    }
+
+    @Test
+    @DisplayName("Guards and impure operands keep their order")
+    void testReorderingConstraints() {
+        AtomicInteger calls = new AtomicInteger();
+        evaluator.registerFunction("audit", args -> calls.incrementAndGet() > 0);
+        evaluator.setLogicalReorderingEnabled(true);
+
+        // The operands share $user, so the null check stays in front
+        Context context = new Context().with("user", null);
+        assertEquals(false, evaluator.evaluate("$user != null && upperCase($user.name) == 'X'", context));
+
+        // Impure functions are never skipped or moved
+        context = new Context().with("b", false);
+        assertEquals(false, evaluator.evaluate("audit(1) && $b", context));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Long chains are reordered without deep recursion")
+    void testLongChain() {
+        evaluator.setLogicalReorderingEnabled(true);
+        List<String> terms = new ArrayList<>();
+        Context context = new Context();
+        for (int i = 0; i < 500; i++) {
+            terms.add("upperCase($v" + i + ") == 'X'");
+            context.setVariable("v" + i, "a");
+        }
+        terms.add("$hit");
+        context.setVariable("hit", true);
+
+        Expression parsed = evaluator.parse(String.join(" || ", terms));
+        assertEquals(true, evaluator.evaluate(parsed, context));
+        // The cheap variable test now runs first
+        Expression first = ((LogicalExpression) parsed).getOperands().get(0);
+        assertEquals("hit", ((VariableExpression) first).getName());
+    }
+}
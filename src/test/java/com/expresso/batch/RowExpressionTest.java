@@ -0,0 +1,186 @@
+package com.expresso.batch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.VariableExpression;
+import com.expresso.context.Context;
+import com.expresso.exception.ArithmeticExpressionException;
+import com.expresso.exception.EvaluationException;
+import com.expresso.exception.TypeCheckException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Row Expression Tests")
+class RowExpressionTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    private final RowLayout layout = new RowLayout()
+        .with("id", RowLayout.FieldType.LONG)
+        .with("quantity", RowLayout.FieldType.INT)
+        .with("amount", RowLayout.FieldType.DOUBLE)
+        .with("paid", RowLayout.FieldType.BOOLEAN)
+        .withString("country", 8)
+        .withString("customer", 16);
+
+    private RowBatch batch() {
+        RowBatch batch = RowBatch.allocate(layout, 4);
+        Object[][] rows = {
+            {1L, 3, 120.5, true, "FR", "Zoë"},
+            {2L, 0, 80.0, false, "DE", null},
+            {3L, -7, 0.0, true, "FR", ""},
+            {4L, 12, 1000.0, false, null, "Smith"},
+        };
+        for (Object[] values : rows) {
+            int row = batch.addRow();
+            batch.setLong(row, "id", (Long) values[0])
+                .setInt(row, "quantity", (Integer) values[1])
+                .setDouble(row, "amount", (Double) values[2])
+                .setBoolean(row, "paid", (Boolean) values[3])
+                .setString(row, "country", (String) values[4])
+                .setString(row, "customer", (String) values[5]);
+        }
+        return batch;
+    }
+
+    private Context context(RowBatch batch, int row) {
+        ByteBuffer buffer = batch.getBuffer();
+        int start = row * layout.getRowSize();
+        Context context = new Context();
+        context.setVariable("id", buffer.getLong(start + layout.getOffset("id")));
+        context.setVariable("quantity", (long) buffer.getInt(start + layout.getOffset("quantity")));
+        context.setVariable("amount", buffer.getDouble(start + layout.getOffset("amount")));
+        context.setVariable("paid", buffer.get(start + layout.getOffset("paid")) != 0);
+        for (String name : List.of("country", "customer")) {
+            int length = buffer.getShort(start + layout.getOffset(name));
+            byte[] bytes = new byte[Math.max(length, 0)];
+            buffer.get(start + layout.getOffset(name) + Short.BYTES, bytes);
+            context.setVariable(name, length < 0 ? null : new String(bytes, StandardCharsets.UTF_8));
+        }
+        return context;
+    }
+
+    @Test
+    @DisplayName("Rows give the same results as contexts holding their fields")
+    void testSameResultsAsContext() {
+        RowBatch batch = batch();
+        List<String> expressions = List.of(
+            "$country == 'FR' && $amount > 100",
+            "$country != 'FR' || !$paid",
+            "$country == null",
+            "$customer == 'Zoë'",
+            "$customer in ('Smith', 'Zoë', null)",
+            "$quantity not in (0, 3)",
+            "$amount * $quantity - $id / 2",
+            "-$quantity",
+            "$paid ? $amount : $quantity",
+            "$amount % 7 >= 3 || $quantity <= 0",
+            "$customer + '/' + $country",
+            "upperCase($customer ?? 'none')",
+            "$customer",
+            "$quantity",
+            "isNull($country)",
+            "isNull($amount.foo)",
+            "$amount?.foo ?? 1",
+            "$customer?.length ?? 2",
+            "coalesce($id.value, $quantity)");
+        for (String expression : expressions) {
+            RowExpression compiled = evaluator.compile(expression, layout);
+            for (int row = 0; row < batch.size(); row++) {
+                Context context = context(batch, row);
+                Object expected = evaluator.evaluate(expression, context);
+                assertEquals(expected, compiled.evaluate(batch, row), expression + " on row " + row);
+                boolean truthy = expected != null && !Boolean.FALSE.equals(expected);
+                assertEquals(truthy, compiled.test(batch, row), expression + " on row " + row);
+                if (expected instanceof Number number) {
+                    assertEquals(number.doubleValue(), compiled.evaluateDouble(batch, row), expression + " on row " + row);
+                }
+            }
+        }
+
+        int[] selection = new int[batch.size()];
+        int selected = evaluator.compile("$paid || $country == null", layout).filter(batch, selection);
+        assertArrayEquals(new int[] {0, 2, 3}, Arrays.copyOf(selection, selected));
+    }
+
+    @Test
+    @DisplayName("Wrapped buffers, errors and invalid expressions")
+    void testWrapAndErrors() {
+        RowBatch batch = batch();
+        ByteBuffer copy = ByteBuffer.allocate(batch.size() * layout.getRowSize());
+        copy.put(batch.getBuffer().duplicate().limit(copy.capacity())).flip();
+        RowBatch wrapped = RowBatch.wrap(layout, copy);
+        assertEquals(4, wrapped.size());
+        assertEquals(3L, evaluator.compile("$id", layout).evaluate(wrapped, 2));
+
+        assertThrows(ArithmeticExpressionException.class,
+            () -> evaluator.compile("$amount / $quantity", layout).evaluate(batch, 1));
+        assertThrows(TypeCheckException.class, () -> evaluator.compile("$missing > 1", layout));
+        assertThrows(TypeCheckException.class, () -> evaluator.compile("$amount.foo > 1", layout));
+        assertThrows(TypeCheckException.class, () -> RowExpression.compile(
+            new VariableExpression("amount", "foo"), layout, name -> null));
+        assertThrows(IllegalArgumentException.class, () -> batch.setString(0, "country", "too long a value"));
+        assertThrows(IllegalArgumentException.class, () -> batch.setInt(0, "id", 1));
+        assertThrows(IllegalStateException.class, batch::addRow);
+        assertThrows(IllegalArgumentException.class,
+            () -> evaluator.compile("$id", new RowLayout().with("id", RowLayout.FieldType.LONG)).test(batch, 0));
+        assertThrows(IllegalArgumentException.class, () -> RowBatch.wrap(layout, ByteBuffer.allocate(7)));
+    }
+
+    @Test
+    @DisplayName("Layouts in use cannot change and corrupt string lengths are rejected")
+    void testFrozenLayoutAndCorruptStrings() {
+        RowBatch batch = batch();
+        assertThrows(IllegalStateException.class, () -> layout.with("extra", RowLayout.FieldType.INT));
+        RowLayout compiled = new RowLayout().with("id", RowLayout.FieldType.LONG);
+        evaluator.compile("$id > 1", compiled);
+        assertThrows(IllegalStateException.class, () -> compiled.withString("name", 4));
+
+        // A producer writing into the buffer directly stores a length above the capacity of 8
+        batch.getBuffer().putShort(layout.getRowSize() + layout.getOffset("country"), (short) 9);
+        for (String expression : List.of("$country", "$country == 'DE'", "$country in ('FR', 'DE')", "$country ?? 'none'")) {
+            RowExpression compiledExpression = evaluator.compile(expression, layout);
+            assertThrows(EvaluationException.class, () -> compiledExpression.evaluate(batch, 1), expression);
+        }
+        assertEquals("FR", evaluator.compile("$country", layout).evaluate(batch, 0));
+    }
+
+    @Test
+    @DisplayName("Fields of nested structures are read as properties")
+    void testNestedStructures() {
+        RowLayout address = new RowLayout().withString("city", 12).with("zip", RowLayout.FieldType.INT);
+        RowLayout customer = new RowLayout().withString("name", 16).with("address", address);
+        RowLayout nested = new RowLayout().with("id", RowLayout.FieldType.LONG).with("customer", customer)
+            .with("paid", RowLayout.FieldType.BOOLEAN);
+        assertEquals(List.of("id", "customer.name", "customer.address.city", "customer.address.zip", "paid"),
+            nested.getFieldNames());
+        assertEquals(8 + 18 + 14, nested.getOffset("customer.address.zip"));
+        assertEquals(8 + 18 + 14 + 4 + 1, nested.getRowSize());
+        assertThrows(IllegalStateException.class, () -> address.with("street", RowLayout.FieldType.INT));
+        assertThrows(IllegalArgumentException.class, () -> new RowLayout().with("a.b", RowLayout.FieldType.INT));
+        assertThrows(IllegalArgumentException.class,
+            () -> new RowLayout().with("id", RowLayout.FieldType.INT).with("id", new RowLayout()));
+
+        RowBatch batch = RowBatch.allocate(nested, 2);
+        batch.setLong(batch.addRow(), "id", 1).setString(0, "customer.name", "Zoë")
+            .setString(0, "customer.address.city", "Paris").setInt(0, "customer.address.zip", 75001)
+            .setBoolean(0, "paid", true);
+        batch.setLong(batch.addRow(), "id", 2).setString(1, "customer.name", null);
+        RowExpression condition = evaluator.compile(
+            "$customer.address.zip > 75000 && $customer?.name in ('Zoë', 'Bob') && $paid", nested);
+        assertTrue(condition.test(batch, 0));
+        assertFalse(condition.test(batch, 1));
+        assertEquals("PARIS", evaluator.compile("upperCase($customer.address.city)", nested).evaluate(batch, 0));
+        assertEquals("none", evaluator.compile("$customer.name ?? 'none'", nested).evaluate(batch, 1));
+
+        assertThrows(TypeCheckException.class, () -> evaluator.compile("$customer.age > 1", nested));
+        assertThrows(TypeCheckException.class, () -> evaluator.compile("$customer.address == null", nested));
+        assertThrows(TypeCheckException.class, () -> RowExpression.compile(
+            new VariableExpression("customer", "name.length"), nested, name -> null));
+    }
+}
@@ -0,0 +1,153 @@
+package com.expresso.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LiteralExpression;
+import com.expresso.context.Context;
+import com.expresso.parser.Parser;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Expression Codec")
+class ExpressionCodecTest {
+
+    private static final List<String> EXPRESSIONS = List.of(
+        "$a + 2 * -$b - 7 % 3 / 1.5",
+        "$order.items[0].price >= 10 && ($customer?.name ?? 'anonymous') != 'Bob' || !$flag",
+        "$age < 13 ? 'Child' : $age < 20 ? 'Teenager' : 'Adult'",
+        "upperCase(trim($name)) == 'ALICE' && isNull($missing) && coalesce($missing, 5) == 5",
+        "$country in ('FR', 'DE', null, 3) && $b not in (1, $a)",
+        "$b == 1 || $b == 2 || $b == 3 || $b == 4",
+        "'caf\\u00e9 ✓' + \"x\\ny\"");
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    private Context context() {
+        return new Context()
+            .with("a", 4)
+            .with("b", 2.5)
+            .with("flag", false)
+            .with("name", " alice ")
+            .with("missing", null)
+            .with("age", 15)
+            .with("country", "DE")
+            .with("order", Map.of("items", List.of(Map.of("price", 12))))
+            .with("customer", null);
+    }
+
+    @Test
+    @DisplayName("Decoded expressions evaluate like the original")
+    void testRoundTrip() throws IOException {
+        for (String source : EXPRESSIONS) {
+            Expression parsed = evaluator.parse(source);
+            byte[] encoded = ExpressionCodec.encode(parsed);
+            Expression decoded = ExpressionCodec.decode(encoded);
+            assertEquals(evaluator.evaluate(parsed, context()), evaluator.evaluate(decoded, context()), source);
+            assertArrayEquals(encoded, ExpressionCodec.encode(decoded), source);
+        }
+    }
+
+    @Test
+    @DisplayName("Streams hold consecutive expressions")
+    void testStreams() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String source : EXPRESSIONS) {
+            ExpressionCodec.write(evaluator.parse(source), out);
+        }
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        for (String source : EXPRESSIONS) {
+            Expression decoded = ExpressionCodec.read(in);
+            assertEquals(evaluator.evaluate(source, context()), evaluator.evaluate(decoded, context()), source);
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    @DisplayName("Buffers are decoded from their position")
+    void testBuffers() throws IOException {
+        byte[] first = ExpressionCodec.encode(evaluator.parse("$a + 1"));
+        byte[] second = ExpressionCodec.encode(evaluator.parse("$a * 2"));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(first.length + second.length);
+        buffer.put(first).put(second).flip();
+        assertEquals(5.0, evaluator.evaluate(ExpressionCodec.decode(buffer), context()));
+        assertEquals(first.length, buffer.position());
+        assertEquals(8.0, evaluator.evaluate(ExpressionCodec.decode(buffer), context()));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Literals keep their type and membership tests keep their literal elements")
+    void testLiterals() throws IOException {
+        for (Object value : Arrays.asList(null, true, Long.MIN_VALUE, -1, Integer.MAX_VALUE, -0.0, Double.NaN, "")) {
+            Expression decoded = ExpressionCodec.decode(ExpressionCodec.encode(new LiteralExpression(value)));
+            assertEquals(new LiteralExpression(value), decoded);
+        }
+        InExpression in = assertInstanceOf(InExpression.class,
+            ExpressionCodec.decode(ExpressionCodec.encode(evaluator.parse("$a in (1, 'x', $b)"))));
+        assertEquals(3, in.getElements().size());
+        assertThrows(IllegalArgumentException.class, () -> ExpressionCodec.encode(new LiteralExpression(BigDecimal.ONE)));
+    }
+
+    @Test
+    @DisplayName("Long chains and deep nesting are encoded without recursion")
+    void testLargeExpressions() throws IOException {
+        StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            nested.append("$a == ").append(i).append(" ? ").append(i).append(" : ");
+        }
+        nested.append("-1");
+        byte[] encoded = ExpressionCodec.encode(new Parser().parse(nested.toString()));
+        assertArrayEquals(encoded, ExpressionCodec.encode(ExpressionCodec.decode(encoded)));
+    }
+
+    @Test
+    @DisplayName("Invalid input is rejected")
+    void testValidation() throws IOException {
+        byte[] valid = ExpressionCodec.encode(evaluator.parse("upperCase($name) == 'A'"));
+
+        byte[] badMagic = valid.clone();
+        badMagic[0] = 'X';
+        assertThrows(StreamCorruptedException.class, () -> ExpressionCodec.decode(badMagic));
+
+        byte[] badVersion = valid.clone();
+        badVersion[4] = 99;
+        StreamCorruptedException version = assertThrows(StreamCorruptedException.class, () -> ExpressionCodec.decode(badVersion));
+        assertTrue(version.getMessage().contains("version 99"));
+
+        for (int length = 0; length < valid.length; length++) {
+            byte[] truncated = Arrays.copyOf(valid, length);
+            assertThrows(IOException.class, () -> ExpressionCodec.decode(truncated));
+        }
+        assertThrows(EOFException.class, () -> ExpressionCodec.decode(Arrays.copyOf(valid, 3)));
+
+        byte[] trailing = Arrays.copyOf(valid, valid.length + 1);
+        assertThrows(StreamCorruptedException.class, () -> ExpressionCodec.decode(trailing));
+
+        // A binary node with no operands on the stack
+        byte[] orphan = {0x45, 0x58, 0x50, 0x52, 1, 4, 0, 1, ExpressionCodec.BINARY, 0};
+        assertThrows(StreamCorruptedException.class, () -> ExpressionCodec.decode(orphan));
+
+        // Counts of -1, encoded as 10-byte variable-length numbers
+        byte[] negativeStrings = {0x45, 0x58, 0x50, 0x52, 1, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, 0};
+        assertThrows(StreamCorruptedException.class, () -> ExpressionCodec.decode(negativeStrings));
+        byte[] negativeLength = {0x45, 0x58, 0x50, 0x52, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, 0, 0};
+        assertThrows(StreamCorruptedException.class, () -> ExpressionCodec.decode(negativeLength));
+
+        // A variable-length number of more than 64 bits
+        byte[] overlong = {0x45, 0x58, 0x50, 0x52, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 0};
+        assertThrows(StreamCorruptedException.class, () -> ExpressionCodec.decode(overlong));
+    }
+}
@@ -0,0 +1,210 @@
+package com.expresso.compiler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.context.Context;
+import com.expresso.exception.ExpressionException;
+import com.expresso.exception.PropertyNotFoundException;
+import com.expresso.exception.TypeCheckException;
+import com.expresso.exception.TypeConversionException;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Root Type Compiler Tests")
+class RootTypeCompilerTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    @Test
+    @DisplayName("Compiled functions evaluate like parsed expressions")
+    void testSameResults() {
+        evaluator.registerFunction("discount", args -> ((Number) args[0]).doubleValue() * 0.9);
+        List<String> expressions = List.of(
+            "$total * $quantity + 1", "$total > 100 && $customer.name == 'Alice'", "-$total",
+            "$customer.address.city in ('Paris', 'Lyon')", "$country == 'FR' || $country == 'DE' || $country == 'IT'",
+            "$due < $customer.since", "$items[1]", "$items?[5] ?? 'none'", "$attributes.region",
+            "upperCase($customer.name)", "discount($total)", "$customer?.address?.city", "!$express ? 'slow' : 'fast'",
+            "isNull($customer.address.zip)", "coalesce($attributes.missing, $country)", "$quantity % 2 == 0");
+        List<Order> orders = List.of(
+            new Order(120.0, 3, "FR", true, new Customer("Alice", new Address("Paris"))),
+            new Order(80.5, 2, "US", false, new Customer("Bob", null)),
+            new Order(15, 1, "IT", null, null));
+        for (String text : expressions) {
+            Function<Order, Object> compiled = evaluator.compile(text, Order.class, Object.class);
+            for (Order order : orders) {
+                assertEquals(outcome(() -> evaluator.evaluate(text, order.toContext())),
+                    outcome(() -> compiled.apply(order)), text);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Getters are bound once for all compilations")
+    void testGettersBoundOnce() throws NoSuchMethodException {
+        Function<Order, Object> first = evaluator.compile("$customer.name", Order.class, Object.class);
+        Function<Order, Object> second = evaluator.compile("upperCase($customer.name)", Order.class, Object.class);
+        Order order = new Order(1, 1, "FR", true, new Customer("Alice", null));
+        assertEquals("Alice", first.apply(order));
+        assertEquals("ALICE", second.apply(order));
+
+        Method getter = Customer.class.getMethod("getName");
+        assertSame(RootTypeCompiler.boundGetter(getter), RootTypeCompiler.boundGetter(getter));
+    }
+
+    @Test
+    @DisplayName("Predicates, numeric functions and result types")
+    void testFunctionalInterfaces() {
+        Predicate<Order> large = evaluator.compilePredicate("$total * $quantity > 200", Order.class);
+        ToDoubleFunction<Order> amount = evaluator.compileToDouble("$total * $quantity", Order.class);
+        Function<Order, Integer> quantity = evaluator.compile("$quantity + 1", Order.class, Integer.class);
+        Function<Order, String> city = evaluator.compile("$customer?.address?.city", Order.class, String.class);
+
+        Order order = new Order(120.0, 3, "FR", true, new Customer("Alice", new Address("Paris")));
+        assertTrue(large.test(order));
+        assertEquals(360.0, amount.applyAsDouble(order));
+        assertEquals(4, quantity.apply(order));
+        assertEquals("Paris", city.apply(order));
+        assertNull(city.apply(new Order(1, 1, "FR", true, null)));
+
+        assertThrows(TypeConversionException.class,
+            () -> evaluator.compile("$country", Order.class, Double.class).apply(order));
+        assertThrows(TypeConversionException.class,
+            () -> evaluator.compileToDouble("$customer.name", Order.class).applyAsDouble(order));
+
+        // Compiled functions do not share state between threads
+        double total = IntStream.range(0, 10_000).parallel()
+            .mapToObj(i -> new Order(i, 2, "FR", true, null))
+            .filter(large)
+            .mapToDouble(amount)
+            .sum();
+        assertEquals(IntStream.range(101, 10_000).mapToDouble(i -> i * 2.0).sum(), total);
+    }
+
+    @Test
+    @DisplayName("Unknown properties, functions and type errors are rejected when compiling")
+    void testCompileErrors() {
+        TypeCheckException exception = assertThrows(TypeCheckException.class,
+            () -> evaluator.compile("$totl > 1 || $customer.nmae == 'x' || nope($total)", Order.class, Boolean.class));
+        assertEquals(List.of(
+            "Variable 'totl' not found",
+            "Property 'nmae' not found on '$customer'",
+            "Function 'nope' not found"), exception.getErrors());
+
+        exception = assertThrows(TypeCheckException.class,
+            () -> evaluator.compilePredicate("$due > $total", Order.class));
+        assertEquals(List.of("Cannot compare LocalDate and Number with '>'"), exception.getErrors());
+
+        PropertyNotFoundException missing = assertThrows(PropertyNotFoundException.class,
+            () -> evaluator.compilePredicate("$customer.name == 'x'", Order.class).test(new Order(1, 1, "FR", true, null)));
+        assertEquals("Cannot access property on null value", missing.getMessage());
+    }
+
+    private static Object outcome(java.util.function.Supplier<Object> evaluation) {
+        try {
+            return evaluation.get();
+        } catch (ExpressionException e) {
+            return e.getClass();
+        }
+    }
+
+    public static class Order {
+        private final double total;
+        private final int quantity;
+        private final String country;
+        private final Boolean express;
+        private final Customer customer;
+
+        Order(double total, int quantity, String country, Boolean express, Customer customer) {
+            this.total = total;
+            this.quantity = quantity;
+            this.country = country;
+            this.express = express;
+            this.customer = customer;
+        }
+
+        public double getTotal() {
+            return total;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public String getCountry() {
+            return country;
+        }
+
+        public Boolean getExpress() {
+            return express;
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        public LocalDate getDue() {
+            return LocalDate.of(2024, 1, 1).plusDays(quantity);
+        }
+
+        public List<String> getItems() {
+            return List.of("book", country);
+        }
+
+        public Map<String, Object> getAttributes() {
+            return Map.of("region", country.equals("US") ? "NA" : "EU");
+        }
+
+        Context toContext() {
+            return new Context().with("total", total).with("quantity", quantity).with("country", country)
+                .with("express", express).with("customer", customer).with("due", getDue())
+                .with("items", getItems()).with("attributes", getAttributes());
+        }
+    }
+
+    public static class Customer {
+        private final String name;
+        private final Address address;
+
+        Customer(String name, Address address) {
+            this.name = name;
+            this.address = address;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public LocalDate getSince() {
+            return LocalDate.of(2024, 1, 3);
+        }
+    }
+
+    public static class Address {
+        private final String city;
+
+        Address(String city) {
+            this.city = city;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public String getZip() {
+            return null;
+        }
+    }
+}
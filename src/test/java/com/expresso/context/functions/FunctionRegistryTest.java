@@ -0,0 +1,71 @@
+package com.expresso.context.functions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.context.Context;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Function Registry")
+class FunctionRegistryTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    @Test
+    @DisplayName("Built-in providers declare exactly the functions they register")
+    void testDeclaredNames() {
+        List<FunctionProvider> providers = List.of(new StringFunctions(), new MathFunctions(), new LogicFunctions(),
+            new ComparisonFunctions(), new DateFunctions(), new CollectionFunctions(), new UtilityFunctions());
+        for (FunctionProvider provider : providers) {
+            Map<String, ?> registered = new LazyFunctionProvider(provider).load();
+            assertEquals(registered.keySet(), provider.getFunctionNames(), provider.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    @DisplayName("Providers are loaded once, on first use")
+    void testLazyLoading() {
+        AtomicInteger loads = new AtomicInteger();
+        LazyFunctionProvider provider = new LazyFunctionProvider(context -> {
+            loads.incrementAndGet();
+            context.registerFunction("twice", args -> 2 * ((Number) args[0]).intValue());
+        });
+        assertFalse(provider.isLoaded());
+        assertEquals(0, loads.get());
+
+        assertEquals(6, provider.getFunction("twice").apply(new Object[] {3}));
+        assertNull(provider.getFunction("thrice"));
+        assertTrue(provider.isLoaded());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Contexts resolve built-in functions without registering them")
+    void testContextResolution() {
+        Context context = new Context().with("name", "ada");
+        assertSame(FunctionRegistry.getFunction("upperCase"), context.getFunction("upperCase"));
+        assertSame(new Context().getFunction("upperCase"), context.getFunction("upperCase"));
+        assertNull(context.getFunction("noSuchFunction"));
+
+        // Functions registered in the context take precedence
+        context.registerFunction("upperCase", args -> "shadowed");
+        assertEquals("shadowed", evaluator.evaluate("upperCase($name)", context));
+        assertEquals("ADA", evaluator.evaluate("upperCase($name)", new Context().with("name", "ada")));
+        assertTrue(FunctionRegistry.getLoadedProviderCount() >= 1);
+    }
+
+    @Test
+    @DisplayName("Providers are discovered with ServiceLoader")
+    void testServiceLoader() {
+        assertEquals("Hello, Ada", evaluator.evaluate("greet('Ada')", new Context()));
+
+        Context context = new Context();
+        FunctionRegistry.registerAllFunctions(context);
+        assertNotNull(context.getFunction("greet"));
+        assertNotNull(context.getFunction("formatDate"));
+    }
+}
@@ -0,0 +1,15 @@
+package com.expresso.context.functions;
+
+import com.expresso.context.Context;
+
+/**
+ * Provider discovered through {@code META-INF/services} in the test class path. It does not list its
+ * function names, so the registry loads it eagerly.
+ */
+public class GreetingFunctions implements FunctionProvider {
+
+    @Override
+    public void registerFunctions(Context context) {
+        context.registerFunction("greet", args -> "Hello, " + args[0]);
+    }
+}
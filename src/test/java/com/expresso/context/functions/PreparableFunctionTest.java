@@ -0,0 +1,67 @@
+package com.expresso.context.functions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Preparable Functions")
+class PreparableFunctionTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private final AtomicInteger preparations = new AtomicInteger();
+
+    PreparableFunctionTest() {
+        evaluator.registerFunction("repeat", PreparableFunction.preparingArgument(1, 2, count -> {
+            preparations.incrementAndGet();
+            return ((Number) count).intValue();
+        }, (args, count) -> ((String) args[0]).repeat(count)));
+    }
+
+    @Test
+    @DisplayName("Literal arguments are prepared once per call site")
+    void testLiteralArgument() {
+        Expression expression = evaluator.parse("repeat($s, 3)");
+        assertEquals("aaa", evaluator.evaluate(expression, new Context().with("s", "a")));
+        assertEquals("bbb", evaluator.evaluate(expression, new Context().with("s", "b")));
+        assertEquals(1, preparations.get());
+
+        // A missing argument takes the default and is prepared like a literal
+        assertEquals("xx", evaluator.evaluate("repeat('x')", new Context()));
+        assertEquals(2, preparations.get());
+    }
+
+    @Test
+    @DisplayName("Dynamic arguments go through a bounded cache")
+    void testDynamicArgument() {
+        Expression expression = evaluator.parse("repeat($s, $n)");
+        for (int i = 0; i < 10; i++) {
+            assertEquals("ab".repeat(i % 2 + 1), evaluator.evaluate(expression, new Context().with("s", "ab").with("n", i % 2 + 1)));
+        }
+        assertEquals(2, preparations.get());
+
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>("test", 4);
+        for (int i = 0; i < 10; i++) {
+            cache.get(i, key -> key * 2);
+        }
+        assertEquals(4, cache.size());
+        assertEquals(18, cache.get(9, key -> -1));
+    }
+
+    @Test
+    @DisplayName("Date functions prepare their formatters")
+    void testDateFunctions() {
+        Context context = new Context().with("date", LocalDate.of(2024, 1, 31)).with("pattern", "dd/MM/yyyy");
+        assertEquals("31/01/2024", evaluator.evaluate("formatDate($date, 'dd/MM/yyyy')", context));
+        assertEquals("31/01/2024", evaluator.evaluate("format($date, $pattern)", context));
+        assertEquals(LocalDate.of(2024, 1, 31), evaluator.evaluate("parseDate('2024-01-31')", context));
+        assertEquals(LocalDate.of(2024, 1, 31), evaluator.evaluate("parseDate('31/01/2024', $pattern)", context));
+        assertEquals(LocalDateTime.of(2024, 1, 31, 10, 15, 30), evaluator.evaluate("parseDateTime('2024-01-31T10:15:30')", context));
+    }
+}
@@ -111,17 +111,8 @@ class ConditionalExpressionTest {
         assertEquals("Alice", evaluator.evaluate("$name ?? 'Unknown'", context));
         assertEquals("Unknown", evaluator.evaluate("$nullValue ?? 'Unknown'", context));
         
-        // This test was failing because variable doesn't exist
-        // Let's try with a catch block instead
-        try {
-            // This might throw an exception because the variable doesn't exist
-            Object result = evaluator.evaluate("$nonExistent ?? 'Default'", context);
-            assertEquals("Default", result, "Null coalescing should return default for non-existent variable");
-        } catch (Exception e) {
-            // This is also acceptable behavior - if it throws PropertyNotFoundException
-            assertTrue(e instanceof com.expresso.exception.PropertyNotFoundException, 
-                "Exception should be PropertyNotFoundException");
-        }
+        // A missing variable takes the default as well
+        assertEquals("Default", evaluator.evaluate("$nonExistent ?? 'Default'", context));
         
         // Chained null coalescing
         assertEquals("Alice", evaluator.evaluate("$nullValue ?? $name ?? 'Unknown'", context));
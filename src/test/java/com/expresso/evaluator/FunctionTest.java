@@ -3,15 +3,27 @@ package com.expresso.evaluator;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.ConditionalExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.FunctionCallExpression;
+import com.expresso.ast.VariableExpression;
 import com.expresso.context.Context;
+import com.expresso.context.functions.PreparableFunction;
 import com.expresso.exception.EvaluationException;
+import com.expresso.exception.VariableNotFoundException;
 
 /**
  * Tests for function evaluation in the ExpressionEvaluator
@@ -194,6 +206,60 @@ class FunctionTest {
         assertEquals(30.0, evaluator.evaluate("calculate(2, 3, 6)", context));
     }
     
+    @Test
+    @DisplayName("Pattern functions")
+    void testPatternFunctions() {
+        Context context = new Context().with("code", "AB-123").with("pattern", "[A-Z]+-\\d+");
+
+        assertEquals(true, evaluator.evaluate("matches($code, '[A-Z]{2}-\\\\d{3}')", context));
+        assertEquals(false, evaluator.evaluate("matches($code, '\\\\d+')", context));
+        assertEquals(true, evaluator.evaluate("matches($code, $pattern)", context));
+        assertEquals(true, evaluator.evaluate("like($code, 'AB-*')", context));
+        assertEquals(true, evaluator.evaluate("like($code, '??-1?3')", context));
+        assertEquals(false, evaluator.evaluate("like($code, 'AB')", context));
+        assertEquals(true, evaluator.evaluate("like('a.b*', 'a.b\\\\*')", context));
+        assertEquals(false, evaluator.evaluate("like('a-b*', 'a.b\\\\*')", context));
+        assertEquals(false, evaluator.evaluate("like($missing, '*')", context.with("missing", null)));
+
+        assertEquals(List.of("a", "b", "", "c"), evaluator.evaluate("split('a, b, , c, , ', ', ')", context));
+        assertEquals(List.of("", "a"), evaluator.evaluate("split('::a', '::')", context));
+        assertEquals(List.of("a", "b", "c"), evaluator.evaluate("split('a1b22c', '\\\\d+')", context));
+        assertEquals(List.of("x"), evaluator.evaluate("split('x', $pattern)", context));
+
+        assertThrows(EvaluationException.class, () -> evaluator.evaluate("matches('a', '(')", context));
+    }
+
+    @Test
+    @DisplayName("Preparable functions are prepared once per call site")
+    void testPreparableFunctions() {
+        AtomicInteger preparations = new AtomicInteger();
+        evaluator.registerFunction("scale", new PreparableFunction() {
+            @Override
+            public Object apply(Object[] args) {
+                return ((Number) args[0]).doubleValue() * ((Number) args[1]).doubleValue();
+            }
+
+            @Override
+            public Function<Object[], Object> prepare(Object[] arguments, boolean[] constant) {
+                preparations.incrementAndGet();
+                if (!constant[1]) {
+                    return null;
+                }
+                double factor = ((Number) arguments[1]).doubleValue() * 10;
+                return args -> ((Number) args[0]).doubleValue() * factor;
+            }
+        });
+
+        Expression prepared = evaluator.parse("scale($x, 2)");
+        assertEquals(60.0, evaluator.evaluate(prepared, new Context().with("x", 3)));
+        assertEquals(80.0, evaluator.evaluate(prepared, new Context().with("x", 4)));
+        assertEquals(1, preparations.get());
+
+        // Without literal arguments there is nothing to prepare
+        assertEquals(6.0, evaluator.evaluate("scale($x, $y)", new Context().with("x", 3).with("y", 2)));
+        assertEquals(1, preparations.get());
+    }
+
     @Test
     @DisplayName("Nested function calls")
     void testNestedFunctions() {
@@ -237,4 +303,32 @@ class FunctionTest {
         assertEquals(0, evaluator.evaluate("safeLength(null)", context));
         assertEquals(5, evaluator.evaluate("safeLength('hello')", context));
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Null checks do not change the parsed expression")
+    void testSafeContextIsFixedAtParseTime() throws Exception {
+        Expression expression = evaluator.parse("isNull($x) ? coalesce($y, 0) : $x + 1");
+        ConditionalExpression conditional = assertInstanceOf(ConditionalExpression.class, expression);
+        FunctionCallExpression check = (FunctionCallExpression) conditional.getCondition();
+        assertTrue(((VariableExpression) check.getArguments().get(0)).isInSafeContext());
+        VariableExpression used = (VariableExpression) conditional.getFalseExpression().getChildren().get(0);
+        assertFalse(used.isInSafeContext());
+
+        // A shared expression gives the same results whichever thread evaluates it
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                int value = i;
+                results.add(executor.submit(() -> evaluator.evaluate(expression,
+                    value % 2 == 0 ? new Context().with("x", value) : new Context().with("y", value))));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i % 2 == 0 ? (Object) (i + 1.0) : (Object) i, results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThrows(VariableNotFoundException.class, () -> evaluator.evaluate(conditional.getFalseExpression(), new Context()));
+    }
+}
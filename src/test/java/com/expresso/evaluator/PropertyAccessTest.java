@@ -13,7 +13,9 @@ import org.junit.jupiter.api.Test;
 
 import com.expresso.ExpressionEvaluator;
 import com.expresso.context.Context;
+import com.expresso.exception.PropertyAccessException;
 import com.expresso.exception.PropertyNotFoundException;
+import com.expresso.exception.VariableNotFoundException;
 
 /**
  * Tests for property access expressions in the ExpressionEvaluator.
@@ -253,4 +255,35 @@ class PropertyAccessTest {
         assertEquals("Marketing", evaluator.evaluate("$dept1.name", context));
         assertEquals(30, evaluator.evaluate("$dept1.headcount", context));
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Missing values in null checks and defaults")
+    void testMissingValues() {
+        Context context = new Context().with("point", new Point(3));
+
+        // Null checks and defaults treat missing variables and properties as null
+        assertEquals("none", evaluator.evaluate("$missing ?? 'none'", context));
+        assertEquals("none", evaluator.evaluate("$point.z ?? 'none'", context));
+        assertEquals(3, evaluator.evaluate("$point.x ?? 0", context));
+        assertEquals(true, evaluator.evaluate("isNull($point.z)", context));
+        assertEquals(3, evaluator.evaluate("coalesce($missing.a, $point.z, $point.x)", context));
+
+        // Anywhere else they are still errors
+        PropertyAccessException missing = assertThrows(PropertyAccessException.class,
+            () -> evaluator.evaluate("$point.z + 1", context));
+        assertTrue(missing.getMessage().contains("'z'"));
+        assertThrows(VariableNotFoundException.class, () -> evaluator.evaluate("$missing + 1", context));
+    }
+
+    public static class Point {
+        private final int x;
+
+        public Point(int x) {
+            this.x = x;
+        }
+
+        public int getX() {
+            return x;
+        }
+    }
+}
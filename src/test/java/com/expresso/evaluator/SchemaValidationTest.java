@@ -0,0 +1,134 @@
+package com.expresso.evaluator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.context.functions.FunctionMetadata;
+import com.expresso.validation.ContextSchema;
+import com.expresso.validation.ExpressionError;
+import com.expresso.validation.ValidationResult;
+
+@DisplayName("Schema Validation Tests")
+public class SchemaValidationTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    private final ContextSchema schema = new ContextSchema()
+        .with("amount", Double.class)
+        .with("customer", Customer.class)
+        .with("user", new ContextSchema()
+            .with("name", String.class)
+            .with("tags", ContextSchema.listOf(String.class)))
+        .with("attributes", Map.class);
+
+    @Test
+    @DisplayName("Valid expressions")
+    void testValidExpressions() {
+        assertTrue(evaluator.validateWithSchema("$amount > 100", schema).isValid());
+        assertTrue(evaluator.validateWithSchema("upperCase($user.name) == 'ALICE'", schema).isValid());
+        assertTrue(evaluator.validateWithSchema("$user.tags[0] == 'vip' && $user?.tags?[1] != null", schema).isValid());
+        assertTrue(evaluator.validateWithSchema("$customer.address.city == 'Paris'", schema).isValid());
+        assertTrue(evaluator.validateWithSchema("size($customer.orders) > 0 && $customer.orders[0].total > 10", schema).isValid());
+        assertTrue(evaluator.validateWithSchema("$attributes.anything.goes", schema).isValid());
+        assertTrue(evaluator.validateWithSchema("round($amount, 2) > substring('abc', 1)", schema).isValid());
+    }
+
+    @Test
+    @DisplayName("Undeclared variables and properties")
+    void testUndeclaredReferences() {
+        ValidationResult result = evaluator.validateWithSchema("$salary > 10 && $user.lastName == 'x'", schema);
+        assertFalse(result.isValid());
+        assertEquals(2, result.getErrors().size());
+
+        ExpressionError variable = result.getErrors().get(0);
+        assertEquals("VariableNotFoundError", variable.getErrorType());
+        assertEquals("$salary", variable.getLocation().getErrorSnippet());
+
+        ExpressionError property = result.getErrors().get(1);
+        assertEquals("PropertyNotFoundError", property.getErrorType());
+        assertTrue(property.getMessage().contains("lastName"));
+        assertEquals("$user.lastName", property.getLocation().getErrorSnippet());
+
+        // Errors deeper in a path name the part of the path that resolved
+        assertEquals("Property 'zip' not found on '$customer.address'",
+            evaluator.validateWithSchema("$customer.address.zip", schema).getFirstError().getMessage());
+        assertEquals("Property 'count' not found on '$customer.orders[0]'",
+            evaluator.validateWithSchema("$customer.orders[0].count > 1", schema).getFirstError().getMessage());
+        assertEquals("Property 'vip' not found on '$user'",
+            evaluator.validateWithSchema("$user.vip", schema).getFirstError().getMessage());
+
+        // Null-safe access does not hide a property that cannot exist
+        assertFalse(evaluator.validateWithSchema("$customer?.adress?.city", schema).isValid());
+        assertFalse(evaluator.validateWithSchema("$amount.value", schema).isValid());
+        assertFalse(evaluator.validateWithSchema("$user.name[0]", schema).isValid());
+
+        // References that may be missing are not checked
+        assertTrue(evaluator.validateWithSchema("$discount ?? 0", schema).isValid());
+        assertTrue(evaluator.validateWithSchema("isNull($user.nickname) || coalesce($promo, 'none') == 'x'", schema).isValid());
+    }
+
+    @Test
+    @DisplayName("Unknown functions and argument counts")
+    void testFunctions() {
+        ValidationResult unknown = evaluator.validateWithSchema("discount($amount)", schema);
+        assertEquals("UnknownFunctionError", unknown.getFirstError().getErrorType());
+        assertEquals("discount(", unknown.getFirstError().getLocation().getErrorSnippet());
+
+        ValidationResult arity = evaluator.validateWithSchema("upperCase($user.name, 1) || round()", schema);
+        assertEquals(2, arity.getErrors().size());
+        assertEquals("ArgumentCountError", arity.getFirstError().getErrorType());
+        assertEquals("Function 'upperCase' expects 1 argument but got 2", arity.getFirstError().getMessage());
+        assertEquals("Function 'round' expects 1 to 2 arguments but got 0", arity.getErrors().get(1).getMessage());
+
+        // Custom functions are known, and their arity is checked when declared
+        evaluator.registerFunction("discount", args -> args[0], FunctionMetadata.pure(5).withArity(1));
+        assertTrue(evaluator.validateWithSchema("discount($amount)", schema).isValid());
+        assertFalse(evaluator.validateWithSchema("discount($amount, 2)", schema).isValid());
+
+        // Functions registered on contexts are declared in the schema
+        schema.withFunction("lookup", FunctionMetadata.UNKNOWN);
+        assertTrue(evaluator.validateWithSchema("lookup('a', 'b', 'c')", schema).isValid());
+    }
+
+    @Test
+    @DisplayName("Validation does not evaluate")
+    void testNothingIsEvaluated() {
+        AtomicInteger calls = new AtomicInteger();
+        evaluator.registerFunction("audit", args -> calls.incrementAndGet());
+
+        assertTrue(evaluator.validateWithSchema("audit($amount) > 0", schema).isValid());
+        assertEquals(0, calls.get());
+
+        ValidationResult syntax = evaluator.validateWithSchema("$amount >", schema);
+        assertEquals("SyntaxError", syntax.getFirstError().getErrorType());
+    }
+
+    public static class Customer {
+        public Address getAddress() {
+            return null;
+        }
+
+        public List<Order> getOrders() {
+            return List.of();
+        }
+    }
+
+    public static class Address {
+        public String getCity() {
+            return null;
+        }
+    }
+
+    public static class Order {
+        public double getTotal() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.expresso.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.exception.TypeConversionException;
+import com.expresso.validation.ContextSchema;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("CSV File Tests")
+class CsvFileTest {
+
+    @TempDir
+    Path directory;
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    private final ContextSchema schema = new ContextSchema()
+        .with("id", Long.class)
+        .with("amount", Double.class)
+        .with("paid", Boolean.class)
+        .with("due", LocalDate.class);
+
+    @Test
+    @DisplayName("Rows are filtered on the columns the expression uses")
+    void testFilter() throws IOException {
+        Path file = write("id,name,amount,country,paid,due\r\n"
+            + "1,\"Smith, John\",120.5,FR,true,2024-01-31\r\n"
+            + "2,\"The \"\"Best\"\" Shop\",80,DE,false,2024-02-15\r\n"
+            + "\r\n"
+            + "3,Zoë,300,FR,TRUE,\r\n"
+            + "4,Short,50\n"
+            + "5,Last,1000,FR,false,2024-03-01");
+
+        for (long chunkSize : new long[] {1, 40, CsvFile.DEFAULT_CHUNK_SIZE}) {
+            try (CsvFile csv = CsvFile.open(file, schema, chunkSize)) {
+                assertEquals(List.of("id", "name", "amount", "country", "paid", "due"), csv.getColumns());
+                assertEquals(3, count(csv, "$country == 'FR' && $amount > 100"));
+                assertEquals(2, count(csv, "$paid"));
+                assertEquals(1, count(csv, "$name == 'The \"Best\" Shop' && $due != null"));
+                assertEquals(1, count(csv, "$name == 'Zoë' && $due == null"));
+                assertEquals(1, count(csv, "$country == null && $id == 4"));
+            }
+        }
+
+        try (CsvFile csv = CsvFile.open(file, schema, 40)) {
+            assertTrue(csv.getChunkCount() > 1);
+            List<String> matches = Collections.synchronizedList(new ArrayList<>());
+            csv.forEach(evaluator, evaluator.compile("$amount >= 120.5", schema),
+                row -> matches.add(row.get("id") + "|" + row.get(1) + "|" + row.get("due") + "|" + row.getLine()));
+            Collections.sort(matches);
+            assertEquals(List.of(
+                "1|Smith, John|2024-01-31|1,\"Smith, John\",120.5,FR,true,2024-01-31",
+                "3|Zoë||3,Zoë,300,FR,TRUE,",
+                "5|Last|2024-03-01|5,Last,1000,FR,false,2024-03-01"), matches);
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid values and fields are reported")
+    void testErrors() throws IOException {
+        try (CsvFile csv = CsvFile.open(write("id,amount\n1,12\n2,abc\n"), schema)) {
+            assertEquals(1, count(csv, "$id == 1"));
+            TypeConversionException exception = assertThrows(TypeConversionException.class, () -> count(csv, "$amount > 1"));
+            assertTrue(exception.getMessage().contains("amount"));
+        }
+        try (CsvFile csv = CsvFile.open(write("id,name\n1,\"unterminated\n"))) {
+            assertThrows(UncheckedIOException.class, () -> count(csv, "$name != null"));
+        }
+        try (CsvFile csv = CsvFile.open(write("id,name\n1,\"two\nlines\"\n2,x\n"))) {
+            UncheckedIOException exception = assertThrows(UncheckedIOException.class, () -> count(csv, "$id != null"));
+            assertInstanceOf(StreamCorruptedException.class, exception.getCause());
+        }
+        assertThrows(IOException.class, () -> CsvFile.open(write("")));
+    }
+
+    private long count(CsvFile csv, String filter) {
+        return csv.count(evaluator, evaluator.compile(filter, schema));
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile(directory, "rows", ".csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
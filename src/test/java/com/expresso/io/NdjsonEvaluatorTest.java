@@ -0,0 +1,68 @@
+package com.expresso.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.exception.VariableNotFoundException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("NDJSON Evaluator Tests")
+class NdjsonEvaluatorTest {
+
+    private static final String RECORDS = String.join("\n",
+        "{\"id\": 1, \"country\": \"FR\", \"order\": {\"total\": 120.5, \"lines\": [{\"sku\": \"a\"}]}, \"tags\": [\"vip\", \"new\"]}",
+        "{\"id\": 2, \"note\": \"skipped \\\"}]{\", \"country\": \"DE\", \"order\": {\"total\": 80}, \"tags\": []}",
+        "",
+        "{\"id\": 3, \"order\": {\"total\": 300, \"extra\": {\"a\": [1, {\"b\": null}]}}, \"country\": \"FR\", \"tags\": [\"new\"]}\r",
+        "{\"id\": 4, \"country\": \"FR\", \"order\": null, \"tags\": null}");
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    @Test
+    @DisplayName("Matching records are copied unchanged")
+    void testFilter() throws IOException {
+        NdjsonEvaluator filter = new NdjsonEvaluator(evaluator, "$country == 'FR' && $order?.total > 100");
+        StringWriter out = new StringWriter();
+        assertEquals(2, filter.filter(new StringReader(RECORDS), out));
+        String[] lines = RECORDS.split("\n");
+        assertEquals(lines[0] + "\n" + lines[3].replace("\r", "") + "\n", out.toString());
+    }
+
+    @Test
+    @DisplayName("Results are written as JSON values")
+    void testEvaluate() throws IOException {
+        assertEquals("241.0\n160.0\n600.0\n0.0\n",
+            evaluate("($order?.total ?? 0) * 2", RECORDS));
+        assertEquals("[\"vip\",\"new\"]\n[]\n[\"new\"]\nnull\n", evaluate("$tags", RECORDS));
+        assertEquals("\"vip\"\nnull\nnull\nnull\n", evaluate("$tags?[0] == 'vip' ? $tags[0] : null", RECORDS));
+        assertEquals("{\"sku\":\"a\"}\n", evaluate("$order.lines[0]", RECORDS.split("\n")[0]));
+        assertEquals("\"a\\\"b\\nc\"\n", evaluate("$name", "{\"name\": \"a\\\"b\\nc\"}"));
+        assertEquals("\"none\"\n", evaluate("$missing ?? 'none'", "{\"id\": 1}"));
+
+        // Evaluation errors are thrown as with a context
+        assertThrows(VariableNotFoundException.class, () -> evaluate("$missing", "{\"id\": 1}"));
+    }
+
+    @Test
+    @DisplayName("Malformed records report their position")
+    void testMalformedRecords() {
+        StreamCorruptedException exception = assertThrows(StreamCorruptedException.class,
+            () -> evaluate("$id", "{\"id\": 1}\n{\"id\": 2,}"));
+        assertEquals("Expected a field name on line 2 at column 10", exception.getMessage());
+
+        assertThrows(StreamCorruptedException.class, () -> evaluate("$id", "[1, 2]"));
+        assertThrows(StreamCorruptedException.class, () -> evaluate("$id", "{\"id\": 1, \"x\": [1, 2}"));
+        assertThrows(StreamCorruptedException.class, () -> evaluate("$id", "{\"id\": 1} 2"));
+    }
+
+    private String evaluate(String expression, String records) throws IOException {
+        StringWriter out = new StringWriter();
+        new NdjsonEvaluator(evaluator, expression).evaluate(new StringReader(records), out);
+        return out.toString();
+    }
+}
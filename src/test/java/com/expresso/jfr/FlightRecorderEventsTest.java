@@ -0,0 +1,79 @@
+package com.expresso.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Flight Recorder Events")
+class FlightRecorderEventsTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    private List<RecordedEvent> record(Duration threshold, Runnable work) throws Exception {
+        Path file = Files.createTempFile("expresso", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.expresso.ExpressionParse").withThreshold(threshold);
+            recording.enable("com.expresso.ExpressionEvaluate").withThreshold(threshold);
+            recording.enable("com.expresso.FunctionCall").withThreshold(threshold);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.expresso."))
+                .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Records parse, evaluate and function call events")
+    void testEvents() throws Exception {
+        Context context = new Context().with("name", "alice");
+        Expression[] parsed = new Expression[1];
+        List<RecordedEvent> events = record(Duration.ZERO, () -> {
+            parsed[0] = evaluator.parse("upperCase($name)");
+            evaluator.evaluate(parsed[0], context);
+        });
+
+        RecordedEvent parse = find(events, "com.expresso.ExpressionParse");
+        assertEquals("upperCase($name)", parse.getString("expression"));
+        assertEquals(16, parse.getInt("length"));
+
+        RecordedEvent evaluate = find(events, "com.expresso.ExpressionEvaluate");
+        assertEquals(parse.getString("expressionId"), evaluate.getString("expressionId"));
+        assertEquals("java.lang.String", evaluate.getString("resultType"));
+        assertFalse(evaluate.getBoolean("failed"));
+
+        RecordedEvent call = find(events, "com.expresso.FunctionCall");
+        assertEquals("upperCase", call.getString("functionName"));
+    }
+
+    @Test
+    @DisplayName("Fast calls stay below the thresholds")
+    void testThresholds() throws Exception {
+        Context context = new Context();
+        List<RecordedEvent> events = record(Duration.ofSeconds(10), () -> evaluator.evaluate("lowerCase('A')", context));
+        assertTrue(events.isEmpty());
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No " + name + " event recorded"));
+    }
+}
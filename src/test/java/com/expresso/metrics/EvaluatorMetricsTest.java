@@ -0,0 +1,126 @@
+package com.expresso.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.context.Context;
+import com.expresso.exception.ArithmeticExpressionException;
+import com.expresso.exception.SyntaxException;
+import com.expresso.exception.TypeCheckException;
+import com.expresso.validation.ContextSchema;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Evaluator Metrics")
+class EvaluatorMetricsTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private final EvaluatorMetrics metrics = new EvaluatorMetrics();
+
+    EvaluatorMetricsTest() {
+        evaluator.setEvaluationListener(metrics);
+    }
+
+    @Test
+    @DisplayName("Counts parses, evaluations and function calls")
+    void testCounters() {
+        Context context = new Context().with("name", "alice");
+        evaluator.evaluate("upperCase($name)", context);
+        evaluator.evaluate("upperCase(trim($name))", context);
+
+        assertEquals(2, metrics.getParseCount());
+        assertEquals(2, metrics.getEvaluationCount());
+        assertEquals(0, metrics.getFailedEvaluationCount());
+        assertEquals(3, metrics.getFunctionCallCount());
+        assertEquals(Map.of("trim", 1L, "upperCase", 2L), metrics.getFunctionCallCounts());
+        assertTrue(metrics.getFunctionCallTimeNanos().get("upperCase") >= 0);
+    }
+
+    @Test
+    @DisplayName("Counts exceptions by type")
+    void testExceptions() {
+        Context context = new Context();
+        assertThrows(ArithmeticExpressionException.class, () -> evaluator.evaluate("1 / 0", context));
+        assertThrows(SyntaxException.class, () -> evaluator.evaluate("(1 + 2", context));
+        assertThrows(RuntimeException.class, () -> evaluator.evaluate("upperCase(1)", context));
+
+        assertEquals(2, metrics.getFailedEvaluationCount());
+        assertEquals(1, metrics.getFunctionFailureCounts().get("upperCase"));
+        assertEquals(
+            Map.of("ArithmeticExpressionException", 1L, "FunctionExecutionException", 1L, "SyntaxException", 1L),
+            metrics.getExceptionCounts());
+
+        metrics.reset();
+        assertEquals(0, metrics.getEvaluationCount());
+        assertTrue(metrics.getExceptionCounts().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Nothing is reported without a listener")
+    void testNoListener() {
+        evaluator.setEvaluationListener(null);
+        Context context = new Context();
+        evaluator.evaluate("upperCase('x')", context);
+        assertEquals(0, metrics.getEvaluationCount());
+    }
+
+    @Test
+    @DisplayName("The listener is only installed while evaluating")
+    void testScope() {
+        AtomicReference<EvaluationListener> during = new AtomicReference<>();
+        evaluator.registerFunction("listener", args -> {
+            during.set(EvaluationScope.current());
+            return null;
+        });
+        evaluator.evaluate("listener()", new Context());
+        assertSame(metrics, during.get());
+        assertNull(EvaluationScope.current());
+    }
+
+    @Test
+    @DisplayName("Counts hits and misses of the pattern caches")
+    void testCaches() {
+        Context context = new Context().with("pattern", "a.*").with("name", "alice");
+        evaluator.evaluate("matches($name, $pattern)", context);
+        evaluator.evaluate("matches($name, $pattern)", context);
+
+        assertEquals(1, metrics.getCacheMissCounts().get("regex"));
+        assertEquals(1, metrics.getCacheHitCounts().get("regex"));
+    }
+
+    @Test
+    @DisplayName("Parse failures found while optimizing are reported")
+    void testOptimizationFailure() {
+        ContextSchema schema = new ContextSchema().with("name", String.class);
+        assertThrows(TypeCheckException.class, () -> evaluator.compile("$name * 2", schema));
+        assertEquals(Map.of("TypeCheckException", 1L), metrics.getExceptionCounts());
+        assertEquals(0, metrics.getParseCount());
+    }
+
+    @Test
+    @DisplayName("Metrics are exposed over JMX")
+    void testMBean() throws Exception {
+        ObjectName name = metrics.registerMBean("metrics-test");
+        try {
+            evaluator.evaluate("lowerCase('A')", new Context());
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "EvaluationCount"));
+            TabularData calls = (TabularData) server.getAttribute(name, "FunctionCallCounts");
+            CompositeData row = calls.get(new Object[] {"lowerCase"});
+            assertEquals(1L, row.get("value"));
+
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "EvaluationCount"));
+        } finally {
+            EvaluatorMetrics.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.expresso.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.ast.FunctionCallExpression;
+import com.expresso.context.Context;
+import com.expresso.context.functions.FunctionMetadata;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Adaptive Logical Reordering")
+class AdaptiveReorderingTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private final AtomicInteger alwaysTrueCalls = new AtomicInteger();
+    private final AtomicInteger alwaysFalseCalls = new AtomicInteger();
+
+    AdaptiveReorderingTest() {
+        evaluator.registerFunction("alwaysTrue", args -> {
+            alwaysTrueCalls.incrementAndGet();
+            return true;
+        }, FunctionMetadata.pure(5));
+        evaluator.registerFunction("alwaysFalse", args -> {
+            alwaysFalseCalls.incrementAndGet();
+            return false;
+        }, FunctionMetadata.pure(5));
+    }
+
+    private Expression parseAdaptive(String expression) {
+        AdaptiveReorderingRewriter rewriter = new AdaptiveReorderingRewriter(evaluator.getCostModel(), 1, 20);
+        return rewriter.rewrite(evaluator.parse(expression));
+    }
+
+    @Test
+    @DisplayName("The most selective operand moves first")
+    void testSelectiveOperandMovesFirst() {
+        Expression parsed = parseAdaptive("alwaysTrue($a) && alwaysFalse($b)");
+        AdaptiveLogicalExpression adaptive = assertInstanceOf(AdaptiveLogicalExpression.class, parsed);
+        Context context = new Context().with("a", 1).with("b", 2);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(false, evaluator.evaluate(parsed, context));
+        }
+        FunctionCallExpression first = (FunctionCallExpression) adaptive.getOrderedOperands().get(0);
+        assertEquals("alwaysFalse", first.getName());
+
+        // Every evaluation is sampled here, so both operands keep being measured
+        alwaysTrueCalls.set(0);
+        evaluator.evaluate(parsed, context);
+        assertEquals(1, alwaysTrueCalls.get());
+    }
+
+    @Test
+    @DisplayName("OR chains prefer operands that are often true")
+    void testOrChain() {
+        Expression parsed = parseAdaptive("alwaysFalse($a) || alwaysTrue($b) || alwaysFalse($c)");
+        AdaptiveLogicalExpression adaptive = assertInstanceOf(AdaptiveLogicalExpression.class, parsed);
+        Context context = new Context().with("a", 1).with("b", 2).with("c", 3);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(true, evaluator.evaluate(parsed, context));
+        }
+        FunctionCallExpression first = (FunctionCallExpression) adaptive.getOrderedOperands().get(0);
+        assertEquals("alwaysTrue", first.getName());
+    }
+
+    @Test
+    @DisplayName("Constrained chains are left alone")
+    void testConstrainedChain() {
+        Expression parsed = parseAdaptive("$user != null && $user.active");
+        assertFalse(parsed instanceof AdaptiveLogicalExpression);
+        assertEquals(false, evaluator.evaluate(parsed, new Context().with("user", null)));
+    }
+
+    @Test
+    @DisplayName("Errors from statistics-only evaluations are ignored")
+    void testSampledErrorsIgnored() {
+        evaluator.registerFunction("fails", args -> {
+            throw new IllegalStateException("boom");
+        }, FunctionMetadata.pure(1));
+        Expression parsed = parseAdaptive("alwaysFalse($a) && fails($b)");
+        Context context = new Context().with("a", 1).with("b", 2);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(false, evaluator.evaluate(parsed, context));
+        }
+    }
+
+    @Test
+    @DisplayName("Evaluator option installs adaptive chains")
+    void testEvaluatorOption() {
+        evaluator.setAdaptiveReorderingEnabled(true);
+        Expression parsed = evaluator.parse("alwaysTrue($a) && alwaysFalse($b)");
+        assertInstanceOf(AdaptiveLogicalExpression.class, parsed);
+        assertEquals(false, evaluator.evaluate(parsed, new Context().with("a", 1).with("b", 2)));
+    }
+}
@@ -0,0 +1,97 @@
+package com.expresso.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.analysis.ExpressionAnalyzer;
+import com.expresso.analysis.HeapReport;
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.ast.VariableExpression;
+import com.expresso.context.Context;
+import com.expresso.exception.VariableNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Expression Interning")
+class ExpressionInternerTest {
+
+    private final ExpressionInterner interner = new ExpressionInterner();
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    ExpressionInternerTest() {
+        evaluator.setInterner(interner);
+    }
+
+    private List<String> rules(int count) {
+        List<String> rules = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rules.add("$order.amount > " + (i % 20) * 10 + " && $customer.country in ('FR', 'DE', 'IT')"
+                + " && upperCase($customer.tier) == '" + (i % 3 == 0 ? "GOLD" : "SILVER") + "'");
+        }
+        return rules;
+    }
+
+    @Test
+    @DisplayName("Identical subtrees are shared between expressions")
+    void testSharing() {
+        LogicalExpression first = assertInstanceOf(LogicalExpression.class, evaluator.parse("$a.b > 1 && $c == 'x'"));
+        LogicalExpression second = assertInstanceOf(LogicalExpression.class, evaluator.parse("$c == 'x' || $a.b > 1"));
+        assertSame(first.getOperands().get(0), second.getOperands().get(1));
+        assertSame(first.getOperands().get(1), second.getOperands().get(0));
+        assertSame(first, evaluator.parse("$a.b > 1 && $c == 'x'"));
+
+        BinaryExpression compare = (BinaryExpression) evaluator.parse("$a.b < 1");
+        VariableExpression variable = (VariableExpression) compare.getLeft();
+        VariableExpression other = (VariableExpression) evaluator.parse("$a.b");
+        assertSame(variable, other);
+        assertNotSame(compare, evaluator.parse("$a.b > 1"));
+        assertNotSame(evaluator.parse("1"), evaluator.parse("1.0"));
+    }
+
+    @Test
+    @DisplayName("Interned expressions evaluate like the original")
+    void testEvaluation() {
+        ExpressionEvaluator plain = new ExpressionEvaluator();
+        Context context = new Context()
+            .with("order", java.util.Map.of("amount", 75))
+            .with("customer", java.util.Map.of("country", "DE", "tier", "gold"));
+        for (String rule : rules(60)) {
+            assertEquals(plain.evaluate(plain.parse(rule), context), evaluator.evaluate(evaluator.parse(rule), context), rule);
+        }
+    }
+
+    @Test
+    @DisplayName("Variables checked by isNull are not shared with other uses")
+    void testSafeContext() {
+        Expression check = evaluator.parse("isNull($missing)");
+        Expression use = evaluator.parse("$missing + 1");
+        assertEquals(true, evaluator.evaluate(check, new Context()));
+        assertThrows(VariableNotFoundException.class, () -> evaluator.evaluate(use, new Context()));
+        assertSame(check, evaluator.parse("isNull($missing)"));
+    }
+
+    @Test
+    @DisplayName("The heap report counts shared nodes once")
+    void testHeapReport() {
+        ExpressionEvaluator plain = new ExpressionEvaluator();
+        List<Expression> separate = new ArrayList<>();
+        List<Expression> interned = new ArrayList<>();
+        for (String rule : rules(1000)) {
+            separate.add(plain.parse(rule));
+            interned.add(evaluator.parse(rule));
+        }
+        ExpressionAnalyzer analyzer = new ExpressionAnalyzer();
+        HeapReport before = analyzer.analyzeHeap(separate);
+        HeapReport after = analyzer.analyzeHeap(interned);
+
+        assertEquals(1000, before.expressionCount());
+        assertEquals(before.nodeCount(), after.nodeCount());
+        assertTrue(after.distinctNodeCount() < before.distinctNodeCount() / 10, after.toString());
+        assertTrue(after.distinctStringCount() < 20, after.toString());
+        assertTrue(after.retainedBytes() * 10 < before.retainedBytes(), before + " / " + after);
+    }
+}
@@ -0,0 +1,95 @@
+package com.expresso.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.ast.InExpression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.context.Context;
+import com.expresso.exception.SyntaxException;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Membership Tests")
+class MembershipTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    @Test
+    @DisplayName("in and not in test literal lists")
+    void testInOperator() {
+        Context context = new Context().with("country", "DE").with("count", 2);
+        assertEquals(true, evaluator.evaluate("$country in ('FR', 'DE', 'IT')", context));
+        assertEquals(false, evaluator.evaluate("$country in ('FR', 'IT')", context));
+        assertEquals(false, evaluator.evaluate("$country not in ('FR', 'DE')", context));
+        assertEquals(true, evaluator.evaluate("$country not in ()", context));
+        assertEquals(true, evaluator.evaluate("$count + 1 in (3, 4) && $country in ('DE')", context));
+        assertEquals(true, evaluator.evaluate("!($count in (1, 3))", context));
+    }
+
+    @Test
+    @DisplayName("Membership follows the equality rules of ==")
+    void testEqualitySemantics() {
+        Context context = new Context()
+            .with("integer", 2)
+            .with("decimal", new BigDecimal("2.0"))
+            .with("missing", null)
+            .with("other", "x");
+        assertEquals(true, evaluator.evaluate("$integer in (1.0, 2.0)", context));
+        assertEquals(true, evaluator.evaluate("$decimal in (1, 2)", context));
+        assertEquals(false, evaluator.evaluate("$integer in ('2')", context));
+        assertEquals(true, evaluator.evaluate("$missing in (1, null)", context));
+        assertEquals(false, evaluator.evaluate("$missing in (1, 2)", context));
+        assertEquals(true, evaluator.evaluate("$integer in (1, $integer * 1)", context));
+        assertEquals(true, evaluator.evaluate("$other in (1, upperCase('y'), lowerCase('X'))", context));
+    }
+
+    @Test
+    @DisplayName("Malformed lists are syntax errors")
+    void testSyntaxErrors() {
+        assertThrows(SyntaxException.class, () -> evaluator.parse("$a in 'FR'"));
+        assertThrows(SyntaxException.class, () -> evaluator.parse("$a in ('FR' 'DE')"));
+        assertThrows(SyntaxException.class, () -> evaluator.parse("$a not in ('FR'"));
+    }
+
+    @Test
+    @DisplayName("Equality chains are rewritten into membership tests")
+    void testRewriteChains() {
+        Expression or = evaluator.parse("$c == 'FR' || 'DE' == $c || $c == 'IT' || $c == 1");
+        InExpression in = assertInstanceOf(InExpression.class, or);
+        assertFalse(in.isNegated());
+        assertEquals(4, in.getElements().size());
+        assertEquals(1, in.getChildren().size());
+
+        InExpression notIn = assertInstanceOf(InExpression.class, evaluator.parse("$c != 1 && $c != 2 && $c != 3"));
+        assertTrue(notIn.isNegated());
+
+        Context context = new Context().with("c", 1.0).with("d", 5);
+        assertEquals(true, evaluator.evaluate("$c == 'FR' || 'DE' == $c || $c == 'IT' || $c == 1", context));
+        assertEquals(false, evaluator.evaluate("$c != 1 && $c != 2 && $c != 3", context));
+    }
+
+    @Test
+    @DisplayName("Only adjacent comparisons of the same variable are merged")
+    void testPartialRewrite() {
+        Expression parsed = evaluator.parse("$d > 3 || $c == 1 || $c == 2 || $c == 3 || $d == 4 || $c == 5");
+        LogicalExpression chain = assertInstanceOf(LogicalExpression.class, parsed);
+        assertEquals(4, chain.getOperands().size());
+        assertInstanceOf(InExpression.class, chain.getOperands().get(1));
+
+        Expression shortRun = evaluator.parse("$c == 1 || $c == 2");
+        assertInstanceOf(LogicalExpression.class, shortRun);
+        Expression mixed = evaluator.parse("$c == 1 || $c.x == 2 || $c == 3");
+        assertEquals(3, assertInstanceOf(LogicalExpression.class, mixed).getOperands().size());
+    }
+
+    @Test
+    @DisplayName("The rewrite can be disabled")
+    void testRewriteDisabled() {
+        ExpressionEvaluator plain = new ExpressionEvaluator();
+        plain.setMembershipRewritingEnabled(false);
+        assertInstanceOf(LogicalExpression.class, plain.parse("$c == 1 || $c == 2 || $c == 3"));
+    }
+}
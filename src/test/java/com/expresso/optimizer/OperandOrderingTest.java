@@ -0,0 +1,128 @@
+package com.expresso.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.analysis.CostModel;
+import com.expresso.ast.Expression;
+import com.expresso.context.functions.FunctionMetadata;
+import com.expresso.parser.Parser;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Operand Ordering Tests")
+class OperandOrderingTest {
+
+    private final CostModel costModel = new CostModel(
+        name -> name.equals("audit") ? FunctionMetadata.impure(1) : FunctionMetadata.DEFAULT);
+
+    @Test
+    @DisplayName("Orders match comparing every pair of operands")
+    void testSameOrderAsPairwiseConstraints() {
+        Parser parser = new Parser();
+        Random random = new Random(42);
+        for (int chain = 0; chain < 500; chain++) {
+            List<Expression> operands = new ArrayList<>();
+            int size = 1 + random.nextInt(12);
+            for (int i = 0; i < size; i++) {
+                String variables = "$v" + random.nextInt(6) + (random.nextBoolean() ? " + $v" + random.nextInt(6) : "");
+                operands.add(parser.parse(random.nextInt(8) == 0 ? "audit(" + variables + ")" : variables + " > 1"));
+            }
+            double[] scores = new double[size];
+            for (int i = 0; i < size; i++) {
+                scores[i] = random.nextInt(4);
+            }
+
+            OperandOrdering ordering = new OperandOrdering(operands, costModel);
+            boolean[][] mustPrecede = pairwiseConstraints(operands);
+            assertArrayEquals(pairwiseSchedule(mustPrecede, scores), ordering.schedule(scores));
+            assertEquals(pairwiseFreedom(mustPrecede), ordering.hasFreedom());
+        }
+    }
+
+    @Test
+    @DisplayName("Chains of thousands of operands are ordered quickly")
+    void testLongChains() {
+        Parser parser = new Parser();
+        List<Expression> operands = new ArrayList<>();
+        double[] scores = new double[20_000];
+        for (int i = 0; i < scores.length; i++) {
+            operands.add(parser.parse(i % 100 == 99 ? "audit($v" + i + ")" : "$v" + (i % 50) + " > " + i));
+            scores[i] = scores.length - i;
+        }
+        assertTimeout(Duration.ofSeconds(5), () -> {
+            OperandOrdering ordering = new OperandOrdering(operands, costModel);
+            assertTrue(ordering.hasFreedom());
+            assertEquals(scores.length, ordering.schedule(scores).length);
+        });
+    }
+
+    /**
+     * The constraints as defined: an operand precedes a later one unless both are pure and they
+     * reference disjoint variables
+     */
+    private boolean[][] pairwiseConstraints(List<Expression> operands) {
+        int size = operands.size();
+        boolean[][] mustPrecede = new boolean[size][size];
+        for (int i = 0; i < size; i++) {
+            Set<String> variables = LogicalChains.referencedVariables(operands.get(i));
+            for (int j = i + 1; j < size; j++) {
+                mustPrecede[i][j] = !costModel.isPure(operands.get(i)) || !costModel.isPure(operands.get(j))
+                    || !Collections.disjoint(variables, LogicalChains.referencedVariables(operands.get(j)));
+            }
+        }
+        return mustPrecede;
+    }
+
+    private static int[] pairwiseSchedule(boolean[][] mustPrecede, double[] scores) {
+        int size = scores.length;
+        int[] order = new int[size];
+        boolean[] scheduled = new boolean[size];
+        for (int position = 0; position < size; position++) {
+            int best = -1;
+            for (int candidate = 0; candidate < size; candidate++) {
+                boolean ready = !scheduled[candidate];
+                for (int i = 0; i < candidate && ready; i++) {
+                    ready = !mustPrecede[i][candidate] || scheduled[i];
+                }
+                if (ready && (best < 0 || scores[candidate] < scores[best])) {
+                    best = candidate;
+                }
+            }
+            scheduled[best] = true;
+            order[position] = best;
+        }
+        return order;
+    }
+
+    /**
+     * Checks whether two operands are not ordered by the constraints, even transitively
+     */
+    private static boolean pairwiseFreedom(boolean[][] mustPrecede) {
+        int size = mustPrecede.length;
+        boolean[][] ordered = new boolean[size][];
+        for (int i = 0; i < size; i++) {
+            ordered[i] = mustPrecede[i].clone();
+        }
+        for (int k = 0; k < size; k++) {
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    ordered[i][j] |= ordered[i][k] && ordered[k][j];
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (!ordered[i][j]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,124 @@
+package com.expresso.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import com.expresso.codec.ExpressionCodec;
+import com.expresso.context.Context;
+import com.expresso.exception.ArithmeticExpressionException;
+import com.expresso.exception.InvalidOperationException;
+import com.expresso.exception.TypeCheckException;
+import com.expresso.validation.ContextSchema;
+import com.expresso.validation.ValidationResult;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Type Specialization Tests")
+class TypeSpecializationTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    private final ContextSchema schema = new ContextSchema()
+        .with("amount", double.class)
+        .with("count", Integer.class)
+        .with("name", String.class)
+        .with("due", LocalDate.class)
+        .with("flag", Boolean.class)
+        .with("payload", Map.class);
+
+    @Test
+    @DisplayName("Operators with known operand types are specialised")
+    void testSpecialisedOperators() {
+        assertSpecialised("$amount * $count");
+        assertSpecialised("$amount > 100");
+        assertSpecialised("$name + $payload.suffix");
+        assertSpecialised("$name < 'm'");
+        assertSpecialised("$due <= $due");
+
+        Expression unknown = evaluator.compile("$payload.total > 100", schema);
+        assertSame(BinaryExpression.class, unknown.getClass());
+
+        TypeSpecializer specializer = new TypeSpecializer(schema);
+        Expression tree = specializer.specialize(evaluator.parse("$flag ? $amount - 1 : $count"));
+        assertEquals(Number.class, specializer.getType(tree));
+    }
+
+    @Test
+    @DisplayName("Specialised operators evaluate like generic ones")
+    void testSameResults() {
+        List<String> expressions = List.of(
+            "$amount * $count + 1", "$amount / $count", "$amount % $count", "$amount == $count",
+            "$amount != 2.5", "$amount >= $count", "$name + $amount", "$name + $payload.suffix",
+            "$name > 'bob'", "$name == 'alice'", "$due < $due", "$due == $due", "-$amount < 0");
+        List<Context> contexts = List.of(
+            new Context().with("amount", 2.5).with("count", 2).with("name", "alice")
+                .with("due", LocalDate.of(2024, 1, 1)).with("payload", Map.of("suffix", "!")),
+            // Values that do not match the declared types fall back to the generic operators
+            new Context().with("amount", 7L).with("count", 2.0).with("name", 42)
+                .with("due", "2024-01-01").with("payload", Map.of("suffix", 3)),
+            new Context().with("amount", null).with("count", 0).with("name", null)
+                .with("due", null).with("payload", Map.of()));
+        ExpressionEvaluator generic = new ExpressionEvaluator();
+        for (String text : expressions) {
+            Expression specialised = evaluator.compile(text, schema);
+            Expression original = generic.parse(text);
+            for (Context context : contexts) {
+                assertEquals(outcome(original, context), outcome(specialised, context), text);
+            }
+        }
+
+        Context zero = new Context().with("amount", 1.0).with("count", 0);
+        assertThrows(ArithmeticExpressionException.class, () -> evaluator.compile("$amount / $count", schema).evaluate(zero));
+    }
+
+    @Test
+    @DisplayName("Type errors are reported at compile time")
+    void testTypeErrors() {
+        TypeCheckException exception = assertThrows(TypeCheckException.class,
+            () -> evaluator.compile("$amount - $name > 0 || $due > 5 || $flag + 1 == 2", schema));
+        assertEquals(Arrays.asList(
+            "Operator '-' cannot be applied to Number and String",
+            "Cannot compare LocalDate and Number with '>'",
+            "Operator '+' cannot be applied to Boolean and Number"), exception.getErrors());
+
+        // Equality between different types is false, not an error
+        assertEquals(false, evaluator.compile("$name == 1", schema).evaluate(new Context().with("name", "a")));
+
+        ValidationResult result = evaluator.validateWithSchema("-$name", schema);
+        assertEquals("TypeError", result.getFirstError().getErrorType());
+        assertEquals("Cannot negate String", result.getFirstError().getMessage());
+    }
+
+    @Test
+    @DisplayName("Specialisation survives later rewrites and encodes as a generic node")
+    void testRewrites() throws Exception {
+        evaluator.setInterner(new ExpressionInterner());
+        evaluator.setAdaptiveReorderingEnabled(true);
+        evaluator.setProfilingEnabled(true);
+        Expression compiled = evaluator.compile("$amount > 1 && $count < 5", schema);
+        assertEquals(true, compiled.evaluate(new Context().with("amount", 2.0).with("count", 1)));
+
+        Expression decoded = ExpressionCodec.decode(ExpressionCodec.encode(new ExpressionEvaluator().compile("$amount + 1", schema)));
+        assertSame(BinaryExpression.class, decoded.getClass());
+        assertEquals(3.0, decoded.evaluate(new Context().with("amount", 2)));
+    }
+
+    private void assertSpecialised(String expression) {
+        Expression compiled = evaluator.compile(expression, schema);
+        assertInstanceOf(SpecializedBinaryExpression.class, compiled, expression);
+    }
+
+    private static Object outcome(Expression expression, Context context) {
+        try {
+            return expression.evaluate(context);
+        } catch (InvalidOperationException e) {
+            return e.getClass();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.expresso.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.context.Context;
+import com.expresso.exception.SyntaxException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Lexer Tests")
+class LexerTest {
+
+    private static int[] types(String input) {
+        Tokens tokens = Lexer.tokenize(input);
+        int[] types = new int[tokens.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = tokens.type(i);
+        }
+        return types;
+    }
+
+    @Test
+    @DisplayName("Operators are split into single tokens")
+    void testOperators() {
+        assertArrayEquals(new int[] {
+            Lexer.VARIABLE, Lexer.GREATER_EQUAL, Lexer.NUMBER, Lexer.AND, Lexer.NOT, Lexer.VARIABLE,
+            Lexer.OR, Lexer.DECIMAL, Lexer.NOT_EQUALS, Lexer.STRING, Lexer.EOF
+        }, types("$a >= 1 && !$b || 2.5 != 'x'"));
+    }
+
+    @Test
+    @DisplayName("Property names after a dot may start with a digit")
+    void testPropertyPath() {
+        assertArrayEquals(new int[] {
+            Lexer.VARIABLE, Lexer.DOT, Lexer.PROPERTY, Lexer.SAFE_DOT, Lexer.PROPERTY, Lexer.SAFE_BRACKET,
+            Lexer.NUMBER, Lexer.RIGHT_BRACKET, Lexer.DOT, Lexer.PROPERTY, Lexer.COALESCE, Lexer.NUMBER, Lexer.EOF
+        }, types("$a.0?.b?[1].c ?? 2"));
+    }
+
+    @Test
+    @DisplayName("Tokens record offsets into the input")
+    void testOffsets() {
+        Tokens tokens = Lexer.tokenize("upperCase( 'ab' )");
+        assertEquals(Lexer.IDENTIFIER, tokens.type(0));
+        assertEquals(0, tokens.start(0));
+        assertEquals(9, tokens.end(0));
+        assertEquals(Lexer.STRING, tokens.type(2));
+        assertEquals(11, tokens.start(2));
+        assertEquals(15, tokens.end(2));
+    }
+
+    @Test
+    @DisplayName("Escaped string literals are marked")
+    void testEscapedString() {
+        assertEquals(Lexer.ESCAPED_STRING, types("'a\\nb'")[0]);
+        assertEquals("a\nb\\c'd", new Parser().parse("'a\\nb\\\\c\\'d'").evaluate(new Context()));
+    }
+
+    @Test
+    @DisplayName("Lexical errors are syntax errors")
+    void testLexicalErrors() {
+        SyntaxException unterminated = assertThrows(SyntaxException.class, () -> Lexer.tokenize("'abc"));
+        assertEquals(4, unterminated.getPosition());
+        SyntaxException number = assertThrows(SyntaxException.class, () -> Lexer.tokenize("1.2.3"));
+        assertEquals(3, number.getPosition());
+    }
+
+    @Test
+    @DisplayName("Property path continues after direct array access")
+    void testPathAfterArrayAccess() {
+        Context context = new Context().with("items", List.of(Map.of("name", "first")));
+        assertEquals("first", new ExpressionEvaluator().evaluate("$items[0].name", context));
+    }
+}
@@ -0,0 +1,71 @@
+package com.expresso.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.BinaryExpression;
+import com.expresso.ast.Expression;
+import com.expresso.ast.LogicalExpression;
+import com.expresso.context.Context;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Parser Tests")
+class ParserTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    @Test
+    @DisplayName("Chains of the same logical operator become one node")
+    void testLogicalChains() {
+        Expression parsed = new Parser().parse("$a || $b && $c || ($d || $e)");
+        LogicalExpression or = assertInstanceOf(LogicalExpression.class, parsed);
+        assertEquals(BinaryExpression.Operator.OR, or.getOperator());
+        assertEquals(4, or.getOperands().size());
+        LogicalExpression and = assertInstanceOf(LogicalExpression.class, or.getOperands().get(1));
+        assertEquals(BinaryExpression.Operator.AND, and.getOperator());
+    }
+
+    @Test
+    @DisplayName("Operator precedence and associativity")
+    void testPrecedence() {
+        Context context = new Context();
+        assertEquals(7.0, evaluator.evaluate("1 + 2 * 3", context));
+        assertEquals(-1.0, evaluator.evaluate("1 - 3 + 1", context));
+        assertEquals(1.0, evaluator.evaluate("8 / 4 / 2", context));
+        assertEquals(true, evaluator.evaluate("!false && 1 + 1 == 2", context));
+        assertEquals(-6.0, evaluator.evaluate("-2 * 3", context));
+        assertEquals(5.0, evaluator.evaluate("$missing ?? 2 + 3", new Context().with("missing", null)));
+    }
+
+    @Test
+    @DisplayName("Conditionals nest to the right")
+    void testNestedConditional() {
+        String expression = "$age < 13 ? 'Child' : $age < 20 ? 'Teenager' : 'Adult'";
+        assertEquals("Child", evaluator.evaluate(expression, new Context().with("age", 8)));
+        assertEquals("Teenager", evaluator.evaluate(expression, new Context().with("age", 15)));
+        assertEquals("Adult", evaluator.evaluate(expression, new Context().with("age", 40)));
+    }
+
+    @Test
+    @DisplayName("Very long and deeply nested expressions do not overflow the stack")
+    void testLargeExpressions() {
+        int size = 50_000;
+        StringBuilder chain = new StringBuilder("$x == 0");
+        for (int i = 1; i < size; i++) {
+            chain.append(" || $x == ").append(i);
+        }
+        Context context = new Context().with("x", size - 1);
+        assertEquals(true, evaluator.evaluate(chain.toString(), context));
+
+        String nested = "(".repeat(size) + "$x" + ")".repeat(size);
+        assertEquals(size - 1, evaluator.evaluate(nested, context));
+
+        StringBuilder nestedChain = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            nestedChain.append("($x == ").append(i).append(" && ");
+        }
+        nestedChain.append("true").append(")".repeat(size));
+        assertEquals(false, evaluator.evaluate(nestedChain.toString(), context));
+    }
+}
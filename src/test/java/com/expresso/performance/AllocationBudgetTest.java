@@ -0,0 +1,125 @@
+package com.expresso.performance;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.batch.RowBatch;
+import com.expresso.batch.RowExpression;
+import com.expresso.batch.RowLayout;
+import com.expresso.context.Context;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Allocation budgets for the evaluation hot paths. Each test evaluates a pre-parsed expression in a
+ * prepared context and fails if a call allocates more bytes on average than its budget. Budgets
+ * leave some headroom over the measured values; when an optimization lowers a measurement, lower
+ * the budget with it.
+ */
+@DisplayName("Allocation Budgets")
+class AllocationBudgetTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private final AllocationMeter meter = new AllocationMeter();
+
+    @BeforeEach
+    void requireAllocationMeasurement() {
+        assumeTrue(meter.isSupported(), "Per-thread allocation measurement is not supported by this JVM");
+    }
+
+    /**
+     * Asserts that evaluating an expression allocates at most {@code budget} bytes per call. The
+     * measured values depend a little on which other tests ran first in the same JVM, so budgets
+     * carry about 64 bytes of slack.
+     */
+    private void assertBudget(String expression, Context context, long budget) {
+        Expression parsed = evaluator.parse(expression);
+        evaluator.evaluate(parsed, context);
+        long bytes = meter.bytesPerCall(() -> evaluator.evaluate(parsed, context));
+        assertTrue(bytes <= budget,
+            "'" + expression + "' allocates " + bytes + " bytes per evaluation, budget is " + budget);
+    }
+
+    @Test
+    @DisplayName("Literal arithmetic")
+    void testLiteralArithmetic() {
+        // Two boxed doubles
+        assertBudget("1 + 2 * 3", new Context(), 160);
+    }
+
+    @Test
+    @DisplayName("Property path on maps")
+    void testMapPropertyPath() {
+        Context context = new Context().with("a", Map.of("b", Map.of("c", 42)));
+        assertBudget("$a.b.c", context, 352);
+    }
+
+    @Test
+    @DisplayName("Property path on objects")
+    void testObjectPropertyPath() {
+        Context context = new Context().with("a", new Holder(new Holder("value")));
+        assertBudget("$a.value.value", context, 416);
+    }
+
+    @Test
+    @DisplayName("Built-in function call")
+    void testFunctionCall() {
+        Context context = new Context().with("x", "hello");
+        assertBudget("upperCase($x)", context, 232);
+    }
+
+    @Test
+    @DisplayName("Ternary")
+    void testTernary() {
+        Context context = new Context().with("age", 30);
+        assertBudget("$age >= 18 ? 'adult' : 'minor'", context, 128);
+    }
+
+    @Test
+    @DisplayName("Missing values on null-safe paths")
+    void testMissingValues() {
+        // Missing values resolve to null without creating exceptions
+        Context context = new Context().with("a", new Holder(null));
+        assertBudget("$a?.missing ?? 'none'", context, 184);
+        assertBudget("$missing ?? 'none'", context, 120);
+        assertBudget("isNull($a.missing)", context, 184);
+    }
+
+    @Test
+    @DisplayName("Filtering an off-heap row batch")
+    void testRowBatchFilter() {
+        RowLayout layout = new RowLayout()
+            .with("amount", RowLayout.FieldType.DOUBLE)
+            .with("quantity", RowLayout.FieldType.INT)
+            .withString("country", 8);
+        RowBatch batch = RowBatch.allocate(layout, 64);
+        for (int i = 0; i < batch.capacity(); i++) {
+            int row = batch.addRow();
+            batch.setDouble(row, "amount", i * 10.0)
+                .setInt(row, "quantity", i % 5)
+                .setString(row, "country", i % 3 == 0 ? "FR" : "DE");
+        }
+        RowExpression filter = evaluator.compile(
+            "$country in ('FR', 'BE') && $amount * $quantity > 100 || $quantity == 4", layout);
+        int[] selection = new int[batch.size()];
+        // Fields are read at their offsets and never boxed: the whole batch allocates nothing
+        long bytes = meter.bytesPerCall(() -> filter.filter(batch, selection));
+        assertTrue(bytes <= 16, "Filtering a batch allocates " + bytes + " bytes, budget is 16");
+    }
+
+    public static class Holder {
+        private final Object value;
+
+        public Holder(Object value) {
+            this.value = value;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+}
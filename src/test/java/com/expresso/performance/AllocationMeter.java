@@ -0,0 +1,64 @@
+package com.expresso.performance;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the bytes allocated by the current thread while running a piece of code, using
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ */
+final class AllocationMeter {
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 10_000;
+    private static final int MEASURED_ROUNDS = 3;
+
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    AllocationMeter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            this.threadBean = sunBean;
+        } else {
+            this.threadBean = null;
+        }
+    }
+
+    /**
+     * Checks whether this JVM can report per-thread allocation
+     *
+     * @return true if measurements are available
+     */
+    boolean isSupported() {
+        return threadBean != null;
+    }
+
+    /**
+     * Runs the action often enough for the JIT to compile it, then reports the average number of
+     * bytes it allocates per call
+     *
+     * @param action The code to measure
+     * @return The average allocated bytes per call
+     */
+    long bytesPerCall(Runnable action) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            action.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        // Subtract the cost of the measurement itself
+        long baseline = threadBean.getThreadAllocatedBytes(threadId);
+        long overhead = threadBean.getThreadAllocatedBytes(threadId) - baseline;
+
+        // Keep the best of a few rounds to filter out one-off allocations such as JIT deoptimization
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = threadBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                action.run();
+            }
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+            best = Math.min(best, Math.max(0, allocated / MEASURED_ITERATIONS));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,75 @@
+package com.expresso.profiling;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import com.expresso.exception.EvaluationException;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Expression Profiler")
+class ExpressionProfilerTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    @Test
+    @DisplayName("Records invocations for every node")
+    void testInvocationCounts() {
+        Expression profiled = ExpressionProfiler.instrument(evaluator.parse("upperCase($user.name) == 'ALICE' || $vip"));
+        Context context = new Context().with("user", Map.of("name", "alice")).with("vip", false);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(true, evaluator.evaluate(profiled, context));
+        }
+
+        ProfileNode root = ExpressionProfiler.snapshot(profiled);
+        assertEquals("OR", root.label());
+        assertEquals(3, root.invocations());
+        ProfileNode equals = root.children().get(0);
+        assertEquals("EQUALS", equals.label());
+        assertEquals("upperCase()", equals.children().get(0).label());
+        assertEquals("$user.name", equals.children().get(0).children().get(0).label());
+        assertEquals(3, equals.children().get(0).children().get(0).invocations());
+        // The right operand of OR was short-circuited every time
+        assertEquals(0, root.children().get(1).invocations());
+        assertTrue(root.totalNanos() >= root.selfNanos());
+    }
+
+    @Test
+    @DisplayName("Counts exceptions and produces reports")
+    void testReports() {
+        Expression profiled = ExpressionProfiler.instrument(evaluator.parse("10 / $x"));
+        assertThrows(EvaluationException.class, () -> evaluator.evaluate(profiled, new Context().with("x", 0)));
+        assertEquals(5.0, evaluator.evaluate(profiled, new Context().with("x", 2)));
+
+        ProfileNode root = ExpressionProfiler.snapshot(profiled);
+        assertEquals(2, root.invocations());
+        assertEquals(1, root.exceptions());
+
+        String tree = root.toTreeString();
+        assertTrue(tree.startsWith("DIVIDE [calls=2"));
+        assertTrue(tree.contains("\n  $x [calls=2"));
+
+        String[] stacks = root.toCollapsedStacks().split("\n");
+        assertEquals(3, stacks.length);
+        assertTrue(stacks[0].matches("DIVIDE \\d+"));
+        assertTrue(stacks[2].matches("DIVIDE;\\$x \\d+"));
+
+        ExpressionProfiler.reset(profiled);
+        assertEquals(0, ExpressionProfiler.snapshot(profiled).invocations());
+    }
+
+    @Test
+    @DisplayName("Evaluator option instruments parsed expressions")
+    void testEvaluatorOption() {
+        assertThrows(IllegalArgumentException.class, () -> ExpressionProfiler.snapshot(evaluator.parse("1 + 2")));
+
+        evaluator.setProfilingEnabled(true);
+        Expression profiled = evaluator.parse("1 + 2");
+        assertEquals(3.0, evaluator.evaluate(profiled, new Context()));
+        assertEquals(1, ExpressionProfiler.snapshot(profiled).invocations());
+    }
+}
@@ -0,0 +1,122 @@
+package com.expresso.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.expresso.ExpressionEvaluator;
+import com.expresso.ast.Expression;
+import com.expresso.context.Context;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Rule Store")
+class RuleStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    private Path writeStore(int count) throws IOException {
+        Map<String, Expression> rules = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            rules.put("tenant-" + i + "/rule", evaluator.parse("$amount > " + i + " && $country in ('FR', 'DE')"));
+        }
+        rules.put("ünïcode", evaluator.parse("upperCase($name)"));
+        Path file = directory.resolve("rules.bin");
+        RuleStore.write(file, rules);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Rules are found by id and decoded on first use")
+    void testLazyLoading() throws IOException {
+        try (RuleStore store = RuleStore.open(writeStore(1000))) {
+            assertEquals(1001, store.size());
+            assertEquals(0, store.loadedCount());
+            assertTrue(store.contains("tenant-999/rule"));
+            assertFalse(store.contains("tenant-1000/rule"));
+            assertNull(store.get("missing"));
+            assertEquals(0, store.loadedCount());
+
+            Context context = new Context().with("amount", 500).with("country", "DE").with("name", "x");
+            Expression rule = store.get("tenant-499/rule");
+            assertEquals(true, evaluator.evaluate(rule, context));
+            assertEquals(false, evaluator.evaluate(store.get("tenant-500/rule"), context));
+            assertEquals("X", evaluator.evaluate(store.get("ünïcode"), context));
+            assertSame(rule, store.get("tenant-499/rule"));
+            assertEquals(3, store.loadedCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Rules stay usable after the store is closed")
+    void testClose() throws IOException {
+        RuleStore store = RuleStore.open(writeStore(10));
+        Expression rule = store.get("tenant-3/rule");
+        store.close();
+        assertEquals(true, evaluator.evaluate(rule, new Context().with("amount", 4).with("country", "FR")));
+    }
+
+    @Test
+    @DisplayName("Open stores keep their rules when the file is replaced")
+    void testReplaceOpenStore() throws IOException {
+        Path file = writeStore(10);
+        try (RuleStore store = RuleStore.open(file)) {
+            RuleStore.write(file, Map.of("other", evaluator.parse("1 + 1")));
+            assertEquals(11, store.size());
+            assertEquals("X", evaluator.evaluate(store.get("ünïcode"), new Context().with("name", "x")));
+            try (RuleStore replaced = RuleStore.open(file)) {
+                assertEquals(1, replaced.size());
+                assertEquals(2L, ((Number) evaluator.evaluate(replaced.get("other"), new Context())).longValue());
+            }
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("An empty store can be written and opened")
+    void testEmptyStore() throws IOException {
+        Path file = directory.resolve("empty.bin");
+        RuleStore.write(file, Map.of());
+        try (RuleStore store = RuleStore.open(file)) {
+            assertEquals(0, store.size());
+            assertNull(store.get("any"));
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid files are rejected")
+    void testValidation() throws IOException {
+        Path notAStore = Files.write(directory.resolve("text.bin"), "$a + 1 and some more text".getBytes());
+        assertThrows(StreamCorruptedException.class, () -> RuleStore.open(notAStore));
+
+        Path file = writeStore(5);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[7] = 2;
+        Path newer = Files.write(directory.resolve("newer.bin"), bytes);
+        assertThrows(StreamCorruptedException.class, () -> RuleStore.open(newer));
+
+        byte[] truncated = java.util.Arrays.copyOf(Files.readAllBytes(file), bytes.length - 1);
+        Path cut = Files.write(directory.resolve("cut.bin"), truncated);
+        assertThrows(StreamCorruptedException.class, () -> RuleStore.open(cut));
+
+        // Corrupt the body of the first rule, right after the header and the id "tenant-0/rule"
+        byte[] corrupt = Files.readAllBytes(file);
+        corrupt[16 + "tenant-0/rule".length()] = 0;
+        Path damaged = Files.write(directory.resolve("damaged.bin"), corrupt);
+        try (RuleStore store = RuleStore.open(damaged)) {
+            assertThrows(UncheckedIOException.class, () -> store.get("tenant-0/rule"));
+            assertNotNull(store.get("tenant-1/rule"));
+        }
+    }
+}